@@ -0,0 +1,25 @@
+package com.i0.agents.application.dto.input;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 会话历史消息游标分页查询输入DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageHistoryInput {
+
+    private String sessionId;
+
+    /**
+     * 上一页返回的游标，为空时从最新消息开始
+     */
+    private String cursor;
+
+    private Integer limit;
+}
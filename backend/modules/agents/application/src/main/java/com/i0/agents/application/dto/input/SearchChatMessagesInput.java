@@ -0,0 +1,27 @@
+package com.i0.agents.application.dto.input;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 跨会话消息检索输入DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchChatMessagesInput {
+
+    private String userId;
+
+    private String keyword;
+
+    /**
+     * 页码，从0开始
+     */
+    private Integer page;
+
+    private Integer size;
+}
@@ -33,6 +33,7 @@ public class StreamChatInput {
 
     /**
      * 流式发送速度（毫秒/字符）
+     * 已不再使用：AI回复按服务端生成的增量实时推送，保留字段以兼容现有客户端
      */
     @Builder.Default
     private int typingSpeed = 100;
@@ -0,0 +1,30 @@
+package com.i0.agents.application.dto.output;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 会话历史消息游标分页输出DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageHistoryOutput {
+
+    /**
+     * 本页消息，按时间顺序排列
+     */
+    private List<ChatMessageOutput> messages;
+
+    /**
+     * 读取更早消息的游标，没有更早的消息时为null
+     */
+    private String nextCursor;
+
+    private boolean hasMore;
+}
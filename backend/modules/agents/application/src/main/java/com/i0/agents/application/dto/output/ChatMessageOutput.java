@@ -1,12 +1,18 @@
 package com.i0.agents.application.dto.output;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.i0.agents.domain.entities.ChatMessage;
 import com.i0.agents.domain.enums.MessageRole;
 import com.i0.agents.domain.valueobjects.UIComponentReference;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,6 +20,7 @@ import java.util.Map;
 
 /**
  * 聊天消息输出DTO
+ * 未显式设置函数调用和UI组件时，从来源消息中读取，消息的JSON列在序列化到这两个字段时才解析
  */
 @Data
 @Builder
@@ -31,10 +38,16 @@ public class ChatMessageOutput {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime timestamp;
 
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ChatMessage source;
+
     /**
      * 从Domain实体转换为输出DTO
      */
-    public static ChatMessageOutput from(com.i0.agents.domain.entities.ChatMessage chatMessage) {
+    public static ChatMessageOutput from(ChatMessage chatMessage) {
         if (chatMessage == null) {
             return null;
         }
@@ -44,14 +57,32 @@ public class ChatMessageOutput {
                 .sessionId(chatMessage.getSessionId())
                 .role(chatMessage.getRole())
                 .content(chatMessage.getContent() != null ? chatMessage.getContent().getContent() : null)
-                .functionCall(chatMessage.getFunctionCall() != null ?
-                        createFunctionCallMap(chatMessage.getFunctionCall()) : null)
-                .uiComponents(chatMessage.hasUIComponents() ? chatMessage.getUiComponents() : null)
                 .parentMessageId(chatMessage.getParentMessageId())
                 .timestamp(chatMessage.getTimestamp())
+                .source(chatMessage)
                 .build();
     }
 
+    /**
+     * 函数调用，未显式设置时从来源消息读取
+     */
+    public Map<String, Object> getFunctionCall() {
+        if (functionCall == null && source != null && source.getFunctionCall() != null) {
+            return createFunctionCallMap(source.getFunctionCall());
+        }
+        return functionCall;
+    }
+
+    /**
+     * UI组件列表，未显式设置时从来源消息读取，没有UI组件时为null
+     */
+    public List<UIComponentReference> getUiComponents() {
+        if (uiComponents == null && source != null && source.hasUIComponents()) {
+            return source.getUiComponents();
+        }
+        return uiComponents;
+    }
+
     /**
      * 创建函数调用Map，支持null值
      */
@@ -0,0 +1,57 @@
+package com.i0.agents.application.dto.output;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 跨会话消息检索输出DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageSearchOutput {
+
+    /**
+     * 本页命中的消息，按相关度从高到低排列
+     */
+    private List<Result> results;
+
+    private int page;
+
+    private int size;
+
+    private boolean hasMore;
+
+    /**
+     * 命中的消息
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+
+        private String messageId;
+
+        private String sessionId;
+
+        private String sessionTitle;
+
+        private String role;
+
+        /**
+         * 命中位置附近的内容片段，已做HTML转义，命中的关键词用 &lt;em&gt; 标记
+         */
+        private String snippet;
+
+        private double score;
+
+        private LocalDateTime timestamp;
+    }
+}
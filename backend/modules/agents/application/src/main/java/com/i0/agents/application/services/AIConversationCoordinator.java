@@ -9,6 +9,7 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * AI对话服务协调器
@@ -33,7 +34,19 @@ public class AIConversationCoordinator {
      * @return AI对话结果
      */
     public CompletableFuture<ConversationResult> chat(String sessionId, List<ChatMessage> messages) {
-        return chat(sessionId, messages, null);
+        return chat(sessionId, messages, AIProviderRouter.NO_DEADLINE);
+    }
+
+    /**
+     * 进行AI对话，AI请求在截止时间前未完成时以超时结果完成并取消请求
+     *
+     * @param sessionId     会话ID
+     * @param messages      消息历史
+     * @param deadlineNanos 截止时间，见 {@link AIProviderRouter#deadlineAfter}
+     * @return AI对话结果
+     */
+    public CompletableFuture<ConversationResult> chat(String sessionId, List<ChatMessage> messages, long deadlineNanos) {
+        return chat(sessionId, messages, null, null, deadlineNanos);
     }
 
     /**
@@ -46,15 +59,47 @@ public class AIConversationCoordinator {
      * @return AI对话结果
      */
     public CompletableFuture<ConversationResult> chat(String sessionId, List<ChatMessage> messages, SseEmitter emitter) {
+        return chat(sessionId, messages, emitter, null);
+    }
+
+    /**
+     * 进行AI对话（流式输出文本增量）
+     * 直接使用配置中指定的活跃提供商
+     *
+     * @param sessionId 会话ID
+     * @param messages  消息历史
+     * @param emitter   SSE发射器，用于推送UI组件事件（可为null）
+     * @param onDelta   文本增量回调，为null时等待完整响应
+     * @return AI对话结果，response 为完整文本
+     */
+    public CompletableFuture<ConversationResult> chat(String sessionId, List<ChatMessage> messages, SseEmitter emitter,
+                                                      Consumer<String> onDelta) {
+        return chat(sessionId, messages, emitter, onDelta, AIProviderRouter.NO_DEADLINE);
+    }
+
+    /**
+     * 进行AI对话（流式输出文本增量，限定截止时间）
+     * AI请求在截止时间前未完成时以超时结果完成，并取消仍在进行的请求
+     *
+     * @param sessionId     会话ID
+     * @param messages      消息历史
+     * @param emitter       SSE发射器，用于推送UI组件事件（可为null）
+     * @param onDelta       文本增量回调，为null时等待完整响应
+     * @param deadlineNanos 截止时间，见 {@link AIProviderRouter#deadlineAfter}
+     * @return AI对话结果，response 为完整文本
+     */
+    public CompletableFuture<ConversationResult> chat(String sessionId, List<ChatMessage> messages, SseEmitter emitter,
+                                                      Consumer<String> onDelta, long deadlineNanos) {
         try {
             log.debug("Processing AI conversation for session: {}", sessionId);
 
             ProcessAIConversationUseCase.ProcessAIConversationInput input = ProcessAIConversationUseCase.ProcessAIConversationInput.builder()
                 .sessionId(sessionId)
                 .messages(messages)
+                .deadlineNanos(deadlineNanos)
                 .build();
 
-            return processAIConversationUseCase.executeAsync(input, emitter);
+            return processAIConversationUseCase.executeAsync(input, emitter, onDelta);
 
         } catch (Exception e) {
             log.error("Error in AI conversation coordinator for session: {}", sessionId, e);
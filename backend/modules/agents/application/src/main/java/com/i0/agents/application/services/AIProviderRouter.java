@@ -0,0 +1,632 @@
+package com.i0.agents.application.services;
+
+import com.i0.agents.application.services.AIRequestService.AIResponseResult;
+import com.i0.agents.domain.services.AIConfigurationService;
+import com.i0.agents.domain.valueobjects.AIProviderEndpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * AI服务提供商路由
+ * 候选提供商为当前活跃厂商和配置的备用厂商，熔断打开的提供商不参与本次请求，其余按平均响应耗时加上近期失败率折算的代价
+ * 从低到高排列（尚无耗时样本的提供商耗时按0计，先获得样本）；按 exploration-rate 的概率把随机一个提供商提到最前，
+ * 使排在后面的提供商也能持续获得新样本。请求失败时先依次故障转移到其他提供商，所有候选都试过后
+ * 按带随机抖动的指数退避重试，总尝试次数受 retry-enabled / max-retries 限制。
+ * 启用对冲请求时，首个请求超过该提供商近期响应耗时的P95仍未返回，再向下一个提供商发送同样的请求，先返回的结果生效。
+ * 调用方给出截止时间时，到期后以超时结果完成并取消仍在进行的尝试，剩余时间不足退避时不再重试。
+ * 每个提供商连续失败达到阈值后熔断，熔断期过后放行一个探测请求，成功则恢复
+ */
+@Slf4j
+@Component
+public class AIProviderRouter {
+
+    static final String UNAVAILABLE_MESSAGE = "AI服务暂时不可用，请稍后再试。";
+    static final String TIMEOUT_MESSAGE = "AI服务响应超时，请稍后再试。";
+
+    /**
+     * 不限制截止时间
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final int LATENCY_SAMPLES = 128;
+    private static final double EWMA_WEIGHT = 0.2;
+    /**
+     * 排序时一次失败折算的耗时（毫秒），约为一次请求超时的代价
+     */
+    private static final double FAILURE_PENALTY_MS = 30_000.0;
+
+    private final AIConfigurationService configurationService;
+    private final boolean hedgeEnabled;
+    private final long hedgeMinDelayMs;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final double explorationRate;
+    private final Map<String, ProviderState> states = new ConcurrentHashMap<>();
+    private final AtomicLong failovers = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+    private final AtomicLong explorations = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public AIProviderRouter(AIConfigurationService configurationService,
+                            @Value("${ai.chat.routing.hedge-enabled:false}") boolean hedgeEnabled,
+                            @Value("${ai.chat.routing.hedge-min-delay-ms:2000}") long hedgeMinDelayMs,
+                            @Value("${ai.chat.routing.failure-threshold:5}") int failureThreshold,
+                            @Value("${ai.chat.routing.open-seconds:30}") long openSeconds,
+                            @Value("${ai.chat.routing.backoff-base-ms:200}") long backoffBaseMs,
+                            @Value("${ai.chat.routing.backoff-max-ms:2000}") long backoffMaxMs,
+                            @Value("${ai.chat.routing.exploration-rate:0.05}") double explorationRate) {
+        this.configurationService = configurationService;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelayMs = Math.max(0L, hedgeMinDelayMs);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.SECONDS.toNanos(Math.max(1L, openSeconds));
+        this.backoffBaseMs = Math.max(1L, backoffBaseMs);
+        this.backoffMaxMs = Math.max(this.backoffBaseMs, backoffMaxMs);
+        this.explorationRate = Math.min(1.0, Math.max(0.0, explorationRate));
+    }
+
+    /**
+     * 从现在起经过指定时间的截止时间，以 {@link System#nanoTime()} 为基准
+     */
+    public static long deadlineAfter(long timeout, TimeUnit unit) {
+        return System.nanoTime() + unit.toNanos(timeout);
+    }
+
+    /**
+     * 向提供商发送一次请求
+     */
+    @FunctionalInterface
+    public interface ProviderCall {
+        /**
+         * 开始请求，请求结束时通过 attempt 报告结果，并通过 {@link Attempt#onCancel} 登记取消方式
+         *
+         * @param endpoint 提供商端点
+         * @param attempt  本次尝试
+         */
+        void start(AIProviderEndpoint endpoint, Attempt attempt);
+    }
+
+    /**
+     * 按路由策略发送请求，不限制截止时间
+     *
+     * @see #route(String, ProviderCall, boolean, long)
+     */
+    public CompletableFuture<AIResponseResult> route(String sessionId, ProviderCall call, boolean hedgeAllowed) {
+        return route(sessionId, call, hedgeAllowed, NO_DEADLINE);
+    }
+
+    /**
+     * 按路由策略发送请求
+     * 返回的结果被完成（包括调用方取消）后，仍在进行的尝试随即取消
+     *
+     * @param sessionId     会话ID
+     * @param call          向单个提供商发送请求的方式
+     * @param hedgeAllowed  本次请求是否允许对冲（流式请求已向客户端输出内容，不能对冲）
+     * @param deadlineNanos 截止时间，以 {@link System#nanoTime()} 为基准，{@link #NO_DEADLINE} 表示不限制
+     * @return 最终生效的响应结果，所有尝试都失败时以最后一次的错误结果完成，到达截止时间时以超时结果完成
+     */
+    public CompletableFuture<AIResponseResult> route(String sessionId, ProviderCall call, boolean hedgeAllowed,
+                                                     long deadlineNanos) {
+        CompletableFuture<AIResponseResult> result = new CompletableFuture<>();
+        List<AIProviderEndpoint> candidates = candidates();
+        if (candidates.isEmpty()) {
+            shortCircuited.incrementAndGet();
+            log.warn("No AI provider available for session: {}, all circuits open", sessionId);
+            result.complete(AIResponseResult.error(UNAVAILABLE_MESSAGE));
+            return result;
+        }
+        if (deadlineNanos != NO_DEADLINE && deadlineNanos - System.nanoTime() <= 0) {
+            timeouts.incrementAndGet();
+            result.complete(AIResponseResult.error(TIMEOUT_MESSAGE));
+            return result;
+        }
+        int maxAttempts = configurationService.isRetryEnabled() ? 1 + Math.max(0, configurationService.getMaxRetries()) : 1;
+        RoutedRequest request = new RoutedRequest(sessionId, call, candidates, maxAttempts,
+                hedgeAllowed && hedgeEnabled && candidates.size() > 1, deadlineNanos, result);
+        result.whenComplete((response, error) -> request.cancelInFlight());
+        if (deadlineNanos != NO_DEADLINE) {
+            CompletableFuture.delayedExecutor(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)
+                    .execute(request::expire);
+        }
+        request.launch(false);
+        return result;
+    }
+
+    /**
+     * 本次请求的候选提供商：跳过熔断中的提供商，按耗时和失败率排列，按探索概率把随机一个提供商提到最前
+     */
+    List<AIProviderEndpoint> candidates() {
+        List<AIProviderEndpoint> configured = configurationService.getRoutingProviders();
+        List<AIProviderEndpoint> available = new ArrayList<>(configured.size());
+        for (AIProviderEndpoint endpoint : configured) {
+            if (state(endpoint.getName()).isAvailable()) {
+                available.add(endpoint);
+            }
+        }
+        // 稳定排序，排序值相同或都没有样本时保持配置顺序
+        available.sort(Comparator.comparingDouble(endpoint -> state(endpoint.getName()).rank()));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (available.size() > 1 && random.nextDouble() < explorationRate) {
+            available.add(0, available.remove(1 + random.nextInt(available.size() - 1)));
+            explorations.incrementAndGet();
+        }
+        return available;
+    }
+
+    /**
+     * 参与路由的提供商名称
+     */
+    public List<String> getProviderNames() {
+        return configurationService.getRoutingProviders().stream()
+                .map(AIProviderEndpoint::getName)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 提供商响应耗时的指数加权平均值（毫秒），尚无样本时为0
+     */
+    public double getLatencyAverage(String provider) {
+        return state(provider).latencyAverage();
+    }
+
+    /**
+     * 提供商近期响应耗时的P95（毫秒），尚无样本时为0
+     */
+    public double getLatencyP95(String provider) {
+        return state(provider).latencyPercentile(0.95);
+    }
+
+    /**
+     * 提供商熔断状态：0 关闭，0.5 半开（探测中），1 打开
+     */
+    public double getCircuitState(String provider) {
+        return state(provider).circuitValue();
+    }
+
+    public long getRequests(String provider) {
+        return state(provider).requests.get();
+    }
+
+    public long getFailures(String provider) {
+        return state(provider).failures.get();
+    }
+
+    /**
+     * 转向其他提供商的次数
+     */
+    public long getFailovers() {
+        return failovers.get();
+    }
+
+    /**
+     * 退避后重试同一提供商的次数
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public long getHedges() {
+        return hedges.get();
+    }
+
+    /**
+     * 对冲请求先于原请求返回的次数
+     */
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    /**
+     * 所有提供商都在熔断中而直接失败的请求数
+     */
+    public long getShortCircuited() {
+        return shortCircuited.get();
+    }
+
+    /**
+     * 为获取样本而优先尝试非最优提供商的次数
+     */
+    public long getExplorations() {
+        return explorations.get();
+    }
+
+    /**
+     * 到达调用方截止时间仍未完成的请求数
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    private ProviderState state(String provider) {
+        return states.computeIfAbsent(provider, ProviderState::new);
+    }
+
+    /**
+     * 第 round 轮重试的退避时间：在 [0, min(上限, 基数 × 2^(round-1))] 内随机取值，避免重试同时到达
+     */
+    long backoffMillis(int round) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(20, Math.max(0, round - 1)));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * 一次发往提供商的请求尝试
+     */
+    public static final class Attempt {
+        private final CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+        private final AtomicBoolean responded = new AtomicBoolean();
+        private final long startedAt = System.nanoTime();
+        private volatile long latencyNanos = -1L;
+        private volatile Runnable canceller = () -> { };
+        private volatile boolean cancelled;
+
+        /**
+         * 登记取消方式，对冲请求的另一方先返回、到达截止时间或调用方取消时调用；登记前已取消时立即调用
+         */
+        public void onCancel(Runnable canceller) {
+            this.canceller = canceller;
+            if (cancelled) {
+                runCanceller();
+            }
+        }
+
+        /**
+         * 提供商开始响应（收到响应头或首个数据块），记录响应耗时
+         */
+        public void responded() {
+            if (responded.compareAndSet(false, true)) {
+                latencyNanos = System.nanoTime() - startedAt;
+            }
+        }
+
+        /**
+         * 请求成功完成
+         *
+         * @return 本次尝试是否因此结束，已取消或已报告过结果时返回false
+         */
+        public boolean succeed(AIResponseResult result) {
+            responded();
+            return outcome.complete(new Outcome(result, true, false));
+        }
+
+        /**
+         * 请求失败
+         *
+         * @param error     错误结果
+         * @param retryable 能否重试或转向其他提供商；提供商已响应但请求本身无效，或已向客户端输出内容时不能重试
+         * @return 本次尝试是否因此结束
+         */
+        public boolean fail(AIResponseResult error, boolean retryable) {
+            return outcome.complete(new Outcome(error, false, retryable));
+        }
+
+        boolean isDone() {
+            return outcome.isDone();
+        }
+
+        private void cancel() {
+            if (outcome.complete(new Outcome(AIResponseResult.error(UNAVAILABLE_MESSAGE), false, false))) {
+                cancelled = true;
+                runCanceller();
+            }
+        }
+
+        private void runCanceller() {
+            try {
+                canceller.run();
+            } catch (Exception e) {
+                log.debug("Failed to cancel AI request attempt: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static final class Outcome {
+        private final AIResponseResult result;
+        private final boolean success;
+        private final boolean retryable;
+
+        private Outcome(AIResponseResult result, boolean success, boolean retryable) {
+            this.result = result;
+            this.success = success;
+            this.retryable = retryable;
+        }
+    }
+
+    /**
+     * 一次路由中的所有尝试
+     */
+    private final class RoutedRequest {
+        private final String sessionId;
+        private final ProviderCall call;
+        private final List<AIProviderEndpoint> candidates;
+        private final int maxAttempts;
+        private final boolean hedge;
+        private final long deadlineNanos;
+        private final CompletableFuture<AIResponseResult> result;
+        private final List<Attempt> inFlight = new ArrayList<>();
+        private int cursor;
+        private int launched;
+        private String lastProvider;
+        private AIResponseResult lastError;
+
+        private RoutedRequest(String sessionId, ProviderCall call, List<AIProviderEndpoint> candidates, int maxAttempts,
+                              boolean hedge, long deadlineNanos, CompletableFuture<AIResponseResult> result) {
+            this.sessionId = sessionId;
+            this.call = call;
+            this.candidates = candidates;
+            this.maxAttempts = maxAttempts;
+            this.hedge = hedge;
+            this.deadlineNanos = deadlineNanos;
+            this.result = result;
+        }
+
+        /**
+         * 到达截止时间：以超时结果完成，仍在进行的尝试由结果完成时的回调取消
+         */
+        private void expire() {
+            int attempts;
+            synchronized (this) {
+                attempts = launched;
+            }
+            if (result.complete(AIResponseResult.error(TIMEOUT_MESSAGE))) {
+                timeouts.incrementAndGet();
+                log.warn("AI request for session: {} reached its deadline after {} attempts", sessionId, attempts);
+            }
+        }
+
+        /**
+         * 取消仍在进行的尝试，在结果完成后调用
+         */
+        private void cancelInFlight() {
+            List<Attempt> pending;
+            synchronized (this) {
+                pending = new ArrayList<>(inFlight);
+                inFlight.clear();
+            }
+            pending.forEach(Attempt::cancel);
+        }
+
+        /**
+         * 剩余时间是否不足等待指定的退避时间
+         */
+        private boolean exceedsDeadline(long delayMillis) {
+            return deadlineNanos != NO_DEADLINE
+                    && deadlineNanos - System.nanoTime() <= TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        }
+
+        /**
+         * 向下一个可用的提供商发送请求，熔断中的提供商跳过且不计入尝试次数
+         */
+        private void launch(boolean hedged) {
+            AIProviderEndpoint endpoint = null;
+            Attempt attempt;
+            boolean scheduleHedge;
+            synchronized (this) {
+                if (result.isDone()) {
+                    return;
+                }
+                for (int skipped = 0; skipped < candidates.size() && endpoint == null; skipped++) {
+                    AIProviderEndpoint candidate = candidates.get(cursor++ % candidates.size());
+                    if (state(candidate.getName()).tryAcquire()) {
+                        endpoint = candidate;
+                    }
+                }
+                if (endpoint == null) {
+                    if (inFlight.isEmpty()) {
+                        shortCircuited.incrementAndGet();
+                        result.complete(lastError != null ? lastError : AIResponseResult.error(UNAVAILABLE_MESSAGE));
+                    }
+                    return;
+                }
+                if (lastProvider != null && !hedged) {
+                    (endpoint.getName().equals(lastProvider) ? retries : failovers).incrementAndGet();
+                }
+                launched++;
+                lastProvider = endpoint.getName();
+                attempt = new Attempt();
+                inFlight.add(attempt);
+                scheduleHedge = hedge && !hedged && launched == 1;
+            }
+
+            ProviderState state = state(endpoint.getName());
+            state.requests.incrementAndGet();
+            AIProviderEndpoint target = endpoint;
+            attempt.outcome.thenAccept(outcome -> complete(target, state, attempt, outcome, hedged));
+            if (hedged) {
+                log.debug("Hedging AI request for session: {} to provider: {}", sessionId, target);
+            }
+            try {
+                call.start(target, attempt);
+            } catch (Exception e) {
+                log.error("Failed to start AI request for session: {} to provider: {}", sessionId, target, e);
+                attempt.fail(AIResponseResult.error("请求创建失败，请稍后再试。"), true);
+            }
+
+            if (scheduleHedge) {
+                long delay = Math.max(hedgeMinDelayMs, (long) state.latencyPercentile(0.95));
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+                    if (!result.isDone() && !attempt.isDone()) {
+                        hedges.incrementAndGet();
+                        launch(true);
+                    }
+                });
+            }
+        }
+
+        private void complete(AIProviderEndpoint endpoint, ProviderState state, Attempt attempt, Outcome outcome,
+                              boolean hedged) {
+            if (outcome.success) {
+                synchronized (this) {
+                    inFlight.remove(attempt);
+                }
+                state.recordSuccess(attempt.latencyNanos);
+                // 结果完成时的回调取消仍在进行的其他尝试
+                if (result.complete(outcome.result) && hedged) {
+                    hedgeWins.incrementAndGet();
+                }
+                return;
+            }
+            synchronized (this) {
+                inFlight.remove(attempt);
+                if (result.isDone()) {
+                    // 对冲请求的另一方已经返回或已到达截止时间，本次尝试被取消
+                    state.release();
+                    return;
+                }
+                // 只有可重试的失败计入熔断，请求本身无效或客户端断开不说明提供商异常
+                if (outcome.retryable) {
+                    state.recordFailure(failureThreshold, openNanos);
+                } else {
+                    state.release();
+                }
+                lastError = outcome.result;
+                log.warn("AI request attempt {} of {} failed for session: {}, provider: {}, retryable: {}, error: {}",
+                        launched, maxAttempts, sessionId, endpoint, outcome.retryable, outcome.result.getError());
+                if (!inFlight.isEmpty()) {
+                    // 还有对冲中的请求，等待其结果
+                    return;
+                }
+                if (!outcome.retryable || launched >= maxAttempts) {
+                    result.complete(outcome.result);
+                    return;
+                }
+            }
+
+            // 还有未尝试的提供商时立即转移，否则退避后重试；剩余时间不足时不再重试
+            long delay = launched < candidates.size() ? 0L : backoffMillis(launched - candidates.size() + 1);
+            if (exceedsDeadline(delay)) {
+                result.complete(outcome.result);
+            } else if (delay == 0L) {
+                launch(false);
+            } else {
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> launch(false));
+            }
+        }
+    }
+
+    /**
+     * 单个提供商的熔断状态和响应耗时统计
+     */
+    private static final class ProviderState {
+        private static final int CLOSED = 0;
+        private static final int OPEN = 1;
+        private static final int HALF_OPEN = 2;
+
+        private final String name;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount;
+        private double latencyAverage;
+        private double failureRate;
+        private int circuit = CLOSED;
+        private int consecutiveFailures;
+        private long openUntil;
+
+        private ProviderState(String name) {
+            this.name = name;
+        }
+
+        synchronized boolean isAvailable() {
+            return circuit == CLOSED || (circuit == OPEN && openUntil - System.nanoTime() <= 0);
+        }
+
+        /**
+         * 申请发送请求：熔断关闭时放行；熔断期已过时转为半开并只放行一个探测请求
+         */
+        synchronized boolean tryAcquire() {
+            if (circuit == CLOSED) {
+                return true;
+            }
+            if (circuit == OPEN && openUntil - System.nanoTime() <= 0) {
+                circuit = HALF_OPEN;
+                log.info("AI provider circuit half-open, probing: {}", name);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 记录成功并关闭熔断，耗时小于0时不记录耗时样本
+         */
+        synchronized void recordSuccess(long latencyNanos) {
+            if (circuit != CLOSED) {
+                log.info("AI provider circuit closed: {}", name);
+            }
+            circuit = CLOSED;
+            consecutiveFailures = 0;
+            failureRate -= EWMA_WEIGHT * failureRate;
+            if (latencyNanos >= 0) {
+                double millis = latencyNanos / 1_000_000.0;
+                latencyAverage = latencyCount == 0 ? millis : latencyAverage + EWMA_WEIGHT * (millis - latencyAverage);
+                latencies[latencyCount % LATENCY_SAMPLES] = (long) millis;
+                latencyCount++;
+            }
+        }
+
+        synchronized void recordFailure(int threshold, long openNanos) {
+            failures.incrementAndGet();
+            consecutiveFailures++;
+            failureRate += EWMA_WEIGHT * (1.0 - failureRate);
+            if (circuit == HALF_OPEN || (circuit == CLOSED && consecutiveFailures >= threshold)) {
+                circuit = OPEN;
+                openUntil = System.nanoTime() + openNanos;
+                log.warn("AI provider circuit opened after {} consecutive failures: {}", consecutiveFailures, name);
+            }
+        }
+
+        /**
+         * 探测请求被取消或因请求本身无效而失败时，允许立即重新探测
+         */
+        synchronized void release() {
+            if (circuit == HALF_OPEN) {
+                circuit = OPEN;
+                openUntil = System.nanoTime();
+            }
+        }
+
+        /**
+         * 排序值（毫秒）：平均响应耗时加上近期失败率折算的代价，尚无耗时样本时耗时按0计
+         */
+        synchronized double rank() {
+            return (latencyCount == 0 ? 0.0 : latencyAverage) + failureRate * FAILURE_PENALTY_MS;
+        }
+
+        synchronized double latencyAverage() {
+            return latencyAverage;
+        }
+
+        synchronized double latencyPercentile(double percentile) {
+            int size = Math.min(latencyCount, LATENCY_SAMPLES);
+            if (size == 0) {
+                return 0.0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return sorted[Math.min(size - 1, (int) Math.ceil(percentile * size) - 1)];
+        }
+
+        synchronized double circuitValue() {
+            return circuit == CLOSED ? 0.0 : circuit == HALF_OPEN ? 0.5 : 1.0;
+        }
+    }
+}
@@ -2,17 +2,26 @@ package com.i0.agents.application.services;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.i0.agents.application.services.mcp.ToolCatalog;
 import com.i0.agents.domain.entities.ChatMessage;
 import com.i0.agents.domain.services.AIConfigurationService;
 import com.i0.agents.domain.services.mcp.MCPTool;
+import com.i0.agents.domain.valueobjects.AIProviderEndpoint;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import okhttp3.sse.EventSource;
+import okhttp3.sse.EventSourceListener;
+import okhttp3.sse.EventSources;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * AI请求处理服务
@@ -26,9 +35,13 @@ public class AIRequestService {
     private final OkHttpClient client;
     private final ObjectMapper objectMapper;
     private final AIConfigurationService configurationService;
+    private final AIResponseCache responseCache;
+    private final AIProviderRouter providerRouter;
+    private final Map<String, OkHttpClient> timeoutClients = new ConcurrentHashMap<>();
 
     /**
      * 发送AI请求并获取响应
+     * 同步等待 {@link #sendRequestAsync} 的结果，供非流式调用方使用
      *
      * @param sessionId      会话ID
      * @param messages       消息历史
@@ -36,76 +49,352 @@ public class AIRequestService {
      * @return AI响应结果
      */
     public AIResponseResult sendRequest(String sessionId, List<ChatMessage> messages, List<MCPTool> availableTools) {
+        return sendRequestAsync(sessionId, messages, availableTools).join();
+    }
+
+    /**
+     * 异步发送AI请求
+     * 通过OkHttp的 enqueue 执行，等待响应期间不占用调用方线程，响应在OkHttp分发线程上解析
+     *
+     * @param sessionId      会话ID
+     * @param messages       消息历史
+     * @param availableTools 可用工具列表
+     * @return AI响应结果的CompletableFuture，失败时以错误结果完成而不是异常完成
+     */
+    public CompletableFuture<AIResponseResult> sendRequestAsync(String sessionId, List<ChatMessage> messages, List<MCPTool> availableTools) {
+        return sendRequestAsync(sessionId, messages, ToolCatalog.of(availableTools, objectMapper));
+    }
+
+    /**
+     * 异步发送AI请求（使用工具目录）
+     * 通过OkHttp的 enqueue 执行，等待响应期间不占用调用方线程，响应在OkHttp分发线程上解析；
+     * 工具定义直接拼接目录中预先序列化的片段；启用响应缓存时先查缓存，命中则不发送请求。
+     * 请求经 {@link AIProviderRouter} 发往提供商，失败时按路由策略重试、故障转移，可选对冲
+     *
+     * @param sessionId   会话ID
+     * @param messages    消息历史
+     * @param toolCatalog 工具目录
+     * @return AI响应结果的CompletableFuture，失败时以错误结果完成而不是异常完成
+     */
+    public CompletableFuture<AIResponseResult> sendRequestAsync(String sessionId, List<ChatMessage> messages, ToolCatalog toolCatalog) {
+        return sendRequestAsync(sessionId, messages, toolCatalog, AIProviderRouter.NO_DEADLINE);
+    }
+
+    /**
+     * 异步发送AI请求（使用工具目录，限定截止时间）
+     * 截止时间前未完成时以超时结果完成，并取消仍在进行的请求
+     *
+     * @param sessionId     会话ID
+     * @param messages      消息历史
+     * @param toolCatalog   工具目录
+     * @param deadlineNanos 截止时间，见 {@link AIProviderRouter#deadlineAfter}
+     * @return AI响应结果的CompletableFuture，失败时以错误结果完成而不是异常完成
+     */
+    public CompletableFuture<AIResponseResult> sendRequestAsync(String sessionId, List<ChatMessage> messages, ToolCatalog toolCatalog,
+                                                                long deadlineNanos) {
         try {
             // 检查测试环境
             String activeProfile = System.getProperty("spring.profiles.active", "");
             if ("test".equals(activeProfile)) {
                 log.info("Running in test environment, returning mock response");
-                return AIResponseResult.success("这是AI的模拟回复。");
+                return CompletableFuture.completedFuture(AIResponseResult.success("这是AI的模拟回复。"));
             }
 
-            // 获取当前活跃厂商的配置
-            String apiUrl = configurationService.getApiUrl();
-            String apiKey = configurationService.getApiKey();
+            String cacheKey = cacheKey(messages, toolCatalog);
+            if (cacheKey != null) {
+                Optional<AIResponseResult> cached = responseCache.get(cacheKey);
+                if (cached.isPresent()) {
+                    log.debug("AI response cache hit for session: {}", sessionId);
+                    return CompletableFuture.completedFuture(cached.get());
+                }
+            }
 
-            log.debug("Using AI provider with API URL: {}", apiUrl);
+            return providerRouter.route(sessionId, (endpoint, attempt) ->
+                    sendToProvider(sessionId, endpoint, messages, toolCatalog, cacheKey, attempt), true, deadlineNanos);
+        } catch (Exception e) {
+            log.error("Failed to send AI request for session: {}", sessionId, e);
+            return CompletableFuture.completedFuture(AIResponseResult.error("请求创建失败，请稍后再试。"));
+        }
+    }
 
-            // 构建请求
-            String requestBody = buildRequestBody(messages, availableTools);
-            log.debug("Sending AI request for session: {}, requestBody::{}", sessionId, requestBody);
+    /**
+     * 向单个提供商发送一次非流式请求
+     */
+    private void sendToProvider(String sessionId, AIProviderEndpoint endpoint, List<ChatMessage> messages,
+                                ToolCatalog toolCatalog, String cacheKey, AIProviderRouter.Attempt attempt) {
+        String requestBody;
+        try {
+            requestBody = buildRequestBody(endpoint.getModel(), messages, toolCatalog, false);
+        } catch (Exception e) {
+            log.error("Failed to build AI request for session: {}", sessionId, e);
+            attempt.fail(AIResponseResult.error("请求创建失败，请稍后再试。"), false);
+            return;
+        }
+        log.debug("Sending AI request for session: {} to provider: {}, requestBody::{}", sessionId, endpoint, requestBody);
+
+        Call httpCall = clientFor(endpoint, false).newCall(buildRequest(endpoint, requestBody, false));
+        attempt.onCancel(httpCall::cancel);
+        httpCall.enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                attempt.responded();
+                try (Response closeable = response) {
+                    String responseBody = closeable.body() != null ? closeable.body().string() : "";
+
+                    if (!closeable.isSuccessful()) {
+                        log.warn("AI service returned error for session: {}, provider: {}, status: {}",
+                                sessionId, endpoint, closeable.code());
+                        attempt.fail(AIResponseResult.error("AI服务响应异常，请稍后再试。"), isRetryableStatus(closeable.code()));
+                        return;
+                    }
 
-            Request request = new Request.Builder()
-                .url(apiUrl)
-                .addHeader("Authorization", "Bearer " + apiKey)
-                .addHeader("Content-Type", "application/json")
-                .post(RequestBody.create(requestBody, MediaType.get("application/json")))
-                .build();
+                    // 解析响应
+                    AIResponseResult result = parseResponse(responseBody);
+                    log.debug("AI response received for session: {}, provider: {}, hasToolCalls: {}",
+                            sessionId, endpoint, result.hasToolCalls());
+                    if (cacheKey != null && isActiveProvider(endpoint)) {
+                        responseCache.put(cacheKey, result);
+                    }
+                    attempt.succeed(result);
+                } catch (Exception e) {
+                    log.error("Failed to read AI response for session: {}, provider: {}", sessionId, endpoint, e);
+                    attempt.fail(AIResponseResult.error("AI服务响应异常，请稍后再试。"), true);
+                }
+            }
 
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (call.isCanceled()) {
+                    log.debug("AI request cancelled for session: {}, provider: {}", sessionId, endpoint);
+                } else {
+                    log.error("Failed to send AI request for session: {}, provider: {}", sessionId, endpoint, e);
+                }
+                attempt.fail(AIResponseResult.error("请求创建失败，请稍后再试。"), true);
+            }
+        });
+    }
 
-            // 同步调用
-            try (Response response = client.newCall(request).execute()) {
-                String responseBody = response.body() != null ? response.body().string() : "";
+    /**
+     * 流式发送AI请求
+     * 同步等待 {@link #streamRequestAsync} 的结果
+     *
+     * @param sessionId      会话ID
+     * @param messages       消息历史
+     * @param availableTools 可用工具列表
+     * @param onDelta        文本增量回调
+     * @return 完整的AI响应结果
+     */
+    public AIResponseResult streamRequest(String sessionId, List<ChatMessage> messages, List<MCPTool> availableTools,
+                                          Consumer<String> onDelta) {
+        return streamRequestAsync(sessionId, messages, availableTools, onDelta).join();
+    }
 
-                if (!response.isSuccessful()) {
-                    log.warn("AI service returned error for session: {}, status: {}", sessionId, response.code());
-                    return AIResponseResult.error("AI服务响应异常，请稍后再试。");
-                }
+    /**
+     * 异步流式发送AI请求
+     * 以 stream=true 请求AI服务，逐个解析服务端SSE数据块，文本增量到达时立即回调；
+     * 工具调用的名称和参数分散在多个数据块中，按序号拼接完整后随结果一起返回。
+     * 数据块在OkHttp分发线程上处理，数据块之间的等待受客户端读超时限制
+     *
+     * @param sessionId      会话ID
+     * @param messages       消息历史
+     * @param availableTools 可用工具列表
+     * @param onDelta        文本增量回调，回调抛出异常（如客户端断开）时取消请求
+     * @return 完整AI响应结果的CompletableFuture，失败时以错误结果完成
+     */
+    public CompletableFuture<AIResponseResult> streamRequestAsync(String sessionId, List<ChatMessage> messages,
+                                                                  List<MCPTool> availableTools, Consumer<String> onDelta) {
+        return streamRequestAsync(sessionId, messages, ToolCatalog.of(availableTools, objectMapper), onDelta);
+    }
 
-                // 解析响应
-                AIResponseResult result = parseResponse(responseBody);
-                log.debug("AI response received for session: {}, hasToolCalls: {}", sessionId, result.hasToolCalls());
-                return result;
+    /**
+     * 异步流式发送AI请求（使用工具目录）
+     * 启用响应缓存时先查缓存，命中则以完整文本作为一次增量回调；流式拼装的结果同样写入缓存
+     *
+     * @param sessionId   会话ID
+     * @param messages    消息历史
+     * @param toolCatalog 工具目录
+     * @param onDelta     文本增量回调，回调抛出异常（如客户端断开）时取消请求
+     * @return 完整AI响应结果的CompletableFuture，失败时以错误结果完成
+     * @see #streamRequestAsync(String, List, List, Consumer)
+     */
+    public CompletableFuture<AIResponseResult> streamRequestAsync(String sessionId, List<ChatMessage> messages,
+                                                                  ToolCatalog toolCatalog, Consumer<String> onDelta) {
+        return streamRequestAsync(sessionId, messages, toolCatalog, onDelta, AIProviderRouter.NO_DEADLINE);
+    }
 
+    /**
+     * 异步流式发送AI请求（使用工具目录，限定截止时间）
+     * 截止时间前未完成时以超时结果完成，并取消仍在进行的流式请求
+     *
+     * @param sessionId     会话ID
+     * @param messages      消息历史
+     * @param toolCatalog   工具目录
+     * @param onDelta       文本增量回调，回调抛出异常（如客户端断开）时取消请求
+     * @param deadlineNanos 截止时间，见 {@link AIProviderRouter#deadlineAfter}
+     * @return 完整AI响应结果的CompletableFuture，失败时以错误结果完成
+     */
+    public CompletableFuture<AIResponseResult> streamRequestAsync(String sessionId, List<ChatMessage> messages,
+                                                                  ToolCatalog toolCatalog, Consumer<String> onDelta,
+                                                                  long deadlineNanos) {
+        try {
+            // 检查测试环境
+            String activeProfile = System.getProperty("spring.profiles.active", "");
+            if ("test".equals(activeProfile)) {
+                log.info("Running in test environment, returning mock response");
+                onDelta.accept("这是AI的模拟回复。");
+                return CompletableFuture.completedFuture(AIResponseResult.success("这是AI的模拟回复。"));
+            }
+
+            String cacheKey = cacheKey(messages, toolCatalog);
+            if (cacheKey != null) {
+                Optional<AIResponseResult> cached = responseCache.get(cacheKey);
+                if (cached.isPresent()) {
+                    log.debug("AI response cache hit for streaming session: {}", sessionId);
+                    if (cached.get().getContent() != null && !cached.get().getContent().isEmpty()) {
+                        onDelta.accept(cached.get().getContent());
+                    }
+                    return CompletableFuture.completedFuture(cached.get());
+                }
             }
 
+            // 已向客户端输出的内容无法撤回，流式请求不对冲，只在尚未输出内容时重试或故障转移
+            return providerRouter.route(sessionId, (endpoint, attempt) ->
+                    streamFromProvider(sessionId, endpoint, messages, toolCatalog, onDelta, cacheKey, attempt), false,
+                    deadlineNanos);
         } catch (Exception e) {
-            log.error("Failed to send AI request for session: {}", sessionId, e);
-            return AIResponseResult.error("请求创建失败，请稍后再试。");
+            log.error("Failed to send streaming AI request for session: {}", sessionId, e);
+            return CompletableFuture.completedFuture(AIResponseResult.error("请求创建失败，请稍后再试。"));
         }
     }
 
     /**
-     * 异步发送AI请求
-     *
-     * @param sessionId      会话ID
-     * @param messages       消息历史
-     * @param availableTools 可用工具列表
-     * @return AI响应结果的CompletableFuture
+     * 向单个提供商发送一次流式请求
      */
-    public CompletableFuture<AIResponseResult> sendRequestAsync(String sessionId, List<ChatMessage> messages, List<MCPTool> availableTools) {
-        return CompletableFuture.supplyAsync(() -> sendRequest(sessionId, messages, availableTools));
+    private void streamFromProvider(String sessionId, AIProviderEndpoint endpoint, List<ChatMessage> messages,
+                                    ToolCatalog toolCatalog, Consumer<String> onDelta, String cacheKey,
+                                    AIProviderRouter.Attempt attempt) {
+        String requestBody;
+        try {
+            requestBody = buildRequestBody(endpoint.getModel(), messages, toolCatalog, true);
+        } catch (Exception e) {
+            log.error("Failed to build streaming AI request for session: {}", sessionId, e);
+            attempt.fail(AIResponseResult.error("请求创建失败，请稍后再试。"), false);
+            return;
+        }
+        log.debug("Sending streaming AI request for session: {} to provider: {}, requestBody::{}", sessionId, endpoint, requestBody);
+
+        StreamingResponseAssembler assembler = new StreamingResponseAssembler(onDelta);
+        EventSource source = EventSources.createFactory(clientFor(endpoint, true)).newEventSource(
+            buildRequest(endpoint, requestBody, true),
+            new EventSourceListener() {
+                @Override
+                public void onOpen(EventSource eventSource, Response response) {
+                    attempt.responded();
+                }
+
+                @Override
+                public void onEvent(EventSource eventSource, String id, String type, String data) {
+                    try {
+                        if (assembler.accept(data)) {
+                            // 先报告结果，取消请求触发的 onFailure 不再覆盖；只有收到结束标记的完整响应才写入缓存
+                            AIResponseResult result = assembler.toResult();
+                            if (attempt.succeed(result) && cacheKey != null && isActiveProvider(endpoint)) {
+                                responseCache.put(cacheKey, result);
+                            }
+                            eventSource.cancel();
+                        }
+                    } catch (Exception e) {
+                        log.warn("Streaming AI response aborted for session: {}, error: {}", sessionId, e.getMessage());
+                        attempt.fail(AIResponseResult.error("AI响应流中断，请稍后再试。"), false);
+                        eventSource.cancel();
+                    }
+                }
+
+                @Override
+                public void onClosed(EventSource eventSource) {
+                    // 服务端未发送结束标记即关闭连接时，以已接收的内容结束
+                    attempt.succeed(assembler.toResult());
+                }
+
+                @Override
+                public void onFailure(EventSource eventSource, Throwable t, Response response) {
+                    if (!attempt.isDone()) {
+                        log.warn("AI streaming request failed for session: {}, provider: {}, status: {}, error: {}", sessionId,
+                            endpoint, response != null ? response.code() : null, t != null ? t.getMessage() : null);
+                    }
+                    boolean retryable = !assembler.hasForwardedContent()
+                        && (response == null || isRetryableStatus(response.code()));
+                    attempt.fail(AIResponseResult.error("AI服务响应异常，请稍后再试。"), retryable);
+                }
+            });
+        attempt.onCancel(source::cancel);
+    }
+
+    /**
+     * 计算响应缓存键，缓存未启用时返回null
+     * 缓存键按当前活跃厂商计算，只有活跃厂商返回的响应写入缓存
+     */
+    private String cacheKey(List<ChatMessage> messages, ToolCatalog toolCatalog) {
+        if (!responseCache.isEnabled()) {
+            return null;
+        }
+        return responseCache.key(configurationService.getApiUrl(), configurationService.getDefaultModel(), messages, toolCatalog);
+    }
+
+    private boolean isActiveProvider(AIProviderEndpoint endpoint) {
+        return endpoint.getName().equals(configurationService.getActiveProvider());
+    }
+
+    /**
+     * 请求本身无效（400、422）时换提供商也无济于事，其余错误可以重试或故障转移
+     */
+    private static boolean isRetryableStatus(int code) {
+        return code != 400 && code != 422;
+    }
+
+    /**
+     * 按提供商的超时时间取HTTP客户端，派生的客户端共用连接池和分发器
+     * 非流式请求限制整个请求的耗时，流式请求限制数据块之间的等待时间
+     */
+    private OkHttpClient clientFor(AIProviderEndpoint endpoint, boolean stream) {
+        int timeoutSeconds = endpoint.getTimeoutSeconds();
+        if (timeoutSeconds <= 0) {
+            return client;
+        }
+        return timeoutClients.computeIfAbsent((stream ? "stream-" : "call-") + timeoutSeconds, key -> {
+            OkHttpClient.Builder builder = client.newBuilder().readTimeout(timeoutSeconds, TimeUnit.SECONDS);
+            if (!stream) {
+                builder.callTimeout(timeoutSeconds, TimeUnit.SECONDS);
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * 构建HTTP请求
+     */
+    private Request buildRequest(AIProviderEndpoint endpoint, String requestBody, boolean stream) {
+        Request.Builder builder = new Request.Builder()
+            .url(endpoint.getApiUrl())
+            .addHeader("Authorization", "Bearer " + endpoint.getApiKey())
+            .addHeader("Content-Type", "application/json");
+        if (stream) {
+            builder.addHeader("Accept", "text/event-stream");
+        }
+        return builder
+            .post(RequestBody.create(requestBody, MediaType.get("application/json")))
+            .build();
     }
 
     /**
      * 构建AI请求体
      */
-    private String buildRequestBody(List<ChatMessage> messages, List<MCPTool> availableTools) throws Exception {
+    private String buildRequestBody(String model, List<ChatMessage> messages, ToolCatalog toolCatalog, boolean stream) throws Exception {
         Map<String, Object> requestBody = new HashMap<>();
 
-        // 获取当前活跃厂商的默认模型
-        String model = configurationService.getDefaultModel();
+        // 使用提供商的默认模型
         requestBody.put("model", model);
-        requestBody.put("stream", false);
+        requestBody.put("stream", stream);
 
         log.debug("Using model: {}", model);
 
@@ -122,43 +411,16 @@ public class AIRequestService {
         }
         requestBody.put("messages", messageList);
 
-        // 添加工具定义（如果有可用的工具）
-        List<Map<String, Object>> tools = buildToolDefinitions(availableTools);
-        if (!tools.isEmpty()) {
-            requestBody.put("tools", tools);
+        // 添加工具定义（如果有可用的工具），直接拼接目录中预先序列化的片段
+        if (toolCatalog != null && !toolCatalog.isEmpty()) {
+            requestBody.put("tools", new RawValue(toolCatalog.getToolsJson()));
             requestBody.put("tool_choice", "auto");
+            log.debug("Total tools available: {}, catalog version: {}", toolCatalog.size(), toolCatalog.getVersion());
         }
 
         return objectMapper.writeValueAsString(requestBody);
     }
 
-    /**
-     * 构建工具定义
-     */
-    private List<Map<String, Object>> buildToolDefinitions(List<MCPTool> availableTools) {
-        List<Map<String, Object>> tools = new ArrayList<>();
-
-        if (availableTools != null && !availableTools.isEmpty()) {
-            for (MCPTool mcpTool : availableTools) {
-                Map<String, Object> tool = new HashMap<>();
-                tool.put("type", "function");
-
-                Map<String, Object> functionDef = new HashMap<>();
-                functionDef.put("name", mcpTool.getName());
-                functionDef.put("description", mcpTool.getDescription());
-                functionDef.put("parameters", mcpTool.getParameters());
-
-                tool.put("function", functionDef);
-                tools.add(tool);
-
-                log.debug("Added MCP tool: {} from server: {}", mcpTool.getName(), mcpTool.getSourceServer());
-            }
-        }
-
-        log.debug("Total tools available: {}", tools.size());
-        return tools;
-    }
-
     /**
      * 转换消息角色
      */
@@ -207,6 +469,77 @@ public class AIRequestService {
         return new AIResponseResult("抱歉，我无法理解您的请求。", Collections.emptyList(), true, null);
     }
 
+    /**
+     * 流式响应拼装器
+     * 解析 OpenAI 兼容格式的数据块：choices[0].delta.content 为文本增量，
+     * choices[0].delta.tool_calls 按 index 拼接工具名称和参数
+     */
+    private class StreamingResponseAssembler {
+        private final Consumer<String> onDelta;
+        private final StringBuilder content = new StringBuilder();
+        private final SortedMap<Integer, String> toolNames = new TreeMap<>();
+        private final SortedMap<Integer, StringBuilder> toolArguments = new TreeMap<>();
+
+        private StreamingResponseAssembler(Consumer<String> onDelta) {
+            this.onDelta = onDelta;
+        }
+
+        /**
+         * 处理一个数据块
+         *
+         * @return 是否为结束标记
+         */
+        private boolean accept(String data) throws IOException {
+            if (data == null || data.isBlank()) {
+                return false;
+            }
+            if ("[DONE]".equals(data.trim())) {
+                return true;
+            }
+            JsonNode delta = objectMapper.readTree(data).path("choices").path(0).path("delta");
+            if (delta.isMissingNode()) {
+                return false;
+            }
+
+            JsonNode contentNode = delta.get("content");
+            if (contentNode != null && !contentNode.isNull() && !contentNode.asText().isEmpty()) {
+                content.append(contentNode.asText());
+                onDelta.accept(contentNode.asText());
+            }
+
+            JsonNode toolCallsNode = delta.get("tool_calls");
+            if (toolCallsNode != null && toolCallsNode.isArray()) {
+                for (JsonNode toolCall : toolCallsNode) {
+                    int index = toolCall.path("index").asInt(toolNames.size());
+                    JsonNode function = toolCall.path("function");
+                    String name = function.path("name").asText("");
+                    if (!name.isEmpty()) {
+                        toolNames.put(index, name);
+                    }
+                    toolArguments.computeIfAbsent(index, key -> new StringBuilder())
+                        .append(function.path("arguments").asText(""));
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 是否已有文本增量回调给调用方
+         */
+        private boolean hasForwardedContent() {
+            return content.length() > 0;
+        }
+
+        private AIResponseResult toResult() {
+            List<ToolCallInfo> toolCalls = new ArrayList<>();
+            for (Map.Entry<Integer, String> toolName : toolNames.entrySet()) {
+                StringBuilder arguments = toolArguments.get(toolName.getKey());
+                toolCalls.add(new ToolCallInfo(toolName.getValue(), arguments != null ? arguments.toString() : ""));
+            }
+            return AIResponseResult.success(content.toString(), toolCalls);
+        }
+    }
+
     /**
      * AI响应结果
      */
@@ -0,0 +1,221 @@
+package com.i0.agents.application.services;
+
+import com.i0.agents.application.services.AIRequestService.AIResponseResult;
+import com.i0.agents.application.services.AIRequestService.ToolCallInfo;
+import com.i0.agents.application.services.mcp.ToolCatalog;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.enums.MessageRole;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * AI响应缓存
+ * 快速提示词和常见的查询类问题会产生完全相同的AI请求，命中时直接返回已有响应，省去一次模型调用。
+ * 缓存键为（接口地址、模型、消息窗口、工具目录版本）的SHA-256摘要，条目按TTL过期、超出容量时淘汰最久未使用的条目。
+ * 只缓存成功的响应；含工具调用的响应只有在所有工具都是只读工具时才缓存，
+ * 命中后工具仍会重新执行，避免重放创建、修改类操作，也不会返回过期的业务数据。默认关闭
+ */
+@Slf4j
+@Component
+public class AIResponseCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final List<String> readOnlyToolPrefixes;
+    private final Map<String, CacheEntry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public AIResponseCache(@Value("${ai.chat.response-cache.enabled:false}") boolean enabled,
+                           @Value("${ai.chat.response-cache.max-entries:500}") int maxEntries,
+                           @Value("${ai.chat.response-cache.ttl-seconds:600}") long ttlSeconds,
+                           @Value("${ai.chat.response-cache.read-only-tool-prefixes:find_,search_,get_,list_,query_,count_}") String readOnlyToolPrefixes) {
+        int capacity = Math.max(1, maxEntries);
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1L, ttlSeconds));
+        this.readOnlyToolPrefixes = readOnlyToolPrefixes == null ? Collections.emptyList()
+                : Arrays.stream(readOnlyToolPrefixes.split(","))
+                        .map(String::trim)
+                        .filter(prefix -> !prefix.isEmpty())
+                        .collect(Collectors.toList());
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > capacity;
+            }
+        });
+        if (enabled) {
+            log.info("AI response cache enabled: maxEntries={}, ttlSeconds={}, readOnlyToolPrefixes={}",
+                    capacity, ttlSeconds, this.readOnlyToolPrefixes);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 计算缓存键
+     * 只包含发送给AI服务的内容：函数消息不发送，消息内容去掉首尾空白；临时指定的工具（版本为0）以工具定义本身参与计算
+     *
+     * @param apiUrl      AI服务接口地址
+     * @param model       模型
+     * @param messages    消息窗口
+     * @param toolCatalog 工具目录
+     * @return 十六进制的SHA-256摘要
+     */
+    public String key(String apiUrl, String model, List<ChatMessage> messages, ToolCatalog toolCatalog) {
+        MessageDigest digest = newDigest();
+        update(digest, apiUrl);
+        update(digest, model);
+        for (ChatMessage message : messages) {
+            if (message.getRole() == MessageRole.FUNCTION) {
+                continue;
+            }
+            update(digest, message.getRole().name());
+            update(digest, message.getContent() != null ? message.getContent().getContent().trim() : "");
+        }
+        if (toolCatalog != null && !toolCatalog.isEmpty()) {
+            update(digest, toolCatalog.getVersion() > 0 ? "v" + toolCatalog.getVersion() : toolCatalog.getToolsJson());
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 读取未过期的缓存响应
+     */
+    public Optional<AIResponseResult> get(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            hits.incrementAndGet();
+            return Optional.of(entry.result);
+        }
+        if (entry != null) {
+            entries.remove(key, entry);
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * 缓存响应，失败的响应和含非只读工具调用的响应不缓存
+     */
+    public void put(String key, AIResponseResult result) {
+        if (!isCacheable(result)) {
+            skipped.incrementAndGet();
+            return;
+        }
+        entries.put(key, new CacheEntry(result, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * 判断响应能否缓存：成功、有内容或工具调用，且所有工具调用都是只读工具
+     */
+    boolean isCacheable(AIResponseResult result) {
+        if (result == null || !result.isSuccess()) {
+            return false;
+        }
+        if (!result.hasToolCalls()) {
+            return result.getContent() != null && !result.getContent().isEmpty();
+        }
+        for (ToolCallInfo toolCall : result.getToolCalls()) {
+            if (!isReadOnlyTool(toolCall.getFunctionName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * 因失败或含非只读工具调用而未缓存的响应数
+     */
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * 命中率，尚无请求时为0
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private boolean isReadOnlyTool(String toolName) {
+        if (toolName == null) {
+            return false;
+        }
+        for (String prefix : readOnlyToolPrefixes) {
+            if (toolName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 写入带长度前缀的字段，避免相邻字段拼接产生歧义
+     */
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static final class CacheEntry {
+        private final AIResponseResult result;
+        private final long expiresAt;
+
+        private CacheEntry(AIResponseResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
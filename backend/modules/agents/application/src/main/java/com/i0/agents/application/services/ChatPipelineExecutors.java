@@ -0,0 +1,115 @@
+package com.i0.agents.application.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 聊天流水线线程池
+ * 对话轮次（会话校验、消息读写）和工具执行分别使用有界的命名线程池，不占用公共ForkJoinPool；
+ * AI请求由OkHttp异步执行，等待模型输出期间不占用这里的线程。队列满时直接拒绝，由调用方返回繁忙提示
+ */
+@Slf4j
+@Component
+public class ChatPipelineExecutors implements DisposableBean {
+
+    private final ThreadPoolExecutor turnExecutor;
+    private final ThreadPoolExecutor toolExecutor;
+    private final AtomicInteger activeTurns = new AtomicInteger();
+    private final long toolTimeoutMillis;
+
+    public ChatPipelineExecutors(@Value("${ai.chat.pipeline.turn-threads:16}") int turnThreads,
+                                 @Value("${ai.chat.pipeline.turn-queue-capacity:1000}") int turnQueueCapacity,
+                                 @Value("${ai.chat.pipeline.tool-threads:16}") int toolThreads,
+                                 @Value("${ai.chat.pipeline.tool-queue-capacity:1000}") int toolQueueCapacity,
+                                 @Value("${ai.chat.pipeline.tool-timeout-seconds:20}") long toolTimeoutSeconds) {
+        this.turnExecutor = newExecutor("chat-turn-", turnThreads, turnQueueCapacity);
+        this.toolExecutor = newExecutor("chat-tool-", toolThreads, toolQueueCapacity);
+        this.toolTimeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(1L, toolTimeoutSeconds));
+        log.info("Chat pipeline executors initialized: turnThreads={}, toolThreads={}, toolTimeoutSeconds={}",
+                turnThreads, toolThreads, toolTimeoutSeconds);
+    }
+
+    /**
+     * 对话轮次线程池：会话校验、消息保存等短时阻塞操作
+     */
+    public Executor turnExecutor() {
+        return turnExecutor;
+    }
+
+    /**
+     * 工具执行线程池，提交后返回的Future可用于超时取消
+     */
+    public ExecutorService toolExecutor() {
+        return toolExecutor;
+    }
+
+    /**
+     * 单个工具调用的超时时间（毫秒）
+     */
+    public long getToolTimeoutMillis() {
+        return toolTimeoutMillis;
+    }
+
+    /**
+     * 标记一个对话轮次开始
+     */
+    public void turnStarted() {
+        activeTurns.incrementAndGet();
+    }
+
+    /**
+     * 标记一个对话轮次结束（成功、失败或超时）
+     */
+    public void turnFinished() {
+        activeTurns.decrementAndGet();
+    }
+
+    /**
+     * 进行中的对话轮次数量，包括等待AI响应的轮次
+     */
+    public int getActiveTurns() {
+        return activeTurns.get();
+    }
+
+    public int getTurnQueueDepth() {
+        return turnExecutor.getQueue().size();
+    }
+
+    public int getTurnActiveThreads() {
+        return turnExecutor.getActiveCount();
+    }
+
+    public int getToolQueueDepth() {
+        return toolExecutor.getQueue().size();
+    }
+
+    public int getToolActiveThreads() {
+        return toolExecutor.getActiveCount();
+    }
+
+    @Override
+    public void destroy() {
+        turnExecutor.shutdownNow();
+        toolExecutor.shutdownNow();
+    }
+
+    private static ThreadPoolExecutor newExecutor(String namePrefix, int threads, int queueCapacity) {
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, namePrefix + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,288 @@
+package com.i0.agents.application.services;
+
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.enums.MessageRole;
+import com.i0.agents.domain.repositories.ChatMessageRepository;
+import com.i0.agents.domain.repositories.ConversationSummaryRepository;
+import com.i0.agents.domain.valueobjects.ConversationSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 对话上下文构建服务
+ * 每轮对话只读取最近的消息和会话的滚动摘要：最近的消息在令牌预算内原样发送，更早的消息以摘要代替。
+ * 未并入摘要的旧消息累积到一定数量后，在后台异步重新生成摘要，不阻塞当前对话；摘要赶上之前，
+ * 上下文开头注明有多少条较早的消息既不在上下文中也未并入摘要。函数消息不发送给AI服务，也不计入摘要和待摘要的消息数。
+ * 消息先后按（时间戳，ID）判断，与分页游标一致；时间戳精度为秒，同一秒内的消息不会被误判为已并入摘要
+ */
+@Slf4j
+@Service
+public class ConversationContextBuilder {
+
+    private static final String SUMMARY_PREFIX = "以下是此前对话的摘要，供理解上下文参考：\n";
+    /**
+     * 遗漏消息提示，参数为既不在上下文中也未并入摘要的消息数
+     */
+    static final String GAP_NOTE = "注意：此前还有%d条较早的对话消息既未包含在以下上下文中，也未并入摘要；"
+            + "涉及这些内容时请向用户确认，不要臆测。";
+    private static final String SUMMARY_INSTRUCTION = "你是对话摘要助手。请将已有摘要和新增的对话记录合并为一段简洁的中文摘要，"
+            + "保留用户的目标、已确认的事实、已执行的操作及其结果、尚未解决的问题，不超过300字，只输出摘要本身。";
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final Comparator<ChatMessage> CURSOR_ORDER = Comparator
+            .comparing(ChatMessage::getTimestamp)
+            .thenComparing(ChatMessage::getId);
+
+    /**
+     * 摘要请求中对话记录的字符上限（消息内容上限为10000字符）
+     */
+    private static final int MAX_TRANSCRIPT_CHARS = 8000;
+
+    /**
+     * 单条消息写入对话记录时的字符上限
+     */
+    private static final int MAX_TRANSCRIPT_MESSAGE_CHARS = 500;
+
+    /**
+     * 摘要内容的字符上限
+     */
+    private static final int MAX_SUMMARY_CHARS = 2000;
+
+    /**
+     * 每条消息的角色和格式开销（令牌）
+     */
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ConversationSummaryRepository summaryRepository;
+    private final AIRequestService aiRequestService;
+    private final ChatPipelineExecutors pipelineExecutors;
+    private final int maxTokens;
+    private final int recentMessages;
+    private final int summaryBatchMessages;
+    private final Set<String> summarizingSessions = ConcurrentHashMap.newKeySet();
+
+    public ConversationContextBuilder(ChatMessageRepository chatMessageRepository,
+                                      ConversationSummaryRepository summaryRepository,
+                                      AIRequestService aiRequestService,
+                                      ChatPipelineExecutors pipelineExecutors,
+                                      @Value("${ai.chat.context.max-tokens:6000}") int maxTokens,
+                                      @Value("${ai.chat.context.recent-messages:40}") int recentMessages,
+                                      @Value("${ai.chat.context.summary-batch-messages:10}") int summaryBatchMessages) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.summaryRepository = summaryRepository;
+        this.aiRequestService = aiRequestService;
+        this.pipelineExecutors = pipelineExecutors;
+        this.maxTokens = Math.max(1, maxTokens);
+        this.recentMessages = Math.max(1, recentMessages);
+        this.summaryBatchMessages = Math.max(1, summaryBatchMessages);
+    }
+
+    /**
+     * 构建发送给AI服务的对话上下文
+     * 从最新消息向前选取，直到令牌预算用完或遇到已并入摘要的消息；最新一条消息总是保留
+     *
+     * @param sessionId 会话ID
+     * @return 按时间顺序排列的上下文消息，存在摘要时第一条为摘要系统消息
+     */
+    public List<ChatMessage> buildContext(String sessionId) {
+        List<ChatMessage> recent = new ArrayList<>(chatMessageRepository.findRecentBySessionId(sessionId, recentMessages));
+        Collections.reverse(recent);
+        Optional<ConversationSummary> summary = summaryRepository.findBySessionId(sessionId);
+
+        String summaryText = summary.map(existing -> SUMMARY_PREFIX + existing.getContent()).orElse(null);
+        // 为摘要和遗漏消息的提示预留预算
+        int budget = maxTokens - estimateTokens(ChatMessage.createSystemMessage(sessionId,
+                (summaryText != null ? summaryText + "\n" : "") + String.format(GAP_NOTE, Integer.MAX_VALUE)));
+
+        LinkedList<ChatMessage> selected = new LinkedList<>();
+        int usedTokens = 0;
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            ChatMessage message = recent.get(i);
+            if (summary.isPresent() && summary.get().covers(message.getTimestamp(), message.getId())) {
+                break;
+            }
+            if (message.getRole() == MessageRole.FUNCTION) {
+                continue;
+            }
+            int tokens = estimateTokens(message);
+            if (!selected.isEmpty() && usedTokens + tokens > budget) {
+                break;
+            }
+            selected.addFirst(message);
+            usedTokens += tokens;
+        }
+
+        // 既不在上下文中、也未并入摘要的旧消息：在上下文中注明，累积到一定数量时后台重新生成摘要
+        long totalMessages = recent.size() < recentMessages ? countContextMessages(recent) : countContextMessages(sessionId);
+        long pendingMessages = Math.max(0L,
+                totalMessages - summary.map(ConversationSummary::getCoveredMessageCount).orElse(0) - selected.size());
+        if (pendingMessages >= summaryBatchMessages && !selected.isEmpty()) {
+            scheduleSummary(sessionId, summary.orElse(null), selected.getFirst());
+        }
+
+        List<ChatMessage> context = new ArrayList<>(selected.size() + 1);
+        String header = pendingMessages > 0
+                ? (summaryText != null ? summaryText + "\n" : "") + String.format(GAP_NOTE, pendingMessages)
+                : summaryText;
+        if (header != null) {
+            context.add(ChatMessage.createSystemMessage(sessionId, header));
+        }
+        context.addAll(selected);
+        log.debug("Built conversation context for session: {}, messages: {}, estimatedTokens: {}, summary: {}, pending: {}",
+                sessionId, selected.size(), usedTokens, summary.isPresent(), pendingMessages);
+        return context;
+    }
+
+    /**
+     * 会话中会发送给AI服务的消息数（不含函数消息）
+     */
+    private long countContextMessages(String sessionId) {
+        return chatMessageRepository.countBySessionId(sessionId)
+                - chatMessageRepository.countBySessionIdAndRole(sessionId, MessageRole.FUNCTION);
+    }
+
+    private static long countContextMessages(List<ChatMessage> messages) {
+        return messages.stream().filter(message -> message.getRole() != MessageRole.FUNCTION).count();
+    }
+
+    /**
+     * 估算消息的令牌数
+     * 中日韩字符约每字一个令牌，其余字符约每4个一个令牌
+     */
+    static int estimateTokens(ChatMessage message) {
+        String content = message.getContent() != null ? message.getContent().getContent() : null;
+        if (content == null) {
+            return MESSAGE_OVERHEAD_TOKENS;
+        }
+        int cjkChars = 0;
+        int otherChars = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (Character.UnicodeScript.of(content.charAt(i)) == Character.UnicodeScript.HAN) {
+                cjkChars++;
+            } else {
+                otherChars++;
+            }
+        }
+        return MESSAGE_OVERHEAD_TOKENS + cjkChars + (otherChars + 3) / 4;
+    }
+
+    /**
+     * 在后台重新生成摘要，同一会话同时只有一个摘要任务；线程池繁忙时跳过，下一轮对话再触发
+     */
+    private void scheduleSummary(String sessionId, ConversationSummary previous, ChatMessage contextStart) {
+        if (!summarizingSessions.add(sessionId)) {
+            return;
+        }
+        try {
+            CompletableFuture.supplyAsync(() -> loadUnsummarizedMessages(sessionId, previous, contextStart),
+                            pipelineExecutors.turnExecutor())
+                    .thenCompose(messages -> summarize(sessionId, previous, messages))
+                    .whenComplete((ignored, throwable) -> {
+                        summarizingSessions.remove(sessionId);
+                        if (throwable != null) {
+                            log.warn("Failed to refresh conversation summary for session: {}, error: {}",
+                                    sessionId, throwable.getMessage());
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            summarizingSessions.remove(sessionId);
+            log.debug("Chat turn executor is busy, skipping summary refresh for session: {}", sessionId);
+        }
+    }
+
+    /**
+     * 读取摘要覆盖位置之后、上下文第一条消息之前的非函数消息，按（时间戳，ID）排列
+     * 按时间戳范围查询会包含边界秒内的全部消息，再按（时间戳，ID）排除已覆盖和已在上下文中的消息
+     */
+    private List<ChatMessage> loadUnsummarizedMessages(String sessionId, ConversationSummary previous, ChatMessage contextStart) {
+        LocalDateTime from = previous != null ? previous.getCoveredUntil() : EPOCH;
+        List<ChatMessage> messages = new ArrayList<>();
+        for (ChatMessage message : chatMessageRepository.findBySessionIdAndTimestampBetween(
+                sessionId, from, contextStart.getTimestamp())) {
+            boolean covered = previous != null && previous.covers(message.getTimestamp(), message.getId());
+            if (!covered && message.getRole() != MessageRole.FUNCTION && CURSOR_ORDER.compare(message, contextStart) < 0) {
+                messages.add(message);
+            }
+        }
+        messages.sort(CURSOR_ORDER);
+        return messages;
+    }
+
+    /**
+     * 将已有摘要和新增消息合并为新摘要
+     * 对话记录超过字符上限时只合并前面的部分消息，其余消息留待下一次摘要
+     */
+    private CompletableFuture<Void> summarize(String sessionId, ConversationSummary previous, List<ChatMessage> messages) {
+        StringBuilder transcript = new StringBuilder();
+        if (previous != null) {
+            transcript.append("已有摘要：\n").append(previous.getContent()).append("\n\n");
+        }
+        transcript.append("新增对话记录：\n");
+        int included = 0;
+        ChatMessage lastIncluded = null;
+        for (ChatMessage message : messages) {
+            String content = message.getContent() != null ? message.getContent().getContent() : null;
+            if (content == null || content.isEmpty()) {
+                included++;
+                lastIncluded = message;
+                continue;
+            }
+            String line = roleLabel(message.getRole()) + "：" + truncate(content, MAX_TRANSCRIPT_MESSAGE_CHARS) + "\n";
+            if (included > 0 && transcript.length() + line.length() > MAX_TRANSCRIPT_CHARS) {
+                break;
+            }
+            transcript.append(line);
+            included++;
+            lastIncluded = message;
+        }
+        if (included == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<ChatMessage> prompt = new ArrayList<>(2);
+        prompt.add(ChatMessage.createSystemMessage(sessionId, SUMMARY_INSTRUCTION));
+        prompt.add(ChatMessage.createUserMessage(sessionId, truncate(transcript.toString(), MAX_TRANSCRIPT_CHARS + MAX_SUMMARY_CHARS)));
+
+        int coveredCount = (previous != null ? previous.getCoveredMessageCount() : 0) + included;
+        ChatMessage lastCovered = lastIncluded;
+        return aiRequestService.sendRequestAsync(sessionId, prompt, Collections.emptyList())
+                .thenAcceptAsync(result -> {
+                    if (!result.isSuccess() || result.getContent() == null || result.getContent().trim().isEmpty()) {
+                        log.warn("AI returned no summary for session: {}, error: {}", sessionId, result.getError());
+                        return;
+                    }
+                    summaryRepository.save(ConversationSummary.of(sessionId,
+                            truncate(result.getContent().trim(), MAX_SUMMARY_CHARS),
+                            lastCovered.getTimestamp(), lastCovered.getId(), coveredCount));
+                    log.info("Conversation summary refreshed for session: {}, coveredMessages: {}", sessionId, coveredCount);
+                }, pipelineExecutors.turnExecutor());
+    }
+
+    private static String roleLabel(MessageRole role) {
+        switch (role) {
+            case USER:
+                return "用户";
+            case ASSISTANT:
+                return "助手";
+            default:
+                return "系统";
+        }
+    }
+
+    private static String truncate(String text, int maxChars) {
+        return text.length() <= maxChars ? text : text.substring(0, maxChars) + "…";
+    }
+}
@@ -8,16 +8,23 @@ import com.i0.agents.domain.services.AIConfigurationService;
 import com.i0.agents.domain.services.BusinessFunctionRegistry;
 import com.i0.agents.domain.services.mcp.MCPToolResult;
 import com.i0.agents.domain.valueobjects.BusinessFunction;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 /**
  * 工具执行处理服务
@@ -25,7 +32,6 @@ import java.util.concurrent.CompletableFuture;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ToolExecutionService {
 
     private final BusinessFunctionRegistry businessFunctionRegistry;
@@ -33,9 +39,37 @@ public class ToolExecutionService {
     private final UIEventService uiEventService;
     private final MCPProtocolManager mcpProtocolManager;
     private final AIConfigurationService configurationService;
+    private final ChatPipelineExecutors pipelineExecutors;
+    private final List<String> readOnlyToolPrefixes;
+
+    /**
+     * @param readOnlyToolPrefixes 只读工具名前缀，与AI响应缓存使用同一配置
+     */
+    public ToolExecutionService(BusinessFunctionRegistry businessFunctionRegistry,
+                                ObjectMapper objectMapper,
+                                UIEventService uiEventService,
+                                MCPProtocolManager mcpProtocolManager,
+                                AIConfigurationService configurationService,
+                                ChatPipelineExecutors pipelineExecutors,
+                                @Value("${ai.chat.response-cache.read-only-tool-prefixes:find_,search_,get_,list_,query_,count_}") String readOnlyToolPrefixes) {
+        this.businessFunctionRegistry = businessFunctionRegistry;
+        this.objectMapper = objectMapper;
+        this.uiEventService = uiEventService;
+        this.mcpProtocolManager = mcpProtocolManager;
+        this.configurationService = configurationService;
+        this.pipelineExecutors = pipelineExecutors;
+        this.readOnlyToolPrefixes = readOnlyToolPrefixes == null ? Collections.emptyList()
+                : Arrays.stream(readOnlyToolPrefixes.split(","))
+                        .map(String::trim)
+                        .filter(prefix -> !prefix.isEmpty())
+                        .collect(Collectors.toList());
+    }
 
     /**
      * 执行工具调用并生成响应
+     * 只读工具在工具线程池中并发执行；非只读工具按模型给出的顺序逐个执行，须等待其前面的所有调用完成，
+     * 其后的调用也等它完成后才开始。每个调用单独计时，超时即取消；
+     * 工具完成后立即推送其UI组件事件，结果仍按模型给出的调用顺序返回
      *
      * @param toolCalls 工具调用列表
      * @param sessionId 会话ID
@@ -43,43 +77,118 @@ public class ToolExecutionService {
      * @return 工具执行响应
      */
     public CompletableFuture<ToolExecutionResult> executeTools(List<ToolCallInfo> toolCalls, String sessionId, SseEmitter emitter) {
-        return CompletableFuture.supplyAsync(() -> {
-            List<ChatResponse> responses = new ArrayList<>();
-            boolean hasError = false;
+        List<CompletableFuture<ToolOutcome>> outcomes = new ArrayList<>(toolCalls.size());
+        // 最近一个非只读调用的完成，以及它之后已开始的只读调用
+        CompletableFuture<?> lastWrite = CompletableFuture.completedFuture(null);
+        List<CompletableFuture<ToolOutcome>> readsSinceWrite = new ArrayList<>();
+        for (ToolCallInfo toolCall : toolCalls) {
+            boolean readOnly = isReadOnlyTool(toolCall.getFunctionName());
+            CompletableFuture<?> predecessors = readOnly ? lastWrite
+                : CompletableFuture.allOf(lastWrite, CompletableFuture.allOf(readsSinceWrite.toArray(new CompletableFuture[0])));
+            CompletableFuture<ToolOutcome> outcome = predecessors.thenCompose(
+                ignored -> executeToolAsync(toolCall, readOnly, sessionId, emitter));
+            outcomes.add(outcome);
+            if (readOnly) {
+                readsSinceWrite.add(outcome);
+            } else {
+                lastWrite = outcome;
+                readsSinceWrite.clear();
+            }
+        }
 
-            for (ToolCallInfo toolCall : toolCalls) {
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> {
+                List<ChatResponse> responses = new ArrayList<>();
+                boolean hasError = false;
+                for (CompletableFuture<ToolOutcome> outcome : outcomes) {
+                    ToolOutcome toolOutcome = outcome.join();
+                    hasError |= toolOutcome.failed;
+                    if (toolOutcome.response != null) {
+                        responses.add(toolOutcome.response);
+                    }
+                }
+                return new ToolExecutionResult(responses, hasError);
+            });
+    }
+
+    /**
+     * 在工具线程池中执行单个工具调用
+     * 超时后中断执行线程；超时之后才完成的工具不再推送UI组件事件。
+     * 非只读工具超时时可能已经生效，告知模型结果未知，而不是报告执行失败
+     */
+    private CompletableFuture<ToolOutcome> executeToolAsync(ToolCallInfo toolCall, boolean readOnly,
+                                                            String sessionId, SseEmitter emitter) {
+        CompletableFuture<ChatResponse> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = pipelineExecutors.toolExecutor().submit(() -> {
                 try {
                     Map<String, Object> arguments = parseArguments(toolCall.getArguments());
-                    ChatResponse response = executeSingleTool(toolCall, arguments, sessionId, emitter);
-                    if (response != null) {
-                        responses.add(response);
+                    ChatResponse response = executeSingleTool(toolCall, arguments);
+                    // 立即发送UI Component事件（如果存在）
+                    if (result.complete(response) && response != null && response.hasUIComponent() && emitter != null) {
+                        uiEventService.sendUIComponentEvent(response.getUiComponent(), response.getData(), sessionId, emitter);
+                    }
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Tool executor is saturated, rejecting tool: {}", toolCall.getFunctionName());
+            return CompletableFuture.completedFuture(ToolOutcome.failed(
+                String.format("❌ %s: 服务繁忙，请稍后再试", toolCall.getFunctionName())));
+        }
+
+        return result
+            .orTimeout(pipelineExecutors.getToolTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .handle((response, throwable) -> {
+                if (throwable == null) {
+                    return ToolOutcome.succeeded(response);
+                }
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable;
+                if (cause instanceof TimeoutException) {
+                    task.cancel(true);
+                    log.warn("Tool execution timed out after {} ms: {}", pipelineExecutors.getToolTimeoutMillis(), toolCall.getFunctionName());
+                    if (!readOnly) {
+                        return ToolOutcome.failed(String.format(
+                            "⚠️ %s: 执行超时，操作可能已经生效也可能没有生效，请先查询确认当前状态，不要直接重试",
+                            toolCall.getFunctionName()));
                     }
-                } catch (Exception e) {
-                    hasError = true;
-                    String errorText = String.format("❌ %s: 执行异常 - %s", toolCall.getFunctionName(), e.getMessage());
-                    responses.add(ChatResponse.fromText(errorText));
-                    log.error("Tool execution error: {}", toolCall.getFunctionName(), e);
+                    return ToolOutcome.failed(String.format("❌ %s: 执行超时", toolCall.getFunctionName()));
                 }
+                log.error("Tool execution error: {}", toolCall.getFunctionName(), cause);
+                return ToolOutcome.failed(String.format("❌ %s: 执行异常 - %s", toolCall.getFunctionName(), cause.getMessage()));
+            });
+    }
+
+    private boolean isReadOnlyTool(String toolName) {
+        if (toolName == null) {
+            return false;
+        }
+        for (String prefix : readOnlyToolPrefixes) {
+            if (toolName.startsWith(prefix)) {
+                return true;
             }
-            return new ToolExecutionResult(responses, hasError);
-        });
+        }
+        return false;
     }
 
     /**
      * 执行单个工具
      */
-    private ChatResponse executeSingleTool(ToolCallInfo toolCall, Map<String, Object> arguments, String sessionId, SseEmitter emitter) {
+    private ChatResponse executeSingleTool(ToolCallInfo toolCall, Map<String, Object> arguments) {
         if (configurationService.isEnableMCPProtocol()) {
-            return executeMCPTool(toolCall, arguments, sessionId, emitter);
+            return executeMCPTool(toolCall, arguments);
         } else {
-            return executeBusinessFunction(toolCall, arguments, sessionId, emitter);
+            return executeBusinessFunction(toolCall, arguments);
         }
     }
 
     /**
      * 执行MCP工具
      */
-    private ChatResponse executeMCPTool(ToolCallInfo toolCall, Map<String, Object> arguments, String sessionId, SseEmitter emitter) {
+    private ChatResponse executeMCPTool(ToolCallInfo toolCall, Map<String, Object> arguments) {
         try {
             MCPToolResult mcpResult = mcpProtocolManager.executeTool(toolCall.getFunctionName(), arguments);
 
@@ -91,11 +200,6 @@ public class ToolExecutionService {
                         .textContent(resultText)
                         .build();
 
-                // 立即发送UI Component事件（如果存在）
-                if (response.hasUIComponent() && emitter != null) {
-                    uiEventService.sendUIComponentEvent(response.getUiComponent(), response.getData(), sessionId, emitter);
-                }
-
                 log.info("MCP tool executed successfully: {} from server: {} - {}",
                     toolCall.getFunctionName(), mcpResult.getServerName(), mcpResult.getResult());
 
@@ -115,7 +219,7 @@ public class ToolExecutionService {
     /**
      * 执行业务函数
      */
-    private ChatResponse executeBusinessFunction(ToolCallInfo toolCall, Map<String, Object> arguments, String sessionId, SseEmitter emitter) {
+    private ChatResponse executeBusinessFunction(ToolCallInfo toolCall, Map<String, Object> arguments) {
         try {
             BusinessFunction.FunctionCallResult result = businessFunctionRegistry.executeFunction(toolCall.getFunctionName(), arguments);
 
@@ -127,11 +231,6 @@ public class ToolExecutionService {
                         .textContent(resultText)
                         .build();
 
-                // 立即发送UI Component事件（如果存在）
-                if (response.hasUIComponent() && emitter != null) {
-                    uiEventService.sendUIComponentEvent(response.getUiComponent(), response.getData(), sessionId, emitter);
-                }
-
                 log.info("Business function executed successfully: {} - {}", toolCall.getFunctionName(), result.getResult());
 
                 return response;
@@ -177,6 +276,27 @@ public class ToolExecutionService {
         return summary.toString();
     }
 
+    /**
+     * 单个工具调用的执行结果
+     */
+    private static final class ToolOutcome {
+        private final ChatResponse response;
+        private final boolean failed;
+
+        private ToolOutcome(ChatResponse response, boolean failed) {
+            this.response = response;
+            this.failed = failed;
+        }
+
+        private static ToolOutcome succeeded(ChatResponse response) {
+            return new ToolOutcome(response, false);
+        }
+
+        private static ToolOutcome failed(String errorText) {
+            return new ToolOutcome(ChatResponse.fromText(errorText), true);
+        }
+    }
+
     /**
      * 工具执行结果
      */
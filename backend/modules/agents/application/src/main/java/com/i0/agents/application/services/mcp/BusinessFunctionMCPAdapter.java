@@ -84,6 +84,11 @@ public class BusinessFunctionMCPAdapter implements MCPServer {
         return MCPServerType.BUSINESS_FUNCTIONS;
     }
 
+    @Override
+    public long getToolsVersion() {
+        return businessFunctionRegistry != null ? businessFunctionRegistry.getVersion() : 0L;
+    }
+
     /**
      * 将BusinessFunction转换为MCPTool
      */
@@ -1,26 +1,34 @@
 package com.i0.agents.application.services.mcp;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.i0.agents.domain.services.mcp.MCPServer;
 import com.i0.agents.domain.services.mcp.MCPTool;
 import com.i0.agents.domain.services.mcp.MCPToolResult;
 import com.i0.agents.domain.valueobjects.mcp.MCPServerConfig;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * MCP协议管理器
  * 负责管理所有MCP服务器和工具的生命周期
+ * 工具查询走工具目录快照，服务器注册、注销或业务函数增减时才重建目录
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class MCPProtocolManager {
 
+    private final ObjectMapper objectMapper;
+
     private final Map<String, MCPServer> mcpServers = new ConcurrentHashMap<>();
     private final List<MCPServerConfig> serverConfigs = new ArrayList<>();
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private volatile ToolCatalog toolCatalog;
 
     /**
      * 注册MCP服务器
@@ -40,6 +48,7 @@ public class MCPProtocolManager {
         }
 
         mcpServers.put(serverName, server);
+        toolCatalog = null;
         log.info("Registered MCP server: {} (type: {})", serverName, server.getType());
     }
 
@@ -49,6 +58,7 @@ public class MCPProtocolManager {
     public boolean unregisterServer(String serverName) {
         MCPServer removed = mcpServers.remove(serverName);
         if (removed != null) {
+            toolCatalog = null;
             log.info("Unregistered MCP server: {}", serverName);
             return true;
         }
@@ -69,36 +79,46 @@ public class MCPProtocolManager {
         return new ArrayList<>(mcpServers.values());
     }
 
+    /**
+     * 获取当前工具目录
+     * 目录在服务器注册、注销后或服务器可用状态、工具版本变化时重建，其余请求直接复用
+     */
+    public ToolCatalog getToolCatalog() {
+        ToolCatalog current = toolCatalog;
+        if (current != null && !current.isStale(mcpServers)) {
+            return current;
+        }
+        synchronized (this) {
+            current = toolCatalog;
+            if (current == null || current.isStale(mcpServers)) {
+                current = ToolCatalog.build(catalogVersion.incrementAndGet(), new LinkedHashMap<>(mcpServers), objectMapper);
+                toolCatalog = current;
+                log.info("Rebuilt MCP tool catalog: version={}, servers={}, tools={}",
+                        current.getVersion(), mcpServers.size(), current.size());
+            }
+            return current;
+        }
+    }
+
     /**
      * 获取所有可用的工具
      */
     public List<MCPTool> getAllAvailableTools() {
-        return mcpServers.values().stream()
-                .filter(MCPServer::isAvailable)
-                .flatMap(server -> server.getAvailableTools().stream())
-                .collect(Collectors.toList());
+        return getToolCatalog().getTools();
     }
 
     /**
      * 根据工具名称查找工具
      */
     public Optional<MCPTool> findToolByName(String toolName) {
-        return mcpServers.values().stream()
-                .filter(MCPServer::isAvailable)
-                .flatMap(server -> server.getAvailableTools().stream())
-                .filter(tool -> tool.getName().equals(toolName))
-                .findFirst();
+        return getToolCatalog().findTool(toolName);
     }
 
     /**
      * 根据工具名称查找对应的服务器
      */
     public Optional<MCPServer> findServerByToolName(String toolName) {
-        return mcpServers.values().stream()
-                .filter(MCPServer::isAvailable)
-                .filter(server -> server.getAvailableTools().stream()
-                        .anyMatch(tool -> tool.getName().equals(toolName)))
-                .findFirst();
+        return getToolCatalog().findServer(toolName);
     }
 
     /**
@@ -152,6 +172,7 @@ public class MCPProtocolManager {
     public void clear() {
         int count = mcpServers.size();
         mcpServers.clear();
+        toolCatalog = null;
         log.info("Cleared {} registered MCP servers", count);
     }
 
@@ -0,0 +1,180 @@
+package com.i0.agents.application.services.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.agents.domain.services.mcp.MCPServer;
+import com.i0.agents.domain.services.mcp.MCPTool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 工具目录
+ * 所有可用MCP服务器工具的不可变快照：工具列表、按工具名的工具和服务器索引，
+ * 以及预先序列化好的请求体 tools 片段。服务器或业务函数注册、注销时整体重建，请求之间共享
+ */
+public final class ToolCatalog {
+
+    private static final ToolCatalog EMPTY = new ToolCatalog(0L, Collections.emptyList(), Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptyMap(), null);
+
+    private final long version;
+    private final List<MCPTool> tools;
+    private final Map<String, MCPTool> toolsByName;
+    private final Map<String, MCPServer> serversByToolName;
+    private final Map<String, SourceState> sources;
+    private final String toolsJson;
+
+    private ToolCatalog(long version, List<MCPTool> tools, Map<String, MCPTool> toolsByName,
+                        Map<String, MCPServer> serversByToolName, Map<String, SourceState> sources,
+                        ObjectMapper objectMapper) {
+        this.version = version;
+        this.tools = tools;
+        this.toolsByName = toolsByName;
+        this.serversByToolName = serversByToolName;
+        this.sources = sources;
+        this.toolsJson = tools.isEmpty() ? null : serializeTools(tools, objectMapper);
+    }
+
+    /**
+     * 空目录
+     */
+    public static ToolCatalog empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由工具列表直接构建目录（不关联服务器），用于临时指定工具的请求
+     *
+     * @param tools        工具列表
+     * @param objectMapper 序列化工具定义使用的ObjectMapper
+     */
+    public static ToolCatalog of(List<MCPTool> tools, ObjectMapper objectMapper) {
+        if (tools == null || tools.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, MCPTool> toolsByName = new HashMap<>();
+        tools.forEach(tool -> toolsByName.putIfAbsent(tool.getName(), tool));
+        return new ToolCatalog(0L, Collections.unmodifiableList(new ArrayList<>(tools)),
+                Collections.unmodifiableMap(toolsByName), Collections.emptyMap(), Collections.emptyMap(), objectMapper);
+    }
+
+    /**
+     * 由已注册的服务器构建目录，同名工具以先出现的服务器为准
+     *
+     * @param version      目录版本
+     * @param servers      服务器名称到服务器的映射
+     * @param objectMapper 序列化工具定义使用的ObjectMapper
+     */
+    static ToolCatalog build(long version, Map<String, MCPServer> servers, ObjectMapper objectMapper) {
+        List<MCPTool> tools = new ArrayList<>();
+        Map<String, MCPTool> toolsByName = new HashMap<>();
+        Map<String, MCPServer> serversByToolName = new HashMap<>();
+        Map<String, SourceState> sources = new HashMap<>();
+        servers.forEach((serverName, server) -> {
+            boolean available = server.isAvailable();
+            sources.put(serverName, new SourceState(server, available, server.getToolsVersion()));
+            if (!available) {
+                return;
+            }
+            for (MCPTool tool : server.getAvailableTools()) {
+                tools.add(tool);
+                toolsByName.putIfAbsent(tool.getName(), tool);
+                serversByToolName.putIfAbsent(tool.getName(), server);
+            }
+        });
+        return new ToolCatalog(version, Collections.unmodifiableList(tools), Collections.unmodifiableMap(toolsByName),
+                Collections.unmodifiableMap(serversByToolName), Collections.unmodifiableMap(sources), objectMapper);
+    }
+
+    /**
+     * 判断目录是否已过期：服务器集合、可用状态或工具版本与构建时不一致
+     */
+    boolean isStale(Map<String, MCPServer> servers) {
+        if (servers.size() != sources.size()) {
+            return true;
+        }
+        for (Map.Entry<String, MCPServer> entry : servers.entrySet()) {
+            SourceState source = sources.get(entry.getKey());
+            MCPServer server = entry.getValue();
+            if (source == null
+                    || source.server != server
+                    || source.available != server.isAvailable()
+                    || source.toolsVersion != server.getToolsVersion()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<MCPTool> getTools() {
+        return tools;
+    }
+
+    public boolean isEmpty() {
+        return tools.isEmpty();
+    }
+
+    public int size() {
+        return tools.size();
+    }
+
+    public Optional<MCPTool> findTool(String toolName) {
+        return Optional.ofNullable(toolName != null ? toolsByName.get(toolName) : null);
+    }
+
+    public Optional<MCPServer> findServer(String toolName) {
+        return Optional.ofNullable(toolName != null ? serversByToolName.get(toolName) : null);
+    }
+
+    /**
+     * 预先序列化的 OpenAI 兼容 tools 数组，目录为空时返回null
+     */
+    public String getToolsJson() {
+        return toolsJson;
+    }
+
+    private static String serializeTools(List<MCPTool> tools, ObjectMapper objectMapper) {
+        List<Map<String, Object>> definitions = new ArrayList<>(tools.size());
+        for (MCPTool tool : tools) {
+            Map<String, Object> function = new LinkedHashMap<>();
+            function.put("name", tool.getName());
+            function.put("description", tool.getDescription());
+            function.put("parameters", tool.getParameters());
+
+            Map<String, Object> definition = new LinkedHashMap<>();
+            definition.put("type", "function");
+            definition.put("function", function);
+            definitions.add(definition);
+        }
+        try {
+            return objectMapper.writeValueAsString(definitions);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("工具定义序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 构建目录时服务器的状态
+     */
+    private static final class SourceState {
+        private final MCPServer server;
+        private final boolean available;
+        private final long toolsVersion;
+
+        private SourceState(MCPServer server, boolean available, long toolsVersion) {
+            this.server = server;
+            this.available = available;
+            this.toolsVersion = toolsVersion;
+        }
+    }
+}
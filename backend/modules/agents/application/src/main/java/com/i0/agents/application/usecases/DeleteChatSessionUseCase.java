@@ -1,5 +1,6 @@
 package com.i0.agents.application.usecases;
 
+import com.i0.agents.domain.repositories.ChatMessageSearchRepository;
 import com.i0.agents.domain.repositories.ChatSessionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class DeleteChatSessionUseCase {
 
     private final ChatSessionRepository chatSessionRepository;
+    private final ChatMessageSearchRepository chatMessageSearchRepository;
 
     /**
      * 执行删除聊天会话
@@ -37,6 +39,9 @@ public class DeleteChatSessionUseCase {
         // 删除会话（逻辑删除）
         chatSessionRepository.deleteById(sessionId);
 
+        // 已删除会话的消息不再出现在检索结果中
+        chatMessageSearchRepository.deleteBySessionId(sessionId);
+
         log.info("Successfully deleted chat session: {}", sessionId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.i0.agents.application.usecases;
+
+import com.i0.agents.application.dto.input.ChatMessageHistoryInput;
+import com.i0.agents.application.dto.output.ChatMessageHistoryOutput;
+import com.i0.agents.application.dto.output.ChatMessageOutput;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.exceptions.AgentsException;
+import com.i0.agents.domain.repositories.ChatMessageRepository;
+import com.i0.agents.domain.repositories.ChatSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 查询会话历史消息用例
+ * 按（时间戳，ID）游标从最新消息向前分页，每页只读取一页消息，不加载完整历史
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FindChatMessagesUseCase {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
+
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatMessageRepository chatMessageRepository;
+
+    /**
+     * 查询一页历史消息
+     *
+     * @param input 查询输入
+     * @return 按时间顺序排列的一页消息和读取更早消息的游标
+     */
+    public ChatMessageHistoryOutput execute(ChatMessageHistoryInput input) {
+        log.debug("Finding chat messages for session: {}, cursor: {}, limit: {}",
+                input.getSessionId(), input.getCursor(), input.getLimit());
+
+        chatSessionRepository.findById(input.getSessionId())
+                .filter(session -> session.isInteractive())
+                .orElseThrow(() -> new AgentsException("聊天会话不存在或不可交互: " + input.getSessionId()));
+
+        int limit = normalizeLimit(input.getLimit());
+        CursorPosition before = input.getCursor() != null && !input.getCursor().isEmpty()
+                ? decodeCursor(input.getCursor()) : CursorPosition.LATEST;
+
+        // 多取一条判断是否还有更早的消息
+        List<ChatMessage> newestFirst = chatMessageRepository.findPageBySessionIdBefore(
+                input.getSessionId(), before.timestamp, before.id, limit + 1);
+        boolean hasMore = newestFirst.size() > limit;
+        List<ChatMessage> page = new ArrayList<>(hasMore ? newestFirst.subList(0, limit) : newestFirst);
+        Collections.reverse(page);
+
+        String nextCursor = hasMore ? encodeCursor(page.get(0)) : null;
+        List<ChatMessageOutput> messages = page.stream()
+                .map(ChatMessageOutput::from)
+                .collect(Collectors.toList());
+
+        return ChatMessageHistoryOutput.builder()
+                .messages(messages)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static int normalizeLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * 游标为消息时间戳和ID的 Base64URL 编码，对调用方不透明
+     */
+    static String encodeCursor(ChatMessage message) {
+        String position = message.getTimestamp() + CURSOR_SEPARATOR + message.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CursorPosition decodeCursor(String cursor) {
+        String position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new AgentsException("无效的分页游标: " + cursor, e);
+        }
+        int separator = position.indexOf(CURSOR_SEPARATOR);
+        if (separator <= 0 || separator == position.length() - 1) {
+            throw new AgentsException("无效的分页游标: " + cursor);
+        }
+        try {
+            return new CursorPosition(LocalDateTime.parse(position.substring(0, separator)), position.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new AgentsException("无效的分页游标: " + cursor, e);
+        }
+    }
+
+    /**
+     * 游标位置：消息的时间戳和ID
+     */
+    private static final class CursorPosition {
+        private static final CursorPosition LATEST = new CursorPosition(null, null);
+
+        private final LocalDateTime timestamp;
+        private final String id;
+
+        private CursorPosition(LocalDateTime timestamp, String id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+    }
+}
@@ -1,13 +1,14 @@
 package com.i0.agents.application.usecases;
 
 import com.i0.agents.application.dto.output.ConversationResult;
+import com.i0.agents.application.services.AIProviderRouter;
 import com.i0.agents.application.services.AIRequestService;
 import com.i0.agents.application.services.ToolExecutionService;
 import com.i0.agents.application.services.UIEventService;
 import com.i0.agents.application.services.mcp.MCPProtocolManager;
+import com.i0.agents.application.services.mcp.ToolCatalog;
 import com.i0.agents.domain.entities.ChatMessage;
 import com.i0.agents.domain.services.AIConfigurationService;
-import com.i0.agents.domain.services.mcp.MCPTool;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -15,6 +16,7 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * AI对话处理UseCase
@@ -49,44 +51,20 @@ public class ProcessAIConversationUseCase {
      * @return AI对话结果
      */
     public ConversationResult execute(ProcessAIConversationInput input, SseEmitter emitter) {
-        try {
-            // 1. 获取可用工具列表
-            List<MCPTool> availableTools = getAvailableTools();
-
-            // 2. 发送AI请求
-            AIRequestService.AIResponseResult aiResult = aiRequestService.sendRequest(input.getSessionId(), input.getMessages(), availableTools);
-
-            if (!aiResult.isSuccess()) {
-                log.warn("AI request failed for session: {}, error: {}", input.getSessionId(), aiResult.getError());
-                return ConversationResult.error(aiResult.getError());
-            }
+        return execute(input, emitter, null);
+    }
 
-            // 3. 检查是否有工具调用
-            if (aiResult.hasToolCalls()) {
-                // 4. 执行工具调用
-                ToolExecutionService.ToolExecutionResult executionResult = toolExecutionService
-                    .executeTools(aiResult.getToolCalls(), input.getSessionId(), emitter)
-                    .join();
-
-                if (executionResult.hasError()) {
-                    log.warn("Tool execution had errors for session: {}", input.getSessionId());
-                }
-
-                // 5. 返回工具执行结果（转换为ConversationResult）
-                ConversationResult result = ConversationResult.fromToolExecutionResult(executionResult);
-                log.debug("Tool execution completed for session: {}, UI components: {}", input.getSessionId(), result.getUIComponentCount());
-                return result;
-            } else {
-                // 6. 返回AI文本响应
-                log.debug("AI response received for session: {}, content: {}",
-                    input.getSessionId(), aiResult.getContent().length() > 100 ?
-                        aiResult.getContent().substring(0, 100) + "..." : aiResult.getContent());
-                return ConversationResult.fromText(aiResult.getContent());
-            }
-        } catch (Exception e) {
-            log.error("Error processing AI conversation for session: {}", input.getSessionId(), e);
-            return ConversationResult.error("对话处理失败，请稍后再试。");
-        }
+    /**
+     * 执行AI对话处理（支持文本增量回调）
+     * 同步等待 {@link #executeAsync(ProcessAIConversationInput, SseEmitter, Consumer)} 的结果
+     *
+     * @param input   对话输入参数
+     * @param emitter SSE发射器，用于推送UI组件事件（可为null）
+     * @param onDelta 文本增量回调，不为null时以流式方式请求AI服务，文本到达时立即回调
+     * @return AI对话结果
+     */
+    public ConversationResult execute(ProcessAIConversationInput input, SseEmitter emitter, Consumer<String> onDelta) {
+        return executeAsync(input, emitter, onDelta).join();
     }
 
     /**
@@ -97,38 +75,94 @@ public class ProcessAIConversationUseCase {
      * @return AI对话结果的CompletableFuture
      */
     public CompletableFuture<ConversationResult> executeAsync(ProcessAIConversationInput input, SseEmitter emitter) {
-        return CompletableFuture.supplyAsync(() -> execute(input, emitter));
+        return executeAsync(input, emitter, null);
     }
 
     /**
-     * 获取可用工具列表
+     * 异步执行AI对话处理（支持文本增量回调）
+     * AI请求由OkHttp异步执行，工具调用在工具线程池中执行，各阶段通过组合衔接，不阻塞任何线程等待
+     *
+     * @param input   对话输入参数
+     * @param emitter SSE发射器，用于推送UI组件事件（可为null）
+     * @param onDelta 文本增量回调，不为null时以流式方式请求AI服务
+     * @return AI对话结果的CompletableFuture，失败时以错误结果完成
      */
-    private List<MCPTool> getAvailableTools() {
+    public CompletableFuture<ConversationResult> executeAsync(ProcessAIConversationInput input, SseEmitter emitter,
+                                                              Consumer<String> onDelta) {
         try {
-            // 检查是否启用MCP协议
-            if (!configurationService.isEnableMCPProtocol()) {
-                log.debug("MCP protocol is disabled, no tools available");
-                return List.of();
-            }
+            // 1. 获取工具目录
+            ToolCatalog toolCatalog = getToolCatalog();
+
+            // 2. 发送AI请求
+            CompletableFuture<AIRequestService.AIResponseResult> request = onDelta != null
+                ? aiRequestService.streamRequestAsync(input.getSessionId(), input.getMessages(), toolCatalog, onDelta,
+                        input.getDeadlineNanos())
+                : aiRequestService.sendRequestAsync(input.getSessionId(), input.getMessages(), toolCatalog,
+                        input.getDeadlineNanos());
+
+            return request
+                .thenCompose(aiResult -> handleAIResult(input, emitter, aiResult))
+                .exceptionally(e -> {
+                    log.error("Error processing AI conversation for session: {}", input.getSessionId(), e);
+                    return ConversationResult.error("对话处理失败，请稍后再试。");
+                });
+        } catch (Exception e) {
+            log.error("Error processing AI conversation for session: {}", input.getSessionId(), e);
+            return CompletableFuture.completedFuture(ConversationResult.error("对话处理失败，请稍后再试。"));
+        }
+    }
+
+    /**
+     * 处理AI响应：有工具调用时执行工具，否则直接返回文本
+     */
+    private CompletableFuture<ConversationResult> handleAIResult(ProcessAIConversationInput input, SseEmitter emitter,
+                                                                 AIRequestService.AIResponseResult aiResult) {
+        if (!aiResult.isSuccess()) {
+            log.warn("AI request failed for session: {}, error: {}", input.getSessionId(), aiResult.getError());
+            return CompletableFuture.completedFuture(ConversationResult.error(aiResult.getError()));
+        }
 
-            // 从MCP协议管理器获取所有可用工具
-            List<MCPTool> availableTools = mcpProtocolManager.getAllAvailableTools();
+        // 3. 检查是否有工具调用
+        if (aiResult.hasToolCalls()) {
+            // 4. 执行工具调用，返回工具执行结果（转换为ConversationResult）
+            return toolExecutionService
+                .executeTools(aiResult.getToolCalls(), input.getSessionId(), emitter)
+                .thenApply(executionResult -> {
+                    if (executionResult.hasError()) {
+                        log.warn("Tool execution had errors for session: {}", input.getSessionId());
+                    }
+                    ConversationResult result = ConversationResult.fromToolExecutionResult(executionResult);
+                    log.debug("Tool execution completed for session: {}, UI components: {}", input.getSessionId(), result.getUIComponentCount());
+                    return result;
+                });
+        }
 
-            log.debug("Retrieved {} available tools from MCP servers", availableTools.size());
+        // 5. 返回AI文本响应
+        log.debug("AI response received for session: {}, content: {}",
+            input.getSessionId(), aiResult.getContent().length() > 100 ?
+                aiResult.getContent().substring(0, 100) + "..." : aiResult.getContent());
+        return CompletableFuture.completedFuture(ConversationResult.fromText(aiResult.getContent()));
+    }
 
-            // 记录可用工具的详细信息（调试级别）
-            if (log.isDebugEnabled()) {
-                availableTools.forEach(tool ->
-                    log.debug("Available tool: {} from server: {}",
-                        tool.getName(), tool.getSourceServer())
-                );
+    /**
+     * 获取工具目录
+     * 目录只在MCP服务器或业务函数注册、注销时重建，这里直接复用
+     */
+    private ToolCatalog getToolCatalog() {
+        try {
+            // 检查是否启用MCP协议
+            if (!configurationService.isEnableMCPProtocol()) {
+                log.debug("MCP protocol is disabled, no tools available");
+                return ToolCatalog.empty();
             }
 
-            return availableTools;
+            ToolCatalog toolCatalog = mcpProtocolManager.getToolCatalog();
+            log.debug("Using MCP tool catalog version {} with {} tools", toolCatalog.getVersion(), toolCatalog.size());
+            return toolCatalog;
 
         } catch (Exception e) {
             log.error("Failed to retrieve available tools from MCP servers", e);
-            return List.of();
+            return ToolCatalog.empty();
         }
     }
 
@@ -156,5 +190,11 @@ public class ProcessAIConversationUseCase {
          * 消息历史
          */
         private List<ChatMessage> messages;
+
+        /**
+         * AI请求的截止时间，以 {@link System#nanoTime()} 为基准，默认不限制
+         */
+        @lombok.Builder.Default
+        private long deadlineNanos = AIProviderRouter.NO_DEADLINE;
     }
 }
\ No newline at end of file
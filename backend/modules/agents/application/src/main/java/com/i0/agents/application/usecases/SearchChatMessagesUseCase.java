@@ -0,0 +1,206 @@
+package com.i0.agents.application.usecases;
+
+import com.i0.agents.application.dto.input.SearchChatMessagesInput;
+import com.i0.agents.application.dto.output.ChatMessageSearchOutput;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.entities.ChatSession;
+import com.i0.agents.domain.exceptions.AgentsException;
+import com.i0.agents.domain.repositories.ChatMessageRepository;
+import com.i0.agents.domain.repositories.ChatMessageSearchRepository;
+import com.i0.agents.domain.repositories.ChatSessionRepository;
+import com.i0.agents.domain.services.MessageTokenizer;
+import com.i0.agents.domain.valueobjects.MessageSearchHit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 跨会话检索聊天消息用例
+ * 关键词切分为检索词后查询检索词索引，只读取本页命中的消息和会话，
+ * 返回命中位置附近的内容片段并标记命中的关键词
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchChatMessagesUseCase {
+
+    static final int DEFAULT_SIZE = 20;
+    static final int MAX_SIZE = 50;
+    static final int SNIPPET_RADIUS = 30;
+
+    private static final String ELLIPSIS = "…";
+
+    private final ChatMessageSearchRepository chatMessageSearchRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatSessionRepository chatSessionRepository;
+
+    /**
+     * 检索一页消息
+     *
+     * @param input 检索输入
+     * @return 按相关度排列的一页命中消息
+     */
+    public ChatMessageSearchOutput execute(SearchChatMessagesInput input) {
+        if (input.getUserId() == null || input.getUserId().trim().isEmpty()) {
+            throw new AgentsException("用户ID不能为空");
+        }
+        int page = input.getPage() == null || input.getPage() < 0 ? 0 : input.getPage();
+        int size = normalizeSize(input.getSize());
+        List<String> terms = MessageTokenizer.queryTerms(input.getKeyword());
+        log.debug("Searching chat messages for user: {}, keyword: {}, terms: {}, page: {}, size: {}",
+                input.getUserId(), input.getKeyword(), terms, page, size);
+        if (terms.isEmpty()) {
+            return ChatMessageSearchOutput.builder()
+                    .results(Collections.emptyList())
+                    .page(page)
+                    .size(size)
+                    .hasMore(false)
+                    .build();
+        }
+
+        // 多取一条判断是否还有下一页
+        List<MessageSearchHit> hits = chatMessageSearchRepository.search(input.getUserId(), terms, page * size, size + 1);
+        boolean hasMore = hits.size() > size;
+        List<MessageSearchHit> pageHits = hasMore ? hits.subList(0, size) : hits;
+
+        Map<String, ChatMessage> messages = chatMessageRepository.findByIds(pageHits.stream()
+                        .map(MessageSearchHit::getMessageId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(ChatMessage::getId, Function.identity(), (first, second) -> first));
+        Map<String, Optional<ChatSession>> sessions = new HashMap<>();
+        List<String> keywords = keywords(input.getKeyword());
+
+        List<ChatMessageSearchOutput.Result> results = new ArrayList<>(pageHits.size());
+        for (MessageSearchHit hit : pageHits) {
+            ChatMessage message = messages.get(hit.getMessageId());
+            Optional<ChatSession> session = sessions.computeIfAbsent(hit.getSessionId(), chatSessionRepository::findById);
+            // 消息已删除或会话已不属于该用户时跳过
+            if (message == null || !session.filter(s -> input.getUserId().equals(s.getUserId())).isPresent()) {
+                continue;
+            }
+            results.add(ChatMessageSearchOutput.Result.builder()
+                    .messageId(message.getId())
+                    .sessionId(message.getSessionId())
+                    .sessionTitle(session.get().getTitle())
+                    .role(message.getRole().name())
+                    .snippet(highlight(message.getContent().getContent(), keywords))
+                    .score(hit.getScore())
+                    .timestamp(message.getTimestamp())
+                    .build());
+        }
+
+        return ChatMessageSearchOutput.builder()
+                .results(results)
+                .page(page)
+                .size(size)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * 截取第一个命中位置前后的内容片段，HTML转义后用 &lt;em&gt; 标记所有命中的关键词
+     *
+     * @param content  消息内容
+     * @param keywords 关键词，不区分大小写
+     * @return 内容片段
+     */
+    static String highlight(String content, List<String> keywords) {
+        if (content == null || content.isEmpty()) {
+            return "";
+        }
+        String lower = content.toLowerCase(Locale.ROOT);
+        int first = -1;
+        for (String keyword : keywords) {
+            int index = lower.indexOf(keyword);
+            if (index >= 0 && (first < 0 || index < first)) {
+                first = index;
+            }
+        }
+        int start = Math.max(0, (first < 0 ? 0 : first) - SNIPPET_RADIUS);
+        int end = Math.min(content.length(), (first < 0 ? 0 : first) + SNIPPET_RADIUS * 2);
+
+        // 标记片段内每个位置是否命中关键词
+        boolean[] matched = new boolean[end - start];
+        for (String keyword : keywords) {
+            int from = Math.max(0, start - keyword.length() + 1);
+            for (int index = lower.indexOf(keyword, from); index >= 0 && index < end; index = lower.indexOf(keyword, index + 1)) {
+                for (int i = Math.max(index, start); i < Math.min(index + keyword.length(), end); i++) {
+                    matched[i - start] = true;
+                }
+            }
+        }
+
+        StringBuilder snippet = new StringBuilder();
+        if (start > 0) {
+            snippet.append(ELLIPSIS);
+        }
+        for (int i = start; i < end; i++) {
+            boolean hit = matched[i - start];
+            if (hit && (i == start || !matched[i - start - 1])) {
+                snippet.append("<em>");
+            }
+            appendEscaped(snippet, content.charAt(i));
+            if (hit && (i + 1 == end || !matched[i + 1 - start])) {
+                snippet.append("</em>");
+            }
+        }
+        if (end < content.length()) {
+            snippet.append(ELLIPSIS);
+        }
+        return snippet.toString();
+    }
+
+    /**
+     * 按空白和标点拆分关键词用于标记命中位置
+     */
+    private static List<String> keywords(String keyword) {
+        if (keyword == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(Arrays.stream(keyword.toLowerCase(Locale.ROOT).split("[\\s\\p{Punct}，。？！、；：]+"))
+                .filter(part -> !part.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    private static void appendEscaped(StringBuilder builder, char c) {
+        switch (c) {
+            case '<':
+                builder.append("&lt;");
+                break;
+            case '>':
+                builder.append("&gt;");
+                break;
+            case '&':
+                builder.append("&amp;");
+                break;
+            case '"':
+                builder.append("&quot;");
+                break;
+            case '\'':
+                builder.append("&#39;");
+                break;
+            default:
+                builder.append(c);
+        }
+    }
+
+    private static int normalizeSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+}
@@ -4,6 +4,8 @@ import com.i0.agents.application.dto.input.SendMessageInput;
 import com.i0.agents.application.dto.output.ChatMessageOutput;
 import com.i0.agents.application.dto.output.ChatSessionOutput;
 import com.i0.agents.application.services.AIConversationCoordinator;
+import com.i0.agents.application.services.AIProviderRouter;
+import com.i0.agents.application.services.ConversationContextBuilder;
 import com.i0.agents.domain.entities.ChatMessage;
 import com.i0.agents.domain.entities.ChatSession;
 import com.i0.agents.domain.exceptions.AgentsException;
@@ -26,9 +28,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SendMessageUseCase {
 
+    /**
+     * 等待AI回复的超时时间（秒），同时作为AI请求的截止时间，到期后取消仍在进行的请求
+     */
+    private static final long AI_RESPONSE_TIMEOUT_SECONDS = 30;
+
     private final ChatSessionRepository chatSessionRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final AIConversationCoordinator aiConversationService;
+    private final ConversationContextBuilder conversationContextBuilder;
 
     /**
      * 发送消息并获取AI回复
@@ -48,10 +56,11 @@ public class SendMessageUseCase {
             ChatMessage userMessage = ChatMessage.createUserMessage(input.getSessionId(), input.getContent());
             userMessage = chatMessageRepository.save(userMessage);
 
-            // 3. 获取会话历史并调用AI服务
-            List<ChatMessage> sessionMessages = chatMessageRepository.findBySessionId(input.getSessionId());
-            com.i0.agents.application.dto.output.ConversationResult conversationResult = aiConversationService.chat(input.getSessionId(), sessionMessages)
-                .get(30, java.util.concurrent.TimeUnit.SECONDS);
+            // 3. 构建对话上下文（最近消息加滚动摘要）并调用AI服务
+            List<ChatMessage> sessionMessages = conversationContextBuilder.buildContext(input.getSessionId());
+            com.i0.agents.application.dto.output.ConversationResult conversationResult = aiConversationService.chat(input.getSessionId(), sessionMessages,
+                    AIProviderRouter.deadlineAfter(AI_RESPONSE_TIMEOUT_SECONDS, java.util.concurrent.TimeUnit.SECONDS))
+                .get(AI_RESPONSE_TIMEOUT_SECONDS, java.util.concurrent.TimeUnit.SECONDS);
 
             // 4. 验证和处理AI回复
             String processedResponse = processAIResponse(conversationResult.getResponse());
@@ -69,6 +78,7 @@ public class SendMessageUseCase {
             session.addMessage(userMessage);
             session.addMessage(assistantMessage);
             chatSessionRepository.save(session);
+            chatMessageRepository.flush(input.getSessionId());
 
             log.info("Message processed successfully for session: {}", input.getSessionId());
             return ChatMessageOutput.from(assistantMessage);
@@ -5,6 +5,9 @@ import com.i0.agents.application.dto.output.ChatMessageOutput;
 import com.i0.agents.application.dto.output.ConversationResult;
 import com.i0.agents.application.dto.output.StreamChatEvent;
 import com.i0.agents.application.services.AIConversationCoordinator;
+import com.i0.agents.application.services.AIProviderRouter;
+import com.i0.agents.application.services.ConversationContextBuilder;
+import com.i0.agents.application.services.ChatPipelineExecutors;
 import com.i0.agents.domain.entities.ChatMessage;
 import com.i0.agents.domain.entities.ChatSession;
 import com.i0.agents.domain.exceptions.AgentsException;
@@ -17,9 +20,13 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 流式聊天UseCase
@@ -30,13 +37,22 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class StreamChatUseCase {
 
+    /**
+     * 等待AI完整回复的超时时间（秒）
+     */
+    private static final long AI_RESPONSE_TIMEOUT_SECONDS = 30;
+
     private final ChatSessionRepository chatSessionRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final AIConversationCoordinator aiConversationCoordinator;
     private final SendMessageUseCase sendMessageUseCase;
+    private final ChatPipelineExecutors pipelineExecutors;
+    private final ConversationContextBuilder conversationContextBuilder;
 
     /**
      * 处理流式聊天请求
+     * 对话轮次拆分为组合的异步阶段：会话校验和用户消息保存在轮次线程池执行，AI请求由OkHttp异步执行，
+     * 回复保存再回到轮次线程池；等待模型输出期间不占用任何线程。线程池队列已满时立即返回繁忙提示
      *
      * @param input 流式聊天输入
      * @return SSE发射器用于实时推送消息
@@ -47,17 +63,25 @@ public class StreamChatUseCase {
         // 创建SSE发射器
         SseEmitter emitter = new SseEmitter(60000L); // 60秒超时
 
+        pipelineExecutors.turnStarted();
         try {
-            // 异步处理流式聊天
-            CompletableFuture.runAsync(() -> processStreamChat(input, emitter))
-                    .orTimeout(60, TimeUnit.SECONDS)
-                    .exceptionally(throwable -> {
-                        log.error("Stream chat processing failed for session: {}", input.getSessionId(), throwable);
-                        handleError(emitter, "处理失败: " + throwable.getMessage(), input.getSessionId());
-                        return null;
+            CompletableFuture.supplyAsync(() -> beginTurn(input, emitter), pipelineExecutors.turnExecutor())
+                    .thenCompose(turn -> requestAIResponse(input, emitter, turn)
+                            .thenAcceptAsync(result -> completeTurn(input, emitter, turn, result),
+                                    pipelineExecutors.turnExecutor()))
+                    .whenComplete((ignored, throwable) -> {
+                        pipelineExecutors.turnFinished();
+                        if (throwable != null) {
+                            handleFailure(emitter, throwable, input.getSessionId());
+                        }
                     });
 
+        } catch (RejectedExecutionException e) {
+            pipelineExecutors.turnFinished();
+            log.warn("Chat turn queue is full, rejecting session: {}", input.getSessionId());
+            handleError(emitter, "服务繁忙，请稍后再试", input.getSessionId());
         } catch (Exception e) {
+            pipelineExecutors.turnFinished();
             log.error("Failed to start stream chat for session: {}", input.getSessionId(), e);
             emitter.completeWithError(e);
         }
@@ -66,102 +90,116 @@ public class StreamChatUseCase {
     }
 
     /**
-     * 处理流式聊天的核心逻辑
+     * 对话轮次第一阶段：验证会话、保存用户消息并加载消息历史
      */
-    private void processStreamChat(StreamChatInput input, SseEmitter emitter) {
-        try {
-            // 1. 验证会话存在且可交互
-            ChatSession session = validateAndGetSession(input.getSessionId());
+    private ChatTurn beginTurn(StreamChatInput input, SseEmitter emitter) {
+        // 1. 验证会话存在且可交互
+        ChatSession session = validateAndGetSession(input.getSessionId());
+
+        // 2. 发送处理开始状态
+        sendEvent(emitter, StreamChatEvent.status("processing", input.getSessionId()));
 
-            // 2. 发送处理开始状态
-            sendEvent(emitter, StreamChatEvent.status("processing", input.getSessionId()));
+        // 3. 发送用户消息确认
+        sendEvent(emitter, StreamChatEvent.message("user", input.getContent(), input.getSessionId()));
 
-            // 3. 发送用户消息确认
-            sendEvent(emitter, StreamChatEvent.message("user", input.getContent(), input.getSessionId()));
+        // 4. 保存用户消息
+        ChatMessage userMessage = saveUserMessage(input);
+
+        // 5. 发送AI思考状态（如果启用）
+        if (input.isShowThinking()) {
+            sendEvent(emitter, StreamChatEvent.status("thinking", input.getSessionId()));
+        }
+
+        // 构建对话上下文：最近消息加滚动摘要
+        List<ChatMessage> sessionMessages = conversationContextBuilder.buildContext(input.getSessionId());
+        return new ChatTurn(session, userMessage, sessionMessages);
+    }
 
-            // 4. 保存用户消息
-            ChatMessage userMessage = saveUserMessage(input);
+    /**
+     * 对话轮次第二阶段：调用AI服务，文本增量到达时立即推送
+     */
+    private CompletableFuture<ConversationResult> requestAIResponse(StreamChatInput input, SseEmitter emitter, ChatTurn turn) {
+        // 6. 调用AI服务，到达截止时间时路由取消仍在进行的请求
+        return aiConversationCoordinator.chat(input.getSessionId(), turn.history, emitter,
+                        delta -> {
+                            turn.streamed.append(delta);
+                            sendDelta(emitter, StreamChatEvent.message("assistant", delta, input.getSessionId()));
+                        },
+                        AIProviderRouter.deadlineAfter(AI_RESPONSE_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .orTimeout(AI_RESPONSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
 
-            // 5. 发送AI思考状态（如果启用）
-            if (input.isShowThinking()) {
-                sendEvent(emitter, StreamChatEvent.status("thinking", input.getSessionId()));
-                // 模拟思考过程，给用户更好的体验
-                Thread.sleep(500);
-            }
+    /**
+     * 对话轮次第三阶段：补发剩余内容、保存AI回复并结束响应
+     */
+    private void completeTurn(StreamChatInput input, SseEmitter emitter, ChatTurn turn, ConversationResult conversationResult) {
+        // 7. 验证和处理AI回复
+        String processedResponse = processAIResponse(conversationResult.getResponse());
 
-            // 6. 调用AI服务获取响应
-            List<ChatMessage> sessionMessages = chatMessageRepository.findBySessionId(input.getSessionId());
-            ConversationResult conversationResult = aiConversationCoordinator.chat(input.getSessionId(), sessionMessages, emitter)
-                    .get(30, TimeUnit.SECONDS);
+        // 8. 补发未经增量推送的内容（工具执行结果、错误提示等）
+        sendRemainingResponse(emitter, processedResponse, turn.streamed.toString(), input);
 
-            // 7. 验证和处理AI回复
-            String processedResponse = processAIResponse(conversationResult.getResponse());
+        // 9. 保存AI回复消息（包含UI组件信息）
+        saveAssistantMessage(input.getSessionId(), processedResponse, turn.userMessage.getId(), conversationResult.getUiComponents());
 
-            // 8. 流式发送AI响应
-            streamAssistantResponse(emitter, processedResponse, input);
+        // 10. 更新会话状态
+        turn.session.addMessage(turn.userMessage);
+        chatSessionRepository.save(turn.session);
 
-            // 9. 保存AI回复消息（包含UI组件信息）
-            saveAssistantMessage(input.getSessionId(), processedResponse, userMessage.getId(), conversationResult.getUiComponents());
+        // 11. 发送完成状态（如果启用）
+        if (input.isShowCompleted()) {
+            sendEvent(emitter, StreamChatEvent.completed(input.getSessionId()));
+        }
 
-            // 10. 更新会话状态
-            session.addMessage(userMessage);
-            chatSessionRepository.save(session);
+        // 12. 完成流式响应
+        emitter.complete();
 
-            // 11. 发送完成状态（如果启用）
-            if (input.isShowCompleted()) {
-                sendEvent(emitter, StreamChatEvent.completed(input.getSessionId()));
-            }
+        // 13. 写入本轮尚未写入存储的消息，客户端已收到完整响应，不影响响应延迟
+        chatMessageRepository.flush(input.getSessionId());
 
-            // 12. 完成流式响应
-            emitter.complete();
+        log.info("Stream chat completed successfully for session: {}", input.getSessionId());
+    }
 
-            log.info("Stream chat completed successfully for session: {}", input.getSessionId());
-
-        } catch (java.util.concurrent.TimeoutException e) {
-            log.error("AI service timeout for session: {}", input.getSessionId());
-            handleError(emitter, "AI服务响应超时，请稍后再试", input.getSessionId());
-        } catch (java.util.concurrent.ExecutionException e) {
-            log.error("AI service execution failed for session: {}", input.getSessionId(), e);
-            handleError(emitter, "AI服务暂时不可用，请稍后再试", input.getSessionId());
-        } catch (InterruptedException e) {
-            log.error("AI service interrupted for session: {}", input.getSessionId());
-            Thread.currentThread().interrupt();
-            handleError(emitter, "服务请求被中断，请重试", input.getSessionId());
-        } catch (Exception e) {
-            log.error("Stream chat processing failed for session: {}", input.getSessionId(), e);
-            handleError(emitter, "处理失败: " + e.getMessage(), input.getSessionId());
+    /**
+     * 处理对话轮次中任一阶段的失败
+     */
+    private void handleFailure(SseEmitter emitter, Throwable throwable, String sessionId) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+        if (cause instanceof TimeoutException) {
+            log.error("AI service timeout for session: {}", sessionId);
+            handleError(emitter, "AI服务响应超时，请稍后再试", sessionId);
+        } else if (cause instanceof RejectedExecutionException) {
+            log.warn("Chat turn queue is full, rejecting session: {}", sessionId);
+            handleError(emitter, "服务繁忙，请稍后再试", sessionId);
+        } else {
+            log.error("Stream chat processing failed for session: {}", sessionId, cause);
+            handleError(emitter, "处理失败: " + cause.getMessage(), sessionId);
         }
     }
 
     /**
-     * 流式发送AI助手回复
+     * 发送AI回复中尚未推送的内容
+     * 已推送内容是最终回复的前缀时只补发剩余部分，否则（如工具调用结果）完整发送
      */
-    private void streamAssistantResponse(SseEmitter emitter, String response, StreamChatInput input) {
+    private void sendRemainingResponse(SseEmitter emitter, String response, String streamed, StreamChatInput input) {
+        String remaining = response.startsWith(streamed) ? response.substring(streamed.length()) : response;
+        if (!remaining.isEmpty()) {
+            sendEvent(emitter, StreamChatEvent.message("assistant", remaining, input.getSessionId()));
+        }
+    }
+
+    /**
+     * 推送文本增量
+     * 推送失败（客户端断开）时抛出异常，由AI请求取消上游响应流
+     */
+    private void sendDelta(SseEmitter emitter, StreamChatEvent event) {
         try {
-            // 按字符分割模拟打字效果
-            String[] words = response.split(" ");
-            for (int i = 0; i < words.length; i++) {
-                String word = words[i];
-
-                // 如果不是最后一个词，添加空格
-                if (i < words.length - 1) {
-                    word += " ";
-                }
-
-                sendEvent(emitter, StreamChatEvent.message("assistant", word, input.getSessionId()));
-
-                // 打字延迟（模拟AI思考输出）
-                Thread.sleep(input.getTypingSpeed());
-            }
-        } catch (InterruptedException e) {
-            log.error("Streaming response interrupted for session: {}", input.getSessionId());
-            Thread.currentThread().interrupt();
-            // 发送剩余内容
-            sendEvent(emitter, StreamChatEvent.message("assistant", response, input.getSessionId()));
-        } catch (Exception e) {
-            log.error("Error streaming response for session: {}", input.getSessionId(), e);
-            // 发送完整内容作为后备
-            sendEvent(emitter, StreamChatEvent.message("assistant", response, input.getSessionId()));
+            emitter.send(SseEmitter.event()
+                    .name(event.getEventType())
+                    .data(event.toJson()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -254,4 +292,20 @@ public class StreamChatUseCase {
     public ChatMessageOutput sendMessage(com.i0.agents.application.dto.input.SendMessageInput input) {
         return sendMessageUseCase.execute(input);
     }
-}
\ No newline at end of file
+
+    /**
+     * 对话轮次在各阶段之间传递的状态
+     */
+    private static final class ChatTurn {
+        private final ChatSession session;
+        private final ChatMessage userMessage;
+        private final List<ChatMessage> history;
+        private final StringBuilder streamed = new StringBuilder();
+
+        private ChatTurn(ChatSession session, ChatMessage userMessage, List<ChatMessage> history) {
+            this.session = session;
+            this.userMessage = userMessage;
+            this.history = history;
+        }
+    }
+}
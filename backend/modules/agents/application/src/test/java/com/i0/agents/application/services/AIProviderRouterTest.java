@@ -0,0 +1,273 @@
+package com.i0.agents.application.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.agents.application.services.AIRequestService.AIResponseResult;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.services.AIConfigurationService;
+import com.i0.agents.domain.valueobjects.AIProviderEndpoint;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * AIProviderRouter 测试
+ * 使用本地桩服务模拟多个提供商，验证故障转移、按耗时和失败率选择、探索、熔断、对冲请求和截止时间
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AIProviderRouter 测试")
+class AIProviderRouterTest {
+
+    @Mock
+    private AIConfigurationService configurationService;
+
+    private final List<HttpServer> stubProviders = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        stubProviders.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    @DisplayName("提供商返回5xx时转移到备用提供商，之后优先选择有耗时样本的提供商")
+    void shouldFailOver_AndPreferProviderWithLatencySamples() throws Exception {
+        // Given
+        AtomicInteger primaryHits = new AtomicInteger();
+        AIProviderEndpoint primary = startStubProvider("primary", 503, "{}", 0, primaryHits);
+        AIProviderEndpoint secondary = startStubProvider("secondary", 200, reply("备用提供商的回复"), 0, new AtomicInteger());
+        when(configurationService.getRoutingProviders()).thenReturn(Arrays.asList(primary, secondary));
+        when(configurationService.isRetryEnabled()).thenReturn(true);
+        when(configurationService.getMaxRetries()).thenReturn(2);
+        AIProviderRouter router = router(false, 0, 5);
+
+        // When
+        AIResponseResult first = service(router).sendRequest("session-1", messages(), Collections.emptyList());
+        AIResponseResult second = service(router).sendRequest("session-1", messages(), Collections.emptyList());
+
+        // Then
+        assertThat(first.isSuccess()).isTrue();
+        assertThat(first.getContent()).isEqualTo("备用提供商的回复");
+        assertThat(second.getContent()).isEqualTo("备用提供商的回复");
+        assertThat(primaryHits).hasValue(1);
+        assertThat(router.getFailovers()).isEqualTo(1);
+        assertThat(router.getFailures("primary")).isEqualTo(1);
+        assertThat(router.getRequests("secondary")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("连续失败达到阈值后熔断，熔断期内不再请求该提供商")
+    void shouldOpenCircuit_AfterConsecutiveFailures() throws Exception {
+        // Given
+        AtomicInteger hits = new AtomicInteger();
+        AIProviderEndpoint primary = startStubProvider("primary", 500, "{}", 0, hits);
+        when(configurationService.getRoutingProviders()).thenReturn(Collections.singletonList(primary));
+        when(configurationService.isRetryEnabled()).thenReturn(false);
+        AIProviderRouter router = router(false, 0, 2);
+        AIRequestService service = service(router);
+
+        // When
+        service.sendRequest("session-1", messages(), Collections.emptyList());
+        service.sendRequest("session-1", messages(), Collections.emptyList());
+        AIResponseResult rejected = service.sendRequest("session-1", messages(), Collections.emptyList());
+
+        // Then
+        assertThat(rejected.isSuccess()).isFalse();
+        assertThat(rejected.getError()).isEqualTo(AIProviderRouter.UNAVAILABLE_MESSAGE);
+        assertThat(hits).hasValue(2);
+        assertThat(router.getCircuitState("primary")).isEqualTo(1.0);
+        assertThat(router.getShortCircuited()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("首个请求超过对冲延迟仍未返回时向下一个提供商发送请求，先返回的结果生效")
+    void shouldHedgeSlowRequest() throws Exception {
+        // Given
+        AIProviderEndpoint slow = startStubProvider("slow", 200, reply("慢速回复"), 3000, new AtomicInteger());
+        AIProviderEndpoint fast = startStubProvider("fast", 200, reply("快速回复"), 0, new AtomicInteger());
+        when(configurationService.getRoutingProviders()).thenReturn(Arrays.asList(slow, fast));
+        when(configurationService.isRetryEnabled()).thenReturn(true);
+        when(configurationService.getMaxRetries()).thenReturn(1);
+        AIProviderRouter router = router(true, 50, 5);
+
+        // When
+        long startedAt = System.nanoTime();
+        AIResponseResult result = service(router).sendRequest("session-1", messages(), Collections.emptyList());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        // Then
+        assertThat(result.getContent()).isEqualTo("快速回复");
+        assertThat(elapsedMillis).isLessThan(2000);
+        assertThat(router.getHedges()).isEqualTo(1);
+        assertThat(router.getHedgeWins()).isEqualTo(1);
+        assertThat(router.getLatencyAverage("fast")).isPositive();
+    }
+
+    @Test
+    @DisplayName("退避时间随重试轮次增长且不超过上限")
+    void shouldBoundJitteredBackoff() {
+        AIProviderRouter router = new AIProviderRouter(configurationService, false, 0, 5, 30, 100, 300, 0.0);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(router.backoffMillis(1)).isBetween(0L, 100L);
+            assertThat(router.backoffMillis(2)).isBetween(0L, 200L);
+            assertThat(router.backoffMillis(10)).isBetween(0L, 300L);
+        }
+    }
+
+    @Test
+    @DisplayName("到达截止时间时以超时结果完成，并取消仍在进行的请求")
+    void shouldCancelInFlightAttempt_WhenDeadlineReached() throws Exception {
+        // Given
+        AIProviderEndpoint primary = endpoint("primary");
+        when(configurationService.getRoutingProviders()).thenReturn(Collections.singletonList(primary));
+        when(configurationService.isRetryEnabled()).thenReturn(false);
+        AIProviderRouter router = router(false, 0, 5);
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        // When
+        AIResponseResult result = router.route("session-1", (endpoint, attempt) -> attempt.onCancel(cancelled::countDown),
+                false, AIProviderRouter.deadlineAfter(100, TimeUnit.MILLISECONDS)).get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getError()).isEqualTo(AIProviderRouter.TIMEOUT_MESSAGE);
+        assertThat(cancelled.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(router.getTimeouts()).isEqualTo(1);
+        assertThat(router.getFailures("primary")).isZero();
+    }
+
+    @Test
+    @DisplayName("剩余时间不足退避时不再重试，以最后一次的错误结果完成")
+    void shouldNotRetry_WhenBackoffExceedsDeadline() throws Exception {
+        // Given
+        AIProviderEndpoint primary = endpoint("primary");
+        when(configurationService.getRoutingProviders()).thenReturn(Collections.singletonList(primary));
+        when(configurationService.isRetryEnabled()).thenReturn(true);
+        when(configurationService.getMaxRetries()).thenReturn(3);
+        AIProviderRouter router = new AIProviderRouter(configurationService, false, 0, 5, 30,
+                1_000_000_000L, 1_000_000_000L, 0.0);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        AIResponseResult result = router.route("session-1", (endpoint, attempt) -> {
+            calls.incrementAndGet();
+            attempt.fail(AIResponseResult.error("服务繁忙"), true);
+        }, false, AIProviderRouter.deadlineAfter(1, TimeUnit.SECONDS)).get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(result.getError()).isEqualTo("服务繁忙");
+        assertThat(calls).hasValue(1);
+        assertThat(router.getRetries()).isZero();
+    }
+
+    @Test
+    @DisplayName("失败率计入排序，尚无样本的提供商优先获得样本")
+    void shouldRankByLatencyAndFailures() {
+        // Given
+        AIProviderEndpoint failing = endpoint("failing");
+        AIProviderEndpoint healthy = endpoint("healthy");
+        AIProviderEndpoint fresh = endpoint("fresh");
+        when(configurationService.getRoutingProviders()).thenReturn(Arrays.asList(failing, healthy));
+        when(configurationService.isRetryEnabled()).thenReturn(true);
+        when(configurationService.getMaxRetries()).thenReturn(1);
+        AIProviderRouter router = router(false, 0, 5);
+
+        // When
+        router.route("session-1", (endpoint, attempt) -> {
+            if (endpoint == failing) {
+                attempt.fail(AIResponseResult.error("服务繁忙"), true);
+            } else {
+                attempt.succeed(AIResponseResult.success("回复"));
+            }
+        }, false).join();
+        when(configurationService.getRoutingProviders()).thenReturn(Arrays.asList(failing, healthy, fresh));
+
+        // Then
+        assertThat(router.candidates()).extracting(AIProviderEndpoint::getName)
+                .containsExactly("fresh", "healthy", "failing");
+    }
+
+    @Test
+    @DisplayName("按探索概率把排在后面的提供商提到最前")
+    void shouldExploreLowerRankedProviders() {
+        // Given
+        when(configurationService.getRoutingProviders()).thenReturn(Arrays.asList(endpoint("first"), endpoint("second")));
+        AIProviderRouter router = new AIProviderRouter(configurationService, false, 0, 5, 30, 10, 20, 1.0);
+
+        // When
+        List<AIProviderEndpoint> candidates = router.candidates();
+
+        // Then
+        assertThat(candidates).extracting(AIProviderEndpoint::getName).containsExactly("second", "first");
+        assertThat(router.getExplorations()).isEqualTo(1);
+    }
+
+    private AIProviderRouter router(boolean hedgeEnabled, long hedgeMinDelayMs, int failureThreshold) {
+        return new AIProviderRouter(configurationService, hedgeEnabled, hedgeMinDelayMs, failureThreshold, 30, 10, 20, 0.0);
+    }
+
+    private AIRequestService service(AIProviderRouter router) {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .readTimeout(5, TimeUnit.SECONDS)
+                .build();
+        return new AIRequestService(client, new ObjectMapper(), configurationService,
+                new AIResponseCache(false, 10, 60, ""), router);
+    }
+
+    private AIProviderEndpoint startStubProvider(String name, int status, String body, long delayMillis,
+                                                 AtomicInteger hits) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            hits.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(delayMillis);
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(bytes);
+                }
+            } catch (InterruptedException | IOException e) {
+                // 客户端取消请求或桩服务关闭
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        stubProviders.add(server);
+        return AIProviderEndpoint.of(name, "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions",
+                "stub-key", name + "-model", 5);
+    }
+
+    private static AIProviderEndpoint endpoint(String name) {
+        return AIProviderEndpoint.of(name, "http://127.0.0.1:1/v1/chat/completions", "stub-key", name + "-model", 5);
+    }
+
+    private static String reply(String content) {
+        return "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"}}]}";
+    }
+
+    private static List<ChatMessage> messages() {
+        return Collections.singletonList(ChatMessage.createUserMessage("session", "你好"));
+    }
+}
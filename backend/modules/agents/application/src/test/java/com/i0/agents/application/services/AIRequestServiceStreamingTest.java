@@ -0,0 +1,164 @@
+package com.i0.agents.application.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.services.AIConfigurationService;
+import com.i0.agents.domain.valueobjects.AIProviderEndpoint;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+
+/**
+ * AIRequestService 流式请求测试
+ * 使用本地桩服务按 OpenAI 兼容格式逐块输出SSE数据
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AIRequestService 流式请求测试")
+class AIRequestServiceStreamingTest {
+
+    @Mock
+    private AIConfigurationService configurationService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicReference<String> receivedBody = new AtomicReference<>();
+    private HttpServer stubProvider;
+    private AIRequestService aiRequestService;
+
+    @BeforeEach
+    void setUp() {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .readTimeout(5, TimeUnit.SECONDS)
+                .build();
+        aiRequestService = new AIRequestService(client, objectMapper, configurationService,
+                new AIResponseCache(false, 10, 60, ""),
+                new AIProviderRouter(configurationService, false, 0, 5, 30, 10, 10, 0.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (stubProvider != null) {
+            stubProvider.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("文本增量按到达顺序回调，完整文本随结果返回")
+    void shouldForwardContentDeltas() throws Exception {
+        // Given
+        startStubProvider(
+                "{\"choices\":[{\"delta\":{\"role\":\"assistant\",\"content\":\"\"}}]}",
+                "{\"choices\":[{\"delta\":{\"content\":\"你好\"}}]}",
+                "{\"choices\":[{\"delta\":{\"content\":\"，我是助手\"}}]}",
+                "{\"choices\":[{\"delta\":{},\"finish_reason\":\"stop\"}]}",
+                "[DONE]");
+        List<String> deltas = new ArrayList<>();
+
+        // When
+        AIRequestService.AIResponseResult result = aiRequestService.streamRequest(
+                "session-1", messages(), Collections.emptyList(), deltas::add);
+
+        // Then
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(deltas).containsExactly("你好", "，我是助手");
+        assertThat(result.getContent()).isEqualTo("你好，我是助手");
+        assertThat(result.hasToolCalls()).isFalse();
+        JsonNode request = objectMapper.readTree(receivedBody.get());
+        assertThat(request.get("stream").asBoolean()).isTrue();
+        assertThat(request.get("model").asText()).isEqualTo("stub-model");
+    }
+
+    @Test
+    @DisplayName("分散在多个数据块中的工具调用按序号拼接")
+    void shouldReassembleToolCallDeltas() throws Exception {
+        // Given
+        startStubProvider(
+                "{\"choices\":[{\"delta\":{\"tool_calls\":[{\"index\":0,\"id\":\"call_1\",\"type\":\"function\","
+                        + "\"function\":{\"name\":\"search_employee\",\"arguments\":\"\"}}]}}]}",
+                "{\"choices\":[{\"delta\":{\"tool_calls\":[{\"index\":0,\"function\":{\"arguments\":\"{\\\"name\\\":\"}}]}}]}",
+                "{\"choices\":[{\"delta\":{\"tool_calls\":[{\"index\":1,\"id\":\"call_2\",\"type\":\"function\","
+                        + "\"function\":{\"name\":\"search_location\",\"arguments\":\"{}\"}}]}}]}",
+                "{\"choices\":[{\"delta\":{\"tool_calls\":[{\"index\":0,\"function\":{\"arguments\":\"\\\"张三\\\"}\"}}]}}]}",
+                "{\"choices\":[{\"delta\":{},\"finish_reason\":\"tool_calls\"}]}",
+                "[DONE]");
+        List<String> deltas = new ArrayList<>();
+
+        // When
+        AIRequestService.AIResponseResult result = aiRequestService.streamRequest(
+                "session-2", messages(), Collections.emptyList(), deltas::add);
+
+        // Then
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(deltas).isEmpty();
+        assertThat(result.getToolCalls())
+                .extracting(AIRequestService.ToolCallInfo::getFunctionName, AIRequestService.ToolCallInfo::getArguments)
+                .containsExactly(
+                        tuple("search_employee", "{\"name\":\"张三\"}"),
+                        tuple("search_location", "{}"));
+    }
+
+    @Test
+    @DisplayName("增量回调失败时取消请求并返回错误")
+    void shouldCancel_When_DeltaConsumerFails() throws Exception {
+        // Given
+        startStubProvider(
+                "{\"choices\":[{\"delta\":{\"content\":\"第一段\"}}]}",
+                "{\"choices\":[{\"delta\":{\"content\":\"第二段\"}}]}",
+                "[DONE]");
+
+        // When
+        AIRequestService.AIResponseResult result = aiRequestService.streamRequest(
+                "session-3", messages(), Collections.emptyList(), delta -> {
+                    throw new IllegalStateException("客户端已断开");
+                });
+
+        // Then
+        assertThat(result.isSuccess()).isFalse();
+    }
+
+    private void startStubProvider(String... chunks) throws Exception {
+        stubProvider = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubProvider.createContext("/v1/chat/completions", exchange -> {
+            receivedBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                for (String chunk : chunks) {
+                    body.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    body.flush();
+                }
+            } catch (IOException e) {
+                // 客户端取消请求
+            }
+        });
+        stubProvider.start();
+
+        when(configurationService.getRoutingProviders()).thenReturn(Collections.singletonList(AIProviderEndpoint.of("stub",
+                "http://127.0.0.1:" + stubProvider.getAddress().getPort() + "/v1/chat/completions",
+                "stub-key", "stub-model", 5)));
+    }
+
+    private static List<ChatMessage> messages() {
+        return Collections.singletonList(ChatMessage.createUserMessage("session", "你好"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.i0.agents.application.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.agents.application.services.AIRequestService.AIResponseResult;
+import com.i0.agents.application.services.AIRequestService.ToolCallInfo;
+import com.i0.agents.application.services.mcp.ToolCatalog;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.services.mcp.MCPTool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AIResponseCache 测试
+ * 验证缓存键的规范化、只读工具调用的判定、容量淘汰和命中率统计
+ */
+@DisplayName("AIResponseCache 测试")
+class AIResponseCacheTest {
+
+    private static final String API_URL = "https://api.example.com/v1/chat/completions";
+
+    private final AIResponseCache cache = new AIResponseCache(true, 2, 600, "find_,search_");
+
+    @Test
+    @DisplayName("会话不同、首尾空白不同的相同消息窗口得到相同的缓存键")
+    void shouldProduceSameKey_ForEquivalentWindows() {
+        // Given
+        List<ChatMessage> first = Collections.singletonList(ChatMessage.createUserMessage("session-1", "有多少在职员工？"));
+        List<ChatMessage> second = Collections.singletonList(ChatMessage.createUserMessage("session-2", "  有多少在职员工？\n"));
+
+        // When & Then
+        assertThat(cache.key(API_URL, "model-a", first, ToolCatalog.empty()))
+                .isEqualTo(cache.key(API_URL, "model-a", second, ToolCatalog.empty()))
+                .isNotEqualTo(cache.key(API_URL, "model-b", first, ToolCatalog.empty()))
+                .isNotEqualTo(cache.key(API_URL, "model-a", first, ToolCatalog.of(Collections.singletonList(tool("find_employee")), new ObjectMapper())));
+    }
+
+    @Test
+    @DisplayName("命中后返回缓存的响应并统计命中率")
+    void shouldReturnCachedResponse_AndReportHitRate() {
+        // Given
+        String key = cache.key(API_URL, "model-a", messages("你好"), ToolCatalog.empty());
+
+        // When
+        assertThat(cache.get(key)).isEmpty();
+        cache.put(key, AIResponseResult.success("你好，有什么可以帮您？"));
+
+        // Then
+        assertThat(cache.get(key)).get().extracting(AIResponseResult::getContent).isEqualTo("你好，有什么可以帮您？");
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("失败的响应和含非只读工具调用的响应不缓存")
+    void shouldSkipFailedAndSideEffectingResponses() {
+        // Given
+        String failedKey = cache.key(API_URL, "model-a", messages("查询"), ToolCatalog.empty());
+        String createKey = cache.key(API_URL, "model-a", messages("创建员工张三"), ToolCatalog.empty());
+        String searchKey = cache.key(API_URL, "model-a", messages("查找员工张三"), ToolCatalog.empty());
+
+        // When
+        cache.put(failedKey, AIResponseResult.error("AI服务响应异常，请稍后再试。"));
+        cache.put(createKey, AIResponseResult.success("", Arrays.asList(
+                new ToolCallInfo("find_employee", "{}"),
+                new ToolCallInfo("create_employee", "{\"name\":\"张三\"}"))));
+        cache.put(searchKey, AIResponseResult.success("", Collections.singletonList(
+                new ToolCallInfo("search_employee", "{\"name\":\"张三\"}"))));
+
+        // Then
+        assertThat(cache.get(failedKey)).isEmpty();
+        assertThat(cache.get(createKey)).isEmpty();
+        assertThat(cache.get(searchKey)).isPresent();
+        assertThat(cache.getSkipped()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("超出容量时淘汰最久未使用的条目")
+    void shouldEvictLeastRecentlyUsedEntry() {
+        // Given
+        cache.put("a", AIResponseResult.success("A"));
+        cache.put("b", AIResponseResult.success("B"));
+        cache.get("a");
+
+        // When
+        cache.put("c", AIResponseResult.success("C"));
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isPresent();
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("c")).isPresent();
+    }
+
+    private static List<ChatMessage> messages(String content) {
+        return Collections.singletonList(ChatMessage.createUserMessage("session", content));
+    }
+
+    private static MCPTool tool(String name) {
+        return MCPTool.builder()
+                .name(name)
+                .description(name)
+                .parameters(Collections.emptyMap())
+                .build();
+    }
+}
@@ -0,0 +1,233 @@
+package com.i0.agents.application.services;
+
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.enums.MessageRole;
+import com.i0.agents.domain.repositories.ChatMessageRepository;
+import com.i0.agents.domain.repositories.ConversationSummaryRepository;
+import com.i0.agents.domain.valueobjects.ConversationSummary;
+import com.i0.agents.domain.valueobjects.MessageContent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * ConversationContextBuilder 测试
+ * 验证令牌预算内的消息选取、摘要替代旧消息、遗漏消息提示、函数消息不计数和后台摘要生成
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConversationContextBuilder 测试")
+class ConversationContextBuilderTest {
+
+    private static final String SESSION_ID = "session-1";
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private ConversationSummaryRepository summaryRepository;
+
+    @Mock
+    private AIRequestService aiRequestService;
+
+    private ChatPipelineExecutors pipelineExecutors;
+
+    @BeforeEach
+    void setUp() {
+        pipelineExecutors = new ChatPipelineExecutors(2, 10, 1, 10, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipelineExecutors.destroy();
+    }
+
+    @Test
+    @DisplayName("超出令牌预算的旧消息不发送，最新消息总是保留，并注明遗漏的消息数")
+    void shouldKeepRecentMessagesWithinTokenBudget() {
+        // Given
+        List<ChatMessage> history = messages(4, "这是一条二十个汉字左右的较长消息内容用于估算");
+        when(chatMessageRepository.findRecentBySessionId(SESSION_ID, 10)).thenReturn(newestFirst(history));
+        when(summaryRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.empty());
+        int perMessage = ConversationContextBuilder.estimateTokens(history.get(0));
+        ConversationContextBuilder builder = builder(gapNoteTokens() + perMessage * 2 + 1, 10, 5);
+
+        // When
+        List<ChatMessage> context = builder.buildContext(SESSION_ID);
+
+        // Then
+        assertThat(context).hasSize(3);
+        assertThat(context.get(0).getRole()).isEqualTo(MessageRole.SYSTEM);
+        assertThat(context.get(0).getContent().getContent()).isEqualTo(String.format(ConversationContextBuilder.GAP_NOTE, 2));
+        assertThat(context.subList(1, 3)).containsExactly(history.get(2), history.get(3));
+        verify(aiRequestService, never()).sendRequestAsync(anyString(), anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("函数消息不发送，也不计入待摘要的消息数")
+    void shouldNotCountFunctionMessagesAsPending() {
+        // Given
+        List<ChatMessage> history = new ArrayList<>(messages(4, "消息"));
+        history.add(2, ChatMessage.reconstruct("function-1", SESSION_ID, MessageRole.FUNCTION,
+                MessageContent.of("{\"result\":1}"), null, null, START.plusMinutes(1).plusSeconds(30), null));
+        history.add(4, ChatMessage.reconstruct("function-2", SESSION_ID, MessageRole.FUNCTION,
+                MessageContent.of("{\"result\":2}"), null, null, START.plusMinutes(2).plusSeconds(30), null));
+        when(chatMessageRepository.findRecentBySessionId(SESSION_ID, 10)).thenReturn(newestFirst(history));
+        when(summaryRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.empty());
+
+        // When
+        List<ChatMessage> context = builder(1000, 10, 2).buildContext(SESSION_ID);
+
+        // Then
+        assertThat(context).extracting(ChatMessage::getRole).doesNotContain(MessageRole.FUNCTION, MessageRole.SYSTEM);
+        assertThat(context).hasSize(4);
+        verify(chatMessageRepository, never()).findBySessionIdAndTimestampBetween(anyString(), any(), any());
+        verify(aiRequestService, never()).sendRequestAsync(anyString(), anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("已并入摘要的消息以摘要系统消息代替")
+    void shouldReplaceCoveredMessagesWithSummary() {
+        // Given
+        List<ChatMessage> history = messages(4, "你好");
+        when(chatMessageRepository.findRecentBySessionId(SESSION_ID, 10)).thenReturn(newestFirst(history));
+        when(summaryRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.of(
+                ConversationSummary.of(SESSION_ID, "用户在咨询入职流程", history.get(1).getTimestamp(), history.get(1).getId(), 2)));
+
+        // When
+        List<ChatMessage> context = builder(1000, 10, 5).buildContext(SESSION_ID);
+
+        // Then
+        assertThat(context).hasSize(3);
+        assertThat(context.get(0).getRole()).isEqualTo(MessageRole.SYSTEM);
+        assertThat(context.get(0).getContent().getContent()).contains("用户在咨询入职流程");
+        assertThat(context.subList(1, 3)).containsExactly(history.get(2), history.get(3));
+    }
+
+    @Test
+    @DisplayName("未摘要的旧消息达到批量阈值时后台生成摘要")
+    void shouldRefreshSummaryInBackground_When_PendingMessagesReachBatch() {
+        // Given
+        List<ChatMessage> history = messages(10, "消息");
+        when(chatMessageRepository.findRecentBySessionId(SESSION_ID, 4)).thenReturn(newestFirst(history.subList(6, 10)));
+        when(chatMessageRepository.countBySessionId(SESSION_ID)).thenReturn(10L);
+        when(summaryRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.empty());
+        when(chatMessageRepository.findBySessionIdAndTimestampBetween(eq(SESSION_ID), any(), eq(history.get(6).getTimestamp())))
+                .thenReturn(new ArrayList<>(history.subList(0, 7)));
+        when(aiRequestService.sendRequestAsync(eq(SESSION_ID), anyList(), anyList()))
+                .thenReturn(CompletableFuture.completedFuture(AIRequestService.AIResponseResult.success("用户发送了六条消息")));
+
+        // When
+        List<ChatMessage> context = builder(1000, 4, 2).buildContext(SESSION_ID);
+
+        // Then
+        assertThat(context.get(0).getContent().getContent()).isEqualTo(String.format(ConversationContextBuilder.GAP_NOTE, 6));
+        assertThat(context.subList(1, context.size())).containsExactlyElementsOf(history.subList(6, 10));
+        ArgumentCaptor<ConversationSummary> saved = ArgumentCaptor.forClass(ConversationSummary.class);
+        verify(summaryRepository, timeout(5000)).save(saved.capture());
+        assertThat(saved.getValue().getContent()).isEqualTo("用户发送了六条消息");
+        assertThat(saved.getValue().getCoveredUntil()).isEqualTo(history.get(5).getTimestamp());
+        assertThat(saved.getValue().getCoveredUntilId()).isEqualTo(history.get(5).getId());
+        assertThat(saved.getValue().getCoveredMessageCount()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("与摘要覆盖位置同一秒的消息按ID区分，之后的消息仍在上下文中")
+    void shouldKeepSameSecondMessagesAfterCoveredId() {
+        // Given
+        List<ChatMessage> history = sameSecondMessages(4, "你好");
+        when(chatMessageRepository.findRecentBySessionId(SESSION_ID, 10)).thenReturn(newestFirst(history));
+        when(summaryRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.of(
+                ConversationSummary.of(SESSION_ID, "用户在咨询入职流程", START, history.get(1).getId(), 2)));
+
+        // When
+        List<ChatMessage> context = builder(1000, 10, 5).buildContext(SESSION_ID);
+
+        // Then
+        assertThat(context).hasSize(3);
+        assertThat(context.get(0).getRole()).isEqualTo(MessageRole.SYSTEM);
+        assertThat(context.subList(1, 3)).containsExactly(history.get(2), history.get(3));
+    }
+
+    @Test
+    @DisplayName("与上下文第一条消息同一秒的旧消息并入摘要，覆盖位置记录最后一条消息ID")
+    void shouldSummarizeSameSecondMessagesBeforeContextStart() {
+        // Given
+        List<ChatMessage> history = sameSecondMessages(10, "消息");
+        when(chatMessageRepository.findRecentBySessionId(SESSION_ID, 4)).thenReturn(newestFirst(history.subList(6, 10)));
+        when(chatMessageRepository.countBySessionId(SESSION_ID)).thenReturn(10L);
+        when(summaryRepository.findBySessionId(SESSION_ID)).thenReturn(Optional.empty());
+        when(chatMessageRepository.findBySessionIdAndTimestampBetween(eq(SESSION_ID), any(), eq(START)))
+                .thenReturn(new ArrayList<>(history));
+        when(aiRequestService.sendRequestAsync(eq(SESSION_ID), anyList(), anyList()))
+                .thenReturn(CompletableFuture.completedFuture(AIRequestService.AIResponseResult.success("同一秒内的六条消息")));
+
+        // When
+        List<ChatMessage> context = builder(1000, 4, 2).buildContext(SESSION_ID);
+
+        // Then
+        assertThat(context.subList(1, context.size())).containsExactlyElementsOf(history.subList(6, 10));
+        ArgumentCaptor<ConversationSummary> saved = ArgumentCaptor.forClass(ConversationSummary.class);
+        verify(summaryRepository, timeout(5000)).save(saved.capture());
+        assertThat(saved.getValue().getCoveredUntil()).isEqualTo(START);
+        assertThat(saved.getValue().getCoveredUntilId()).isEqualTo(history.get(5).getId());
+        assertThat(saved.getValue().getCoveredMessageCount()).isEqualTo(6);
+        assertThat(saved.getValue().covers(START, history.get(5).getId())).isTrue();
+        assertThat(saved.getValue().covers(START, history.get(6).getId())).isFalse();
+    }
+
+    private ConversationContextBuilder builder(int maxTokens, int recentMessages, int summaryBatchMessages) {
+        return new ConversationContextBuilder(chatMessageRepository, summaryRepository, aiRequestService,
+                pipelineExecutors, maxTokens, recentMessages, summaryBatchMessages);
+    }
+
+    private static int gapNoteTokens() {
+        return ConversationContextBuilder.estimateTokens(ChatMessage.createSystemMessage(SESSION_ID,
+                String.format(ConversationContextBuilder.GAP_NOTE, Integer.MAX_VALUE)));
+    }
+
+    private static List<ChatMessage> messages(int count, String content) {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(ChatMessage.reconstruct("message-" + i, SESSION_ID,
+                    i % 2 == 0 ? MessageRole.USER : MessageRole.ASSISTANT,
+                    MessageContent.of(content + i), null, null, START.plusMinutes(i), null));
+        }
+        return messages;
+    }
+
+    private static List<ChatMessage> sameSecondMessages(int count, String content) {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(ChatMessage.reconstruct("message-" + i, SESSION_ID,
+                    i % 2 == 0 ? MessageRole.USER : MessageRole.ASSISTANT,
+                    MessageContent.of(content + i), null, null, START, null));
+        }
+        return messages;
+    }
+
+    private static List<ChatMessage> newestFirst(List<ChatMessage> messages) {
+        List<ChatMessage> reversed = new ArrayList<>(messages);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+}
@@ -0,0 +1,168 @@
+package com.i0.agents.application.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.agents.application.dto.output.ChatResponse;
+import com.i0.agents.application.services.AIRequestService.ToolCallInfo;
+import com.i0.agents.application.services.mcp.MCPProtocolManager;
+import com.i0.agents.domain.services.AIConfigurationService;
+import com.i0.agents.domain.services.BusinessFunctionRegistry;
+import com.i0.agents.domain.valueobjects.BusinessFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * ToolExecutionService 测试
+ * 验证只读工具并发执行、非只读工具按顺序逐个执行、单个工具超时和结果顺序
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ToolExecutionService 测试")
+class ToolExecutionServiceTest {
+
+    @Mock
+    private BusinessFunctionRegistry businessFunctionRegistry;
+
+    @Mock
+    private UIEventService uiEventService;
+
+    @Mock
+    private MCPProtocolManager mcpProtocolManager;
+
+    @Mock
+    private AIConfigurationService configurationService;
+
+    private ChatPipelineExecutors pipelineExecutors;
+    private ToolExecutionService toolExecutionService;
+
+    @BeforeEach
+    void setUp() {
+        pipelineExecutors = new ChatPipelineExecutors(1, 10, 4, 10, 1);
+        toolExecutionService = new ToolExecutionService(businessFunctionRegistry, new ObjectMapper(), uiEventService,
+                mcpProtocolManager, configurationService, pipelineExecutors, "find_,search_,query_");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipelineExecutors.destroy();
+    }
+
+    @Test
+    @DisplayName("多个只读工具调用并发执行，结果按调用顺序返回")
+    void shouldExecuteToolsConcurrently_AndKeepCallOrder() {
+        // Given
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(businessFunctionRegistry.executeFunction(eq("search_employee"), anyMap())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(5, TimeUnit.SECONDS);
+            return BusinessFunction.FunctionCallResult.success("找到员工");
+        });
+        when(businessFunctionRegistry.executeFunction(eq("search_client"), anyMap())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(5, TimeUnit.SECONDS);
+            return BusinessFunction.FunctionCallResult.success("找到客户");
+        });
+
+        // When
+        ToolExecutionService.ToolExecutionResult result = toolExecutionService.executeTools(Arrays.asList(
+                new ToolCallInfo("search_employee", "{}"),
+                new ToolCallInfo("search_client", "{}")), "session-1", null).join();
+
+        // Then
+        assertThat(result.hasError()).isFalse();
+        assertThat(result.getResponses())
+                .extracting(ChatResponse::getTextContent)
+                .containsExactly("✅ search_employee: 找到员工", "✅ search_client: 找到客户");
+    }
+
+    @Test
+    @DisplayName("工具超时后返回超时提示，不影响其他工具，也不再推送UI组件事件")
+    void shouldReportTimeout_When_ToolExceedsTimeout() {
+        // Given
+        when(businessFunctionRegistry.executeFunction(eq("query_report"), anyMap())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return BusinessFunction.FunctionCallResult.success("完成", Collections.emptyMap(), "chart");
+        });
+        when(businessFunctionRegistry.executeFunction(eq("create_employee"), anyMap()))
+                .thenReturn(BusinessFunction.FunctionCallResult.success("已创建", Collections.emptyMap(), "employee-card"));
+        SseEmitter emitter = new SseEmitter();
+
+        // When
+        ToolExecutionService.ToolExecutionResult result = toolExecutionService.executeTools(Arrays.asList(
+                new ToolCallInfo("query_report", "{}"),
+                new ToolCallInfo("create_employee", "{\"name\":\"张三\"}")), "session-2", emitter).join();
+
+        // Then
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.getResponses())
+                .extracting(ChatResponse::getTextContent)
+                .containsExactly("❌ query_report: 执行超时", "✅ create_employee: 已创建");
+        verify(uiEventService, times(1)).sendUIComponentEvent(any(), any(), eq("session-2"), eq(emitter));
+    }
+
+    @Test
+    @DisplayName("非只读工具按调用顺序逐个执行，其后的只读工具等待其完成")
+    void shouldRunMutatingToolsSequentiallyInCallOrder() {
+        // Given
+        List<String> events = new CopyOnWriteArrayList<>();
+        for (String tool : Arrays.asList("create_employee", "update_salary", "search_employee")) {
+            when(businessFunctionRegistry.executeFunction(eq(tool), anyMap())).thenAnswer(invocation -> {
+                events.add("start " + tool);
+                Thread.sleep(100);
+                events.add("end " + tool);
+                return BusinessFunction.FunctionCallResult.success("完成");
+            });
+        }
+
+        // When
+        ToolExecutionService.ToolExecutionResult result = toolExecutionService.executeTools(Arrays.asList(
+                new ToolCallInfo("create_employee", "{}"),
+                new ToolCallInfo("update_salary", "{}"),
+                new ToolCallInfo("search_employee", "{}")), "session-3", null).join();
+
+        // Then
+        assertThat(result.hasError()).isFalse();
+        assertThat(events).containsExactly(
+                "start create_employee", "end create_employee",
+                "start update_salary", "end update_salary",
+                "start search_employee", "end search_employee");
+    }
+
+    @Test
+    @DisplayName("非只读工具超时时告知结果未知，而不是报告执行失败")
+    void shouldReportUnknownOutcome_When_MutatingToolTimesOut() {
+        // Given
+        when(businessFunctionRegistry.executeFunction(eq("create_employee"), anyMap())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return BusinessFunction.FunctionCallResult.success("已创建");
+        });
+
+        // When
+        ToolExecutionService.ToolExecutionResult result = toolExecutionService.executeTools(
+                Collections.singletonList(new ToolCallInfo("create_employee", "{}")), "session-4", null).join();
+
+        // Then
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.getTextResponse())
+                .startsWith("⚠️ create_employee: 执行超时")
+                .contains("可能已经生效")
+                .doesNotContain("❌");
+    }
+}
@@ -1,5 +1,7 @@
 package com.i0.agents.application.services.mcp;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.i0.agents.domain.services.mcp.MCPTool;
 import com.i0.agents.domain.services.mcp.MCPToolResult;
 import com.i0.agents.domain.services.mcp.MCPServer;
@@ -28,7 +30,7 @@ class MCPProtocolManagerTest {
 
     @BeforeEach
     void setUp() {
-        mcpProtocolManager = new MCPProtocolManager();
+        mcpProtocolManager = new MCPProtocolManager(new ObjectMapper());
     }
 
     @Test
@@ -226,6 +228,51 @@ class MCPProtocolManagerTest {
         assertThat(mcpProtocolManager.getAvailableServerCount()).isEqualTo(0);
     }
 
+    @Test
+    void shouldReuseToolCatalogUntilToolsChange() {
+        // Given
+        MCPTool tool1 = createMockTool("tool1", "Tool 1");
+        MCPTool tool2 = createMockTool("tool2", "Tool 2");
+        when(mockServer1.getName()).thenReturn("server1");
+        when(mockServer1.isAvailable()).thenReturn(true);
+        when(mockServer1.getToolsVersion()).thenReturn(1L, 1L, 2L);
+        when(mockServer1.getAvailableTools()).thenReturn(Arrays.asList(tool1), Arrays.asList(tool1, tool2));
+        mcpProtocolManager.registerServer(mockServer1);
+
+        // When
+        ToolCatalog first = mcpProtocolManager.getToolCatalog();
+        ToolCatalog second = mcpProtocolManager.getToolCatalog();
+        ToolCatalog afterChange = mcpProtocolManager.getToolCatalog();
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(afterChange).isNotSameAs(first);
+        assertThat(afterChange.getVersion()).isGreaterThan(first.getVersion());
+        assertThat(afterChange.getTools()).containsExactly(tool1, tool2);
+        assertThat(afterChange.findServer("tool2")).contains(mockServer1);
+        verify(mockServer1, times(2)).getAvailableTools();
+    }
+
+    @Test
+    void shouldPreSerializeToolDefinitions() throws Exception {
+        // Given
+        when(mockServer1.getName()).thenReturn("server1");
+        when(mockServer1.isAvailable()).thenReturn(true);
+        when(mockServer1.getAvailableTools()).thenReturn(Arrays.asList(createMockTool("searchTool", "Search")));
+        mcpProtocolManager.registerServer(mockServer1);
+
+        // When
+        ToolCatalog catalog = mcpProtocolManager.getToolCatalog();
+
+        // Then
+        JsonNode tools = new ObjectMapper().readTree(catalog.getToolsJson());
+        assertThat(tools).hasSize(1);
+        assertThat(tools.get(0).get("type").asText()).isEqualTo("function");
+        assertThat(tools.get(0).at("/function/name").asText()).isEqualTo("searchTool");
+        assertThat(tools.get(0).at("/function/parameters/type").asText()).isEqualTo("object");
+        assertThat(ToolCatalog.empty().getToolsJson()).isNull();
+    }
+
     private MCPTool createMockTool(String name, String description) {
         return MCPTool.builder()
                 .name(name)
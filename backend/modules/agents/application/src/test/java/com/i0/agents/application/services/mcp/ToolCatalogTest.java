@@ -0,0 +1,164 @@
+package com.i0.agents.application.services.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.i0.agents.domain.services.mcp.MCPServer;
+import com.i0.agents.domain.services.mcp.MCPTool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * ToolCatalog单元测试
+ * 覆盖目录构建、过期判断以及使用注入的ObjectMapper预先序列化工具定义
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ToolCatalog测试")
+class ToolCatalogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private MCPServer employeeServer;
+
+    @Mock
+    private MCPServer reportServer;
+
+    @Test
+    @DisplayName("服务器集合、可用状态和工具版本都未变化时目录不过期，可用状态变化后过期")
+    void shouldBecomeStale_WhenServerAvailabilityChanges() {
+        // Given
+        when(employeeServer.isAvailable()).thenReturn(true, true, false);
+        when(employeeServer.getToolsVersion()).thenReturn(1L);
+        when(employeeServer.getAvailableTools()).thenReturn(Collections.singletonList(tool("find_employee")));
+        Map<String, MCPServer> servers = servers("employee", employeeServer);
+        ToolCatalog catalog = ToolCatalog.build(1L, servers, objectMapper);
+
+        // When & Then
+        assertThat(catalog.isStale(servers)).isFalse();
+        assertThat(catalog.isStale(servers)).isTrue();
+    }
+
+    @Test
+    @DisplayName("服务器工具版本变化后目录过期")
+    void shouldBecomeStale_WhenToolsVersionChanges() {
+        // Given
+        when(employeeServer.isAvailable()).thenReturn(true);
+        when(employeeServer.getToolsVersion()).thenReturn(1L, 2L);
+        when(employeeServer.getAvailableTools()).thenReturn(Collections.singletonList(tool("find_employee")));
+        Map<String, MCPServer> servers = servers("employee", employeeServer);
+
+        // When
+        ToolCatalog catalog = ToolCatalog.build(1L, servers, objectMapper);
+
+        // Then
+        assertThat(catalog.isStale(servers)).isTrue();
+    }
+
+    @Test
+    @DisplayName("新增服务器或同名服务器被替换后目录过期")
+    void shouldBecomeStale_WhenServersAddedOrReplaced() {
+        // Given
+        when(employeeServer.isAvailable()).thenReturn(true);
+        when(employeeServer.getAvailableTools()).thenReturn(Collections.singletonList(tool("find_employee")));
+        ToolCatalog catalog = ToolCatalog.build(1L, servers("employee", employeeServer), objectMapper);
+
+        Map<String, MCPServer> added = servers("employee", employeeServer);
+        added.put("report", reportServer);
+
+        // When & Then
+        assertThat(catalog.isStale(added)).isTrue();
+        assertThat(catalog.isStale(servers("employee", reportServer))).isTrue();
+    }
+
+    @Test
+    @DisplayName("不可用服务器的工具不进入目录，同名工具以先出现的服务器为准")
+    void shouldSkipUnavailableServersAndKeepFirstToolByName() {
+        // Given
+        MCPTool employeeTool = tool("find_employee");
+        when(employeeServer.isAvailable()).thenReturn(true);
+        when(employeeServer.getAvailableTools()).thenReturn(Collections.singletonList(employeeTool));
+        when(reportServer.isAvailable()).thenReturn(true);
+        when(reportServer.getAvailableTools()).thenReturn(Arrays.asList(tool("find_employee"), tool("find_report")));
+        MCPServer offlineServer = mock(MCPServer.class);
+        when(offlineServer.isAvailable()).thenReturn(false);
+
+        Map<String, MCPServer> servers = servers("employee", employeeServer);
+        servers.put("report", reportServer);
+        servers.put("offline", offlineServer);
+
+        // When
+        ToolCatalog catalog = ToolCatalog.build(3L, servers, objectMapper);
+
+        // Then
+        assertThat(catalog.getVersion()).isEqualTo(3L);
+        assertThat(catalog.size()).isEqualTo(3);
+        assertThat(catalog.findTool("find_employee")).containsSame(employeeTool);
+        assertThat(catalog.findServer("find_employee")).containsSame(employeeServer);
+        assertThat(catalog.findServer("find_report")).containsSame(reportServer);
+        verify(offlineServer, never()).getAvailableTools();
+    }
+
+    @Test
+    @DisplayName("使用注入的ObjectMapper按OpenAI兼容格式预先序列化工具定义")
+    void shouldSerializeToolDefinitionsWithInjectedObjectMapper() throws Exception {
+        // Given
+        ObjectMapper indenting = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        // When
+        ToolCatalog catalog = ToolCatalog.of(Arrays.asList(tool("find_employee"), tool("find_report")), indenting);
+
+        // Then
+        assertThat(catalog.getToolsJson()).contains("\n");
+        JsonNode tools = objectMapper.readTree(catalog.getToolsJson());
+        assertThat(tools).hasSize(2);
+        assertThat(tools.get(0).get("type").asText()).isEqualTo("function");
+        assertThat(tools.get(0).at("/function/name").asText()).isEqualTo("find_employee");
+        assertThat(tools.get(0).at("/function/description").asText()).isEqualTo("find_employee description");
+        assertThat(tools.get(0).at("/function/parameters/type").asText()).isEqualTo("object");
+        assertThat(tools.get(1).at("/function/name").asText()).isEqualTo("find_report");
+    }
+
+    @Test
+    @DisplayName("工具定义序列化失败时抛出异常，空目录不序列化")
+    void shouldFailOnSerializationError_AndSkipEmptyCatalog() throws Exception {
+        // Given
+        ObjectMapper failing = mock(ObjectMapper.class);
+        when(failing.writeValueAsString(any())).thenThrow(new JsonProcessingException("broken") {
+        });
+
+        // When & Then
+        assertThatThrownBy(() -> ToolCatalog.of(Collections.singletonList(tool("find_employee")), failing))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("工具定义序列化失败");
+        assertThat(ToolCatalog.of(Collections.emptyList(), failing)).isSameAs(ToolCatalog.empty());
+        assertThat(ToolCatalog.empty().getToolsJson()).isNull();
+    }
+
+    private static Map<String, MCPServer> servers(String name, MCPServer server) {
+        Map<String, MCPServer> servers = new LinkedHashMap<>();
+        servers.put(name, server);
+        return servers;
+    }
+
+    private static MCPTool tool(String name) {
+        return MCPTool.builder()
+                .name(name)
+                .description(name + " description")
+                .parameters(Map.of("type", "object", "properties", Map.of()))
+                .build();
+    }
+}
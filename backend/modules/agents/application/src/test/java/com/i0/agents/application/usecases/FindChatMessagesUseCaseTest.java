@@ -0,0 +1,154 @@
+package com.i0.agents.application.usecases;
+
+import com.i0.agents.application.dto.input.ChatMessageHistoryInput;
+import com.i0.agents.application.dto.output.ChatMessageHistoryOutput;
+import com.i0.agents.application.dto.output.ChatMessageOutput;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.entities.ChatSession;
+import com.i0.agents.domain.enums.MessageRole;
+import com.i0.agents.domain.exceptions.AgentsException;
+import com.i0.agents.domain.repositories.ChatMessageRepository;
+import com.i0.agents.domain.repositories.ChatSessionRepository;
+import com.i0.agents.domain.valueobjects.MessageContent;
+import com.i0.agents.domain.valueobjects.UIComponentReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * FindChatMessagesUseCase 测试
+ * 验证游标分页的顺序、游标编码和UI组件的延迟加载
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FindChatMessagesUseCase 测试")
+class FindChatMessagesUseCaseTest {
+
+    private static final String SESSION_ID = "session-1";
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Mock
+    private ChatSessionRepository chatSessionRepository;
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private ChatSession chatSession;
+
+    @InjectMocks
+    private FindChatMessagesUseCase findChatMessagesUseCase;
+
+    @BeforeEach
+    void setUp() {
+        when(chatSessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(chatSession));
+        when(chatSession.isInteractive()).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("不带游标时返回最新一页，按时间顺序排列并给出下一页游标")
+    void shouldReturnLatestPageInChronologicalOrder() {
+        // Given
+        List<ChatMessage> newestFirst = messages(3);
+        Collections.reverse(newestFirst);
+        when(chatMessageRepository.findPageBySessionIdBefore(eq(SESSION_ID), isNull(), isNull(), eq(3)))
+                .thenReturn(newestFirst);
+
+        // When
+        ChatMessageHistoryOutput output = findChatMessagesUseCase.execute(input(null, 2));
+
+        // Then
+        assertThat(output.isHasMore()).isTrue();
+        assertThat(output.getMessages()).extracting(ChatMessageOutput::getId)
+                .containsExactly("message-1", "message-2");
+        assertThat(output.getNextCursor()).isEqualTo(FindChatMessagesUseCase.encodeCursor(newestFirst.get(1)));
+    }
+
+    @Test
+    @DisplayName("带游标时从游标位置之前继续读取，最后一页没有下一页游标")
+    void shouldContinueFromCursor() {
+        // Given
+        List<ChatMessage> all = messages(3);
+        String cursor = FindChatMessagesUseCase.encodeCursor(all.get(1));
+        when(chatMessageRepository.findPageBySessionIdBefore(SESSION_ID, all.get(1).getTimestamp(), "message-1", 3))
+                .thenReturn(Collections.singletonList(all.get(0)));
+
+        // When
+        ChatMessageHistoryOutput output = findChatMessagesUseCase.execute(input(cursor, 2));
+
+        // Then
+        assertThat(output.isHasMore()).isFalse();
+        assertThat(output.getNextCursor()).isNull();
+        assertThat(output.getMessages()).extracting(ChatMessageOutput::getId).containsExactly("message-0");
+    }
+
+    @Test
+    @DisplayName("无效游标返回业务异常，不查询消息")
+    void shouldRejectInvalidCursor() {
+        assertThatThrownBy(() -> findChatMessagesUseCase.execute(input("not-a-cursor!", 2)))
+                .isInstanceOf(AgentsException.class)
+                .hasMessageContaining("无效的分页游标");
+        verify(chatMessageRepository, never()).findPageBySessionIdBefore(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("UI组件在读取输出字段时才加载")
+    void shouldLoadUIComponentsOnlyWhenRead() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        ChatMessage message = ChatMessage.reconstructLazily("message-0", SESSION_ID, MessageRole.ASSISTANT,
+                MessageContent.of("已为您生成图表"), null, () -> {
+                    loads.incrementAndGet();
+                    return Collections.singletonList(UIComponentReference.of("chart", "chart-1"));
+                }, START, null);
+        when(chatMessageRepository.findPageBySessionIdBefore(eq(SESSION_ID), isNull(), isNull(), eq(51)))
+                .thenReturn(Collections.singletonList(message));
+
+        // When
+        ChatMessageHistoryOutput output = findChatMessagesUseCase.execute(input(null, null));
+
+        // Then
+        assertThat(loads).hasValue(0);
+        assertThat(output.getMessages().get(0).getUiComponents()).hasSize(1);
+        assertThat(output.getMessages().get(0).getFunctionCall()).isNull();
+        assertThat(loads).hasValue(1);
+    }
+
+    private static ChatMessageHistoryInput input(String cursor, Integer limit) {
+        return ChatMessageHistoryInput.builder()
+                .sessionId(SESSION_ID)
+                .cursor(cursor)
+                .limit(limit)
+                .build();
+    }
+
+    private static List<ChatMessage> messages(int count) {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(ChatMessage.reconstruct("message-" + i, SESSION_ID,
+                    i % 2 == 0 ? MessageRole.USER : MessageRole.ASSISTANT,
+                    MessageContent.of("消息" + i), null, null, START.plusMinutes(i), null));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,129 @@
+package com.i0.agents.application.usecases;
+
+import com.i0.agents.application.dto.input.SearchChatMessagesInput;
+import com.i0.agents.application.dto.output.ChatMessageSearchOutput;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.entities.ChatSession;
+import com.i0.agents.domain.enums.MessageRole;
+import com.i0.agents.domain.repositories.ChatMessageRepository;
+import com.i0.agents.domain.repositories.ChatMessageSearchRepository;
+import com.i0.agents.domain.repositories.ChatSessionRepository;
+import com.i0.agents.domain.services.MessageTokenizer;
+import com.i0.agents.domain.valueobjects.MessageContent;
+import com.i0.agents.domain.valueobjects.MessageSearchHit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * SearchChatMessagesUseCase 测试
+ * 验证检索词切分、分页、跳过已删除的消息和命中片段的高亮
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SearchChatMessagesUseCase 测试")
+class SearchChatMessagesUseCaseTest {
+
+    private static final String USER_ID = "user-1";
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Mock
+    private ChatMessageSearchRepository chatMessageSearchRepository;
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private ChatSessionRepository chatSessionRepository;
+
+    @Mock
+    private ChatSession chatSession;
+
+    @InjectMocks
+    private SearchChatMessagesUseCase searchChatMessagesUseCase;
+
+    @Test
+    @DisplayName("中文按相邻两字、英文按单词切分检索词")
+    void shouldSplitQueryIntoTerms() {
+        assertThat(MessageTokenizer.queryTerms("员工工资 Report")).containsExactly("员工", "工工", "工资", "report");
+        assertThat(MessageTokenizer.queryTerms("张")).containsExactly("张");
+        assertThat(MessageTokenizer.indexTerms("张三张三")).containsEntry("张三", 2).containsEntry("张", 2);
+    }
+
+    @Test
+    @DisplayName("返回本页命中的消息，跳过已删除的消息并判断是否还有下一页")
+    void shouldReturnPageOfHits() {
+        // Given
+        when(chatMessageSearchRepository.search(USER_ID, Collections.singletonList("工资"), 2, 3)).thenReturn(Arrays.asList(
+                MessageSearchHit.of("message-1", "session-1", START, 2.5),
+                MessageSearchHit.of("message-deleted", "session-1", START, 2.0),
+                MessageSearchHit.of("message-2", "session-1", START, 1.0)));
+        when(chatMessageRepository.findByIds(Arrays.asList("message-1", "message-deleted")))
+                .thenReturn(Collections.singletonList(message("message-1", "三月的工资已发放")));
+        when(chatSessionRepository.findById("session-1")).thenReturn(Optional.of(chatSession));
+        when(chatSession.getUserId()).thenReturn(USER_ID);
+        when(chatSession.getTitle()).thenReturn("工资查询");
+
+        // When
+        ChatMessageSearchOutput output = searchChatMessagesUseCase.execute(input("工资", 1, 2));
+
+        // Then
+        assertThat(output.isHasMore()).isTrue();
+        assertThat(output.getResults()).hasSize(1);
+        ChatMessageSearchOutput.Result result = output.getResults().get(0);
+        assertThat(result.getMessageId()).isEqualTo("message-1");
+        assertThat(result.getSessionTitle()).isEqualTo("工资查询");
+        assertThat(result.getSnippet()).isEqualTo("三月的<em>工资</em>已发放");
+        assertThat(result.getScore()).isEqualTo(2.5);
+    }
+
+    @Test
+    @DisplayName("没有检索词时不查询索引")
+    void shouldNotSearch_WhenKeywordHasNoTerms() {
+        ChatMessageSearchOutput output = searchChatMessagesUseCase.execute(input(" ，。 ", null, null));
+
+        assertThat(output.getResults()).isEmpty();
+        assertThat(output.getSize()).isEqualTo(SearchChatMessagesUseCase.DEFAULT_SIZE);
+        verify(chatMessageSearchRepository, never()).search(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("片段截取命中位置前后的内容，转义HTML并忽略大小写标记关键词")
+    void shouldHighlightEscapedSnippet() {
+        String prefix = String.join("", Collections.nCopies(40, "a"));
+
+        String snippet = SearchChatMessagesUseCase.highlight(prefix + "<b>Report</b> 已生成", Collections.singletonList("report"));
+
+        assertThat(snippet).startsWith("…")
+                .contains("&lt;b&gt;<em>Report</em>&lt;/b&gt;")
+                .endsWith("已生成");
+    }
+
+    private static SearchChatMessagesInput input(String keyword, Integer page, Integer size) {
+        return SearchChatMessagesInput.builder()
+                .userId(USER_ID)
+                .keyword(keyword)
+                .page(page)
+                .size(size)
+                .build();
+    }
+
+    private static ChatMessage message(String id, String content) {
+        return ChatMessage.reconstruct(id, "session-1", MessageRole.ASSISTANT,
+                MessageContent.of(content), null, null, START, null);
+    }
+}
@@ -3,6 +3,8 @@ package com.i0.agents.application.usecases;
 import com.i0.agents.application.dto.input.StreamChatInput;
 import com.i0.agents.application.dto.output.ConversationResult;
 import com.i0.agents.application.services.AIConversationCoordinator;
+import com.i0.agents.application.services.ChatPipelineExecutors;
+import com.i0.agents.application.services.ConversationContextBuilder;
 import com.i0.agents.domain.entities.ChatMessage;
 import com.i0.agents.domain.entities.ChatSession;
 import com.i0.agents.domain.enums.MessageRole;
@@ -10,10 +12,12 @@ import com.i0.agents.domain.repositories.ChatMessageRepository;
 import com.i0.agents.domain.repositories.ChatSessionRepository;
 import com.i0.agents.domain.valueobjects.MessageContent;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -22,7 +26,10 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -47,18 +54,35 @@ class StreamChatUseCaseTest {
     @Mock
     private SendMessageUseCase sendMessageUseCase;
 
+    @Mock
+    private ConversationContextBuilder conversationContextBuilder;
+
     @Mock
     private ChatSession mockChatSession;
 
+    private ChatPipelineExecutors pipelineExecutors;
+
     private StreamChatUseCase streamChatUseCase;
 
     @BeforeEach
     void setUp() {
-        streamChatUseCase = new StreamChatUseCase(
+        pipelineExecutors = new ChatPipelineExecutors(2, 10, 2, 10, 5);
+        streamChatUseCase = newStreamChatUseCase(pipelineExecutors);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipelineExecutors.destroy();
+    }
+
+    private StreamChatUseCase newStreamChatUseCase(ChatPipelineExecutors executors) {
+        return new StreamChatUseCase(
                 chatSessionRepository,
                 chatMessageRepository,
                 aiConversationService,
-                sendMessageUseCase);
+                sendMessageUseCase,
+                executors,
+                conversationContextBuilder);
     }
 
     @Test
@@ -93,12 +117,12 @@ class StreamChatUseCaseTest {
 
         // Mock session messages
         List<ChatMessage> sessionMessages = Collections.singletonList(savedUserMessage);
-        when(chatMessageRepository.findBySessionId(sessionId))
+        when(conversationContextBuilder.buildContext(sessionId))
                 .thenReturn(sessionMessages);
 
         // Mock AI response
         ConversationResult mockResult = ConversationResult.fromText(aiResponse);
-        when(aiConversationService.chat(eq(sessionId), any(List.class), any(SseEmitter.class)))
+        when(aiConversationService.chat(eq(sessionId), any(List.class), any(SseEmitter.class), any(), anyLong()))
                 .thenReturn(CompletableFuture.completedFuture(mockResult));
 
         // Mock session save
@@ -113,7 +137,7 @@ class StreamChatUseCaseTest {
 
         // 验证AI服务被调用
         verify(aiConversationService, timeout(5000))
-                .chat(eq(sessionId), any(List.class), any(SseEmitter.class));
+                .chat(eq(sessionId), any(List.class), any(SseEmitter.class), any(), anyLong());
 
         // 验证用户消息被保存
         verify(chatMessageRepository, timeout(5000))
@@ -124,6 +148,44 @@ class StreamChatUseCaseTest {
                 .save(any(ChatSession.class));
     }
 
+    @Test
+    @DisplayName("AI回复增量到达时推送，完整回复只保存一次")
+    void testStreamChatForwardsDeltasAndPersistsOnce() {
+        // Given
+        String sessionId = "test-session-2";
+        StreamChatInput input = StreamChatInput.builder()
+                .sessionId(sessionId)
+                .content("介绍一下你自己")
+                .userId("test-user-2")
+                .showThinking(false)
+                .build();
+
+        when(chatSessionRepository.findById(sessionId))
+                .thenReturn(java.util.Optional.of(mockChatSession));
+        when(mockChatSession.isInteractive()).thenReturn(true);
+        ChatMessage savedUserMessage = createMockUserMessage(sessionId, input.getContent());
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenReturn(savedUserMessage);
+        when(conversationContextBuilder.buildContext(sessionId)).thenReturn(Collections.singletonList(savedUserMessage));
+        when(aiConversationService.chat(eq(sessionId), any(List.class), any(SseEmitter.class), any(), anyLong()))
+                .thenAnswer(invocation -> {
+                    Consumer<String> onDelta = invocation.getArgument(3);
+                    onDelta.accept("我是");
+                    onDelta.accept("智能助手。");
+                    return CompletableFuture.completedFuture(ConversationResult.fromText("我是智能助手。"));
+                });
+
+        // When
+        streamChatUseCase.executeStreamChat(input);
+
+        // Then
+        verify(chatSessionRepository, timeout(5000)).save(any(ChatSession.class));
+        ArgumentCaptor<ChatMessage> savedMessages = ArgumentCaptor.forClass(ChatMessage.class);
+        verify(chatMessageRepository, times(2)).save(savedMessages.capture());
+        ChatMessage assistantMessage = savedMessages.getAllValues().get(1);
+        assertEquals(MessageRole.ASSISTANT, assistantMessage.getRole());
+        assertEquals("我是智能助手。", assistantMessage.getContent().getContent());
+    }
+
     @Test
     @DisplayName("会话不存在的情况")
     void testSessionNotFound() {
@@ -153,6 +215,43 @@ class StreamChatUseCaseTest {
                 .chat(anyString(), any(List.class));
     }
 
+    @Test
+    @DisplayName("轮次线程池已满时立即拒绝，不访问会话和AI服务")
+    void testRejectsTurn_When_PipelineSaturated() throws Exception {
+        // Given
+        ChatPipelineExecutors saturated = new ChatPipelineExecutors(1, 1, 1, 1, 5);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            saturated.turnExecutor().execute(() -> awaitQuietly(release));
+            saturated.turnExecutor().execute(() -> awaitQuietly(release));
+            StreamChatInput input = StreamChatInput.builder()
+                    .sessionId("busy-session")
+                    .content("你好")
+                    .userId("test-user")
+                    .build();
+
+            // When
+            SseEmitter emitter = newStreamChatUseCase(saturated).executeStreamChat(input);
+
+            // Then
+            assertNotNull(emitter);
+            assertEquals(0, saturated.getActiveTurns());
+            verify(chatSessionRepository, never()).findById(anyString());
+            verify(aiConversationService, never()).chat(anyString(), any(List.class), any(SseEmitter.class), any(), anyLong());
+        } finally {
+            release.countDown();
+            saturated.destroy();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private ChatMessage createMockUserMessage(String sessionId, String content) {
         return ChatMessage.reconstruct(
                 "user-message-id",
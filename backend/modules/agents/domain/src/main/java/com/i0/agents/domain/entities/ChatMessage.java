@@ -9,6 +9,7 @@ import org.apache.commons.lang3.StringUtils;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * 聊天消息实体
@@ -19,8 +20,8 @@ public class ChatMessage {
     private final String sessionId;
     private final MessageRole role;
     private final MessageContent content;
-    private final FunctionCall functionCall;
-    private final List<UIComponentReference> uiComponents;
+    private final Lazy<FunctionCall> functionCall;
+    private final Lazy<List<UIComponentReference>> uiComponents;
     private final LocalDateTime timestamp;
     private final String parentMessageId;
 
@@ -31,8 +32,26 @@ public class ChatMessage {
         this.sessionId = sessionId;
         this.role = role;
         this.content = content;
-        this.functionCall = functionCall;
-        this.uiComponents = uiComponents != null ? new ArrayList<>(uiComponents) : new ArrayList<>();
+        this.functionCall = Lazy.of(functionCall);
+        this.uiComponents = Lazy.of(uiComponents != null ? new ArrayList<>(uiComponents) : new ArrayList<>());
+        this.timestamp = timestamp;
+        this.parentMessageId = parentMessageId;
+    }
+
+    private ChatMessage(String id, String sessionId, MessageRole role, MessageContent content,
+                       Supplier<FunctionCall> functionCallLoader, Supplier<List<UIComponentReference>> uiComponentsLoader,
+                       LocalDateTime timestamp, String parentMessageId) {
+        this.id = id;
+        this.sessionId = sessionId;
+        this.role = role;
+        this.content = content;
+        this.functionCall = functionCallLoader != null ? Lazy.loading(functionCallLoader) : Lazy.of(null);
+        this.uiComponents = uiComponentsLoader != null
+                ? Lazy.loading(() -> {
+                    List<UIComponentReference> loaded = uiComponentsLoader.get();
+                    return loaded != null ? new ArrayList<>(loaded) : new ArrayList<>();
+                })
+                : Lazy.of(new ArrayList<>());
         this.timestamp = timestamp;
         this.parentMessageId = parentMessageId;
     }
@@ -95,6 +114,32 @@ public class ChatMessage {
         return new ChatMessage(id, sessionId, role, content, functionCall, uiComponents, timestamp, parentMessageId);
     }
 
+    /**
+     * 从已有数据重建消息，函数调用和UI组件在首次访问时才加载
+     * 用于批量读取历史消息：只用到消息内容时不必解析存储的JSON
+     *
+     * @param functionCallLoader 函数调用加载函数，没有函数调用时为null
+     * @param uiComponentsLoader UI组件加载函数，没有UI组件时为null
+     */
+    public static ChatMessage reconstructLazily(String id, String sessionId, MessageRole role,
+                                                MessageContent content, Supplier<FunctionCall> functionCallLoader,
+                                                Supplier<List<UIComponentReference>> uiComponentsLoader,
+                                                LocalDateTime timestamp, String parentMessageId) {
+        if (StringUtils.isBlank(id)) {
+            throw new IllegalArgumentException("消息ID不能为空");
+        }
+
+        if (StringUtils.isBlank(sessionId)) {
+            throw new IllegalArgumentException("会话ID不能为空");
+        }
+
+        if (role == null) {
+            throw new IllegalArgumentException("消息角色不能为空");
+        }
+
+        return new ChatMessage(id, sessionId, role, content, functionCallLoader, uiComponentsLoader, timestamp, parentMessageId);
+    }
+
     /**
      * 通用创建方法
      */
@@ -154,7 +199,7 @@ public class ChatMessage {
     }
 
     public FunctionCall getFunctionCall() {
-        return functionCall;
+        return functionCall.get();
     }
 
     public LocalDateTime getTimestamp() {
@@ -166,7 +211,7 @@ public class ChatMessage {
     }
 
     public List<UIComponentReference> getUiComponents() {
-        return new ArrayList<>(uiComponents);
+        return new ArrayList<>(uiComponents.get());
     }
 
     /**
@@ -208,25 +253,25 @@ public class ChatMessage {
      * 判断是否包含UI组件
      */
     public boolean hasUIComponents() {
-        return uiComponents != null && !uiComponents.isEmpty();
+        return !uiComponents.get().isEmpty();
     }
 
     /**
      * 获取UI组件数量
      */
     public int getUIComponentCount() {
-        return uiComponents != null ? uiComponents.size() : 0;
+        return uiComponents.get().size();
     }
 
     /**
      * 根据组件类型获取UI组件
      */
     public List<UIComponentReference> getUIComponentsByType(String componentType) {
-        if (uiComponents == null || StringUtils.isBlank(componentType)) {
+        if (StringUtils.isBlank(componentType)) {
             return new ArrayList<>();
         }
 
-        return uiComponents.stream()
+        return uiComponents.get().stream()
                 .filter(component -> componentType.equals(component.getComponentType()))
                 .collect(ArrayList::new, (list, component) -> list.add(component), ArrayList::addAll);
     }
@@ -252,8 +297,37 @@ public class ChatMessage {
                 ", sessionId='" + sessionId + '\'' +
                 ", role=" + role +
                 ", content=" + (content != null ? content.getContent().substring(0, Math.min(20, content.getLength())) + "..." : "null") +
-                ", functionCall=" + (functionCall != null ? functionCall.getFunctionName() : "null") +
+                ", functionCall=" + (getFunctionCall() != null ? getFunctionCall().getFunctionName() : "null") +
                 ", timestamp=" + timestamp +
                 '}';
     }
-}
\ No newline at end of file
+
+    /**
+     * 首次访问时加载并保留的值
+     */
+    private static final class Lazy<T> {
+        private Supplier<T> loader;
+        private T value;
+
+        private Lazy(Supplier<T> loader, T value) {
+            this.loader = loader;
+            this.value = value;
+        }
+
+        static <T> Lazy<T> of(T value) {
+            return new Lazy<>(null, value);
+        }
+
+        static <T> Lazy<T> loading(Supplier<T> loader) {
+            return new Lazy<>(loader, null);
+        }
+
+        synchronized T get() {
+            if (loader != null) {
+                value = loader.get();
+                loader = null;
+            }
+            return value;
+        }
+    }
+}
@@ -28,6 +28,15 @@ public interface ChatMessageRepository {
      */
     List<ChatMessage> saveAll(List<ChatMessage> messages);
 
+    /**
+     * 等待会话中已保存但尚未写入存储的消息写入
+     * 保存采用后写方式的实现在写入完成或等待超时后返回，写入不参与调用方的事务；同步写入的实现无需处理
+     *
+     * @param sessionId 会话ID
+     */
+    default void flush(String sessionId) {
+    }
+
     /**
      * 根据ID查找聊天消息
      *
@@ -36,6 +45,14 @@ public interface ChatMessageRepository {
      */
     Optional<ChatMessage> findById(String id);
 
+    /**
+     * 根据ID批量查找聊天消息，不存在或已删除的消息不返回
+     *
+     * @param ids 消息ID列表
+     * @return 聊天消息列表，不保证与ID列表顺序一致
+     */
+    List<ChatMessage> findByIds(List<String> ids);
+
     /**
      * 根据会话ID查找所有消息
      *
@@ -59,7 +76,7 @@ public interface ChatMessageRepository {
      * @param sessionId 会话ID
      * @param startTime 开始时间
      * @param endTime 结束时间
-     * @return 时间范围内的所有消息
+     * @return 时间范围内的所有消息，按（时间戳，ID）从旧到新排列
      */
     List<ChatMessage> findBySessionIdAndTimestampBetween(String sessionId, LocalDateTime startTime, LocalDateTime endTime);
 
@@ -68,10 +85,22 @@ public interface ChatMessageRepository {
      *
      * @param sessionId 会话ID
      * @param limit 限制数量
-     * @return 最近的N条消息
+     * @return 最近的N条消息，按（时间戳，ID）从新到旧排列
      */
     List<ChatMessage> findRecentBySessionId(String sessionId, int limit);
 
+    /**
+     * 按游标分页查找会话消息
+     * 按（时间戳，ID）从新到旧排序，返回严格早于游标位置的消息；游标为空时从最新消息开始
+     *
+     * @param sessionId 会话ID
+     * @param beforeTimestamp 游标位置消息的时间戳，为空表示从最新消息开始
+     * @param beforeId 游标位置消息的ID
+     * @param limit 限制数量
+     * @return 早于游标位置的最多N条消息，从新到旧排列
+     */
+    List<ChatMessage> findPageBySessionIdBefore(String sessionId, LocalDateTime beforeTimestamp, String beforeId, int limit);
+
     /**
      * 根据父消息ID查找子消息
      *
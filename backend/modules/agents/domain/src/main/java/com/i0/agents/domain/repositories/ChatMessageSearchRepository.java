@@ -0,0 +1,46 @@
+package com.i0.agents.domain.repositories;
+
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.valueobjects.MessageSearchHit;
+
+import java.util.List;
+
+/**
+ * 聊天消息检索Repository接口
+ * 维护按用户划分的消息检索词索引，支持跨会话的关键词检索
+ */
+public interface ChatMessageSearchRepository {
+    /**
+     * 为新写入的消息建立检索词索引，每条消息只建立一次
+     *
+     * @param userId 会话所属用户ID
+     * @param messages 同一会话的消息
+     */
+    void index(String userId, List<ChatMessage> messages);
+
+    /**
+     * 检索同时包含全部检索词的消息，按相关度从高到低排列，相关度相同时较新的消息在前
+     * 命中消息过多时实现可以只在最近的一部分命中中排序，较早的命中不保证返回
+     *
+     * @param userId 用户ID
+     * @param terms 检索词
+     * @param offset 跳过的命中数
+     * @param limit 限制数量
+     * @return 命中的消息
+     */
+    List<MessageSearchHit> search(String userId, List<String> terms, int offset, int limit);
+
+    /**
+     * 删除会话所有消息的索引
+     *
+     * @param sessionId 会话ID
+     */
+    void deleteBySessionId(String sessionId);
+
+    /**
+     * 删除消息的索引
+     *
+     * @param messageIds 消息ID列表
+     */
+    void deleteByMessageIds(List<String> messageIds);
+}
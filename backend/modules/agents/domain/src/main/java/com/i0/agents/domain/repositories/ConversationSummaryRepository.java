@@ -0,0 +1,26 @@
+package com.i0.agents.domain.repositories;
+
+import com.i0.agents.domain.valueobjects.ConversationSummary;
+
+import java.util.Optional;
+
+/**
+ * 对话摘要Repository接口
+ * 每个会话保存一份滚动摘要
+ */
+public interface ConversationSummaryRepository {
+    /**
+     * 查找会话的滚动摘要
+     *
+     * @param sessionId 会话ID
+     * @return 摘要，如果尚未生成则返回空
+     */
+    Optional<ConversationSummary> findBySessionId(String sessionId);
+
+    /**
+     * 保存会话的滚动摘要，已存在时覆盖
+     *
+     * @param summary 对话摘要
+     */
+    void save(ConversationSummary summary);
+}
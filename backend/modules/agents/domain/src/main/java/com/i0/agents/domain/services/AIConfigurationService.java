@@ -1,5 +1,6 @@
 package com.i0.agents.domain.services;
 
+import com.i0.agents.domain.valueobjects.AIProviderEndpoint;
 import com.i0.agents.domain.valueobjects.mcp.MCPServerConfig;
 
 import java.util.List;
@@ -36,6 +37,11 @@ public interface AIConfigurationService {
      */
     String getProperty(String propertyName);
 
+    /**
+     * 获取参与路由的提供商端点：当前活跃厂商在前，其后按配置顺序为备用厂商
+     */
+    List<AIProviderEndpoint> getRoutingProviders();
+
     /**
      * 获取请求超时时间
      */
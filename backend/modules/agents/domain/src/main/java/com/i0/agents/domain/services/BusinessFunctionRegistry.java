@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 业务函数注册器
@@ -14,6 +15,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class BusinessFunctionRegistry {
 
     private final Map<String, BusinessFunction> functions = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
 
     /**
      * 注册业务函数
@@ -29,6 +31,7 @@ public class BusinessFunctionRegistry {
         }
 
         functions.put(functionName, function);
+        version.incrementAndGet();
         log.info("Registered business function: {}", functionName);
     }
 
@@ -77,6 +80,7 @@ public class BusinessFunctionRegistry {
     public boolean unregister(String functionName) {
         BusinessFunction removed = functions.remove(functionName);
         if (removed != null) {
+            version.incrementAndGet();
             log.info("Unregistered business function: {}", functionName);
             return true;
         }
@@ -89,9 +93,17 @@ public class BusinessFunctionRegistry {
     public void clear() {
         int count = functions.size();
         functions.clear();
+        version.incrementAndGet();
         log.info("Cleared {} registered functions", count);
     }
 
+    /**
+     * 获取注册版本，每次注册、注销或清空时递增
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
     /**
      * 获取已注册函数的数量
      */
@@ -0,0 +1,126 @@
+package com.i0.agents.domain.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 消息检索词切分
+ * 英文和数字按连续的字母数字切分为单词（转小写，忽略单个字母）；中文没有分隔符，
+ * 建索引时取每个汉字及相邻两字，查询时连续两个以上汉字只取相邻两字，要求全部命中，单个汉字按单字查询
+ */
+public final class MessageTokenizer {
+
+    /**
+     * 检索词最大长度（字符）
+     */
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    /**
+     * 单次查询最多使用的检索词数
+     */
+    public static final int MAX_QUERY_TERMS = 16;
+
+    private MessageTokenizer() {
+    }
+
+    /**
+     * 切分消息内容用于建索引
+     *
+     * @param text 消息内容
+     * @return 检索词到出现次数的映射，按首次出现顺序排列
+     */
+    public static Map<String, Integer> indexTerms(String text) {
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        for (Segment segment : segments(text)) {
+            if (segment.han) {
+                String run = segment.text;
+                for (int i = 0; i < run.length(); i++) {
+                    terms.merge(run.substring(i, i + 1), 1, Integer::sum);
+                    if (i + 1 < run.length()) {
+                        terms.merge(run.substring(i, i + 2), 1, Integer::sum);
+                    }
+                }
+            } else if (isWord(segment.text)) {
+                terms.merge(truncate(segment.text), 1, Integer::sum);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 切分查询关键词
+     *
+     * @param query 查询关键词
+     * @return 去重后的检索词，最多 {@link #MAX_QUERY_TERMS} 个
+     */
+    public static List<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (Segment segment : segments(query)) {
+            if (segment.han) {
+                String run = segment.text;
+                if (run.length() == 1) {
+                    terms.add(run);
+                }
+                for (int i = 0; i + 1 < run.length(); i++) {
+                    terms.add(run.substring(i, i + 2));
+                }
+            } else if (isWord(segment.text)) {
+                terms.add(truncate(segment.text));
+            }
+        }
+        List<String> result = new ArrayList<>(terms);
+        return result.size() > MAX_QUERY_TERMS ? result.subList(0, MAX_QUERY_TERMS) : result;
+    }
+
+    private static List<Segment> segments(String text) {
+        List<Segment> segments = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return segments;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        StringBuilder current = new StringBuilder();
+        boolean currentHan = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            boolean han = Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+            boolean word = !han && Character.isLetterOrDigit(c);
+            if ((!han && !word) || (current.length() > 0 && han != currentHan)) {
+                if (current.length() > 0) {
+                    segments.add(new Segment(current.toString(), currentHan));
+                    current.setLength(0);
+                }
+            }
+            if (han || word) {
+                current.append(c);
+                currentHan = han;
+            }
+        }
+        if (current.length() > 0) {
+            segments.add(new Segment(current.toString(), currentHan));
+        }
+        return segments;
+    }
+
+    private static boolean isWord(String text) {
+        return text.length() > 1 || Character.isDigit(text.charAt(0));
+    }
+
+    private static String truncate(String token) {
+        return token.length() <= MAX_TOKEN_LENGTH ? token : token.substring(0, MAX_TOKEN_LENGTH);
+    }
+
+    private static final class Segment {
+        private final String text;
+        private final boolean han;
+
+        private Segment(String text, boolean han) {
+            this.text = text;
+            this.han = han;
+        }
+    }
+}
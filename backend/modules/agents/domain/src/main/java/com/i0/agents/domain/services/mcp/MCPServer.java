@@ -38,4 +38,12 @@ public interface MCPServer {
      * 获取服务器类型
      */
     MCPServerType getType();
+
+    /**
+     * 获取工具列表版本
+     * 工具增减时版本变化，工具目录据此判断是否需要重建；工具列表固定的服务器无需实现
+     */
+    default long getToolsVersion() {
+        return 0L;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.i0.agents.domain.valueobjects;
+
+/**
+ * AI服务提供商端点值对象
+ * 描述向某个提供商发送一次请求所需的地址、密钥、模型和超时时间
+ */
+public class AIProviderEndpoint {
+    private final String name;
+    private final String apiUrl;
+    private final String apiKey;
+    private final String model;
+    private final int timeoutSeconds;
+
+    private AIProviderEndpoint(String name, String apiUrl, String apiKey, String model, int timeoutSeconds) {
+        this.name = name;
+        this.apiUrl = apiUrl;
+        this.apiKey = apiKey;
+        this.model = model;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public static AIProviderEndpoint of(String name, String apiUrl, String apiKey, String model, int timeoutSeconds) {
+        if (name == null || apiUrl == null) {
+            throw new IllegalArgumentException("提供商名称和API URL不能为空");
+        }
+        return new AIProviderEndpoint(name, apiUrl, apiKey, model, timeoutSeconds);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * 请求超时时间（秒），不大于0时使用客户端默认超时
+     */
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + model + ")";
+    }
+}
@@ -0,0 +1,95 @@
+package com.i0.agents.domain.valueobjects;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.LocalDateTime;
+
+/**
+ * 对话滚动摘要值对象
+ * 概括会话中早于最近上下文窗口的消息。消息按（时间戳，ID）排序，
+ * 位于（coveredUntil，coveredUntilId）之前（含）的消息均已并入摘要；时间戳精度为秒，同一秒内的消息以ID区分先后
+ */
+public class ConversationSummary {
+    private final String sessionId;
+    private final String content;
+    private final LocalDateTime coveredUntil;
+    private final String coveredUntilId;
+    private final int coveredMessageCount;
+    private final LocalDateTime updatedAt;
+
+    private ConversationSummary(String sessionId, String content, LocalDateTime coveredUntil, String coveredUntilId,
+                                int coveredMessageCount, LocalDateTime updatedAt) {
+        this.sessionId = sessionId;
+        this.content = content;
+        this.coveredUntil = coveredUntil;
+        this.coveredUntilId = coveredUntilId;
+        this.coveredMessageCount = coveredMessageCount;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * 创建摘要
+     */
+    public static ConversationSummary of(String sessionId, String content, LocalDateTime coveredUntil,
+                                         String coveredUntilId, int coveredMessageCount) {
+        return reconstruct(sessionId, content, coveredUntil, coveredUntilId, coveredMessageCount, LocalDateTime.now());
+    }
+
+    /**
+     * 从已有数据重建摘要
+     * coveredUntilId 为空时（早期生成的摘要）覆盖时间戳不晚于 coveredUntil 的全部消息
+     */
+    public static ConversationSummary reconstruct(String sessionId, String content, LocalDateTime coveredUntil,
+                                                  String coveredUntilId, int coveredMessageCount, LocalDateTime updatedAt) {
+        if (StringUtils.isBlank(sessionId)) {
+            throw new IllegalArgumentException("会话ID不能为空");
+        }
+        if (StringUtils.isBlank(content)) {
+            throw new IllegalArgumentException("摘要内容不能为空");
+        }
+        if (coveredUntil == null) {
+            throw new IllegalArgumentException("摘要覆盖时间不能为空");
+        }
+        return new ConversationSummary(sessionId, content.trim(), coveredUntil, coveredUntilId, Math.max(0, coveredMessageCount), updatedAt);
+    }
+
+    /**
+     * 判断消息是否已并入摘要
+     *
+     * @param messageTimestamp 消息时间戳
+     * @param messageId 消息ID，与覆盖位置时间戳相同时比较ID
+     */
+    public boolean covers(LocalDateTime messageTimestamp, String messageId) {
+        if (messageTimestamp == null || messageTimestamp.isAfter(coveredUntil)) {
+            return false;
+        }
+        if (messageTimestamp.isBefore(coveredUntil) || coveredUntilId == null) {
+            return true;
+        }
+        return messageId != null && messageId.compareTo(coveredUntilId) <= 0;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public LocalDateTime getCoveredUntil() {
+        return coveredUntil;
+    }
+
+    public String getCoveredUntilId() {
+        return coveredUntilId;
+    }
+
+    public int getCoveredMessageCount() {
+        return coveredMessageCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
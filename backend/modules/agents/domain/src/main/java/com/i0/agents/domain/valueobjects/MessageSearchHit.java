@@ -0,0 +1,44 @@
+package com.i0.agents.domain.valueobjects;
+
+import java.time.LocalDateTime;
+
+/**
+ * 消息检索命中值对象
+ * 记录命中消息的位置和相关度得分，消息内容由调用方按ID读取
+ */
+public class MessageSearchHit {
+    private final String messageId;
+    private final String sessionId;
+    private final LocalDateTime timestamp;
+    private final double score;
+
+    private MessageSearchHit(String messageId, String sessionId, LocalDateTime timestamp, double score) {
+        this.messageId = messageId;
+        this.sessionId = sessionId;
+        this.timestamp = timestamp;
+        this.score = score;
+    }
+
+    public static MessageSearchHit of(String messageId, String sessionId, LocalDateTime timestamp, double score) {
+        if (messageId == null || sessionId == null) {
+            throw new IllegalArgumentException("消息ID和会话ID不能为空");
+        }
+        return new MessageSearchHit(messageId, sessionId, timestamp, score);
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
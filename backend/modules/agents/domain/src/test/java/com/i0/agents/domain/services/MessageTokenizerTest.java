@@ -0,0 +1,86 @@
+package com.i0.agents.domain.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * MessageTokenizer单元测试
+ * 覆盖英文单词、数字和中文单字及相邻两字的切分、词频统计、查询词去重和数量上限
+ */
+@DisplayName("MessageTokenizer测试")
+class MessageTokenizerTest {
+
+    @Test
+    @DisplayName("英文按单词切分并转小写，统计出现次数，忽略单个字母")
+    void shouldSplitWordsAndCountFrequency() {
+        // When
+        Map<String, Integer> terms = MessageTokenizer.indexTerms("Hello world, HELLO a 7");
+
+        // Then
+        assertThat(terms).containsExactly(entry("hello", 2), entry("world", 1), entry("7", 1));
+    }
+
+    @Test
+    @DisplayName("中文建索引时取每个汉字及相邻两字")
+    void shouldIndexHanUnigramsAndBigrams() {
+        // When
+        Map<String, Integer> terms = MessageTokenizer.indexTerms("工资表");
+
+        // Then
+        assertThat(terms.keySet()).containsExactly("工", "工资", "资", "资表", "表");
+    }
+
+    @Test
+    @DisplayName("中英文混排时在文字类型变化处切分")
+    void shouldSplitMixedScripts() {
+        // When
+        Map<String, Integer> terms = MessageTokenizer.indexTerms("查询Q3报表");
+
+        // Then
+        assertThat(terms.keySet()).containsExactly("查", "查询", "询", "q3", "报", "报表", "表");
+    }
+
+    @Test
+    @DisplayName("超长单词截断到最大长度")
+    void shouldTruncateLongTokens() {
+        // Given
+        String longWord = IntStream.range(0, 100).mapToObj(i -> "a").collect(Collectors.joining());
+
+        // When
+        Map<String, Integer> terms = MessageTokenizer.indexTerms(longWord);
+
+        // Then
+        assertThat(terms.keySet()).singleElement()
+                .satisfies(token -> assertThat(token).hasSize(MessageTokenizer.MAX_TOKEN_LENGTH));
+    }
+
+    @Test
+    @DisplayName("查询时连续汉字只取相邻两字，单个汉字按单字查询")
+    void shouldUseBigramsForHanQuery() {
+        assertThat(MessageTokenizer.queryTerms("员工工资")).containsExactly("员工", "工工", "工资");
+        assertThat(MessageTokenizer.queryTerms("张 三")).containsExactly("张", "三");
+    }
+
+    @Test
+    @DisplayName("查询词去重并限制数量，空查询没有检索词")
+    void shouldDeduplicateAndLimitQueryTerms() {
+        // Given
+        String manyWords = IntStream.range(0, 30).mapToObj(i -> "word" + i).collect(Collectors.joining(" "));
+
+        // When
+        List<String> limited = MessageTokenizer.queryTerms(manyWords);
+
+        // Then
+        assertThat(MessageTokenizer.queryTerms("工资 工资 Report report")).containsExactly("工资", "report");
+        assertThat(limited).hasSize(MessageTokenizer.MAX_QUERY_TERMS).startsWith("word0", "word1");
+        assertThat(MessageTokenizer.queryTerms(null)).isEmpty();
+        assertThat(MessageTokenizer.queryTerms("，。!")).isEmpty();
+    }
+}
@@ -1,6 +1,7 @@
 package com.i0.agents.gateway.config;
 
 import com.i0.agents.domain.services.AIConfigurationService;
+import com.i0.agents.domain.valueobjects.AIProviderEndpoint;
 import com.i0.agents.domain.valueobjects.mcp.MCPServerConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -51,6 +53,28 @@ public class AIConfigurationServiceImpl implements AIConfigurationService {
         return aiProviderConfig.getProperty(propertyName);
     }
 
+    @Override
+    public List<AIProviderEndpoint> getRoutingProviders() {
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        names.add(aiProviderConfig.getActive());
+        if (aiProviderConfig.getFallbacks() != null) {
+            names.addAll(aiProviderConfig.getFallbacks());
+        }
+
+        List<AIProviderEndpoint> endpoints = new ArrayList<>();
+        for (String name : names) {
+            AIProviderConfig.ProviderConfig provider = name != null ? aiProviderConfig.getProviders().get(name) : null;
+            if (provider == null || provider.getApiUrl() == null) {
+                log.warn("AI provider not configured, skipped for routing: {}", name);
+                continue;
+            }
+            int timeoutSeconds = provider.getTimeout() > 0 ? provider.getTimeout() : aiProviderConfig.getTimeoutSeconds();
+            endpoints.add(AIProviderEndpoint.of(name, provider.getApiUrl(), provider.getApiKey(),
+                    provider.getDefaultModel(), timeoutSeconds));
+        }
+        return endpoints;
+    }
+
     @Override
     public int getTimeoutSeconds() {
         return aiProviderConfig.getTimeoutSeconds();
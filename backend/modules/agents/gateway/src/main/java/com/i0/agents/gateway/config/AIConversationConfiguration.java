@@ -1,7 +1,9 @@
 package com.i0.agents.gateway.config;
 
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,14 +19,23 @@ public class AIConversationConfiguration {
 
     /**
      * 创建OkHttpClient Bean（如果项目中还没有的话）
+     * AI请求通过 enqueue 异步执行，默认分发器每个主机只允许5个并发请求，
+     * 所有对话都发往同一AI服务，因此按配置放宽并发上限
      */
     @Bean
-    public OkHttpClient okHttpClient() {
+    public OkHttpClient okHttpClient(@Value("${ai.chat.pipeline.max-requests:256}") int maxRequests,
+                                     @Value("${ai.chat.pipeline.max-requests-per-host:256}") int maxRequestsPerHost) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        log.info("OkHttp dispatcher configured: maxRequests={}, maxRequestsPerHost={}", maxRequests, maxRequestsPerHost);
+
         return new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
             .connectTimeout(30, TimeUnit.SECONDS)
             .readTimeout(30, TimeUnit.SECONDS)
             .writeTimeout(30, TimeUnit.SECONDS)
             .build();
     }
 
-}
\ No newline at end of file
+}
@@ -29,6 +29,11 @@ public class AIProviderConfig {
      */
     private String active = "siliconflow";
 
+    /**
+     * 备用AI提供商，当前提供商失败或熔断时按顺序故障转移
+     */
+    private List<String> fallbacks = new ArrayList<>();
+
     /**
      * 请求超时时间（秒）
      */
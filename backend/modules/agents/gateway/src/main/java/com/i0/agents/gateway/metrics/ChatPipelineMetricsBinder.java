@@ -0,0 +1,110 @@
+package com.i0.agents.gateway.metrics;
+
+import com.i0.agents.application.services.AIProviderRouter;
+import com.i0.agents.application.services.AIResponseCache;
+import com.i0.agents.application.services.ChatPipelineExecutors;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 聊天流水线指标
+ * 向 Micrometer 发布进行中的对话轮次、各线程池的队列深度和活跃线程数、OkHttp排队和执行中的AI请求数，
+ * AI响应缓存的命中、未命中次数和命中率，以及AI提供商路由的故障转移、重试、对冲次数和各提供商的耗时、熔断状态，
+ * 供 actuator metrics 端点查询
+ */
+@Component
+public class ChatPipelineMetricsBinder {
+
+    public ChatPipelineMetricsBinder(ChatPipelineExecutors pipelineExecutors,
+                                     OkHttpClient okHttpClient,
+                                     AIResponseCache responseCache,
+                                     AIProviderRouter providerRouter,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        gauge(registry, "agents.chat.turns.active", "进行中的对话轮次", pipelineExecutors,
+                ChatPipelineExecutors::getActiveTurns);
+        gauge(registry, "agents.chat.turn.queue.depth", "对话轮次线程池排队任务数", pipelineExecutors,
+                ChatPipelineExecutors::getTurnQueueDepth);
+        gauge(registry, "agents.chat.turn.threads.active", "对话轮次线程池活跃线程数", pipelineExecutors,
+                ChatPipelineExecutors::getTurnActiveThreads);
+        gauge(registry, "agents.chat.tool.queue.depth", "工具执行线程池排队任务数", pipelineExecutors,
+                ChatPipelineExecutors::getToolQueueDepth);
+        gauge(registry, "agents.chat.tool.threads.active", "工具执行线程池活跃线程数", pipelineExecutors,
+                ChatPipelineExecutors::getToolActiveThreads);
+        gauge(registry, "agents.ai.requests.queued", "等待发送的AI请求数", okHttpClient,
+                client -> client.dispatcher().queuedCallsCount());
+        gauge(registry, "agents.ai.requests.running", "执行中的AI请求数", okHttpClient,
+                client -> client.dispatcher().runningCallsCount());
+        counter(registry, "agents.ai.response.cache.hits", "AI响应缓存命中次数", responseCache,
+                AIResponseCache::getHits);
+        counter(registry, "agents.ai.response.cache.misses", "AI响应缓存未命中次数", responseCache,
+                AIResponseCache::getMisses);
+        counter(registry, "agents.ai.response.cache.skipped", "因失败或含非只读工具调用而未缓存的AI响应数", responseCache,
+                AIResponseCache::getSkipped);
+        gauge(registry, "agents.ai.response.cache.hit.rate", "AI响应缓存命中率", responseCache,
+                AIResponseCache::getHitRate);
+        gauge(registry, "agents.ai.response.cache.size", "AI响应缓存条目数", responseCache,
+                AIResponseCache::size);
+        counter(registry, "agents.ai.routing.failovers", "转向其他AI提供商的次数", providerRouter,
+                AIProviderRouter::getFailovers);
+        counter(registry, "agents.ai.routing.retries", "退避后重试同一AI提供商的次数", providerRouter,
+                AIProviderRouter::getRetries);
+        counter(registry, "agents.ai.routing.hedges", "发送的对冲请求数", providerRouter,
+                AIProviderRouter::getHedges);
+        counter(registry, "agents.ai.routing.hedge.wins", "对冲请求先于原请求返回的次数", providerRouter,
+                AIProviderRouter::getHedgeWins);
+        counter(registry, "agents.ai.routing.short.circuited", "所有AI提供商都在熔断中而直接失败的请求数", providerRouter,
+                AIProviderRouter::getShortCircuited);
+        counter(registry, "agents.ai.routing.explorations", "为获取样本而优先尝试非最优AI提供商的次数", providerRouter,
+                AIProviderRouter::getExplorations);
+        counter(registry, "agents.ai.routing.timeouts", "到达截止时间仍未完成的AI请求数", providerRouter,
+                AIProviderRouter::getTimeouts);
+        for (String provider : providerRouter.getProviderNames()) {
+            Tags tags = Tags.of("provider", provider);
+            Gauge.builder("agents.ai.provider.latency.average", providerRouter, router -> router.getLatencyAverage(provider))
+                    .description("AI提供商响应耗时的指数加权平均值（毫秒）")
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("agents.ai.provider.latency.p95", providerRouter, router -> router.getLatencyP95(provider))
+                    .description("AI提供商近期响应耗时的P95（毫秒）")
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("agents.ai.provider.circuit.state", providerRouter, router -> router.getCircuitState(provider))
+                    .description("AI提供商熔断状态：0 关闭，0.5 半开，1 打开")
+                    .tags(tags)
+                    .register(registry);
+            FunctionCounter.builder("agents.ai.provider.requests", providerRouter, router -> router.getRequests(provider))
+                    .description("发往AI提供商的请求数")
+                    .tags(tags)
+                    .register(registry);
+            FunctionCounter.builder("agents.ai.provider.failures", providerRouter, router -> router.getFailures(provider))
+                    .description("AI提供商可重试的失败次数")
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+
+    private static <T> void gauge(MeterRegistry registry, String name, String description, T target,
+                                  ToDoubleFunction<T> value) {
+        Gauge.builder(name, target, value)
+                .description(description)
+                .register(registry);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, String description, T target,
+                                    ToDoubleFunction<T> value) {
+        FunctionCounter.builder(name, target, value)
+                .description(description)
+                .register(registry);
+    }
+}
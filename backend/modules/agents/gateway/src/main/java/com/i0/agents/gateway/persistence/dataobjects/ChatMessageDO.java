@@ -84,26 +84,28 @@ public class ChatMessageDO {
 
     /**
      * 从DO转换为Domain实体
+     * 函数参数和UI组件两个JSON列在首次访问时才解析，列出历史消息时不必为每一行解析
      */
     public ChatMessage toDomain() {
         MessageRole role = MessageRole.valueOf(this.role);
-        FunctionCall functionCall = null;
-
-        if (this.functionName != null) {
-            Map<String, Object> arguments = deserializeArguments(this.functionArguments);
-            functionCall = FunctionCall.of(this.functionName, arguments, this.functionDescription);
-        }
-
         MessageContent messageContent = this.content != null ? MessageContent.of(this.content) : null;
-        List<UIComponentReference> uiComponents = deserializeUIComponents(this.uiComponents);
 
-        return ChatMessage.reconstruct(
+        String functionName = this.functionName;
+        String functionArguments = this.functionArguments;
+        String functionDescription = this.functionDescription;
+        String uiComponentsJson = this.uiComponents;
+
+        return ChatMessage.reconstructLazily(
                 this.id,
                 this.sessionId,
                 role,
                 messageContent,
-                functionCall,
-                uiComponents,
+                functionName != null
+                        ? () -> FunctionCall.of(functionName, deserializeArguments(functionArguments), functionDescription)
+                        : null,
+                uiComponentsJson != null && !uiComponentsJson.trim().isEmpty()
+                        ? () -> deserializeUIComponents(uiComponentsJson)
+                        : null,
                 this.timestamp,
                 this.parentMessageId
         );
@@ -0,0 +1,25 @@
+package com.i0.agents.gateway.persistence.dataobjects;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 检索候选消息
+ * chat_message_tokens 按消息分组、筛选出同时包含全部检索词的消息的查询结果，不对应表
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageSearchCandidateDO {
+
+    private String messageId;
+
+    private String sessionId;
+
+    private LocalDateTime messageTimestamp;
+}
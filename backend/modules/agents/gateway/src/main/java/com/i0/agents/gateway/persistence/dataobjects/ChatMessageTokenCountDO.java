@@ -0,0 +1,21 @@
+package com.i0.agents.gateway.persistence.dataobjects;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 检索词命中消息数
+ * chat_message_tokens 按检索词分组统计的查询结果，不对应表
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageTokenCountDO {
+
+    private String token;
+
+    private Integer messageCount;
+}
@@ -0,0 +1,33 @@
+package com.i0.agents.gateway.persistence.dataobjects;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 聊天消息检索词数据对象
+ * 主键为（message_id, token），只插入和删除，不更新
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("chat_message_tokens")
+public class ChatMessageTokenDO {
+
+    private String messageId;
+
+    private String token;
+
+    private String userId;
+
+    private String sessionId;
+
+    private LocalDateTime messageTimestamp;
+
+    private Integer termFrequency;
+}
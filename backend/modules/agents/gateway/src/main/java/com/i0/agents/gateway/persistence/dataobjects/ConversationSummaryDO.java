@@ -0,0 +1,68 @@
+package com.i0.agents.gateway.persistence.dataobjects;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.i0.agents.domain.valueobjects.ConversationSummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 对话摘要数据对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("chat_session_summaries")
+public class ConversationSummaryDO {
+
+    @TableId(value = "session_id", type = IdType.INPUT)
+    private String sessionId;
+
+    private String summary;
+
+    private LocalDateTime coveredUntil;
+
+    private String coveredUntilId;
+
+    private Integer coveredMessageCount;
+
+    private LocalDateTime updatedAt;
+
+    /**
+     * 从Domain值对象转换为DO
+     */
+    public static ConversationSummaryDO from(ConversationSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+
+        return ConversationSummaryDO.builder()
+                .sessionId(summary.getSessionId())
+                .summary(summary.getContent())
+                .coveredUntil(summary.getCoveredUntil())
+                .coveredUntilId(summary.getCoveredUntilId())
+                .coveredMessageCount(summary.getCoveredMessageCount())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * 从DO转换为Domain值对象
+     */
+    public ConversationSummary toDomain() {
+        return ConversationSummary.reconstruct(
+                this.sessionId,
+                this.summary,
+                this.coveredUntil,
+                this.coveredUntilId,
+                this.coveredMessageCount != null ? this.coveredMessageCount : 0,
+                this.updatedAt
+        );
+    }
+}
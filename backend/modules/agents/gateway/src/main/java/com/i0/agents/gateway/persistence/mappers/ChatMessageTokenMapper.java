@@ -0,0 +1,47 @@
+package com.i0.agents.gateway.persistence.mappers;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageSearchCandidateDO;
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageTokenCountDO;
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageTokenDO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 聊天消息检索词Mapper接口
+ * 聚合查询的筛选条件由Repository层的LambdaQueryWrapper传入，这里只定义聚合和结果映射
+ */
+@Mapper
+public interface ChatMessageTokenMapper extends BaseMapper<ChatMessageTokenDO> {
+
+    /**
+     * 按检索词统计命中的消息数
+     *
+     * @param wrapper 筛选条件
+     * @return 各检索词命中的消息数
+     */
+    @Select("SELECT token, COUNT(*) AS message_count FROM chat_message_tokens ${ew.customSqlSegment}"
+            + " GROUP BY token")
+    List<ChatMessageTokenCountDO> countMessagesByToken(@Param(Constants.WRAPPER) Wrapper<ChatMessageTokenDO> wrapper);
+
+    /**
+     * 查询同时包含全部检索词的最近若干条消息，按消息时间从新到旧排列
+     *
+     * @param wrapper   筛选条件，限定为检索词所在的行
+     * @param termCount 检索词个数
+     * @param limit     最多返回的消息数
+     * @return 候选消息
+     */
+    @Select("SELECT message_id, session_id, MAX(message_timestamp) AS message_timestamp"
+            + " FROM chat_message_tokens ${ew.customSqlSegment}"
+            + " GROUP BY message_id, session_id HAVING COUNT(DISTINCT token) = #{termCount}"
+            + " ORDER BY MAX(message_timestamp) DESC LIMIT #{limit}")
+    List<ChatMessageSearchCandidateDO> selectLatestCandidates(@Param(Constants.WRAPPER) Wrapper<ChatMessageTokenDO> wrapper,
+                                                              @Param("termCount") int termCount,
+                                                              @Param("limit") int limit);
+}
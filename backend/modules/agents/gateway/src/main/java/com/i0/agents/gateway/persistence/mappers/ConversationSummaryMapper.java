@@ -0,0 +1,13 @@
+package com.i0.agents.gateway.persistence.mappers;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.i0.agents.gateway.persistence.dataobjects.ConversationSummaryDO;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 对话摘要Mapper接口
+ */
+@Mapper
+public interface ConversationSummaryMapper extends BaseMapper<ConversationSummaryDO> {
+    // 继承BaseMapper，获得基础CRUD功能
+}
@@ -4,28 +4,98 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.i0.agents.domain.entities.ChatMessage;
 import com.i0.agents.domain.enums.MessageRole;
 import com.i0.agents.domain.repositories.ChatMessageRepository;
+import com.i0.agents.domain.repositories.ChatMessageSearchRepository;
 import com.i0.agents.gateway.persistence.dataobjects.ChatMessageDO;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * 聊天消息Repository实现
+ * 保存消息时只做会话存在性检查（结果带TTL缓存），消息进入后写缓冲后立即返回，由后台写入线程在独立事务中按会话成批写入；
+ * 读取时不触发写入，查询结果与尚未写入的消息合并，保证读到自己刚保存的消息。
+ * 消息写入后在同一后台批次中为所属用户建立检索词索引，索引失败不影响消息写入，由后台写入线程稍后重试
  */
 @Slf4j
 @Repository
 public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extension.service.impl.ServiceImpl<com.i0.agents.gateway.persistence.mappers.ChatMessageMapper, ChatMessageDO>
-        implements ChatMessageRepository {
+        implements ChatMessageRepository, DisposableBean {
 
-    private final JdbcTemplate jdbcTemplate;
+    /**
+     * 消息先后顺序：按（时间戳，ID）从旧到新，与分页游标一致
+     */
+    private static final Comparator<ChatMessageDO> OLDEST_FIRST = Comparator
+            .comparing(ChatMessageDO::getTimestamp, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ChatMessageDO::getId);
+    private static final Comparator<ChatMessageDO> NEWEST_FIRST = OLDEST_FIRST.reversed();
 
-    public ChatMessageRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    /**
+     * 同一会话建立索引的最大尝试次数，以及两次重试之间的最短间隔
+     */
+    static final int MAX_INDEX_ATTEMPTS = 5;
+    private static final long INDEX_RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatMessageSearchRepository searchRepository;
+    private final TransactionTemplate writeTransaction;
+    private final boolean writeBehindEnabled;
+    private final long sessionCacheTtlNanos;
+    private final Map<String, SessionInfo> knownSessions;
+    private final ChatMessageWriteBuffer writeBuffer;
+    /**
+     * 建立索引失败、等待重试的消息，按会话分组，只在后台写入线程中修改
+     */
+    private final Map<String, IndexRetry> unindexed = new ConcurrentHashMap<>();
+
+    public ChatMessageRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                     ChatMessageSearchRepository searchRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${ai.chat.persistence.write-behind-enabled:true}") boolean writeBehindEnabled,
+                                     @Value("${ai.chat.persistence.batch-size:50}") int batchSize,
+                                     @Value("${ai.chat.persistence.queue-capacity:10000}") int queueCapacity,
+                                     @Value("${ai.chat.persistence.flush-interval-ms:200}") long flushIntervalMs,
+                                     @Value("${ai.chat.persistence.flush-timeout-ms:5000}") long flushTimeoutMs,
+                                     @Value("${ai.chat.persistence.session-cache-max-entries:10000}") int sessionCacheMaxEntries,
+                                     @Value("${ai.chat.persistence.session-cache-ttl-seconds:300}") long sessionCacheTtlSeconds) {
         this.jdbcTemplate = jdbcTemplate;
+        this.searchRepository = searchRepository;
+        // 后台写入线程没有外层事务，显式使用独立事务，每批写入单独提交或回滚
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.writeBehindEnabled = writeBehindEnabled;
+        this.sessionCacheTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(1L, sessionCacheTtlSeconds));
+        int maxSessions = Math.max(1, sessionCacheMaxEntries);
+        this.knownSessions = Collections.synchronizedMap(new LinkedHashMap<String, SessionInfo>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SessionInfo> eldest) {
+                return size() > maxSessions;
+            }
+        });
+        this.writeBuffer = new ChatMessageWriteBuffer(this::writeBatch, batchSize, queueCapacity, flushIntervalMs,
+                flushTimeoutMs, this::retryIndexing);
+        log.info("Chat message persistence initialized: writeBehind={}, batchSize={}, queueCapacity={}, flushIntervalMs={}",
+                writeBehindEnabled, batchSize, queueCapacity, flushIntervalMs);
     }
 
     @Override
@@ -33,66 +103,239 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
         log.debug("Saving chat message: {} for session: {}", chatMessage.getId(), chatMessage.getSessionId());
 
         // 应用层数据一致性检查：确保会话存在
-        if (!isSessionExists(chatMessage.getSessionId())) {
+        if (findSession(chatMessage.getSessionId()) == null) {
             throw new RuntimeException("Chat session not found: " + chatMessage.getSessionId());
         }
 
-        // 应用层数据一致性检查：如果存在父消息ID，确保父消息存在
-        if (chatMessage.getParentMessageId() != null && !chatMessage.getParentMessageId().isEmpty()) {
-            if (!existsById(chatMessage.getParentMessageId())) {
-                log.warn("Parent message not found: {} for message: {}", chatMessage.getParentMessageId(), chatMessage.getId());
-                // 可以选择抛出异常或者继续处理，这里仅记录警告
-            }
-        }
-
         ChatMessageDO chatMessageDO = ChatMessageDO.from(chatMessage);
 
-        // 使用会话ID级别的同步锁，避免同一会话的并发插入冲突
-        synchronized (getSessionLock(chatMessage.getSessionId())) {
-            save(chatMessageDO);
+        // 进入会话的后写队列；未启用后写时等待后台写入线程写入本会话
+        writeBuffer.enqueue(chatMessageDO);
+        if (!writeBehindEnabled) {
+            writeBuffer.flush(chatMessage.getSessionId());
         }
 
         return chatMessageDO.toDomain();
     }
 
+    @Override
+    public void flush(String sessionId) {
+        writeBuffer.flush(sessionId);
+    }
+
+    @Override
+    public void destroy() {
+        writeBuffer.shutdown();
+    }
+
     /**
-     * 检查会话是否存在（应用层外键约束检查）
+     * 查找会话（应用层外键约束检查），会话不存在时返回null
+     * 存在的会话及其所属用户在TTL内缓存，不存在的结果不缓存
      */
-    private boolean isSessionExists(String sessionId) {
+    private SessionInfo findSession(String sessionId) {
+        SessionInfo cached = knownSessions.get(sessionId);
+        if (cached != null && cached.expiresAt - System.nanoTime() > 0) {
+            return cached;
+        }
         try {
-            // 这里需要注入ChatSessionRepository或者通过JdbcTemplate查询
             // 为了避免循环依赖，使用JdbcTemplate直接查询
-            String sql = "SELECT COUNT(*) FROM chat_sessions WHERE id = ? AND is_deleted = false";
-            Integer count = jdbcTemplate.queryForObject(sql, Integer.class, sessionId);
-            return count != null && count > 0;
+            String sql = "SELECT user_id FROM chat_sessions WHERE id = ? AND is_deleted = false";
+            List<String> owners = jdbcTemplate.queryForList(sql, String.class, sessionId);
+            if (owners.isEmpty()) {
+                knownSessions.remove(sessionId);
+                return null;
+            }
+            SessionInfo session = new SessionInfo(owners.get(0), System.nanoTime() + sessionCacheTtlNanos);
+            knownSessions.put(sessionId, session);
+            return session;
         } catch (Exception e) {
             log.error("Failed to check session existence: {}", sessionId, e);
-            return false;
+            return null;
         }
     }
 
     /**
-     * 获取会话级别的锁对象
+     * 批量写入同一会话的消息，只在后台写入线程中调用
+     * 父消息存在性只做一次批量检查并记录警告；整批在独立事务中写入，失败时逐条在独立事务中写入，
+     * 主键冲突说明此前已写入成功，按已写入处理
+     *
+     * @return 未能写入的消息，由写入缓冲留在队列中重试
      */
-    private Object getSessionLock(String sessionId) {
-        // 简单的会话锁机制，避免同一会话的并发冲突
-        // 注意：这是一个简单的内存锁，在分布式环境下需要使用分布式锁
-        return sessionLocks.computeIfAbsent(sessionId, id -> new Object());
+    private List<ChatMessageDO> writeBatch(List<ChatMessageDO> batch) {
+        warnMissingParents(batch);
+        List<ChatMessageDO> written = batch;
+        List<ChatMessageDO> failed = Collections.emptyList();
+        try {
+            writeTransaction.executeWithoutResult(status -> saveBatch(batch));
+            log.debug("Wrote {} chat messages for session: {}", batch.size(), batch.get(0).getSessionId());
+        } catch (Exception e) {
+            log.warn("Batch write of {} chat messages failed, retrying one by one: {}", batch.size(), e.getMessage());
+            written = new ArrayList<>(batch.size());
+            failed = new ArrayList<>();
+            for (ChatMessageDO message : batch) {
+                try {
+                    writeTransaction.executeWithoutResult(status -> save(message));
+                    written.add(message);
+                } catch (DuplicateKeyException duplicate) {
+                    written.add(message);
+                } catch (Exception single) {
+                    log.error("Failed to write chat message: {} for session: {}", message.getId(), message.getSessionId(), single);
+                    failed.add(message);
+                }
+            }
+        }
+        indexMessages(batch.get(0).getSessionId(), written);
+        return failed;
     }
 
-    // 会话锁映射表（内存级别）
-    private static final java.util.concurrent.ConcurrentHashMap<String, Object> sessionLocks =
-            new java.util.concurrent.ConcurrentHashMap<>();
+    /**
+     * 为已写入的消息建立检索词索引，只在后台写入线程中调用，会话没有所属用户时不建立
+     * 本会话此前建立索引失败的消息一并重试；失败的消息留待之后重试，达到最大尝试次数后放弃
+     */
+    private void indexMessages(String sessionId, List<ChatMessageDO> written) {
+        IndexRetry retry = unindexed.remove(sessionId);
+        List<ChatMessageDO> messages = new ArrayList<>(written);
+        if (retry != null) {
+            messages.addAll(0, retry.messages);
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            SessionInfo session = findSession(sessionId);
+            if (session == null || session.userId == null || session.userId.isEmpty()) {
+                return;
+            }
+            List<ChatMessage> domainMessages = messages.stream()
+                    .map(ChatMessageDO::toDomain)
+                    .collect(Collectors.toList());
+            writeTransaction.executeWithoutResult(status -> {
+                if (retry != null) {
+                    // 上次失败时可能已写入部分检索词，先删除再重建，保证重试幂等
+                    searchRepository.deleteByMessageIds(retry.messages.stream()
+                            .map(ChatMessageDO::getId)
+                            .collect(Collectors.toList()));
+                }
+                searchRepository.index(session.userId, domainMessages);
+            });
+        } catch (Exception e) {
+            int attempts = retry != null ? retry.attempts + 1 : 1;
+            if (attempts >= MAX_INDEX_ATTEMPTS) {
+                log.error("Giving up indexing {} chat messages for session: {} after {} attempts",
+                        messages.size(), sessionId, attempts, e);
+                return;
+            }
+            log.warn("Failed to index {} chat messages for session: {}, will retry: {}", messages.size(), sessionId, e.getMessage());
+            unindexed.put(sessionId, new IndexRetry(messages, attempts, System.nanoTime() + INDEX_RETRY_DELAY_NANOS));
+        }
+    }
+
+    /**
+     * 重试到期的索引，在每轮后台写入后执行
+     */
+    private void retryIndexing() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, IndexRetry> entry : new ArrayList<>(unindexed.entrySet())) {
+            if (entry.getValue().retryAt - now <= 0) {
+                indexMessages(entry.getKey(), Collections.emptyList());
+            }
+        }
+    }
+
+    /**
+     * 放弃已删除消息的索引重试，在后台写入线程中执行，与重试互斥，避免为已删除的消息重建检索词
+     */
+    private void discardIndexRetries(Predicate<ChatMessageDO> deleted) {
+        if (unindexed.isEmpty()) {
+            return;
+        }
+        writeBuffer.awaitOnWriter(() -> {
+            unindexed.replaceAll((sessionId, retry) -> retry.without(deleted));
+            unindexed.values().removeIf(retry -> retry.messages.isEmpty());
+        }, "discard index retries");
+    }
+
+    /**
+     * 应用层数据一致性检查：父消息不在本批次中时，确保父消息已存在
+     */
+    private void warnMissingParents(List<ChatMessageDO> batch) {
+        Set<String> batchIds = batch.stream().map(ChatMessageDO::getId).collect(Collectors.toSet());
+        Set<String> parentIds = batch.stream()
+                .map(ChatMessageDO::getParentMessageId)
+                .filter(parentId -> parentId != null && !parentId.isEmpty() && !batchIds.contains(parentId))
+                .collect(Collectors.toSet());
+        if (parentIds.isEmpty()) {
+            return;
+        }
+        Set<String> existing = lambdaQuery()
+                .select(ChatMessageDO::getId)
+                .in(ChatMessageDO::getId, parentIds)
+                .list().stream()
+                .map(ChatMessageDO::getId)
+                .collect(Collectors.toSet());
+        parentIds.stream()
+                .filter(parentId -> !existing.contains(parentId))
+                .forEach(parentId -> log.warn("Parent message not found: {} in session: {}", parentId, batch.get(0).getSessionId()));
+    }
+
+    /**
+     * 合并查询结果与尚未写入的消息
+     * 正在写入的消息可能同时出现在两边，按ID去重后排序并截取；没有待写消息时保持查询顺序
+     */
+    private static List<ChatMessage> merge(List<ChatMessageDO> stored, List<ChatMessageDO> pending,
+                                           Comparator<ChatMessageDO> order, int limit) {
+        if (pending.isEmpty()) {
+            return stored.stream()
+                    .map(ChatMessageDO::toDomain)
+                    .collect(Collectors.toList());
+        }
+        Map<String, ChatMessageDO> byId = new LinkedHashMap<>();
+        stored.forEach(message -> byId.put(message.getId(), message));
+        pending.forEach(message -> byId.putIfAbsent(message.getId(), message));
+        return byId.values().stream()
+                .sorted(order)
+                .limit(limit)
+                .map(ChatMessageDO::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 会话中符合条件的待写消息
+     */
+    private List<ChatMessageDO> pendingOf(String sessionId, Predicate<ChatMessageDO> filter) {
+        return writeBuffer.pendingMessages(sessionId).stream()
+                .filter(message -> !Boolean.TRUE.equals(message.getIsDeleted()))
+                .filter(filter)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 待写消息中尚未出现在存储中的数量，用于计数时去重
+     */
+    private long countUnwritten(List<ChatMessageDO> pending) {
+        if (pending.isEmpty()) {
+            return 0L;
+        }
+        long written = lambdaQuery()
+                .in(ChatMessageDO::getId, pending.stream().map(ChatMessageDO::getId).collect(Collectors.toList()))
+                .count();
+        return pending.size() - written;
+    }
+
+    private static boolean hasRole(ChatMessageDO message, MessageRole role) {
+        return role.name().equals(message.getRole());
+    }
 
     @Override
     public List<ChatMessage> saveAll(List<ChatMessage> messages) {
         log.debug("Saving {} chat messages", messages.size());
 
+        // 与单条保存相同，进入各会话的后写队列，由后台写入线程按保存顺序写入
         List<ChatMessageDO> chatMessageDOs = messages.stream()
                 .map(ChatMessageDO::from)
                 .collect(Collectors.toList());
-
-        saveBatch(chatMessageDOs);
+        chatMessageDOs.forEach(writeBuffer::enqueue);
+        chatMessageDOs.stream().map(ChatMessageDO::getSessionId).distinct().forEach(writeBuffer::flush);
 
         return chatMessageDOs.stream()
                 .map(ChatMessageDO::toDomain)
@@ -103,11 +346,44 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
     public Optional<ChatMessage> findById(String id) {
         log.debug("Finding chat message by id: {}", id);
 
+        Optional<ChatMessageDO> pending = writeBuffer.findPending(id);
+        if (pending.isPresent()) {
+            return pending.map(ChatMessageDO::toDomain);
+        }
+
         ChatMessageDO chatMessageDO = getById(id);
         return Optional.ofNullable(chatMessageDO)
                 .map(ChatMessageDO::toDomain);
     }
 
+    @Override
+    public List<ChatMessage> findByIds(List<String> ids) {
+        log.debug("Finding chat messages by ids: {}", ids);
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 尚未写入的消息直接从写入缓冲取出，其余的从存储中查询
+        List<ChatMessageDO> pending = new ArrayList<>();
+        List<String> storedIds = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Optional<ChatMessageDO> found = writeBuffer.findPending(id);
+            if (found.isPresent()) {
+                pending.add(found.get());
+            } else {
+                storedIds.add(id);
+            }
+        }
+        List<ChatMessageDO> stored = Collections.emptyList();
+        if (!storedIds.isEmpty()) {
+            LambdaQueryWrapper<ChatMessageDO> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.in(ChatMessageDO::getId, storedIds)
+                    .eq(ChatMessageDO::getIsDeleted, false);
+            stored = list(queryWrapper);
+        }
+        return merge(stored, pending, OLDEST_FIRST, Integer.MAX_VALUE);
+    }
+
     @Override
     public List<ChatMessage> findBySessionId(String sessionId) {
         log.debug("Finding chat messages by sessionId: {}", sessionId);
@@ -117,10 +393,7 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
                 .eq(ChatMessageDO::getIsDeleted, false)
                 .orderByAsc(ChatMessageDO::getTimestamp);
 
-        List<ChatMessageDO> chatMessageDOs = list(queryWrapper);
-        return chatMessageDOs.stream()
-                .map(ChatMessageDO::toDomain)
-                .collect(Collectors.toList());
+        return merge(list(queryWrapper), pendingOf(sessionId, message -> true), OLDEST_FIRST, Integer.MAX_VALUE);
     }
 
     @Override
@@ -133,10 +406,8 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
                 .eq(ChatMessageDO::getIsDeleted, false)
                 .orderByAsc(ChatMessageDO::getTimestamp);
 
-        List<ChatMessageDO> chatMessageDOs = list(queryWrapper);
-        return chatMessageDOs.stream()
-                .map(ChatMessageDO::toDomain)
-                .collect(Collectors.toList());
+        return merge(list(queryWrapper), pendingOf(sessionId, message -> hasRole(message, role)),
+                OLDEST_FIRST, Integer.MAX_VALUE);
     }
 
     @Override
@@ -148,12 +419,12 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
                 .ge(ChatMessageDO::getTimestamp, startTime)
                 .le(ChatMessageDO::getTimestamp, endTime)
                 .eq(ChatMessageDO::getIsDeleted, false)
-                .orderByAsc(ChatMessageDO::getTimestamp);
+                .orderByAsc(ChatMessageDO::getTimestamp)
+                .orderByAsc(ChatMessageDO::getId);
 
-        List<ChatMessageDO> chatMessageDOs = list(queryWrapper);
-        return chatMessageDOs.stream()
-                .map(ChatMessageDO::toDomain)
-                .collect(Collectors.toList());
+        List<ChatMessageDO> pending = pendingOf(sessionId, message -> message.getTimestamp() != null
+                && !message.getTimestamp().isBefore(startTime) && !message.getTimestamp().isAfter(endTime));
+        return merge(list(queryWrapper), pending, OLDEST_FIRST, Integer.MAX_VALUE);
     }
 
     @Override
@@ -164,12 +435,33 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
         queryWrapper.eq(ChatMessageDO::getSessionId, sessionId)
                 .eq(ChatMessageDO::getIsDeleted, false)
                 .orderByDesc(ChatMessageDO::getTimestamp)
+                .orderByDesc(ChatMessageDO::getId)
                 .last("LIMIT " + limit);
 
-        List<ChatMessageDO> chatMessageDOs = list(queryWrapper);
-        return chatMessageDOs.stream()
-                .map(ChatMessageDO::toDomain)
-                .collect(Collectors.toList());
+        return merge(list(queryWrapper), pendingOf(sessionId, message -> true), NEWEST_FIRST, limit);
+    }
+
+    @Override
+    public List<ChatMessage> findPageBySessionIdBefore(String sessionId, LocalDateTime beforeTimestamp, String beforeId, int limit) {
+        log.debug("Finding chat message page by sessionId: {} before: {}/{} limit: {}", sessionId, beforeTimestamp, beforeId, limit);
+
+        // 按（session_id, timestamp, id）索引倒序扫描，时间戳相同的消息以ID区分先后
+        LambdaQueryWrapper<ChatMessageDO> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(ChatMessageDO::getSessionId, sessionId)
+                .eq(ChatMessageDO::getIsDeleted, false);
+        if (beforeTimestamp != null) {
+            queryWrapper.and(wrapper -> wrapper.lt(ChatMessageDO::getTimestamp, beforeTimestamp)
+                    .or(tie -> tie.eq(ChatMessageDO::getTimestamp, beforeTimestamp)
+                            .lt(ChatMessageDO::getId, beforeId)));
+        }
+        queryWrapper.orderByDesc(ChatMessageDO::getTimestamp)
+                .orderByDesc(ChatMessageDO::getId)
+                .last("LIMIT " + limit);
+
+        ChatMessageDO cursor = ChatMessageDO.builder().timestamp(beforeTimestamp).id(beforeId).build();
+        List<ChatMessageDO> pending = pendingOf(sessionId, message -> beforeTimestamp == null
+                || (message.getTimestamp() != null && OLDEST_FIRST.compare(message, cursor) < 0));
+        return merge(list(queryWrapper), pending, NEWEST_FIRST, limit);
     }
 
     @Override
@@ -181,10 +473,10 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
                 .eq(ChatMessageDO::getIsDeleted, false)
                 .orderByAsc(ChatMessageDO::getTimestamp);
 
-        List<ChatMessageDO> chatMessageDOs = list(queryWrapper);
-        return chatMessageDOs.stream()
-                .map(ChatMessageDO::toDomain)
+        List<ChatMessageDO> pending = writeBuffer.allPendingMessages().stream()
+                .filter(message -> parentMessageId != null && parentMessageId.equals(message.getParentMessageId()))
                 .collect(Collectors.toList());
+        return merge(list(queryWrapper), pending, OLDEST_FIRST, Integer.MAX_VALUE);
     }
 
     @Override
@@ -197,15 +489,17 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
                 .eq(ChatMessageDO::getIsDeleted, false)
                 .orderByAsc(ChatMessageDO::getTimestamp);
 
-        List<ChatMessageDO> chatMessageDOs = list(queryWrapper);
-        return chatMessageDOs.stream()
-                .map(ChatMessageDO::toDomain)
-                .collect(Collectors.toList());
+        List<ChatMessageDO> pending = pendingOf(sessionId, message -> message.getContent() != null
+                && keyword != null && message.getContent().toLowerCase().contains(keyword.toLowerCase()));
+        return merge(list(queryWrapper), pending, OLDEST_FIRST, Integer.MAX_VALUE);
     }
 
     @Override
     public boolean existsById(String id) {
         log.debug("Checking if chat message exists by id: {}", id);
+        if (writeBuffer.findPending(id).isPresent()) {
+            return true;
+        }
         return lambdaQuery()
                 .eq(ChatMessageDO::getId, id)
                 .eq(ChatMessageDO::getIsDeleted, false)
@@ -216,26 +510,32 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
     public long countBySessionId(String sessionId) {
         log.debug("Counting chat messages by sessionId: {}", sessionId);
 
-        return lambdaQuery()
+        long stored = lambdaQuery()
                 .eq(ChatMessageDO::getSessionId, sessionId)
                 .eq(ChatMessageDO::getIsDeleted, false)
                 .count();
+        return stored + countUnwritten(pendingOf(sessionId, message -> true));
     }
 
     @Override
     public long countBySessionIdAndRole(String sessionId, MessageRole role) {
         log.debug("Counting chat messages by sessionId: {} and role: {}", sessionId, role);
 
-        return lambdaQuery()
+        long stored = lambdaQuery()
                 .eq(ChatMessageDO::getSessionId, sessionId)
                 .eq(ChatMessageDO::getRole, role.name())
                 .eq(ChatMessageDO::getIsDeleted, false)
                 .count();
+        return stored + countUnwritten(pendingOf(sessionId, message -> hasRole(message, role)));
     }
 
     @Override
     public void deleteBySessionId(String sessionId) {
         log.debug("Deleting chat messages by sessionId: {}", sessionId);
+        writeBuffer.discard(sessionId);
+        discardIndexRetries(message -> sessionId.equals(message.getSessionId()));
+        knownSessions.remove(sessionId);
+        searchRepository.deleteBySessionId(sessionId);
 
         LambdaQueryWrapper<ChatMessageDO> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(ChatMessageDO::getSessionId, sessionId);
@@ -245,9 +545,12 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
     @Override
     public void deleteById(String id) {
         log.debug("Deleting chat message by id: {}", id);
+        writeBuffer.discardMessages(Collections.singletonList(id));
+        discardIndexRetries(message -> id.equals(message.getId()));
 
         // 使用MyBatis-Plus的逻辑删除
         int result = baseMapper.deleteById(id);
+        searchRepository.deleteByMessageIds(Collections.singletonList(id));
         if (result == 0) {
             log.warn("No chat message deleted for id: {}", id);
         }
@@ -258,7 +561,11 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
         log.debug("Deleting chat messages by ids: {}", ids);
 
         if (ids != null && !ids.isEmpty()) {
+            writeBuffer.discardMessages(ids);
+            Set<String> deleted = new HashSet<>(ids);
+            discardIndexRetries(message -> deleted.contains(message.getId()));
             int result = baseMapper.deleteBatchIds(ids);
+            searchRepository.deleteByMessageIds(ids);
             log.info("Deleted {} chat messages", result);
         }
     }
@@ -273,9 +580,7 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
                 .orderByDesc(ChatMessageDO::getTimestamp)
                 .last("LIMIT 1");
 
-        ChatMessageDO chatMessageDO = getOne(queryWrapper);
-        return Optional.ofNullable(chatMessageDO)
-                .map(ChatMessageDO::toDomain);
+        return findLast(getOne(queryWrapper), pendingOf(sessionId, message -> true));
     }
 
     @Override
@@ -289,9 +594,7 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
                 .orderByDesc(ChatMessageDO::getTimestamp)
                 .last("LIMIT 1");
 
-        ChatMessageDO chatMessageDO = getOne(queryWrapper);
-        return Optional.ofNullable(chatMessageDO)
-                .map(ChatMessageDO::toDomain);
+        return findLast(getOne(queryWrapper), pendingOf(sessionId, message -> hasRole(message, MessageRole.USER)));
     }
 
     @Override
@@ -305,8 +608,46 @@ public class ChatMessageRepositoryImpl extends com.baomidou.mybatisplus.extensio
                 .orderByDesc(ChatMessageDO::getTimestamp)
                 .last("LIMIT 1");
 
-        ChatMessageDO chatMessageDO = getOne(queryWrapper);
-        return Optional.ofNullable(chatMessageDO)
-                .map(ChatMessageDO::toDomain);
+        return findLast(getOne(queryWrapper), pendingOf(sessionId, message -> hasRole(message, MessageRole.ASSISTANT)));
+    }
+
+    private static Optional<ChatMessage> findLast(ChatMessageDO stored, List<ChatMessageDO> pending) {
+        List<ChatMessageDO> candidates = stored != null ? Collections.singletonList(stored) : Collections.emptyList();
+        return merge(candidates, pending, NEWEST_FIRST, 1).stream().findFirst();
+    }
+
+    /**
+     * 等待重试索引的消息
+     */
+    private static final class IndexRetry {
+        private final List<ChatMessageDO> messages;
+        private final int attempts;
+        private final long retryAt;
+
+        private IndexRetry(List<ChatMessageDO> messages, int attempts, long retryAt) {
+            this.messages = messages;
+            this.attempts = attempts;
+            this.retryAt = retryAt;
+        }
+
+        private IndexRetry without(Predicate<ChatMessageDO> filter) {
+            List<ChatMessageDO> remaining = messages.stream()
+                    .filter(filter.negate())
+                    .collect(Collectors.toList());
+            return new IndexRetry(remaining, attempts, retryAt);
+        }
+    }
+
+    /**
+     * 缓存的会话信息
+     */
+    private static final class SessionInfo {
+        private final String userId;
+        private final long expiresAt;
+
+        private SessionInfo(String userId, long expiresAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
     }
-}
\ No newline at end of file
+}
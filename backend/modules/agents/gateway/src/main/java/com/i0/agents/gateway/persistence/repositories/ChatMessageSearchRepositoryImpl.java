@@ -0,0 +1,138 @@
+package com.i0.agents.gateway.persistence.repositories;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.repositories.ChatMessageSearchRepository;
+import com.i0.agents.domain.services.MessageTokenizer;
+import com.i0.agents.domain.valueobjects.MessageSearchHit;
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageSearchCandidateDO;
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageTokenCountDO;
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageTokenDO;
+import com.i0.agents.gateway.persistence.mappers.ChatMessageTokenMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 聊天消息检索Repository实现
+ * 检索分三步，都走（user_id, token）索引：先统计各检索词命中的消息数作为稀有度，
+ * 再取同时包含全部检索词的最近若干条消息作为候选，最后读取候选消息的词频在内存中计算相关度并分页。
+ * 候选数量有上限（ai.chat.search.candidate-limit），候选按时间而不是相关度截取：
+ * 命中消息超过上限时只在最近的消息中排序，更早但更相关的消息不会返回，翻页也不会超出上限，
+ * 以此换取单次检索的读取量与用户的消息总量无关
+ */
+@Slf4j
+@Repository
+public class ChatMessageSearchRepositoryImpl extends ServiceImpl<ChatMessageTokenMapper, ChatMessageTokenDO>
+        implements ChatMessageSearchRepository {
+
+    private final int candidateLimit;
+
+    public ChatMessageSearchRepositoryImpl(@Value("${ai.chat.search.candidate-limit:500}") int candidateLimit) {
+        this.candidateLimit = Math.max(1, candidateLimit);
+    }
+
+    @Override
+    public void index(String userId, List<ChatMessage> messages) {
+        List<ChatMessageTokenDO> tokens = new ArrayList<>();
+        for (ChatMessage message : messages) {
+            // 只索引用户和助手的消息
+            if (message.getContent() == null || !(message.isUserMessage() || message.isAssistantMessage())) {
+                continue;
+            }
+            MessageTokenizer.indexTerms(message.getContent().getContent()).forEach((token, frequency) ->
+                    tokens.add(ChatMessageTokenDO.builder()
+                            .messageId(message.getId())
+                            .token(token)
+                            .userId(userId)
+                            .sessionId(message.getSessionId())
+                            .messageTimestamp(message.getTimestamp())
+                            .termFrequency(frequency)
+                            .build()));
+        }
+        if (!tokens.isEmpty()) {
+            saveBatch(tokens);
+            log.debug("Indexed {} messages with {} tokens for user: {}", messages.size(), tokens.size(), userId);
+        }
+    }
+
+    @Override
+    public List<MessageSearchHit> search(String userId, List<String> terms, int offset, int limit) {
+        log.debug("Searching chat messages for user: {}, terms: {}, offset: {}, limit: {}", userId, terms, offset, limit);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        LambdaQueryWrapper<ChatMessageTokenDO> termRows = new LambdaQueryWrapper<>();
+        termRows.eq(ChatMessageTokenDO::getUserId, userId)
+                .in(ChatMessageTokenDO::getToken, terms);
+
+        // 1. 各检索词命中的消息数，任一检索词没有命中时直接返回
+        Map<String, Integer> documentFrequencies = baseMapper.countMessagesByToken(termRows).stream()
+                .collect(Collectors.toMap(ChatMessageTokenCountDO::getToken, ChatMessageTokenCountDO::getMessageCount));
+        if (documentFrequencies.size() < terms.size()) {
+            return Collections.emptyList();
+        }
+
+        // 2. 同时包含全部检索词的最近若干条消息，超过候选上限的较早消息不参与排序
+        List<ChatMessageSearchCandidateDO> candidates =
+                baseMapper.selectLatestCandidates(termRows, terms.size(), candidateLimit);
+        if (candidates.size() <= offset) {
+            return Collections.emptyList();
+        }
+
+        // 3. 按词频和检索词稀有度计算相关度：越稀有的检索词权重越高，词频按对数增长
+        List<String> candidateIds = candidates.stream()
+                .map(ChatMessageSearchCandidateDO::getMessageId)
+                .collect(Collectors.toList());
+        LambdaQueryWrapper<ChatMessageTokenDO> frequencyRows = new LambdaQueryWrapper<>();
+        frequencyRows.in(ChatMessageTokenDO::getMessageId, candidateIds)
+                .in(ChatMessageTokenDO::getToken, terms);
+        int maxDocumentFrequency = Collections.max(documentFrequencies.values());
+        Map<String, Double> scores = new HashMap<>();
+        for (ChatMessageTokenDO row : list(frequencyRows)) {
+            double weight = 1.0 + Math.log((double) maxDocumentFrequency / documentFrequencies.get(row.getToken()));
+            scores.merge(row.getMessageId(), (1.0 + Math.log(row.getTermFrequency())) * weight, Double::sum);
+        }
+
+        return candidates.stream()
+                .map(candidate -> MessageSearchHit.of(candidate.getMessageId(), candidate.getSessionId(),
+                        candidate.getMessageTimestamp(), scores.getOrDefault(candidate.getMessageId(), 0.0)))
+                .sorted(Comparator.comparingDouble(MessageSearchHit::getScore).reversed()
+                        .thenComparing(MessageSearchHit::getTimestamp, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder())))
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void deleteBySessionId(String sessionId) {
+        log.debug("Deleting chat message tokens by sessionId: {}", sessionId);
+
+        LambdaQueryWrapper<ChatMessageTokenDO> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(ChatMessageTokenDO::getSessionId, sessionId);
+        remove(queryWrapper);
+    }
+
+    @Override
+    public void deleteByMessageIds(List<String> messageIds) {
+        if (messageIds == null || messageIds.isEmpty()) {
+            return;
+        }
+        log.debug("Deleting chat message tokens by messageIds: {}", messageIds);
+
+        LambdaQueryWrapper<ChatMessageTokenDO> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.in(ChatMessageTokenDO::getMessageId, messageIds);
+        remove(queryWrapper);
+    }
+}
@@ -0,0 +1,362 @@
+package com.i0.agents.gateway.persistence.repositories;
+
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageDO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 聊天消息后写缓冲
+ * 消息按会话进入待写队列后立即返回，只由后台写入线程成批写入：写入不参与保存消息线程的事务，
+ * 与调用方事务是否只读、是否回滚无关。单一写入线程依次处理各会话，同一会话的写入顺序与保存顺序一致。
+ * 消息在写入成功后才移出队列，读取方可随时合并尚未写入的消息；写入失败的消息留在队列中等待下次写入，
+ * 连续失败达到上限后丢弃。容量是待写消息总数的硬上限：队列已满时保存消息的线程等待后台写入所有会话，
+ * 最多等待写入超时时间，仍没有空位时拒绝保存并抛出异常
+ */
+@Slf4j
+class ChatMessageWriteBuffer {
+
+    /**
+     * 单条消息的最大写入次数，连续失败达到该次数后丢弃并记录错误
+     */
+    static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final Function<List<ChatMessageDO>, List<ChatMessageDO>> writer;
+    private final int batchSize;
+    private final int capacity;
+    private final long flushTimeoutMs;
+    private final ConcurrentHashMap<String, Deque<ChatMessageDO>> pendingBySession = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ChatMessageDO> pendingById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Runnable afterRound;
+    private final ScheduledExecutorService flusher;
+    private volatile Thread writerThread;
+
+    ChatMessageWriteBuffer(Function<List<ChatMessageDO>, List<ChatMessageDO>> writer, int batchSize, int capacity,
+                           long flushIntervalMs, long flushTimeoutMs) {
+        this(writer, batchSize, capacity, flushIntervalMs, flushTimeoutMs, () -> { });
+    }
+
+    /**
+     * @param writer          批量写入函数，在后台写入线程中调用，同一会话的批次按保存顺序传入，返回未能写入的消息
+     * @param batchSize       单批写入的消息数，单个会话积累到该数量时立即触发写入
+     * @param capacity        所有会话待写消息总数上限，达到上限且无法腾出空位时拒绝保存
+     * @param flushIntervalMs 后台定时写入间隔（毫秒）
+     * @param flushTimeoutMs  等待后台写入的最长时间（毫秒）
+     * @param afterRound      每轮定时写入后和关闭前在后台写入线程中执行的任务
+     */
+    ChatMessageWriteBuffer(Function<List<ChatMessageDO>, List<ChatMessageDO>> writer, int batchSize, int capacity,
+                           long flushIntervalMs, long flushTimeoutMs, Runnable afterRound) {
+        this.writer = writer;
+        this.afterRound = afterRound;
+        this.batchSize = Math.max(1, batchSize);
+        this.capacity = Math.max(1, capacity);
+        this.flushTimeoutMs = Math.max(1L, flushTimeoutMs);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-message-writer");
+            thread.setDaemon(true);
+            writerThread = thread;
+            return thread;
+        });
+        long interval = Math.max(10L, flushIntervalMs);
+        this.flusher.scheduleWithFixedDelay(this::scheduledRound, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 加入待写队列
+     * 队列已满时等待后台写入腾出空位，等待写入超时或写入失败未能腾出空位时抛出异常，消息不进入队列
+     *
+     * @throws IllegalStateException 待写消息已达到容量上限
+     */
+    void enqueue(ChatMessageDO message) {
+        String sessionId = message.getSessionId();
+        if (!tryReserve()) {
+            log.debug("Chat message write buffer is full, waiting for pending messages to be written");
+            flushAll();
+            if (!tryReserve()) {
+                throw new IllegalStateException(String.format(
+                        "Chat message write buffer is full (%d pending), rejected message %s for session %s",
+                        capacity, message.getId(), sessionId));
+            }
+        }
+        pendingById.put(message.getId(), message);
+        int sessionPending = pendingBySession.compute(sessionId, (key, queue) -> {
+            Deque<ChatMessageDO> target = queue != null ? queue : new ArrayDeque<>();
+            target.addLast(message);
+            return target;
+        }).size();
+
+        if (sessionPending >= batchSize) {
+            try {
+                flusher.execute(() -> flushQuietly(sessionId));
+            } catch (RejectedExecutionException e) {
+                log.debug("Chat message writer is shut down, session {} stays pending", sessionId);
+            }
+        }
+    }
+
+    /**
+     * 查找尚未写入的消息
+     */
+    Optional<ChatMessageDO> findPending(String id) {
+        return Optional.ofNullable(id != null ? pendingById.get(id) : null);
+    }
+
+    /**
+     * 会话中尚未写入的消息，按保存顺序排列
+     * 正在写入的消息在提交后才移出，可能同时出现在存储中，合并时需按ID去重
+     */
+    List<ChatMessageDO> pendingMessages(String sessionId) {
+        List<ChatMessageDO> snapshot = new ArrayList<>();
+        pendingBySession.computeIfPresent(sessionId, (key, queue) -> {
+            snapshot.addAll(queue);
+            return queue;
+        });
+        return snapshot;
+    }
+
+    /**
+     * 所有会话中尚未写入的消息
+     */
+    Collection<ChatMessageDO> allPendingMessages() {
+        return Collections.unmodifiableCollection(pendingById.values());
+    }
+
+    /**
+     * 等待后台线程写入会话的待写消息
+     * 超过等待上限时返回，消息留在队列中由后台继续写入
+     */
+    void flush(String sessionId) {
+        awaitOnWriter(() -> flushQuietly(sessionId), "flush session " + sessionId);
+    }
+
+    /**
+     * 等待后台线程写入所有会话的待写消息
+     */
+    void flushAll() {
+        awaitOnWriter(this::flushAllQuietly, "flush all sessions");
+    }
+
+    /**
+     * 丢弃会话的待写消息，用于会话消息被删除时
+     * 在后台写入线程中执行，返回后该会话不会再有消息写入
+     */
+    void discard(String sessionId) {
+        awaitOnWriter(() -> {
+            Deque<ChatMessageDO> queue = pendingBySession.remove(sessionId);
+            if (queue != null) {
+                forget(queue);
+            }
+        }, "discard session " + sessionId);
+    }
+
+    /**
+     * 丢弃指定的待写消息，用于消息被删除时
+     */
+    void discardMessages(Collection<String> ids) {
+        if (ids.stream().noneMatch(pendingById::containsKey)) {
+            return;
+        }
+        awaitOnWriter(() -> {
+            for (String id : ids) {
+                ChatMessageDO message = pendingById.get(id);
+                if (message != null) {
+                    removeFromQueue(message.getSessionId(), Collections.singleton(message));
+                }
+            }
+        }, "discard messages");
+    }
+
+    int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * 停止后台写入，由写入线程写入剩余的所有消息
+     * 写入失败的消息按最大写入次数重试，仍失败的消息记录错误后丢弃
+     */
+    void shutdown() {
+        try {
+            flusher.execute(() -> {
+                for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS && pendingCount.get() > 0; attempt++) {
+                    flushAllQuietly();
+                }
+                afterRound.run();
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Chat message writer is already shut down");
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (pendingCount.get() > 0) {
+            log.error("Chat message write buffer shut down with {} unwritten messages", pendingCount.get());
+        } else {
+            log.info("Chat message write buffer flushed on shutdown");
+        }
+    }
+
+    /**
+     * 在后台写入线程中执行并等待完成；当前线程即为写入线程时直接执行
+     * 与写入串行执行，用于需要和写入互斥的操作
+     */
+    void awaitOnWriter(Runnable task, String description) {
+        if (Thread.currentThread() == writerThread) {
+            task.run();
+            return;
+        }
+        Future<?> future;
+        try {
+            future = flusher.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Chat message writer is shut down, skipped: {}", description);
+            return;
+        }
+        try {
+            future.get(flushTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Timed out after {}ms waiting for chat message writer to {}", flushTimeoutMs, description);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Chat message writer failed to {}", description, e.getCause());
+        }
+    }
+
+    /**
+     * 写入会话的待写消息，只在后台写入线程中调用
+     * 每批写入成功的消息移出队列，未能写入的消息留在队头，本轮不再继续写入该会话，保持保存顺序
+     */
+    private void flushQuietly(String sessionId) {
+        while (true) {
+            List<ChatMessageDO> batch = new ArrayList<>(batchSize);
+            pendingBySession.computeIfPresent(sessionId, (key, queue) -> {
+                queue.stream().limit(batchSize).forEach(batch::add);
+                return queue;
+            });
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<ChatMessageDO> failed;
+            try {
+                failed = writer.apply(batch);
+            } catch (Exception e) {
+                log.error("Failed to write {} pending chat messages for session: {}", batch.size(), sessionId, e);
+                failed = batch;
+            }
+            Set<ChatMessageDO> done = Collections.newSetFromMap(new IdentityHashMap<>());
+            done.addAll(batch);
+            for (ChatMessageDO message : failed) {
+                if (!exhausted(message)) {
+                    done.remove(message);
+                }
+            }
+            removeFromQueue(sessionId, done);
+            if (!failed.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 定时写入一轮，任务抛出异常时定时任务会被取消，因此在这里捕获
+     */
+    private void scheduledRound() {
+        try {
+            flushAllQuietly();
+            afterRound.run();
+        } catch (Exception e) {
+            log.error("Chat message writer round failed", e);
+        }
+    }
+
+    private void flushAllQuietly() {
+        for (String sessionId : new ArrayList<>(pendingBySession.keySet())) {
+            flushQuietly(sessionId);
+        }
+    }
+
+    /**
+     * 占用一个待写位置，已达到容量上限时返回false
+     */
+    private boolean tryReserve() {
+        while (true) {
+            int pending = pendingCount.get();
+            if (pending >= capacity) {
+                return false;
+            }
+            if (pendingCount.compareAndSet(pending, pending + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 记录一次写入失败，达到最大写入次数时返回true
+     */
+    private boolean exhausted(ChatMessageDO message) {
+        int attempts = failedAttempts.merge(message.getId(), 1, Integer::sum);
+        if (attempts < MAX_WRITE_ATTEMPTS) {
+            return false;
+        }
+        log.error("Dropping chat message: {} for session: {} after {} failed writes",
+                message.getId(), message.getSessionId(), attempts);
+        return true;
+    }
+
+    /**
+     * 将消息移出会话队列，只计算仍在队列中的消息，与丢弃操作不会重复扣减
+     */
+    private void removeFromQueue(String sessionId, Collection<ChatMessageDO> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Set<ChatMessageDO> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+        targets.addAll(messages);
+        List<ChatMessageDO> removed = new ArrayList<>(messages.size());
+        pendingBySession.computeIfPresent(sessionId, (key, queue) -> {
+            queue.removeIf(message -> {
+                if (targets.contains(message)) {
+                    removed.add(message);
+                    return true;
+                }
+                return false;
+            });
+            return queue.isEmpty() ? null : queue;
+        });
+        forget(removed);
+    }
+
+    private void forget(Collection<ChatMessageDO> messages) {
+        for (ChatMessageDO message : messages) {
+            pendingById.remove(message.getId(), message);
+            failedAttempts.remove(message.getId());
+        }
+        pendingCount.addAndGet(-messages.size());
+    }
+}
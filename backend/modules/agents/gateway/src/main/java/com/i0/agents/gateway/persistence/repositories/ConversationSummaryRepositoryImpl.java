@@ -0,0 +1,37 @@
+package com.i0.agents.gateway.persistence.repositories;
+
+import com.i0.agents.domain.repositories.ConversationSummaryRepository;
+import com.i0.agents.domain.valueobjects.ConversationSummary;
+import com.i0.agents.gateway.persistence.dataobjects.ConversationSummaryDO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * 对话摘要Repository实现
+ */
+@Slf4j
+@Repository
+public class ConversationSummaryRepositoryImpl extends com.baomidou.mybatisplus.extension.service.impl.ServiceImpl<com.i0.agents.gateway.persistence.mappers.ConversationSummaryMapper, ConversationSummaryDO>
+        implements ConversationSummaryRepository {
+
+    @Override
+    public Optional<ConversationSummary> findBySessionId(String sessionId) {
+        log.debug("Finding conversation summary by sessionId: {}", sessionId);
+
+        return Optional.ofNullable(getById(sessionId))
+                .map(ConversationSummaryDO::toDomain);
+    }
+
+    @Override
+    public void save(ConversationSummary summary) {
+        log.debug("Saving conversation summary for session: {}, coveredMessages: {}",
+                summary.getSessionId(), summary.getCoveredMessageCount());
+
+        ConversationSummaryDO summaryDO = ConversationSummaryDO.from(summary);
+        if (!updateById(summaryDO)) {
+            save(summaryDO);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.i0.agents.gateway.web.controllers;
 
+import com.i0.agents.application.dto.input.ChatMessageHistoryInput;
 import com.i0.agents.application.dto.input.CreateChatSessionInput;
+import com.i0.agents.application.dto.input.SearchChatMessagesInput;
 import com.i0.agents.application.dto.input.SendMessageInput;
+import com.i0.agents.application.dto.output.ChatMessageHistoryOutput;
 import com.i0.agents.application.dto.output.ChatMessageOutput;
+import com.i0.agents.application.dto.output.ChatMessageSearchOutput;
 import com.i0.agents.application.dto.output.ChatSessionOutput;
 import com.i0.agents.application.dto.output.QuickPromptOutput;
 import com.i0.agents.application.usecases.CreateChatSessionUseCase;
+import com.i0.agents.application.usecases.FindChatMessagesUseCase;
 import com.i0.agents.application.usecases.FindChatSessionsUseCase;
+import com.i0.agents.application.usecases.SearchChatMessagesUseCase;
 import com.i0.agents.application.usecases.SendMessageUseCase;
 import com.i0.agents.application.usecases.DeleteChatSessionUseCase;
 import com.i0.agents.application.usecases.StreamChatUseCase;
@@ -39,6 +45,8 @@ public class ChatController {
     private final DeleteChatSessionUseCase deleteChatSessionUseCase;
     private final StreamChatUseCase streamChatUseCase;
     private final GetQuickPromptsUseCase getQuickPromptsUseCase;
+    private final FindChatMessagesUseCase findChatMessagesUseCase;
+    private final SearchChatMessagesUseCase searchChatMessagesUseCase;
 
     /**
      * 创建新的聊天会话
@@ -80,6 +88,54 @@ public class ChatController {
         return sendMessageUseCase.getSessionMessages(sessionId);
     }
 
+    /**
+     * 按游标分页获取会话的历史消息
+     * 不带游标时返回最新的一页，之后以返回的 nextCursor 继续读取更早的消息
+     *
+     * @param sessionId 会话ID
+     * @param cursor 上一页返回的游标（可选）
+     * @param limit 每页消息数（可选，默认50，最大200）
+     * @return 按时间顺序排列的一页消息
+     */
+    @GetMapping("/sessions/{sessionId}/messages/history")
+    public ChatMessageHistoryOutput getSessionMessageHistory(
+            @PathVariable String sessionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Getting message history for session: {}, cursor: {}, limit: {}", sessionId, cursor, limit);
+
+        return findChatMessagesUseCase.execute(ChatMessageHistoryInput.builder()
+                .sessionId(sessionId)
+                .cursor(cursor)
+                .limit(limit)
+                .build());
+    }
+
+    /**
+     * 跨会话检索用户的聊天消息
+     *
+     * @param userId 用户ID
+     * @param keyword 关键词
+     * @param page 页码（可选，从0开始）
+     * @param size 每页条数（可选，默认20，最大50）
+     * @return 按相关度排列的一页命中消息
+     */
+    @GetMapping("/messages/search")
+    public ChatMessageSearchOutput searchMessages(
+            @RequestParam String userId,
+            @RequestParam String keyword,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        log.debug("Searching messages - userId: {}, keyword: {}, page: {}, size: {}", userId, keyword, page, size);
+
+        return searchChatMessagesUseCase.execute(SearchChatMessagesInput.builder()
+                .userId(userId)
+                .keyword(keyword)
+                .page(page)
+                .size(size)
+                .build());
+    }
+
     /**
      * 获取会话详情（包含消息）
      *
@@ -0,0 +1,214 @@
+package com.i0.agents.gateway.persistence.repositories;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.repositories.ChatMessageSearchRepository;
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageDO;
+import com.i0.agents.gateway.persistence.mappers.ChatMessageMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * ChatMessageRepositoryImpl单元测试
+ * 覆盖读取合并待写消息、只在后台写入线程的独立事务中写入、写入失败和建立索引失败后重试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChatMessageRepositoryImpl测试")
+class ChatMessageRepositoryImplTest {
+
+    private static final String SESSION_ID = "session-1";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ChatMessageSearchRepository searchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ChatMessageMapper chatMessageMapper;
+
+    private final List<ChatMessageDO> batchWrites = new CopyOnWriteArrayList<>();
+    private final List<String> writerThreads = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failingBatches = new AtomicInteger();
+    private ChatMessageRepositoryImpl repository;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), ChatMessageDO.class);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = new ChatMessageRepositoryImpl(jdbcTemplate, searchRepository, transactionManager,
+                true, 50, 1_000, 60_000L, 5_000L, 100, 300) {
+            @Override
+            public boolean saveBatch(Collection<ChatMessageDO> entityList, int batchSize) {
+                writerThreads.add(Thread.currentThread().getName());
+                if (failingBatches.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                    throw new IllegalStateException("db down");
+                }
+                batchWrites.addAll(entityList);
+                return true;
+            }
+        };
+        Field baseMapper = ServiceImpl.class.getDeclaredField("baseMapper");
+        baseMapper.setAccessible(true);
+        baseMapper.set(repository, chatMessageMapper);
+        when(jdbcTemplate.queryForList(any(String.class), eq(String.class), eq(SESSION_ID)))
+                .thenReturn(Collections.singletonList("user-1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.destroy();
+    }
+
+    @Test
+    @DisplayName("读取最近消息时合并尚未写入的消息，不触发写入")
+    void shouldMergePendingMessagesWithoutWriting() {
+        // Given
+        ChatMessage saved = repository.save(ChatMessage.createUserMessage(SESSION_ID, "你好"));
+        ChatMessageDO stored = storedMessage("stored-1", LocalDateTime.now().minusMinutes(1));
+        when(chatMessageMapper.selectList(any())).thenReturn(new ArrayList<>(Collections.singletonList(stored)));
+
+        // When
+        List<ChatMessage> recent = repository.findRecentBySessionId(SESSION_ID, 10);
+
+        // Then
+        assertThat(recent).extracting(ChatMessage::getId).containsExactly(saved.getId(), "stored-1");
+        assertThat(batchWrites).isEmpty();
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @DisplayName("按ID查询时从写入缓冲取出待写消息，只查询其余的消息")
+    void shouldResolvePendingIdsFromBuffer() {
+        // Given
+        ChatMessage saved = repository.save(ChatMessage.createUserMessage(SESSION_ID, "你好"));
+        ChatMessageDO stored = storedMessage("stored-1", LocalDateTime.now().minusMinutes(1));
+        when(chatMessageMapper.selectList(any())).thenReturn(new ArrayList<>(Collections.singletonList(stored)));
+
+        // When
+        List<ChatMessage> found = repository.findByIds(Arrays.asList(saved.getId(), "stored-1"));
+
+        // Then
+        assertThat(found).extracting(ChatMessage::getId).containsExactlyInAnyOrder(saved.getId(), "stored-1");
+        assertThat(batchWrites).isEmpty();
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @DisplayName("等待写入时由后台写入线程在独立事务中写入并建立索引")
+    void shouldWriteOnWriterThreadInNewTransaction() {
+        // Given
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        ChatMessage saved = repository.save(ChatMessage.createUserMessage(SESSION_ID, "你好"));
+
+        // When
+        repository.flush(SESSION_ID);
+
+        // Then
+        assertThat(batchWrites).extracting(ChatMessageDO::getId).containsExactly(saved.getId());
+        assertThat(writerThreads).containsOnly("chat-message-writer");
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(definitions.capture());
+        assertThat(definitions.getAllValues()).extracting(TransactionDefinition::getPropagationBehavior)
+                .containsOnly(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        verify(transactionManager, times(2)).commit(any());
+        verify(searchRepository).index(eq("user-1"), anyList());
+    }
+
+    @Test
+    @DisplayName("写入失败的消息留在写入缓冲中，仍可读取，下次写入时重试")
+    void shouldKeepFailedMessagesPendingAndRetry() {
+        // Given
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        failingBatches.set(1);
+        when(chatMessageMapper.insert(any(ChatMessageDO.class))).thenThrow(new IllegalStateException("db down"));
+        ChatMessage saved = repository.save(ChatMessage.createUserMessage(SESSION_ID, "你好"));
+
+        // When
+        repository.flush(SESSION_ID);
+
+        // Then
+        assertThat(batchWrites).isEmpty();
+        assertThat(repository.findById(saved.getId())).isPresent();
+        verify(searchRepository, never()).index(any(), anyList());
+
+        // When
+        repository.flush(SESSION_ID);
+
+        // Then
+        assertThat(batchWrites).extracting(ChatMessageDO::getId).containsExactly(saved.getId());
+        assertThat(writerThreads).containsOnly("chat-message-writer");
+        verify(searchRepository).index(eq("user-1"), anyList());
+    }
+
+    @Test
+    @DisplayName("建立索引失败的消息在后台写入线程中重试，重试前删除已写入的检索词")
+    @SuppressWarnings("unchecked")
+    void shouldRetryFailedIndexing() {
+        // Given
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        doThrow(new IllegalStateException("index down")).doNothing()
+                .when(searchRepository).index(eq("user-1"), anyList());
+        ChatMessage first = repository.save(ChatMessage.createUserMessage(SESSION_ID, "三月工资"));
+        repository.flush(SESSION_ID);
+
+        // When
+        ChatMessage second = repository.save(ChatMessage.createUserMessage(SESSION_ID, "四月工资"));
+        repository.flush(SESSION_ID);
+
+        // Then
+        ArgumentCaptor<List<ChatMessage>> indexed = ArgumentCaptor.forClass(List.class);
+        verify(searchRepository, times(2)).index(eq("user-1"), indexed.capture());
+        assertThat(indexed.getAllValues().get(1)).extracting(ChatMessage::getId)
+                .containsExactly(first.getId(), second.getId());
+        verify(searchRepository).deleteByMessageIds(Collections.singletonList(first.getId()));
+        assertThat(batchWrites).hasSize(2);
+    }
+
+    private static ChatMessageDO storedMessage(String id, LocalDateTime timestamp) {
+        return ChatMessageDO.builder()
+                .id(id)
+                .sessionId(SESSION_ID)
+                .role("USER")
+                .content("之前的消息")
+                .timestamp(timestamp)
+                .isDeleted(false)
+                .build();
+    }
+}
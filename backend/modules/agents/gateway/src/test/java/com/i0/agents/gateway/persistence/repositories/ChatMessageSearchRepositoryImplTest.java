@@ -0,0 +1,189 @@
+package com.i0.agents.gateway.persistence.repositories;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.i0.agents.domain.entities.ChatMessage;
+import com.i0.agents.domain.valueobjects.MessageSearchHit;
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageSearchCandidateDO;
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageTokenCountDO;
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageTokenDO;
+import com.i0.agents.gateway.persistence.mappers.ChatMessageTokenMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * ChatMessageSearchRepositoryImpl单元测试
+ * 覆盖建立索引时的消息筛选和词频、检索时的相关度排序、分页和候选上限
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChatMessageSearchRepositoryImpl测试")
+class ChatMessageSearchRepositoryImplTest {
+
+    private static final String USER_ID = "user-1";
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Mock
+    private ChatMessageTokenMapper chatMessageTokenMapper;
+
+    private final List<ChatMessageTokenDO> savedTokens = new ArrayList<>();
+    private ChatMessageSearchRepositoryImpl repository;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), ChatMessageTokenDO.class);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = repositoryWithCandidateLimit(500);
+    }
+
+    @Test
+    @DisplayName("只为用户和助手的消息建立索引，记录检索词出现次数")
+    void shouldIndexUserAndAssistantMessages() {
+        // Given
+        ChatMessage user = ChatMessage.createUserMessage("session-1", "工资 工资");
+        ChatMessage system = ChatMessage.createSystemMessage("session-1", "系统提示");
+
+        // When
+        repository.index(USER_ID, Arrays.asList(user, system));
+
+        // Then
+        assertThat(savedTokens).allSatisfy(token -> {
+            assertThat(token.getMessageId()).isEqualTo(user.getId());
+            assertThat(token.getUserId()).isEqualTo(USER_ID);
+            assertThat(token.getSessionId()).isEqualTo("session-1");
+        });
+        assertThat(savedTokens).extracting(ChatMessageTokenDO::getToken, ChatMessageTokenDO::getTermFrequency)
+                .containsExactly(tuple("工", 2), tuple("工资", 2), tuple("资", 2));
+    }
+
+    @Test
+    @DisplayName("按词频和检索词稀有度排序，相关度相同时较新的消息在前，再按页截取")
+    void shouldRankByTermFrequencyAndRarity() {
+        // Given
+        List<String> terms = Arrays.asList("工资", "三月");
+        when(chatMessageTokenMapper.countMessagesByToken(any())).thenReturn(
+                Arrays.asList(messageCount("工资", 10), messageCount("三月", 2)));
+        when(chatMessageTokenMapper.selectLatestCandidates(any(), eq(2), eq(500))).thenReturn(
+                Arrays.asList(candidate("message-1", START.plusMinutes(2)),
+                        candidate("message-2", START.plusMinutes(1)),
+                        candidate("message-3", START)));
+        when(chatMessageTokenMapper.selectList(any())).thenReturn(
+                Arrays.asList(termFrequency("message-1", "工资", 1), termFrequency("message-1", "三月", 1),
+                        termFrequency("message-2", "工资", 3), termFrequency("message-2", "三月", 1),
+                        termFrequency("message-3", "工资", 1), termFrequency("message-3", "三月", 1)));
+
+        // When
+        List<MessageSearchHit> firstPage = repository.search(USER_ID, terms, 0, 3);
+
+        // Then
+        assertThat(firstPage).extracting(MessageSearchHit::getMessageId)
+                .containsExactly("message-2", "message-1", "message-3");
+        assertThat(firstPage.get(0).getScore()).isGreaterThan(firstPage.get(1).getScore());
+        assertThat(firstPage.get(1).getScore()).isEqualTo(firstPage.get(2).getScore());
+    }
+
+    @Test
+    @DisplayName("分页跳过前面的命中")
+    void shouldSkipOffset() {
+        // Given
+        when(chatMessageTokenMapper.countMessagesByToken(any()))
+                .thenReturn(Collections.singletonList(messageCount("工资", 2)));
+        when(chatMessageTokenMapper.selectLatestCandidates(any(), eq(1), eq(500))).thenReturn(
+                Arrays.asList(candidate("message-1", START.plusMinutes(1)), candidate("message-2", START)));
+        when(chatMessageTokenMapper.selectList(any())).thenReturn(
+                Arrays.asList(termFrequency("message-1", "工资", 1), termFrequency("message-2", "工资", 1)));
+
+        // When
+        List<MessageSearchHit> secondPage = repository.search(USER_ID, Collections.singletonList("工资"), 1, 1);
+
+        // Then
+        assertThat(secondPage).extracting(MessageSearchHit::getMessageId).containsExactly("message-2");
+    }
+
+    @Test
+    @DisplayName("任一检索词没有命中时不再查询候选消息")
+    void shouldReturnEmptyWhenAnyTermMissing() {
+        // Given
+        when(chatMessageTokenMapper.countMessagesByToken(any()))
+                .thenReturn(Collections.singletonList(messageCount("工资", 3)));
+
+        // When
+        List<MessageSearchHit> hits = repository.search(USER_ID, Arrays.asList("工资", "奖金"), 0, 10);
+
+        // Then
+        assertThat(hits).isEmpty();
+        verify(chatMessageTokenMapper, never()).selectLatestCandidates(any(), anyInt(), anyInt());
+        verify(chatMessageTokenMapper, never()).selectList(any());
+    }
+
+    @Test
+    @DisplayName("翻页超出候选上限时返回空，不再读取词频")
+    void shouldReturnEmpty_WhenOffsetBeyondCandidateLimit() throws Exception {
+        // Given
+        repository = repositoryWithCandidateLimit(2);
+        when(chatMessageTokenMapper.countMessagesByToken(any()))
+                .thenReturn(Collections.singletonList(messageCount("工资", 5)));
+        when(chatMessageTokenMapper.selectLatestCandidates(any(), eq(1), eq(2))).thenReturn(
+                Arrays.asList(candidate("message-5", START.plusMinutes(5)), candidate("message-4", START.plusMinutes(4))));
+
+        // When
+        List<MessageSearchHit> hits = repository.search(USER_ID, Collections.singletonList("工资"), 2, 10);
+
+        // Then
+        assertThat(hits).isEmpty();
+        verify(chatMessageTokenMapper, never()).selectList(any());
+    }
+
+    private ChatMessageSearchRepositoryImpl repositoryWithCandidateLimit(int candidateLimit) throws Exception {
+        ChatMessageSearchRepositoryImpl created = new ChatMessageSearchRepositoryImpl(candidateLimit) {
+            @Override
+            public boolean saveBatch(Collection<ChatMessageTokenDO> entityList, int batchSize) {
+                savedTokens.addAll(entityList);
+                return true;
+            }
+        };
+        Field baseMapper = ServiceImpl.class.getDeclaredField("baseMapper");
+        baseMapper.setAccessible(true);
+        baseMapper.set(created, chatMessageTokenMapper);
+        return created;
+    }
+
+    private static ChatMessageTokenCountDO messageCount(String token, int messages) {
+        return ChatMessageTokenCountDO.builder().token(token).messageCount(messages).build();
+    }
+
+    private static ChatMessageSearchCandidateDO candidate(String messageId, LocalDateTime timestamp) {
+        return ChatMessageSearchCandidateDO.builder()
+                .messageId(messageId)
+                .sessionId("session-1")
+                .messageTimestamp(timestamp)
+                .build();
+    }
+
+    private static ChatMessageTokenDO termFrequency(String messageId, String token, int frequency) {
+        return ChatMessageTokenDO.builder().messageId(messageId).token(token).termFrequency(frequency).build();
+    }
+}
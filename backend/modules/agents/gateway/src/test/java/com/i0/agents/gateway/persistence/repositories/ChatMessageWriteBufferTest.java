@@ -0,0 +1,331 @@
+package com.i0.agents.gateway.persistence.repositories;
+
+import com.i0.agents.gateway.persistence.dataobjects.ChatMessageDO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ChatMessageWriteBuffer单元测试
+ * 覆盖并发保存、会话内写入顺序、只在写入线程写入、关闭时写入、失败重试和容量上限
+ */
+@DisplayName("ChatMessageWriteBuffer测试")
+class ChatMessageWriteBufferTest {
+
+    private static final long NO_PERIODIC_FLUSH_MS = 60_000L;
+
+    private final List<ChatMessageDO> written = new CopyOnWriteArrayList<>();
+    private final List<String> writerThreads = new CopyOnWriteArrayList<>();
+    private ChatMessageWriteBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("并发保存的消息每条只写入一次")
+    void shouldWriteEachMessageOnceUnderConcurrentEnqueue() throws Exception {
+        // Given
+        buffer = new ChatMessageWriteBuffer(recordingWriter(), 20, 100_000, 10, 5_000);
+        int threads = 4;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    buffer.enqueue(message("session-" + (i % 8), thread * perThread + i));
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        buffer.flushAll();
+
+        // Then
+        List<String> ids = written.stream().map(ChatMessageDO::getId).collect(Collectors.toList());
+        assertThat(ids).hasSize(threads * perThread).doesNotHaveDuplicates();
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("同一会话的消息按保存顺序分批写入")
+    void shouldWriteSessionMessagesInSaveOrder() {
+        // Given
+        buffer = new ChatMessageWriteBuffer(recordingWriter(), 3, 1_000, NO_PERIODIC_FLUSH_MS, 5_000);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ChatMessageDO message = message("session-a", i);
+            expected.add(message.getId());
+            buffer.enqueue(message);
+            buffer.enqueue(message("session-b", i));
+        }
+
+        // When
+        buffer.flush("session-a");
+        buffer.flush("session-b");
+
+        // Then
+        assertThat(written.stream()
+                .filter(message -> "session-a".equals(message.getSessionId()))
+                .map(ChatMessageDO::getId))
+                .containsExactlyElementsOf(expected);
+        assertThat(written).hasSize(20);
+    }
+
+    @Test
+    @DisplayName("调用方等待写入时由后台写入线程执行写入")
+    void shouldWriteOnlyOnWriterThread() {
+        // Given
+        buffer = new ChatMessageWriteBuffer(recordingWriter(), 50, 1_000, NO_PERIODIC_FLUSH_MS, 5_000);
+        buffer.enqueue(message("session-a", 1));
+
+        // When
+        buffer.flush("session-a");
+        buffer.enqueue(message("session-a", 2));
+        buffer.flushAll();
+
+        // Then
+        assertThat(written).hasSize(2);
+        assertThat(writerThreads).containsOnly("chat-message-writer");
+    }
+
+    @Test
+    @DisplayName("读取待写消息不触发写入")
+    void shouldExposePendingMessagesWithoutWriting() {
+        // Given
+        buffer = new ChatMessageWriteBuffer(recordingWriter(), 50, 1_000, NO_PERIODIC_FLUSH_MS, 5_000);
+        ChatMessageDO first = message("session-a", 1);
+        ChatMessageDO second = message("session-a", 2);
+        buffer.enqueue(first);
+        buffer.enqueue(second);
+
+        // Then
+        assertThat(buffer.pendingMessages("session-a")).containsExactly(first, second);
+        assertThat(buffer.pendingMessages("session-b")).isEmpty();
+        assertThat(buffer.findPending(first.getId())).contains(first);
+        assertThat(written).isEmpty();
+    }
+
+    @Test
+    @DisplayName("关闭时写入剩余的所有消息")
+    void shouldFlushRemainingMessagesOnShutdown() {
+        // Given
+        buffer = new ChatMessageWriteBuffer(recordingWriter(), 50, 1_000, NO_PERIODIC_FLUSH_MS, 5_000);
+        for (int i = 0; i < 5; i++) {
+            buffer.enqueue(message("session-" + (i % 2), i));
+        }
+
+        // When
+        buffer.shutdown();
+
+        // Then
+        assertThat(written).hasSize(5);
+        assertThat(writerThreads).containsOnly("chat-message-writer");
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("写入失败的批次留在队列中，下次写入时按原顺序重试")
+    void shouldRequeueFailedBatch() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        buffer = new ChatMessageWriteBuffer(batch -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("db down");
+            }
+            written.addAll(batch);
+            return Collections.emptyList();
+        }, 50, 1_000, NO_PERIODIC_FLUSH_MS, 5_000);
+        ChatMessageDO first = message("session-a", 1);
+        ChatMessageDO second = message("session-a", 2);
+        buffer.enqueue(first);
+        buffer.enqueue(second);
+
+        // When
+        buffer.flush("session-a");
+
+        // Then
+        assertThat(written).isEmpty();
+        assertThat(buffer.pendingMessages("session-a")).containsExactly(first, second);
+        assertThat(buffer.findPending(first.getId())).isPresent();
+
+        // When
+        buffer.flush("session-a");
+
+        // Then
+        assertThat(written).containsExactly(first, second);
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("只重试未能写入的消息，连续失败达到上限后丢弃")
+    void shouldDropMessageAfterMaxAttempts() {
+        // Given
+        ChatMessageDO poison = message("session-a", 1);
+        ChatMessageDO healthy = message("session-a", 2);
+        buffer = new ChatMessageWriteBuffer(batch -> {
+            List<ChatMessageDO> failed = new ArrayList<>();
+            for (ChatMessageDO message : batch) {
+                if (message == poison) {
+                    failed.add(message);
+                } else {
+                    written.add(message);
+                }
+            }
+            return failed;
+        }, 50, 1_000, NO_PERIODIC_FLUSH_MS, 5_000);
+        buffer.enqueue(poison);
+        buffer.enqueue(healthy);
+
+        // When
+        buffer.flush("session-a");
+
+        // Then
+        assertThat(written).containsExactly(healthy);
+        assertThat(buffer.pendingMessages("session-a")).containsExactly(poison);
+
+        // When
+        for (int attempt = 1; attempt < ChatMessageWriteBuffer.MAX_WRITE_ATTEMPTS; attempt++) {
+            buffer.flush("session-a");
+        }
+
+        // Then
+        assertThat(buffer.getPendingCount()).isZero();
+        assertThat(buffer.findPending(poison.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("丢弃的会话消息不再写入")
+    void shouldNotWriteDiscardedMessages() {
+        // Given
+        buffer = new ChatMessageWriteBuffer(recordingWriter(), 50, 1_000, NO_PERIODIC_FLUSH_MS, 5_000);
+        buffer.enqueue(message("session-a", 1));
+        ChatMessageDO kept = message("session-b", 1);
+        ChatMessageDO deleted = message("session-b", 2);
+        buffer.enqueue(kept);
+        buffer.enqueue(deleted);
+
+        // When
+        buffer.discard("session-a");
+        buffer.discardMessages(Collections.singletonList(deleted.getId()));
+        buffer.flushAll();
+
+        // Then
+        assertThat(written).containsExactly(kept);
+        assertThat(buffer.getPendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("队列已满时等待后台写入腾出空位后保存")
+    void shouldWaitForWriterToFreeCapacity() {
+        // Given
+        buffer = new ChatMessageWriteBuffer(recordingWriter(), 50, 2, NO_PERIODIC_FLUSH_MS, 5_000);
+        ChatMessageDO first = message("session-a", 1);
+        ChatMessageDO second = message("session-b", 1);
+        ChatMessageDO third = message("session-a", 2);
+        buffer.enqueue(first);
+        buffer.enqueue(second);
+
+        // When
+        buffer.enqueue(third);
+
+        // Then
+        assertThat(written).containsExactlyInAnyOrder(first, second);
+        assertThat(writerThreads).containsOnly("chat-message-writer");
+        assertThat(buffer.pendingMessages("session-a")).containsExactly(third);
+        assertThat(buffer.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("队列已满且写入失败未能腾出空位时拒绝保存，待写消息数不超过容量")
+    void shouldRejectMessage_WhenWriteFailsToFreeCapacity() {
+        // Given
+        buffer = new ChatMessageWriteBuffer(batch -> {
+            throw new IllegalStateException("db down");
+        }, 50, 2, NO_PERIODIC_FLUSH_MS, 5_000);
+        buffer.enqueue(message("session-a", 1));
+        buffer.enqueue(message("session-a", 2));
+        ChatMessageDO rejected = message("session-b", 1);
+
+        // When & Then
+        assertThatThrownBy(() -> buffer.enqueue(rejected))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("write buffer is full");
+        assertThat(buffer.getPendingCount()).isEqualTo(2);
+        assertThat(buffer.findPending(rejected.getId())).isEmpty();
+        assertThat(buffer.pendingMessages("session-b")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("队列已满且后台写入超时时最多等待写入超时时间后拒绝保存")
+    void shouldRejectMessageAfterFlushTimeout_WhenWriterIsStuck() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        buffer = new ChatMessageWriteBuffer(batch -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.addAll(batch);
+            return Collections.emptyList();
+        }, 50, 1, NO_PERIODIC_FLUSH_MS, 200);
+        buffer.enqueue(message("session-a", 1));
+
+        try {
+            // When
+            long startedAt = System.nanoTime();
+            Throwable thrown = catchThrowable(() -> buffer.enqueue(message("session-a", 2)));
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+            // Then
+            assertThat(thrown).isInstanceOf(IllegalStateException.class);
+            assertThat(waitedMs).isLessThan(5_000L);
+            assertThat(buffer.getPendingCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private Function<List<ChatMessageDO>, List<ChatMessageDO>> recordingWriter() {
+        return batch -> {
+            writerThreads.add(Thread.currentThread().getName());
+            written.addAll(batch);
+            return Collections.emptyList();
+        };
+    }
+
+    private static ChatMessageDO message(String sessionId, int index) {
+        return ChatMessageDO.builder()
+                .id(sessionId + "-message-" + index)
+                .sessionId(sessionId)
+                .role("USER")
+                .content("消息" + index)
+                .timestamp(LocalDateTime.of(2026, 1, 1, 9, 0).plusSeconds(index))
+                .isDeleted(false)
+                .build();
+    }
+}
@@ -0,0 +1,4 @@
+-- 为datasets表添加排序键字段，支持数据集浏览的键集分页
+ALTER TABLE datasets
+ADD COLUMN sort_key VARCHAR(64) COMMENT '浏览排序键（单列，用于键集分页）'
+AFTER update_interval;
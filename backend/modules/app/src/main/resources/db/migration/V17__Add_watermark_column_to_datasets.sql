@@ -0,0 +1,4 @@
+-- 为datasets表添加增量水位列字段，支持实时数据集指标的增量计算
+ALTER TABLE datasets
+ADD COLUMN watermark_column VARCHAR(64) COMMENT '增量水位列（单列，记录行的最后修改时间）'
+AFTER sort_key;
@@ -0,0 +1,7 @@
+-- 为datasets表添加内存立方体标记，标记的明细数据集由进程内立方体执行图表聚合
+ALTER TABLE datasets
+ADD COLUMN cube_eligible TINYINT(1) NOT NULL DEFAULT 0 COMMENT '是否可加载为内存立方体 (0=否, 1=是)'
+AFTER watermark_column;
+
+-- 员工基础数据集按客户、部门、工作地点、国籍、状态、数据位置和入职月份切片
+UPDATE datasets SET cube_eligible = 1 WHERE id = 'dataset-employee-basic';
@@ -0,0 +1,9 @@
+-- 创建会话滚动摘要表
+-- 早于最近上下文窗口的消息由AI概括为摘要，构建对话上下文时以摘要代替这些消息
+CREATE TABLE IF NOT EXISTS chat_session_summaries (
+    session_id VARCHAR(100) NOT NULL PRIMARY KEY COMMENT '会话ID',
+    summary TEXT NOT NULL COMMENT '摘要内容',
+    covered_until TIMESTAMP NOT NULL COMMENT '已并入摘要的最后一条消息时间',
+    covered_message_count INT NOT NULL DEFAULT 0 COMMENT '已并入摘要的消息数',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='会话滚动摘要表';
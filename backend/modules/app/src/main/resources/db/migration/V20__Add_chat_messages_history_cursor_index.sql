@@ -0,0 +1,5 @@
+-- 为chat_messages表添加（session_id, timestamp, id）索引，支持按游标分页读取会话历史
+-- 原（session_id, timestamp）索引是新索引的前缀，一并删除
+ALTER TABLE chat_messages
+ADD INDEX idx_chat_messages_session_timestamp_id (session_id, timestamp, id),
+DROP INDEX idx_chat_messages_session_timestamp;
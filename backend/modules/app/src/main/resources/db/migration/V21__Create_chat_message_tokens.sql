@@ -0,0 +1,13 @@
+-- 创建聊天消息检索词表
+-- 消息写入后异步切分为检索词（英文单词、数字和中文单字及相邻二字），支持按用户跨会话检索消息
+CREATE TABLE IF NOT EXISTS chat_message_tokens (
+    message_id VARCHAR(100) NOT NULL COMMENT '消息ID',
+    token VARCHAR(64) NOT NULL COMMENT '检索词',
+    user_id VARCHAR(50) NOT NULL COMMENT '用户ID',
+    session_id VARCHAR(100) NOT NULL COMMENT '会话ID',
+    message_timestamp TIMESTAMP NOT NULL COMMENT '消息时间',
+    term_frequency INT NOT NULL DEFAULT 1 COMMENT '检索词在消息中出现的次数',
+    PRIMARY KEY (message_id, token),
+    INDEX idx_chat_message_tokens_user_token (user_id, token, message_timestamp),
+    INDEX idx_chat_message_tokens_session_id (session_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin COMMENT='聊天消息检索词表';
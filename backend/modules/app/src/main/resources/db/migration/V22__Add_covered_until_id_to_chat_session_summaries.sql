@@ -0,0 +1,5 @@
+-- 为会话滚动摘要表添加覆盖位置的消息ID
+-- 时间戳精度为秒，同一秒内的多条消息按（时间戳，ID）区分是否已并入摘要；早期摘要为空，按时间戳判断
+ALTER TABLE chat_session_summaries
+ADD COLUMN covered_until_id VARCHAR(100) NULL COMMENT '已并入摘要的最后一条消息ID'
+AFTER covered_until;
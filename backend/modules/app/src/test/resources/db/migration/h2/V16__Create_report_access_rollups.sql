@@ -0,0 +1,14 @@
+-- 创建报表访问小时汇总表（H2版本）
+-- 访问记录先在内存中按（报表、用户、访问类型、小时）累加，定期批量合并写入本表
+CREATE TABLE report_access_hourly (
+    report_id VARCHAR(36) NOT NULL COMMENT '报表ID',
+    user_id VARCHAR(100) NOT NULL COMMENT '访问用户ID，未登录访问记为 anonymous',
+    access_type VARCHAR(20) NOT NULL COMMENT '访问类型',
+    bucket_hour DATETIME NOT NULL COMMENT '统计小时（截断到整点）',
+    access_count BIGINT NOT NULL DEFAULT 0 COMMENT '该小时内的访问次数',
+    last_access_at DATETIME NOT NULL COMMENT '该小时内最后一次访问时间',
+    PRIMARY KEY (report_id, bucket_hour, user_id, access_type)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='报表访问小时汇总表';
+
+-- 热门报表按时间窗口聚合
+CREATE INDEX idx_report_access_bucket_hour ON report_access_hourly (bucket_hour, report_id);
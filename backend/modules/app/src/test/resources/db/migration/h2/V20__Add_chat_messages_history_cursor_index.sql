@@ -0,0 +1,4 @@
+-- 为chat_messages表添加（session_id, timestamp, id）索引，支持按游标分页读取会话历史（H2版本）
+-- 原（session_id, timestamp）索引是新索引的前缀，一并删除
+CREATE INDEX IF NOT EXISTS idx_chat_messages_session_timestamp_id ON chat_messages(session_id, timestamp, id);
+DROP INDEX IF EXISTS idx_chat_messages_session_timestamp;
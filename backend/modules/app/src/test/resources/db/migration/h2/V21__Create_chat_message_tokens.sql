@@ -0,0 +1,14 @@
+-- 创建聊天消息检索词表（H2版本）
+-- 消息写入后异步切分为检索词（英文单词、数字和中文单字及相邻二字），支持按用户跨会话检索消息
+CREATE TABLE IF NOT EXISTS chat_message_tokens (
+    message_id VARCHAR(100) NOT NULL,
+    token VARCHAR(64) NOT NULL,
+    user_id VARCHAR(50) NOT NULL,
+    session_id VARCHAR(100) NOT NULL,
+    message_timestamp TIMESTAMP NOT NULL,
+    term_frequency INT NOT NULL DEFAULT 1,
+    PRIMARY KEY (message_id, token)
+);
+
+CREATE INDEX IF NOT EXISTS idx_chat_message_tokens_user_token ON chat_message_tokens(user_id, token, message_timestamp);
+CREATE INDEX IF NOT EXISTS idx_chat_message_tokens_session_id ON chat_message_tokens(session_id);
@@ -1,10 +1,20 @@
 package com.i0.report.application.config;
 
 import com.i0.report.domain.services.ChartDataFormattingService;
+import com.i0.report.domain.services.ChartQueryPlanner;
 import com.i0.report.domain.services.FilterMergingService;
+import com.i0.report.domain.services.IncrementalIndicatorService;
+import com.i0.report.domain.services.OlapCubeService;
 import com.i0.report.domain.services.ReportDataCalculationService;
+import com.i0.report.domain.services.ReportPipelineMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
 
 /**
  * 报表领域服务配置
@@ -23,17 +33,100 @@ public class ReportDomainServiceConfig {
         return new ChartDataFormattingService();
     }
 
+    @Bean
+    public ChartQueryPlanner chartQueryPlanner() {
+        return new ChartQueryPlanner();
+    }
+
+    @Bean
+    public IncrementalIndicatorService incrementalIndicatorService(
+            com.i0.report.domain.repositories.DatasetRepository datasetRepository,
+            @Value("${report.incremental.max-tracked-rows:100000}") int maxTrackedRows,
+            @Value("${report.query.guardrails.max-rows:100000}") int guardrailMaxRows,
+            @Value("${report.incremental.max-states:64}") int maxStates,
+            @Value("${report.incremental.watermark-lookback-seconds:60}") long watermarkLookbackSeconds,
+            @Value("${report.incremental.full-reload-interval-seconds:600}") long fullReloadIntervalSeconds) {
+        // 跟踪行数上限不超过查询最大行数，否则超出上限前查询已被执行限制拒绝
+        return new IncrementalIndicatorService(
+                datasetRepository,
+                Math.min(maxTrackedRows, guardrailMaxRows),
+                maxStates,
+                Duration.ofSeconds(watermarkLookbackSeconds),
+                Duration.ofSeconds(fullReloadIntervalSeconds)
+        );
+    }
+
+    /**
+     * 立方体加载和刷新线程池，与请求线程隔离；队列有界，排满时本次刷新跳过，由下一个请求重新提交
+     */
+    @Bean
+    public ThreadPoolTaskExecutor reportCubeRefreshExecutor(
+            @Value("${report.cube.refresh-concurrency:1}") int refreshConcurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, refreshConcurrency));
+        executor.setMaxPoolSize(Math.max(1, refreshConcurrency));
+        executor.setQueueCapacity(64);
+        executor.setThreadNamePrefix("report-cube-refresh-");
+        executor.setDaemon(true);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * 图表并行计算线程池，流式输出和批量报表数据共用，总并发即同时占用的分析连接上限；
+     * 队列不设上限，任务在调用线程等待结果期间排队
+     */
+    @Bean
+    public ThreadPoolTaskExecutor reportChartExecutor(
+            @Value("${report.chart.concurrency:4}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, concurrency));
+        executor.setMaxPoolSize(Math.max(1, concurrency));
+        executor.setThreadNamePrefix("report-chart-");
+        executor.setDaemon(true);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    @Bean
+    public OlapCubeService olapCubeService(
+            com.i0.report.domain.repositories.DatasetRepository datasetRepository,
+            @Qualifier("reportCubeRefreshExecutor") ThreadPoolTaskExecutor reportCubeRefreshExecutor,
+            @Value("${report.cube.max-dimension-cardinality:1024}") int maxDimensionCardinality,
+            @Value("${report.cube.refresh-interval-seconds:60}") long refreshIntervalSeconds,
+            @Value("${report.cube.full-rebuild-interval-seconds:1800}") long fullRebuildIntervalSeconds,
+            @Value("${report.cube.watermark-lookback-seconds:60}") long watermarkLookbackSeconds) {
+        return new OlapCubeService(
+                datasetRepository,
+                maxDimensionCardinality,
+                Duration.ofSeconds(refreshIntervalSeconds),
+                Duration.ofSeconds(fullRebuildIntervalSeconds),
+                Duration.ofSeconds(watermarkLookbackSeconds),
+                reportCubeRefreshExecutor
+        );
+    }
+
     @Bean
     public ReportDataCalculationService reportDataCalculationService(
             com.i0.report.domain.repositories.IndicatorRepository indicatorRepository,
             com.i0.report.domain.repositories.DatasetRepository datasetRepository,
             ChartDataFormattingService chartDataFormattingService,
-            FilterMergingService filterMergingService) {
+            FilterMergingService filterMergingService,
+            ChartQueryPlanner chartQueryPlanner,
+            ObjectProvider<ReportPipelineMetrics> pipelineMetrics,
+            IncrementalIndicatorService incrementalIndicatorService,
+            OlapCubeService olapCubeService,
+            com.i0.report.domain.repositories.ReportConfigGraphRepository configGraphRepository) {
         return new ReportDataCalculationService(
                 indicatorRepository,
                 datasetRepository,
                 chartDataFormattingService,
-                filterMergingService
+                filterMergingService,
+                chartQueryPlanner,
+                pipelineMetrics.getIfAvailable(() -> ReportPipelineMetrics.NOOP),
+                incrementalIndicatorService,
+                olapCubeService,
+                configGraphRepository
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.i0.report.application.dto.input;
+
+import com.i0.report.domain.valueobjects.Filter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * 批量报表数据生成输入DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReportDataInput {
+
+    /**
+     * 报表ID列表，按输出顺序排列，重复的ID只生成一次
+     */
+    @NotEmpty(message = "报表ID列表不能为空")
+    @Size(max = 20, message = "单次最多请求20个报表")
+    private List<String> reportIds;
+
+    /**
+     * 访问用户ID，用于访问统计，可为空
+     */
+    private String userId;
+
+    /**
+     * 应用到所有报表的全局过滤条件
+     */
+    private List<Filter> filters;
+
+    /**
+     * 是否包含缓存数据
+     */
+    @Builder.Default
+    private Boolean includeCacheData = true;
+
+    /**
+     * 强制刷新
+     */
+    @Builder.Default
+    private Boolean forceRefresh = false;
+}
@@ -62,6 +62,24 @@ public class CreateDatasetInput {
      */
     private Integer updateInterval;
 
+    /**
+     * 浏览排序键（可选，声明后支持键集分页）
+     */
+    @Size(max = 64, message = "排序键长度不能超过64个字符")
+    private String sortKey;
+
+    /**
+     * 增量水位列（可选，与排序键一起声明后实时数据集的指标按变化行增量计算）
+     */
+    @Size(max = 64, message = "水位列长度不能超过64个字符")
+    private String watermarkColumn;
+
+    /**
+     * 是否可加载为内存立方体（仅适用于返回明细行的数据集）
+     */
+    @Builder.Default
+    private Boolean cubeEligible = false;
+
     /**
      * 是否启用
      */
@@ -0,0 +1,58 @@
+package com.i0.report.application.dto.input;
+
+import com.i0.report.domain.valueobjects.Filter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import java.util.List;
+
+/**
+ * 数据集浏览输入DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetBrowseInput {
+
+    /**
+     * 数据集ID
+     */
+    @NotBlank(message = "数据集ID不能为空")
+    private String datasetId;
+
+    /**
+     * 页码（从0开始，仅OFFSET分页使用）
+     */
+    @Builder.Default
+    private Integer page = 0;
+
+    /**
+     * 每页大小
+     */
+    @Builder.Default
+    private Integer size = 50;
+
+    /**
+     * 分页模式：offset 或 keyset，为空时传入 afterKey 即使用键集分页
+     */
+    private String mode;
+
+    /**
+     * 键集分页的起始键（上一页返回的 nextKey）
+     */
+    private String afterKey;
+
+    /**
+     * 键集分页的起始行标识（上一页返回的 nextId），排序键不唯一时与 afterKey 一起传入
+     */
+    private String afterId;
+
+    /**
+     * 额外的过滤条件
+     */
+    private List<Filter> filters;
+}
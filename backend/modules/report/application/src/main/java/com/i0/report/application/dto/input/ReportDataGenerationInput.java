@@ -25,6 +25,11 @@ public class ReportDataGenerationInput {
     @NotBlank(message = "报表ID不能为空")
     private String reportId;
 
+    /**
+     * 访问用户ID，用于访问统计，可为空
+     */
+    private String userId;
+
     /**
      * 额外的过滤条件
      */
@@ -41,4 +46,10 @@ public class ReportDataGenerationInput {
      */
     @Builder.Default
     private Boolean forceRefresh = false;
+
+    /**
+     * 是否计入访问统计（预热等系统调用应关闭）
+     */
+    @Builder.Default
+    private Boolean trackAccess = true;
 }
\ No newline at end of file
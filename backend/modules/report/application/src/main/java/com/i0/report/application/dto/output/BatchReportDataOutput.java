@@ -0,0 +1,49 @@
+package com.i0.report.application.dto.output;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量报表数据输出DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReportDataOutput {
+
+    /**
+     * 各报表数据，按请求顺序排列，不包含生成失败的报表
+     */
+    private List<ReportDataOutput> reports;
+
+    /**
+     * 生成失败的报表：报表ID到错误信息（报表不存在、已禁用等）
+     */
+    private Map<String, String> failedReports;
+
+    /**
+     * 需要计算的图表数量（不含使用已存储结果的报表）
+     */
+    private Integer chartCount;
+
+    /**
+     * 去重后实际执行的图表查询数量
+     */
+    private Integer executionCount;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    private Long elapsedMs;
+
+    /**
+     * 数据生成时间
+     */
+    private Long timestamp;
+}
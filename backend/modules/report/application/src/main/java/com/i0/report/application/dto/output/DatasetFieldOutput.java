@@ -0,0 +1,86 @@
+package com.i0.report.application.dto.output;
+
+import com.i0.report.domain.valueobjects.DatasetField;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 数据集字段输出DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetFieldOutput {
+
+    /**
+     * 字段名
+     */
+    private String name;
+
+    /**
+     * 数据库类型名称
+     */
+    private String typeName;
+
+    /**
+     * JDBC类型代码
+     */
+    private Integer jdbcType;
+
+    /**
+     * Java类型
+     */
+    private String javaType;
+
+    /**
+     * 精度
+     */
+    private Integer precision;
+
+    /**
+     * 小数位数
+     */
+    private Integer scale;
+
+    /**
+     * 是否允许为空
+     */
+    private Boolean nullable;
+
+    /**
+     * 从Domain值对象转换为输出DTO
+     */
+    public static DatasetFieldOutput from(DatasetField field) {
+        if (field == null) {
+            return null;
+        }
+
+        return DatasetFieldOutput.builder()
+                .name(field.getName())
+                .typeName(field.getTypeName())
+                .jdbcType(field.getJdbcType())
+                .javaType(field.getJavaType())
+                .precision(field.getPrecision())
+                .scale(field.getScale())
+                .nullable(field.getNullable())
+                .build();
+    }
+
+    /**
+     * 从Domain值对象列表转换为输出DTO列表
+     */
+    public static List<DatasetFieldOutput> from(List<DatasetField> fields) {
+        if (fields == null) {
+            return new java.util.ArrayList<>();
+        }
+        return fields.stream()
+                .map(DatasetFieldOutput::from)
+                .collect(Collectors.toList());
+    }
+}
@@ -57,6 +57,21 @@ public class DatasetOutput {
      */
     private Integer updateInterval;
 
+    /**
+     * 浏览排序键
+     */
+    private String sortKey;
+
+    /**
+     * 增量水位列
+     */
+    private String watermarkColumn;
+
+    /**
+     * 是否可加载为内存立方体
+     */
+    private Boolean cubeEligible;
+
     /**
      * 是否启用
      */
@@ -96,6 +111,9 @@ public class DatasetOutput {
                 .dataSourceType(dataset.getDataSourceType())
                 .updateStrategy(dataset.getUpdateStrategy())
                 .updateInterval(dataset.getUpdateInterval())
+                .sortKey(dataset.getSortKey())
+                .watermarkColumn(dataset.getWatermarkColumn())
+                .cubeEligible(dataset.getCubeEligible())
                 .enabled(dataset.getEnabled())
                 .build();
     }
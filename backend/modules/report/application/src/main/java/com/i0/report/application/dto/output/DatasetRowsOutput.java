@@ -0,0 +1,110 @@
+package com.i0.report.application.dto.output;
+
+import com.i0.domain.core.pagination.Pageable;
+import com.i0.report.domain.valueobjects.DatasetKeysetPage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 数据集浏览结果输出DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetRowsOutput {
+
+    public static final String MODE_OFFSET = "offset";
+    public static final String MODE_KEYSET = "keyset";
+
+    /**
+     * 数据集ID
+     */
+    private String datasetId;
+
+    /**
+     * 分页模式：offset 或 keyset
+     */
+    private String mode;
+
+    /**
+     * 当前页数据
+     */
+    private List<Object> rows;
+
+    /**
+     * 当前页码（仅OFFSET分页）
+     */
+    private Integer page;
+
+    /**
+     * 每页大小
+     */
+    private Integer size;
+
+    /**
+     * 总记录数（仅OFFSET分页）
+     */
+    private Long total;
+
+    /**
+     * 总页数（仅OFFSET分页）
+     */
+    private Integer totalPages;
+
+    /**
+     * 排序键字段名（仅键集分页）
+     */
+    private String sortKey;
+
+    /**
+     * 下一页起始键（仅键集分页）
+     */
+    private Object nextKey;
+
+    /**
+     * 下一页起始行标识（仅键集分页，排序键不唯一时返回）
+     */
+    private Object nextId;
+
+    /**
+     * 是否还有更多数据
+     */
+    private Boolean hasMore;
+
+    /**
+     * 从OFFSET分页结果转换
+     */
+    public static DatasetRowsOutput fromPage(String datasetId, Pageable<Object> page) {
+        return DatasetRowsOutput.builder()
+                .datasetId(datasetId)
+                .mode(MODE_OFFSET)
+                .rows(page.getContent())
+                .page(page.getPage())
+                .size(page.getSize())
+                .total(page.getTotal())
+                .totalPages(page.getTotalPages())
+                .hasMore(page.hasNext())
+                .build();
+    }
+
+    /**
+     * 从键集分页结果转换
+     */
+    public static DatasetRowsOutput fromKeysetPage(String datasetId, DatasetKeysetPage page) {
+        return DatasetRowsOutput.builder()
+                .datasetId(datasetId)
+                .mode(MODE_KEYSET)
+                .rows(page.getContent())
+                .size(page.getSize())
+                .sortKey(page.getSortKey())
+                .nextKey(page.getNextKey())
+                .nextId(page.getNextId())
+                .hasMore(page.isHasMore())
+                .build();
+    }
+}
@@ -57,6 +57,23 @@ public class ReportDataOutput {
      */
     private Long timestamp;
 
+    /**
+     * 由报表配置和按报表顺序排列的图表数据构建输出
+     */
+    public static ReportDataOutput from(com.i0.report.domain.entities.Report report,
+                                        List<Map<String, Object>> chartData) {
+        return ReportDataOutput.builder()
+                .reportId(report.getId())
+                .reportName(report.getName())
+                .reportStatus(report.getStatus())
+                .chartData(chartData)
+                .refreshInterval(report.getRefreshInterval())
+                .theme(report.getTheme())
+                .layout(report.getLayout())
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
     /**
      * 静态转换方法
      */
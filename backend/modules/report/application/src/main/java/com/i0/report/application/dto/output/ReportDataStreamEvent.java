@@ -0,0 +1,112 @@
+package com.i0.report.application.dto.output;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 报表数据流事件DTO
+ * 依次输出：报表元数据（report）、每个图表完成时的数据（chart / chart_error）、全部完成后的汇总（complete）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReportDataStreamEvent {
+
+    public static final String REPORT = "report";
+    public static final String CHART = "chart";
+    public static final String CHART_ERROR = "chart_error";
+    public static final String COMPLETE = "complete";
+
+    /**
+     * 事件类型
+     */
+    private String event;
+
+    /**
+     * 报表ID
+     */
+    private String reportId;
+
+    /**
+     * 报表名称（report事件）
+     */
+    private String reportName;
+
+    /**
+     * 报表状态（report事件）
+     */
+    private String reportStatus;
+
+    /**
+     * 刷新间隔（分钟，report事件）
+     */
+    private Integer refreshInterval;
+
+    /**
+     * 报表主题（report事件）
+     */
+    private String theme;
+
+    /**
+     * 布局配置（report事件）
+     */
+    private String layout;
+
+    /**
+     * 待输出的图表列表，按报表顺序（report事件），用于提前渲染占位
+     */
+    private List<Map<String, Object>> charts;
+
+    /**
+     * 图表ID（chart / chart_error事件）
+     */
+    private String chartId;
+
+    /**
+     * 图表数据，结构与同步接口 chartData 中的元素一致（chart事件）
+     */
+    private Map<String, Object> chartData;
+
+    /**
+     * 错误信息（chart_error事件）
+     */
+    private String error;
+
+    /**
+     * 耗时（毫秒）：chart事件为图表计算耗时，complete事件为总耗时
+     */
+    private Long elapsedMs;
+
+    /**
+     * 图表ID到计算耗时（毫秒）的映射，按完成顺序（complete事件）
+     */
+    private Map<String, Long> chartTimings;
+
+    /**
+     * 成功输出的图表数（complete事件）
+     */
+    private Integer completedCount;
+
+    /**
+     * 失败的图表数（complete事件）
+     */
+    private Integer failedCount;
+
+    /**
+     * 是否来自已存储的结果（complete事件）
+     */
+    private Boolean cached;
+
+    /**
+     * 事件生成时间
+     */
+    private Long timestamp;
+}
@@ -0,0 +1,45 @@
+package com.i0.report.application.dto.output;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 报表性能统计输出DTO
+ * 各统计项包含每个流水线阶段的耗时分位数（p50/p95/p99/max，毫秒）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportPerformanceOutput {
+
+    /**
+     * 报表ID
+     */
+    private String reportId;
+
+    /**
+     * 报表名称
+     */
+    private String reportName;
+
+    /**
+     * 报表请求级统计（总耗时、序列化耗时）
+     */
+    private Map<String, Object> reportStats;
+
+    /**
+     * 图表统计，按总耗时p95从高到低排序
+     */
+    private List<Map<String, Object>> charts;
+
+    /**
+     * 报表涉及的数据集查询统计
+     */
+    private List<Map<String, Object>> datasets;
+}
@@ -0,0 +1,116 @@
+package com.i0.report.application.usecases;
+
+import com.i0.domain.core.pagination.Pageable;
+import com.i0.report.application.dto.input.DatasetBrowseInput;
+import com.i0.report.application.dto.output.DatasetRowsOutput;
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.exceptions.DatasetNotFoundException;
+import com.i0.report.domain.exceptions.InvalidDatasetQueryException;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.services.FilterMergingService;
+import com.i0.report.domain.valueobjects.DatasetKeysetPage;
+import com.i0.report.domain.valueobjects.Filter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 浏览数据集数据用例
+ * 在数据库端分页读取数据集SQL结果：默认使用OFFSET分页，数据集声明排序键时可使用键集分页
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BrowseDatasetRowsUseCase {
+
+    /**
+     * 每页最大行数
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final DatasetRepository datasetRepository;
+    private final FilterMergingService filterMergingService;
+
+    /**
+     * 执行数据集浏览
+     *
+     * @param input 数据集浏览输入参数
+     * @return 当前页数据
+     */
+    public DatasetRowsOutput execute(DatasetBrowseInput input) {
+        validateInput(input);
+        log.info("浏览数据集数据: datasetId={}, page={}, size={}, mode={}",
+                input.getDatasetId(), input.getPage(), input.getSize(), input.getMode());
+
+        Dataset dataset = datasetRepository.findById(input.getDatasetId())
+                .orElseThrow(() -> new DatasetNotFoundException(input.getDatasetId()));
+
+        // 数据集自身的过滤条件始终生效
+        List<Filter> filters = filterMergingService.mergeFilters(dataset.getFilters(), input.getFilters());
+
+        if (isKeysetMode(input)) {
+            validateKeyset(dataset, input);
+            DatasetKeysetPage page = datasetRepository.executeQueryWithKeyset(
+                    dataset, filters, input.getAfterKey(), input.getAfterId(), input.getSize());
+            return DatasetRowsOutput.fromKeysetPage(dataset.getId(), page);
+        }
+
+        Pageable<Object> page = datasetRepository.executeQueryWithPagination(
+                dataset, filters, input.getPage(), input.getSize());
+        return DatasetRowsOutput.fromPage(dataset.getId(), page);
+    }
+
+    /**
+     * 判断是否使用键集分页
+     */
+    private boolean isKeysetMode(DatasetBrowseInput input) {
+        if (input.getMode() != null && !input.getMode().trim().isEmpty()) {
+            return DatasetRowsOutput.MODE_KEYSET.equalsIgnoreCase(input.getMode().trim());
+        }
+        return input.getAfterKey() != null;
+    }
+
+    /**
+     * 验证键集分页条件
+     * 排序键不唯一时以 (排序键, 行标识) 作为游标，数据集结果必须包含行标识列，翻页时两者需同时传入
+     */
+    private void validateKeyset(Dataset dataset, DatasetBrowseInput input) {
+        if (!dataset.hasSortKey()) {
+            throw new InvalidDatasetQueryException("数据集未声明排序键，无法使用键集分页: " + dataset.getId());
+        }
+        if (dataset.isSortKeyRowId()) {
+            return;
+        }
+        boolean hasRowId = datasetRepository.getDatasetFieldMetadata(dataset).stream()
+                .anyMatch(field -> Dataset.ROW_ID_COLUMN.equalsIgnoreCase(field.getName()));
+        if (!hasRowId) {
+            throw new InvalidDatasetQueryException(
+                    "数据集结果缺少行标识列 " + Dataset.ROW_ID_COLUMN + "，无法按非唯一排序键进行键集分页: " + dataset.getId());
+        }
+        if (input.getAfterKey() != null && input.getAfterId() == null) {
+            throw new InvalidDatasetQueryException("排序键不唯一，键集分页需同时提供 after 和 afterId");
+        }
+    }
+
+    /**
+     * 验证输入参数
+     */
+    private void validateInput(DatasetBrowseInput input) {
+        if (input == null || input.getDatasetId() == null || input.getDatasetId().trim().isEmpty()) {
+            throw new InvalidDatasetQueryException("数据集ID不能为空");
+        }
+        if (input.getPage() == null || input.getPage() < 0) {
+            throw new InvalidDatasetQueryException("页码不能小于0");
+        }
+        if (input.getSize() == null || input.getSize() < 1 || input.getSize() > MAX_PAGE_SIZE) {
+            throw new InvalidDatasetQueryException("每页大小必须在1-" + MAX_PAGE_SIZE + "之间");
+        }
+        if (input.getMode() != null && !input.getMode().trim().isEmpty()
+                && !DatasetRowsOutput.MODE_OFFSET.equalsIgnoreCase(input.getMode().trim())
+                && !DatasetRowsOutput.MODE_KEYSET.equalsIgnoreCase(input.getMode().trim())) {
+            throw new InvalidDatasetQueryException("不支持的分页模式: " + input.getMode());
+        }
+    }
+}
@@ -56,6 +56,9 @@ public class CreateDatasetUseCase {
                 .dataSourceType(input.getDataSourceType())
                 .updateStrategy(input.getUpdateStrategy())
                 .updateInterval(input.getUpdateInterval())
+                .sortKey(input.getSortKey())
+                .watermarkColumn(input.getWatermarkColumn())
+                .cubeEligible(input.getCubeEligible())
                 .enabled(input.getEnabled())
                 .build();
 
@@ -0,0 +1,239 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.application.dto.input.BatchReportDataInput;
+import com.i0.report.application.dto.output.BatchReportDataOutput;
+import com.i0.report.application.dto.output.ReportDataOutput;
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.ReportConfigGraphRepository;
+import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.domain.services.ReportDataCalculationService;
+import com.i0.report.domain.services.ReportQueryCancellationService;
+import com.i0.report.domain.services.ReportQueryCancellationService.CancellationScope;
+import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.domain.valueobjects.ReportAccessType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 批量生成报表数据用例
+ * 门户首页等一次加载多个报表的场景：所有报表的图表统一规划，同一图表或查询完全相同的图表只计算一次，
+ * 同一数据集的图表跨报表合并扫描，其余图表在共用的图表线程池中并行计算，最后按报表组装为一个结果
+ */
+@Component
+@Slf4j
+public class GenerateBatchReportDataUseCase {
+
+    private final ReportRepository reportRepository;
+    private final ChartRepository chartRepository;
+    private final ReportDataCalculationService reportDataCalculationService;
+    private final ReportConfigGraphRepository configGraphRepository;
+    private final ReportQueryCancellationService queryCancellationService;
+    private final Executor chartExecutor;
+
+    public GenerateBatchReportDataUseCase(ReportRepository reportRepository,
+                                          ChartRepository chartRepository,
+                                          ReportDataCalculationService reportDataCalculationService,
+                                          ReportConfigGraphRepository configGraphRepository,
+                                          ReportQueryCancellationService queryCancellationService,
+                                          @Qualifier("reportChartExecutor") Executor chartExecutor) {
+        this.reportRepository = reportRepository;
+        this.chartRepository = chartRepository;
+        this.reportDataCalculationService = reportDataCalculationService;
+        this.configGraphRepository = configGraphRepository;
+        this.queryCancellationService = queryCancellationService;
+        this.chartExecutor = chartExecutor;
+    }
+
+    /**
+     * 执行批量生成报表数据
+     * 单个报表不存在或已禁用时记录在 failedReports 中，不影响其他报表
+     *
+     * @param input 批量报表数据生成输入参数
+     * @return 批量报表数据输出
+     */
+    public BatchReportDataOutput execute(BatchReportDataInput input) {
+        long startedAt = System.nanoTime();
+        List<String> reportIds = new ArrayList<>(new LinkedHashSet<>(input.getReportIds()));
+        List<Filter> filters = input.getFilters() != null ? input.getFilters() : Collections.emptyList();
+        boolean useStored = filters.isEmpty()
+                && Boolean.TRUE.equals(input.getIncludeCacheData())
+                && !Boolean.TRUE.equals(input.getForceRefresh());
+        log.info("开始批量生成报表数据: reportIds={}", reportIds);
+
+        // 1. 校验报表，默认视图优先使用已存储的结果
+        Map<String, String> failedReports = new LinkedHashMap<>();
+        Map<String, ReportDataOutput> outputs = new HashMap<>();
+        Map<String, Report> pendingReports = new LinkedHashMap<>();
+        Map<String, List<Chart>> pendingCharts = new HashMap<>();
+        for (String reportId : reportIds) {
+            Optional<Report> found = configGraphRepository.findReport(reportId)
+                    .or(() -> reportRepository.findById(reportId));
+            if (found.isEmpty()) {
+                failedReports.put(reportId, "报表不存在: " + reportId);
+                continue;
+            }
+            Report report = found.get();
+            if (!Boolean.TRUE.equals(report.getEnabled())) {
+                failedReports.put(reportId, "报表已禁用: " + reportId);
+                continue;
+            }
+            reportRepository.recordAccess(report.getId(), input.getUserId(), ReportAccessType.VIEW.getCode());
+
+            if (useStored) {
+                Optional<Object> stored = reportRepository.getCachedReportData(report, Collections.emptyList());
+                if (stored.isPresent() && stored.get() instanceof ReportDataOutput) {
+                    outputs.put(reportId, (ReportDataOutput) stored.get());
+                    continue;
+                }
+            }
+            List<Chart> charts = configGraphRepository.findReportCharts(reportId)
+                    .orElseGet(() -> chartRepository.findByReportId(reportId)).stream()
+                    .filter(chart -> Boolean.TRUE.equals(chart.getEnabled()))
+                    .collect(Collectors.toList());
+            pendingReports.put(reportId, report);
+            pendingCharts.put(reportId, charts);
+        }
+
+        // 2. 跨报表去重：同一图表只算一次，类型、指标、维度和图表过滤条件相同的图表共用一次计算
+        Map<String, Chart> representatives = new LinkedHashMap<>();
+        Map<String, String> representativeByChartId = new HashMap<>();
+        Map<List<Object>, String> chartIdByExecution = new HashMap<>();
+        for (String reportId : pendingReports.keySet()) {
+            for (Chart chart : pendingCharts.get(reportId)) {
+                if (representativeByChartId.containsKey(chart.getId())) {
+                    continue;
+                }
+                String representativeId = chartIdByExecution.computeIfAbsent(executionKeyOf(chart), key -> chart.getId());
+                representativeByChartId.put(chart.getId(), representativeId);
+                representatives.putIfAbsent(representativeId, chart);
+            }
+        }
+
+        // 3. 计算去重后的图表
+        Map<String, Map<String, Object>> chartDataById = computeCharts(new ArrayList<>(representatives.values()), filters);
+
+        // 4. 按报表和图表顺序组装结果，默认视图且所有图表成功时存储报表结果
+        for (Report report : pendingReports.values()) {
+            List<Map<String, Object>> chartDataList = new ArrayList<>();
+            boolean complete = true;
+            for (Chart chart : pendingCharts.get(report.getId())) {
+                String representativeId = representativeByChartId.get(chart.getId());
+                Map<String, Object> chartData = chartDataById.get(representativeId);
+                if (chartData == null) {
+                    complete = false;
+                    continue;
+                }
+                if (!representativeId.equals(chart.getId())) {
+                    chartData = reportDataCalculationService.rebindChartResponse(chart, chartData);
+                }
+                complete &= chartData.get("error") == null;
+                chartDataList.add(chartData);
+            }
+            ReportDataOutput output = ReportDataOutput.from(report, chartDataList);
+            if (filters.isEmpty() && complete) {
+                reportRepository.cacheReportData(report, Collections.emptyList(), output, report.resultTtlSeconds());
+            }
+            outputs.put(report.getId(), output);
+        }
+
+        int chartCount = pendingCharts.values().stream().mapToInt(List::size).sum();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        log.info("批量生成报表数据完成: reports={}, failed={}, charts={}, executions={}, elapsedMs={}",
+                outputs.size(), failedReports.size(), chartCount, representatives.size(), elapsedMs);
+
+        return BatchReportDataOutput.builder()
+                .reports(reportIds.stream()
+                        .map(outputs::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()))
+                .failedReports(failedReports)
+                .chartCount(chartCount)
+                .executionCount(representatives.size())
+                .elapsedMs(elapsedMs)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    /**
+     * 计算图表数据
+     * 同一数据集的图表先合并扫描，未能合并的图表在线程池中并行逐个生成，生成失败的图表不出现在结果中；
+     * 并行任务在同一取消范围内执行，调用线程中断时取消仍在执行的SQL语句
+     */
+    private Map<String, Map<String, Object>> computeCharts(List<Chart> charts, List<Filter> filters) {
+        Map<String, Map<String, Object>> chartDataById = new HashMap<>();
+        if (charts.isEmpty()) {
+            return chartDataById;
+        }
+        try {
+            Map<String, Map<String, Object>> fused = reportDataCalculationService.generateFusedChartData(charts, filters);
+            if (fused != null) {
+                chartDataById.putAll(fused);
+            }
+        } catch (Exception e) {
+            log.warn("批量合并图表查询失败，回退到逐个图表查询: error={}", e.getMessage());
+        }
+
+        List<Chart> remaining = charts.stream()
+                .filter(chart -> !chartDataById.containsKey(chart.getId()))
+                .collect(Collectors.toList());
+        CancellationScope cancellationScope = queryCancellationService.openScope();
+        List<FutureTask<Map<String, Object>>> tasks = new ArrayList<>(remaining.size());
+        for (Chart chart : remaining) {
+            FutureTask<Map<String, Object>> task = new FutureTask<>(cancellationScope.wrap(() -> {
+                try {
+                    return reportDataCalculationService.generateChartData(chart, filters);
+                } catch (Exception e) {
+                    log.error("批量生成图表数据失败: chartId={}, error={}", chart.getId(), e.getMessage(), e);
+                    return null;
+                }
+            }));
+            tasks.add(task);
+            chartExecutor.execute(task);
+        }
+        try {
+            for (int i = 0; i < remaining.size(); i++) {
+                Map<String, Object> chartData = tasks.get(i).get();
+                if (chartData != null) {
+                    chartDataById.put(remaining.get(i).getId(), chartData);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("批量生成报表数据被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("图表计算任务异常: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            // 正常结束时均已完成；中断时未开始的图表不再执行，正在执行的图表由取消范围取消其SQL语句
+            tasks.forEach(task -> task.cancel(false));
+            cancellationScope.close();
+        }
+        return chartDataById;
+    }
+
+    /**
+     * 图表查询标识：类型、指标、维度和图表过滤条件均相同的图表查询和格式化结果一致
+     */
+    private static List<Object> executionKeyOf(Chart chart) {
+        return Arrays.asList(chart.getType(), chart.getIndicatorId(), chart.getDimension(),
+                chart.getFilters() != null ? chart.getFilters() : Collections.emptyList());
+    }
+}
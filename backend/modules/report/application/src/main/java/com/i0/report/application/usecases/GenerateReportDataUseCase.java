@@ -7,18 +7,22 @@ import com.i0.report.domain.entities.Report;
 import com.i0.report.domain.exceptions.ReportDisabledException;
 import com.i0.report.domain.exceptions.ReportNotFoundException;
 import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.ReportConfigGraphRepository;
 import com.i0.report.domain.repositories.ReportRepository;
 import com.i0.report.domain.services.FilterMergingService;
 import com.i0.report.domain.services.ReportDataCalculationService;
 import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.domain.valueobjects.ReportAccessType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * 生成报表数据用例
@@ -35,35 +39,57 @@ public class GenerateReportDataUseCase {
     private final ChartRepository chartRepository;
     private final ReportDataCalculationService reportDataCalculationService;
     private final FilterMergingService filterMergingService;
+    private final ReportConfigGraphRepository configGraphRepository;
 
     /**
      * 执行生成报表数据
+     * 不开启主库事务：图表SQL在独立的分析连接池中执行，计算期间不占用业务连接
      *
      * @param input 报表数据生成输入参数
      * @return 报表数据输出
      */
-    @Transactional(readOnly = true)
     public ReportDataOutput execute(ReportDataGenerationInput input) {
         log.info("开始生成报表数据: reportId={}", input.getReportId());
 
         // 1. 获取并验证报表配置
         Report report = getAndValidateReport(input.getReportId());
+        if (!Boolean.FALSE.equals(input.getTrackAccess())) {
+            reportRepository.recordAccess(report.getId(), input.getUserId(), ReportAccessType.VIEW.getCode());
+        }
 
-        // 2. 获取报表包含的图表
+        // 2. 默认视图优先使用已存储的结果（预热或近期请求计算）
+        boolean defaultView = input.getAdditionalFilters() == null || input.getAdditionalFilters().isEmpty();
+        if (defaultView && Boolean.TRUE.equals(input.getIncludeCacheData())
+                && !Boolean.TRUE.equals(input.getForceRefresh())) {
+            Optional<Object> stored = reportRepository.getCachedReportData(report, Collections.emptyList());
+            if (stored.isPresent() && stored.get() instanceof ReportDataOutput) {
+                log.debug("使用已存储的报表结果: reportId={}", report.getId());
+                return (ReportDataOutput) stored.get();
+            }
+        }
+
+        // 3. 获取报表包含的图表
         List<Chart> charts = getReportCharts(report);
 
-        // 3. 执行每个图表的数据查询
-        List<Map<String, Object>> chartDataList = processCharts(charts, input.getAdditionalFilters());
+        // 4. 执行每个图表的数据查询
+        ChartResults chartResults = processCharts(charts, input.getAdditionalFilters());
 
-        // 4. 构建并返回报表数据
-        return buildReportDataOutput(report, chartDataList);
+        // 5. 构建报表数据，默认视图且所有图表成功时存储结果，不缓存缺少图表或带错误的部分结果
+        ReportDataOutput output = ReportDataOutput.from(report, chartResults.chartData);
+        if (defaultView && chartResults.failed == 0) {
+            reportRepository.cacheReportData(report, Collections.emptyList(), output, report.resultTtlSeconds());
+        } else if (chartResults.failed > 0) {
+            log.warn("报表存在失败的图表，结果不存储: reportId={}, failed={}", report.getId(), chartResults.failed);
+        }
+        return output;
     }
 
     /**
      * 获取并验证报表配置
      */
     private Report getAndValidateReport(String reportId) {
-        Report report = reportRepository.findById(reportId)
+        Report report = configGraphRepository.findReport(reportId)
+                .or(() -> reportRepository.findById(reportId))
                 .orElseThrow(() -> new ReportNotFoundException(reportId));
 
         if (!Boolean.TRUE.equals(report.getEnabled())) {
@@ -77,44 +103,61 @@ public class GenerateReportDataUseCase {
      * 获取报表包含的图表
      */
     private List<Chart> getReportCharts(Report report) {
-        return chartRepository.findByReportId(report.getId());
+        return configGraphRepository.findReportCharts(report.getId())
+                .orElseGet(() -> chartRepository.findByReportId(report.getId()));
     }
 
     /**
      * 处理所有图表数据生成
+     * 同一数据集的图表优先合并为一次扫描，未能合并的图表逐个生成；
+     * 查询失败（抛出异常）或返回错误信息的图表计为失败
      */
-    private List<Map<String, Object>> processCharts(List<Chart> charts, List<Filter> additionalFilters) {
-        List<Map<String, Object>> chartDataList = new ArrayList<>();
+    private ChartResults processCharts(List<Chart> charts, List<Filter> additionalFilters) {
+        ChartResults results = new ChartResults();
+
+        List<Chart> enabledCharts = charts.stream()
+                .filter(chart -> Boolean.TRUE.equals(chart.getEnabled()))
+                .collect(Collectors.toList());
+        if (enabledCharts.isEmpty()) {
+            return results;
+        }
+
+        Map<String, Map<String, Object>> fusedChartData =
+                reportDataCalculationService.generateFusedChartData(enabledCharts, additionalFilters);
 
-        for (Chart chart : charts) {
-            if (!Boolean.TRUE.equals(chart.getEnabled())) {
+        for (Chart chart : enabledCharts) {
+            if (fusedChartData != null && fusedChartData.containsKey(chart.getId())) {
+                results.add(fusedChartData.get(chart.getId()));
                 continue;
             }
             try {
-                Map<String, Object> chartData = reportDataCalculationService.generateChartData(chart, additionalFilters);
-                chartDataList.add(chartData);
+                results.add(reportDataCalculationService.generateChartData(chart, additionalFilters));
             } catch (Exception e) {
                 log.error("执行图表查询失败: chartId={}, error={}", chart.getId(), e.getMessage(), e);
                 // 继续处理其他图表
+                results.failed++;
             }
         }
 
-        return chartDataList;
+        return results;
     }
 
     /**
-     * 构建报表数据输出
+     * 图表生成结果：成功输出的图表数据和失败的图表数量
      */
-    private ReportDataOutput buildReportDataOutput(Report report, List<Map<String, Object>> chartDataList) {
-        return ReportDataOutput.builder()
-                .reportId(report.getId())
-                .reportName(report.getName())
-                .reportStatus(report.getStatus())
-                .chartData(chartDataList)
-                .refreshInterval(report.getRefreshInterval())
-                .theme(report.getTheme())
-                .layout(report.getLayout())
-                .timestamp(System.currentTimeMillis())
-                .build();
+    private static final class ChartResults {
+        private final List<Map<String, Object>> chartData = new ArrayList<>();
+        private int failed;
+
+        private void add(Map<String, Object> data) {
+            if (data == null) {
+                failed++;
+                return;
+            }
+            chartData.add(data);
+            if (data.get("error") != null) {
+                failed++;
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.application.dto.output.DatasetFieldOutput;
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.exceptions.DatasetNotFoundException;
+import com.i0.report.domain.repositories.DatasetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 获取数据集字段用例
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GetDatasetFieldsUseCase {
+
+    private final DatasetRepository datasetRepository;
+
+    /**
+     * 执行获取数据集字段元数据
+     *
+     * @param datasetId 数据集ID
+     * @return 字段元数据列表
+     */
+    public List<DatasetFieldOutput> execute(String datasetId) {
+        log.info("获取数据集字段: datasetId={}", datasetId);
+
+        Dataset dataset = datasetRepository.findById(datasetId)
+                .orElseThrow(() -> new DatasetNotFoundException(datasetId));
+
+        return DatasetFieldOutput.from(datasetRepository.getDatasetFieldMetadata(dataset));
+    }
+}
@@ -0,0 +1,30 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.domain.services.OlapCubeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 获取内存立方体状态用例
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GetOlapCubeStatsUseCase {
+
+    private final OlapCubeService olapCubeService;
+
+    /**
+     * 执行获取内存立方体状态
+     *
+     * @return 每个已加载数据集的行数、维度基数、内存估算和刷新时间
+     */
+    public List<Map<String, Object>> execute() {
+        log.info("获取内存立方体状态");
+        return olapCubeService.getCubeStats();
+    }
+}
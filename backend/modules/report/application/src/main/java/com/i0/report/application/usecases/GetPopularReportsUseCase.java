@@ -0,0 +1,34 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.application.dto.output.ReportOutput;
+import com.i0.report.domain.repositories.ReportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 获取热门报表用例
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GetPopularReportsUseCase {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final ReportRepository reportRepository;
+
+    /**
+     * 执行获取热门报表，按统计窗口内的访问次数降序
+     *
+     * @param limit 返回数量，最大100
+     * @return 热门报表列表
+     */
+    public List<ReportOutput> execute(int limit) {
+        int effectiveLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        log.info("获取热门报表: limit={}", effectiveLimit);
+        return ReportOutput.from(reportRepository.getPopularReports(effectiveLimit));
+    }
+}
@@ -0,0 +1,44 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.domain.exceptions.ReportDomainException;
+import com.i0.report.domain.exceptions.ReportNotFoundException;
+import com.i0.report.domain.repositories.ReportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 获取报表访问统计用例
+ * 统计来自访问小时汇总，不包含尚未刷写的最近访问
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GetReportAccessStatsUseCase {
+
+    private final ReportRepository reportRepository;
+
+    /**
+     * 执行获取报表访问统计
+     *
+     * @param reportId 报表ID
+     * @param startDate 开始时间，为空时取默认统计窗口
+     * @param endDate 结束时间，为空时取当前时间
+     * @return 访问统计
+     */
+    public Map<String, Object> execute(String reportId, LocalDateTime startDate, LocalDateTime endDate) {
+        log.info("获取报表访问统计: reportId={}, startDate={}, endDate={}", reportId, startDate, endDate);
+
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new ReportDomainException("INVALID_TIME_RANGE", "开始时间不能晚于结束时间");
+        }
+        if (!reportRepository.existsById(reportId)) {
+            throw new ReportNotFoundException(reportId);
+        }
+
+        return reportRepository.getAccessStats(reportId, startDate, endDate);
+    }
+}
@@ -3,6 +3,7 @@ package com.i0.report.application.usecases;
 import com.i0.report.application.dto.output.DatasetOutput;
 import com.i0.report.domain.entities.Report;
 import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.domain.valueobjects.ReportAccessType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -24,9 +25,10 @@ public class GetReportByIdUseCase {
      * 执行获取报表操作
      *
      * @param reportId 报表ID
+     * @param userId 访问用户ID，未登录时为空
      * @return 报表数据
      */
-    public Object execute(String reportId) {
+    public Object execute(String reportId, String userId) {
         log.info("开始获取报表: {}", reportId);
 
         // 查找报表
@@ -39,6 +41,7 @@ public class GetReportByIdUseCase {
         }
 
         log.info("成功获取报表: ID={}, 名称={}", report.getId(), report.getName());
+        reportRepository.recordAccess(report.getId(), userId, ReportAccessType.INFO.getCode());
 
         // 生成报表数据
         return reportRepository.generateReportData(report, null);
@@ -49,9 +52,10 @@ public class GetReportByIdUseCase {
      *
      * @param reportId 报表ID
      * @param filters 额外的过滤条件
+     * @param userId 访问用户ID，未登录时为空
      * @return 报表数据
      */
-    public Object execute(String reportId, List<com.i0.report.domain.valueobjects.Filter> filters) {
+    public Object execute(String reportId, List<com.i0.report.domain.valueobjects.Filter> filters, String userId) {
         log.info("开始获取报表: {}, 带过滤条件", reportId);
 
         // 查找报表
@@ -64,6 +68,7 @@ public class GetReportByIdUseCase {
         }
 
         log.info("成功获取报表: ID={}, 名称={}", report.getId(), report.getName());
+        reportRepository.recordAccess(report.getId(), userId, ReportAccessType.INFO.getCode());
 
         // 生成报表数据
         return reportRepository.generateReportData(report, filters);
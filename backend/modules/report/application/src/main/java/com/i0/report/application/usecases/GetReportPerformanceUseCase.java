@@ -0,0 +1,102 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.application.dto.output.ReportPerformanceOutput;
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.exceptions.ReportNotFoundException;
+import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.repositories.IndicatorRepository;
+import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.domain.valueobjects.ReportPipelineStage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 获取报表性能统计用例
+ * 汇总报表、图表、指标和数据集的耗时分位数，定位拖慢报表的图表
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GetReportPerformanceUseCase {
+
+    private final ReportRepository reportRepository;
+    private final ChartRepository chartRepository;
+    private final IndicatorRepository indicatorRepository;
+    private final DatasetRepository datasetRepository;
+
+    /**
+     * 执行获取报表性能统计
+     *
+     * @param reportId 报表ID
+     * @return 报表性能统计
+     */
+    public ReportPerformanceOutput execute(String reportId) {
+        log.info("获取报表性能统计: reportId={}", reportId);
+
+        Report report = reportRepository.findById(reportId)
+                .orElseThrow(() -> new ReportNotFoundException(reportId));
+
+        List<Map<String, Object>> chartStats = new ArrayList<>();
+        Set<String> datasetIds = new LinkedHashSet<>();
+        for (Chart chart : chartRepository.findByReportId(reportId)) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("chartId", chart.getId());
+            stats.put("chartName", chart.getName());
+            stats.put("indicatorId", chart.getIndicatorId());
+            stats.putAll(chartRepository.getPerformanceStats(chart.getId()));
+
+            Optional<Indicator> indicator = chart.getIndicatorId() != null
+                    ? indicatorRepository.findById(chart.getIndicatorId())
+                    : Optional.empty();
+            indicator.map(Indicator::getDatasetId).ifPresent(datasetId -> {
+                stats.put("datasetId", datasetId);
+                datasetIds.add(datasetId);
+            });
+            chartStats.add(stats);
+        }
+        chartStats.sort(Comparator.comparingDouble(GetReportPerformanceUseCase::totalP95).reversed());
+
+        List<Map<String, Object>> datasetStats = new ArrayList<>();
+        for (String datasetId : datasetIds) {
+            datasetStats.add(datasetRepository.getPerformanceStats(datasetId));
+        }
+
+        return ReportPerformanceOutput.builder()
+                .reportId(report.getId())
+                .reportName(report.getName())
+                .reportStats(reportRepository.getPerformanceStats(reportId))
+                .charts(chartStats)
+                .datasets(datasetStats)
+                .build();
+    }
+
+    /**
+     * 读取统计中的总耗时p95，没有样本时为0
+     */
+    @SuppressWarnings("unchecked")
+    private static double totalP95(Map<String, Object> stats) {
+        Object stages = stats.get("stages");
+        if (!(stages instanceof Map)) {
+            return 0;
+        }
+        Object total = ((Map<String, Object>) stages).get(ReportPipelineStage.TOTAL.getCode());
+        if (!(total instanceof Map)) {
+            return 0;
+        }
+        Object p95 = ((Map<String, Object>) total).get("p95Ms");
+        return p95 instanceof Number ? ((Number) p95).doubleValue() : 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.domain.services.ReportWarmUpService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 获取报表预热状态用例
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GetReportWarmUpStatusUseCase {
+
+    private final ReportWarmUpService reportWarmUpService;
+
+    /**
+     * 执行获取报表预热状态
+     *
+     * @return 最近一轮预热情况，以及每个预热报表的结果是否仍在有效期内
+     */
+    public Map<String, Object> execute() {
+        log.info("获取报表预热状态");
+        return reportWarmUpService.status();
+    }
+}
@@ -0,0 +1,99 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.exceptions.DatasetNotFoundException;
+import com.i0.report.domain.exceptions.InvalidDatasetQueryException;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.services.FilterMergingService;
+import com.i0.report.domain.valueobjects.Filter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 流式读取数据集数据用例
+ * 按批次从数据库读取数据集SQL结果并逐行输出，内存占用与数据集大小无关
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StreamDatasetRowsUseCase {
+
+    /**
+     * 默认每批读取行数
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * 每批最大读取行数
+     */
+    public static final int MAX_FETCH_SIZE = 10000;
+
+    private final DatasetRepository datasetRepository;
+    private final FilterMergingService filterMergingService;
+
+    /**
+     * 准备流式读取
+     * 在开始输出前校验参数并解析数据集，数据集不存在或参数无效时直接抛出，由控制器返回对应的错误状态；
+     * 不开启主库事务：查询在独立的分析连接池中执行，流式读取期间不占用业务连接
+     *
+     * @param datasetId 数据集ID
+     * @param filters 额外的过滤条件
+     * @param fetchSize 每批读取行数
+     * @return 数据集行流
+     */
+    public DatasetRowStream execute(String datasetId, List<Filter> filters, Integer fetchSize) {
+        if (datasetId == null || datasetId.trim().isEmpty()) {
+            throw new InvalidDatasetQueryException("数据集ID不能为空");
+        }
+        int effectiveFetchSize = fetchSize != null ? fetchSize : DEFAULT_FETCH_SIZE;
+        if (effectiveFetchSize < 1 || effectiveFetchSize > MAX_FETCH_SIZE) {
+            throw new InvalidDatasetQueryException("每批读取行数必须在1-" + MAX_FETCH_SIZE + "之间");
+        }
+
+        Dataset dataset = datasetRepository.findById(datasetId)
+                .orElseThrow(() -> new DatasetNotFoundException(datasetId));
+        if (!dataset.isValid()) {
+            throw new InvalidDatasetQueryException("数据集配置无效: " + datasetId);
+        }
+
+        List<Filter> allFilters = filterMergingService.mergeFilters(dataset.getFilters(), filters);
+        return new DatasetRowStream(dataset, allFilters, effectiveFetchSize);
+    }
+
+    /**
+     * 数据集行流
+     * 行处理器只在调用 {@link #emitTo(Consumer)} 的线程中被调用
+     */
+    public final class DatasetRowStream {
+        private final Dataset dataset;
+        private final List<Filter> filters;
+        private final int fetchSize;
+
+        private DatasetRowStream(Dataset dataset, List<Filter> filters, int fetchSize) {
+            this.dataset = dataset;
+            this.filters = filters;
+            this.fetchSize = fetchSize;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        /**
+         * 读取并逐行输出，全部输出后返回
+         * 行处理器抛出异常（如客户端断开）时中止读取并向上抛出
+         *
+         * @param rowHandler 行处理器
+         * @return 输出的总行数
+         */
+        public long emitTo(Consumer<Map<String, Object>> rowHandler) {
+            log.info("开始流式读取数据集: datasetId={}, fetchSize={}", dataset.getId(), fetchSize);
+            return datasetRepository.streamQuery(dataset, filters, fetchSize, rowHandler);
+        }
+    }
+}
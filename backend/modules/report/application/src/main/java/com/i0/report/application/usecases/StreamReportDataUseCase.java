@@ -0,0 +1,296 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.application.dto.input.ReportDataGenerationInput;
+import com.i0.report.application.dto.output.ReportDataOutput;
+import com.i0.report.application.dto.output.ReportDataStreamEvent;
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.exceptions.ReportDisabledException;
+import com.i0.report.domain.exceptions.ReportNotFoundException;
+import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.ReportConfigGraphRepository;
+import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.domain.services.ReportDataCalculationService;
+import com.i0.report.domain.services.ReportQueryCancellationService;
+import com.i0.report.domain.services.ReportQueryCancellationService.CancellationScope;
+import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.domain.valueobjects.ReportAccessType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 流式生成报表数据用例
+ * 先输出报表元数据，再在共用的图表线程池中并行计算各图表、按完成顺序逐个输出，最后输出包含耗时的完成事件；
+ * 图表逐个并行生成，不做同数据集合并扫描，保证先完成的图表先到达客户端
+ */
+@Component
+@Slf4j
+public class StreamReportDataUseCase {
+
+    private final ReportRepository reportRepository;
+    private final ChartRepository chartRepository;
+    private final ReportDataCalculationService reportDataCalculationService;
+    private final ReportConfigGraphRepository configGraphRepository;
+    private final ReportQueryCancellationService queryCancellationService;
+    private final Executor chartExecutor;
+
+    public StreamReportDataUseCase(ReportRepository reportRepository,
+                                   ChartRepository chartRepository,
+                                   ReportDataCalculationService reportDataCalculationService,
+                                   ReportConfigGraphRepository configGraphRepository,
+                                   ReportQueryCancellationService queryCancellationService,
+                                   @Qualifier("reportChartExecutor") Executor chartExecutor) {
+        this.reportRepository = reportRepository;
+        this.chartRepository = chartRepository;
+        this.reportDataCalculationService = reportDataCalculationService;
+        this.configGraphRepository = configGraphRepository;
+        this.queryCancellationService = queryCancellationService;
+        this.chartExecutor = chartExecutor;
+    }
+
+    /**
+     * 校验报表并准备数据流
+     * 报表不存在或已禁用时在开始输出前抛出异常，便于返回正确的状态码
+     *
+     * @param input 报表数据生成输入参数
+     * @return 报表数据流，调用 {@link ReportDataStream#emitTo(Consumer)} 开始计算并输出
+     */
+    public ReportDataStream execute(ReportDataGenerationInput input) {
+        log.info("开始流式生成报表数据: reportId={}", input.getReportId());
+
+        Report report = configGraphRepository.findReport(input.getReportId())
+                .or(() -> reportRepository.findById(input.getReportId()))
+                .orElseThrow(() -> new ReportNotFoundException(input.getReportId()));
+        if (!Boolean.TRUE.equals(report.getEnabled())) {
+            throw new ReportDisabledException(input.getReportId());
+        }
+        if (!Boolean.FALSE.equals(input.getTrackAccess())) {
+            reportRepository.recordAccess(report.getId(), input.getUserId(), ReportAccessType.VIEW.getCode());
+        }
+
+        List<Chart> charts = configGraphRepository.findReportCharts(report.getId())
+                .orElseGet(() -> chartRepository.findByReportId(report.getId())).stream()
+                .filter(chart -> Boolean.TRUE.equals(chart.getEnabled()))
+                .collect(Collectors.toList());
+        List<Filter> filters = input.getAdditionalFilters() != null ? input.getAdditionalFilters() : Collections.emptyList();
+        boolean useStored = filters.isEmpty()
+                && Boolean.TRUE.equals(input.getIncludeCacheData())
+                && !Boolean.TRUE.equals(input.getForceRefresh());
+        return new ReportDataStream(report, charts, filters, useStored);
+    }
+
+    /**
+     * 报表数据流
+     * 事件处理器只在调用 {@link #emitTo(Consumer)} 的线程中被调用，输出无需额外同步
+     */
+    public final class ReportDataStream {
+        private final Report report;
+        private final List<Chart> charts;
+        private final List<Filter> filters;
+        private final boolean useStored;
+
+        private ReportDataStream(Report report, List<Chart> charts, List<Filter> filters, boolean useStored) {
+            this.report = report;
+            this.charts = charts;
+            this.filters = filters;
+            this.useStored = useStored;
+        }
+
+        /**
+         * 计算并输出事件，全部图表输出后返回
+         * 事件处理器抛出异常（如客户端断开）时取消尚未完成的图表及其正在执行的SQL，并向上抛出
+         *
+         * @param eventHandler 事件处理器
+         */
+        public void emitTo(Consumer<ReportDataStreamEvent> eventHandler) {
+            long startedAt = System.nanoTime();
+            eventHandler.accept(reportEvent());
+
+            if (useStored) {
+                Optional<Object> stored = reportRepository.getCachedReportData(report, Collections.emptyList());
+                if (stored.isPresent() && stored.get() instanceof ReportDataOutput) {
+                    log.debug("流式输出已存储的报表结果: reportId={}", report.getId());
+                    emitStored((ReportDataOutput) stored.get(), eventHandler, startedAt);
+                    return;
+                }
+            }
+
+            CancellationScope cancellationScope = queryCancellationService.openScope();
+            CompletionService<ChartOutcome> completionService = new ExecutorCompletionService<>(chartExecutor);
+            List<Future<ChartOutcome>> futures = new ArrayList<>(charts.size());
+            for (Chart chart : charts) {
+                futures.add(completionService.submit(cancellationScope.wrap(() -> generateChart(chart))));
+            }
+
+            Map<String, Map<String, Object>> chartDataById = new HashMap<>();
+            Map<String, Long> timings = new LinkedHashMap<>();
+            int failed = 0;
+            try {
+                for (int i = 0; i < charts.size(); i++) {
+                    ChartOutcome outcome = completionService.take().get();
+                    timings.put(outcome.chart.getId(), outcome.elapsedMs);
+                    if (outcome.chartData != null) {
+                        chartDataById.put(outcome.chart.getId(), outcome.chartData);
+                        eventHandler.accept(chartEvent(outcome));
+                    } else {
+                        failed++;
+                        eventHandler.accept(chartErrorEvent(outcome));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("报表数据流被中断: " + report.getId(), e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("图表计算任务异常: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                // 正常结束时均已完成；输出失败时未开始的图表不再执行，正在执行的图表由取消范围取消其SQL语句
+                futures.forEach(future -> future.cancel(false));
+                cancellationScope.close();
+            }
+
+            long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            log.info("流式生成报表数据完成: reportId={}, charts={}, failed={}, totalMs={}",
+                    report.getId(), chartDataById.size(), failed, totalMs);
+            eventHandler.accept(completeEvent(timings, chartDataById.size(), failed, false, totalMs));
+            storeIfComplete(chartDataById, failed);
+        }
+
+        private ChartOutcome generateChart(Chart chart) {
+            long chartStartedAt = System.nanoTime();
+            try {
+                Map<String, Object> chartData = reportDataCalculationService.generateChartData(chart, filters);
+                return new ChartOutcome(chart, chartData, null, elapsedMs(chartStartedAt));
+            } catch (Exception e) {
+                log.error("流式生成图表数据失败: chartId={}, error={}", chart.getId(), e.getMessage(), e);
+                return new ChartOutcome(chart, null, e.getMessage(), elapsedMs(chartStartedAt));
+            }
+        }
+
+        private void emitStored(ReportDataOutput stored, Consumer<ReportDataStreamEvent> eventHandler, long startedAt) {
+            List<Map<String, Object>> chartData = stored.getChartData() != null ? stored.getChartData() : Collections.emptyList();
+            for (Map<String, Object> data : chartData) {
+                eventHandler.accept(ReportDataStreamEvent.builder()
+                        .event(ReportDataStreamEvent.CHART)
+                        .reportId(report.getId())
+                        .chartId((String) data.get("chartId"))
+                        .chartData(data)
+                        .elapsedMs(0L)
+                        .timestamp(System.currentTimeMillis())
+                        .build());
+            }
+            eventHandler.accept(completeEvent(Collections.emptyMap(), chartData.size(), 0, true, elapsedMs(startedAt)));
+        }
+
+        /**
+         * 全部图表成功时按报表顺序组装结果并存储，与同步接口共用
+         */
+        private void storeIfComplete(Map<String, Map<String, Object>> chartDataById, int failed) {
+            if (!filters.isEmpty() || failed > 0
+                    || chartDataById.values().stream().anyMatch(chartData -> chartData.get("error") != null)) {
+                return;
+            }
+            List<Map<String, Object>> orderedChartData = charts.stream()
+                    .map(chart -> chartDataById.get(chart.getId()))
+                    .collect(Collectors.toList());
+            ReportDataOutput output = ReportDataOutput.from(report, orderedChartData);
+            reportRepository.cacheReportData(report, Collections.emptyList(), output, report.resultTtlSeconds());
+        }
+
+        private ReportDataStreamEvent reportEvent() {
+            List<Map<String, Object>> chartSummaries = new ArrayList<>(charts.size());
+            for (Chart chart : charts) {
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("chartId", chart.getId());
+                summary.put("chartName", chart.getName());
+                summary.put("chartType", chart.getType());
+                summary.put("chartTitle", chart.getTitle());
+                chartSummaries.add(summary);
+            }
+            return ReportDataStreamEvent.builder()
+                    .event(ReportDataStreamEvent.REPORT)
+                    .reportId(report.getId())
+                    .reportName(report.getName())
+                    .reportStatus(report.getStatus())
+                    .refreshInterval(report.getRefreshInterval())
+                    .theme(report.getTheme())
+                    .layout(report.getLayout())
+                    .charts(chartSummaries)
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+        }
+
+        private ReportDataStreamEvent chartEvent(ChartOutcome outcome) {
+            return ReportDataStreamEvent.builder()
+                    .event(ReportDataStreamEvent.CHART)
+                    .reportId(report.getId())
+                    .chartId(outcome.chart.getId())
+                    .chartData(outcome.chartData)
+                    .elapsedMs(outcome.elapsedMs)
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+        }
+
+        private ReportDataStreamEvent chartErrorEvent(ChartOutcome outcome) {
+            return ReportDataStreamEvent.builder()
+                    .event(ReportDataStreamEvent.CHART_ERROR)
+                    .reportId(report.getId())
+                    .chartId(outcome.chart.getId())
+                    .error(outcome.error)
+                    .elapsedMs(outcome.elapsedMs)
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+        }
+
+        private ReportDataStreamEvent completeEvent(Map<String, Long> timings, int completed, int failed,
+                                                    boolean cached, long totalMs) {
+            return ReportDataStreamEvent.builder()
+                    .event(ReportDataStreamEvent.COMPLETE)
+                    .reportId(report.getId())
+                    .chartTimings(timings)
+                    .completedCount(completed)
+                    .failedCount(failed)
+                    .cached(cached)
+                    .elapsedMs(totalMs)
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+        }
+    }
+
+    private static long elapsedMs(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * 单个图表的计算结果
+     */
+    private static final class ChartOutcome {
+        private final Chart chart;
+        private final Map<String, Object> chartData;
+        private final String error;
+        private final long elapsedMs;
+
+        private ChartOutcome(Chart chart, Map<String, Object> chartData, String error, long elapsedMs) {
+            this.chart = chart;
+            this.chartData = chartData;
+            this.error = error;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.domain.services.ReportWarmUpService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 手动触发报表预热用例
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TriggerReportWarmUpUseCase {
+
+    private final ReportWarmUpService reportWarmUpService;
+
+    /**
+     * 执行触发报表预热，预热在后台执行，立即返回
+     *
+     * @return 触发后的预热状态
+     */
+    public Map<String, Object> execute() {
+        log.info("手动触发报表预热");
+        reportWarmUpService.triggerWarmUp();
+        return reportWarmUpService.status();
+    }
+}
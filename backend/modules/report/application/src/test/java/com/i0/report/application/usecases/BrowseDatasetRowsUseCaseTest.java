@@ -0,0 +1,237 @@
+package com.i0.report.application.usecases;
+
+import com.i0.domain.core.pagination.SimplePageable;
+import com.i0.report.application.dto.input.DatasetBrowseInput;
+import com.i0.report.application.dto.output.DatasetRowsOutput;
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.exceptions.DatasetNotFoundException;
+import com.i0.report.domain.exceptions.InvalidDatasetQueryException;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.services.FilterMergingService;
+import com.i0.report.domain.valueobjects.DatasetField;
+import com.i0.report.domain.valueobjects.DatasetKeysetPage;
+import com.i0.report.domain.valueobjects.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * BrowseDatasetRowsUseCase 测试类
+ * 验证分页模式选择和输入校验
+ */
+@ExtendWith(MockitoExtension.class)
+class BrowseDatasetRowsUseCaseTest {
+
+    @Mock
+    private DatasetRepository datasetRepository;
+
+    private BrowseDatasetRowsUseCase browseDatasetRowsUseCase;
+
+    private Dataset dataset;
+
+    @BeforeEach
+    void setUp() {
+        browseDatasetRowsUseCase = new BrowseDatasetRowsUseCase(datasetRepository, new FilterMergingService());
+
+        dataset = Dataset.builder()
+                .id("dataset-1")
+                .name("Employees")
+                .sql("SELECT id, name, department FROM employees")
+                .dataSourceType("mysql")
+                .sortKey("id")
+                .filters(Collections.singletonList(
+                        Filter.builder().field("status").operator("=").value("active").build()
+                ))
+                .enabled(true)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should use offset pagination with dataset filters merged by default")
+    void shouldUseOffsetPagination_When_NoKeysetRequested() {
+        // Given
+        Filter extraFilter = Filter.builder().field("department").operator("=").value("IT").build();
+        List<Object> rows = Collections.singletonList(Map.of("id", 1L));
+        when(datasetRepository.findById("dataset-1")).thenReturn(Optional.of(dataset));
+        when(datasetRepository.executeQueryWithPagination(eq(dataset), anyList(), eq(2), eq(10)))
+                .thenReturn(SimplePageable.of(rows, 2, 10, 21));
+
+        DatasetBrowseInput input = DatasetBrowseInput.builder()
+                .datasetId("dataset-1")
+                .page(2)
+                .size(10)
+                .filters(Collections.singletonList(extraFilter))
+                .build();
+
+        // When
+        DatasetRowsOutput output = browseDatasetRowsUseCase.execute(input);
+
+        // Then
+        assertEquals(DatasetRowsOutput.MODE_OFFSET, output.getMode());
+        assertEquals(rows, output.getRows());
+        assertEquals(21L, output.getTotal());
+        assertEquals(3, output.getTotalPages());
+        assertFalse(output.getHasMore());
+        verify(datasetRepository).executeQueryWithPagination(dataset,
+                Arrays.asList(dataset.getFilters().get(0), extraFilter), 2, 10);
+        verify(datasetRepository, never()).executeQueryWithKeyset(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should use keyset pagination when an after key is given")
+    void shouldUseKeysetPagination_When_AfterKeyGiven() {
+        // Given
+        when(datasetRepository.findById("dataset-1")).thenReturn(Optional.of(dataset));
+        when(datasetRepository.executeQueryWithKeyset(eq(dataset), anyList(), eq("100"), isNull(), eq(50)))
+                .thenReturn(DatasetKeysetPage.builder()
+                        .sortKey("id")
+                        .content(Collections.singletonList(Map.of("id", 101L)))
+                        .size(50)
+                        .nextKey(150L)
+                        .hasMore(true)
+                        .build());
+
+        DatasetBrowseInput input = DatasetBrowseInput.builder()
+                .datasetId("dataset-1")
+                .afterKey("100")
+                .build();
+
+        // When
+        DatasetRowsOutput output = browseDatasetRowsUseCase.execute(input);
+
+        // Then
+        assertEquals(DatasetRowsOutput.MODE_KEYSET, output.getMode());
+        assertEquals("id", output.getSortKey());
+        assertEquals(150L, output.getNextKey());
+        assertTrue(output.getHasMore());
+        verify(datasetRepository, never()).executeQueryWithPagination(any(), any(), anyInt(), anyInt());
+        verify(datasetRepository, never()).getDatasetFieldMetadata(any());
+    }
+
+    @Test
+    @DisplayName("Should page by (sort key, id) when the sort key is not unique")
+    void shouldUseTupleCursor_When_SortKeyIsNotUnique() {
+        // Given
+        dataset.setSortKey("department");
+        when(datasetRepository.findById("dataset-1")).thenReturn(Optional.of(dataset));
+        when(datasetRepository.getDatasetFieldMetadata(dataset)).thenReturn(Arrays.asList(
+                DatasetField.builder().name("ID").build(),
+                DatasetField.builder().name("department").build()));
+        when(datasetRepository.executeQueryWithKeyset(eq(dataset), anyList(), eq("IT"), eq("7"), eq(50)))
+                .thenReturn(DatasetKeysetPage.builder()
+                        .sortKey("department")
+                        .content(Collections.singletonList(Map.of("id", 8L, "department", "IT")))
+                        .size(50)
+                        .nextKey("IT")
+                        .nextId(8L)
+                        .hasMore(true)
+                        .build());
+
+        DatasetBrowseInput input = DatasetBrowseInput.builder()
+                .datasetId("dataset-1")
+                .afterKey("IT")
+                .afterId("7")
+                .build();
+
+        // When
+        DatasetRowsOutput output = browseDatasetRowsUseCase.execute(input);
+
+        // Then
+        assertEquals("IT", output.getNextKey());
+        assertEquals(8L, output.getNextId());
+        assertTrue(output.getHasMore());
+    }
+
+    @Test
+    @DisplayName("Should reject a non-unique sort key cursor without the row id")
+    void shouldRejectTupleCursor_When_AfterIdMissing() {
+        // Given
+        dataset.setSortKey("department");
+        when(datasetRepository.findById("dataset-1")).thenReturn(Optional.of(dataset));
+        when(datasetRepository.getDatasetFieldMetadata(dataset)).thenReturn(Arrays.asList(
+                DatasetField.builder().name("id").build(),
+                DatasetField.builder().name("department").build()));
+
+        DatasetBrowseInput input = DatasetBrowseInput.builder()
+                .datasetId("dataset-1")
+                .afterKey("IT")
+                .build();
+
+        // When & Then
+        assertThrows(InvalidDatasetQueryException.class, () -> browseDatasetRowsUseCase.execute(input));
+        verify(datasetRepository, never()).executeQueryWithKeyset(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should reject keyset pagination on a non-unique sort key when rows have no id column")
+    void shouldRejectTupleCursor_When_DatasetHasNoRowId() {
+        // Given
+        dataset.setSortKey("department");
+        when(datasetRepository.findById("dataset-1")).thenReturn(Optional.of(dataset));
+        when(datasetRepository.getDatasetFieldMetadata(dataset)).thenReturn(Collections.singletonList(
+                DatasetField.builder().name("department").build()));
+
+        DatasetBrowseInput input = DatasetBrowseInput.builder()
+                .datasetId("dataset-1")
+                .mode("keyset")
+                .build();
+
+        // When & Then
+        assertThrows(InvalidDatasetQueryException.class, () -> browseDatasetRowsUseCase.execute(input));
+        verify(datasetRepository, never()).executeQueryWithKeyset(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should reject keyset pagination when dataset has no sort key")
+    void shouldRejectKeysetPagination_When_DatasetHasNoSortKey() {
+        // Given
+        dataset.setSortKey(null);
+        when(datasetRepository.findById("dataset-1")).thenReturn(Optional.of(dataset));
+
+        DatasetBrowseInput input = DatasetBrowseInput.builder()
+                .datasetId("dataset-1")
+                .mode("keyset")
+                .build();
+
+        // When & Then
+        assertThrows(InvalidDatasetQueryException.class, () -> browseDatasetRowsUseCase.execute(input));
+        verify(datasetRepository, never()).executeQueryWithKeyset(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should reject page size above the limit")
+    void shouldRejectPageSize_When_AboveLimit() {
+        DatasetBrowseInput input = DatasetBrowseInput.builder()
+                .datasetId("dataset-1")
+                .size(BrowseDatasetRowsUseCase.MAX_PAGE_SIZE + 1)
+                .build();
+
+        assertThrows(InvalidDatasetQueryException.class, () -> browseDatasetRowsUseCase.execute(input));
+        verifyNoInteractions(datasetRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw when dataset does not exist")
+    void shouldThrow_When_DatasetNotFound() {
+        when(datasetRepository.findById("missing")).thenReturn(Optional.empty());
+
+        DatasetBrowseInput input = DatasetBrowseInput.builder()
+                .datasetId("missing")
+                .build();
+
+        assertThrows(DatasetNotFoundException.class, () -> browseDatasetRowsUseCase.execute(input));
+    }
+}
@@ -0,0 +1,184 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.application.dto.input.BatchReportDataInput;
+import com.i0.report.application.dto.output.BatchReportDataOutput;
+import com.i0.report.application.dto.output.ReportDataOutput;
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.ReportConfigGraphRepository;
+import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.domain.services.ReportDataCalculationService;
+import com.i0.report.domain.services.ReportQueryCancellationService.CancellationScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * GenerateBatchReportDataUseCase 测试类
+ * 验证跨报表的图表去重、失败报表隔离、结果存储和并行图表的取消范围
+ */
+@ExtendWith(MockitoExtension.class)
+class GenerateBatchReportDataUseCaseTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private ChartRepository chartRepository;
+
+    @Mock
+    private ReportDataCalculationService reportDataCalculationService;
+
+    @Mock
+    private ReportConfigGraphRepository configGraphRepository;
+
+    private ExecutorService chartExecutor;
+
+    private RecordingCancellationScope cancellationScope;
+
+    private GenerateBatchReportDataUseCase generateBatchReportDataUseCase;
+
+    @BeforeEach
+    void setUp() {
+        chartExecutor = Executors.newFixedThreadPool(2);
+        cancellationScope = new RecordingCancellationScope();
+        generateBatchReportDataUseCase = new GenerateBatchReportDataUseCase(reportRepository, chartRepository,
+                reportDataCalculationService, configGraphRepository, () -> cancellationScope, chartExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        chartExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("多个报表共用的图表和查询相同的图表只计算一次")
+    void shouldComputeSharedChartsOnce_When_ReportsOverlap() {
+        // Given
+        Report overview = report("report-1", "概览");
+        Report hr = report("report-2", "人事");
+        Chart headcount = chart("chart-1", "部门人数");
+        Chart headcountCopy = chart("chart-2", "各部门人数");
+        Chart levels = Chart.builder().id("chart-3").name("职级分布").type("pie")
+                .indicatorId("indicator-2").dimension("level").enabled(true).build();
+        when(reportRepository.findById("report-1")).thenReturn(Optional.of(overview));
+        when(reportRepository.findById("report-2")).thenReturn(Optional.of(hr));
+        when(reportRepository.getCachedReportData(any(), anyList())).thenReturn(Optional.empty());
+        when(chartRepository.findByReportId("report-1")).thenReturn(Arrays.asList(headcount, levels));
+        when(chartRepository.findByReportId("report-2")).thenReturn(Arrays.asList(levels, headcountCopy));
+        when(reportDataCalculationService.generateChartData(eq(headcount), anyList())).thenReturn(chartData("chart-1"));
+        when(reportDataCalculationService.generateChartData(eq(levels), anyList())).thenReturn(chartData("chart-3"));
+        when(reportDataCalculationService.rebindChartResponse(eq(headcountCopy), any())).thenReturn(chartData("chart-2"));
+
+        // When
+        BatchReportDataOutput output = generateBatchReportDataUseCase.execute(input("report-1", "report-2"));
+
+        // Then
+        assertEquals(4, output.getChartCount());
+        assertEquals(2, output.getExecutionCount());
+        assertTrue(output.getFailedReports().isEmpty());
+        assertEquals(Arrays.asList("report-1", "report-2"), reportIds(output.getReports()));
+        assertEquals(Arrays.asList("chart-3", "chart-2"), chartIds(output.getReports().get(1)));
+        verify(reportDataCalculationService, times(1)).generateChartData(eq(headcount), anyList());
+        verify(reportDataCalculationService, times(1)).generateChartData(eq(levels), anyList());
+        verify(reportDataCalculationService, never()).generateChartData(eq(headcountCopy), anyList());
+        verify(reportRepository, times(2)).cacheReportData(any(), anyList(), any(), eq(300L));
+        // 并行图表在同一取消范围内执行，计算结束后关闭
+        assertEquals(2, cancellationScope.wrapped);
+        assertTrue(cancellationScope.closed);
+    }
+
+    @Test
+    @DisplayName("不存在或已禁用的报表记录为失败，不影响其他报表")
+    void shouldReportFailedReports_When_ReportMissingOrDisabled() {
+        // Given
+        Report disabled = Report.builder().id("report-2").name("停用").enabled(false).build();
+        ReportDataOutput stored = ReportDataOutput.builder().reportId("report-1").reportName("概览").build();
+        when(reportRepository.findById("report-1")).thenReturn(Optional.of(report("report-1", "概览")));
+        when(reportRepository.findById("report-2")).thenReturn(Optional.of(disabled));
+        when(reportRepository.findById("missing")).thenReturn(Optional.empty());
+        when(reportRepository.getCachedReportData(any(), anyList())).thenReturn(Optional.of(stored));
+
+        // When
+        BatchReportDataOutput output = generateBatchReportDataUseCase.execute(input("missing", "report-1", "report-2"));
+
+        // Then
+        assertEquals(1, output.getReports().size());
+        assertSame(stored, output.getReports().get(0));
+        assertEquals(2, output.getFailedReports().size());
+        assertTrue(output.getFailedReports().containsKey("missing"));
+        assertTrue(output.getFailedReports().containsKey("report-2"));
+        assertEquals(0, output.getExecutionCount());
+        verify(chartRepository, never()).findByReportId(anyString());
+        verify(reportRepository, never()).cacheReportData(any(), anyList(), any(), anyLong());
+    }
+
+    /**
+     * 记录包装的任务数和是否已关闭的取消范围
+     */
+    private static final class RecordingCancellationScope implements CancellationScope {
+        private int wrapped;
+        private boolean closed;
+
+        @Override
+        public <T> Callable<T> wrap(Callable<T> task) {
+            wrapped++;
+            return task;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static BatchReportDataInput input(String... reportIds) {
+        return BatchReportDataInput.builder().reportIds(Arrays.asList(reportIds)).userId("user-1").build();
+    }
+
+    private static Report report(String id, String name) {
+        return Report.builder().id(id).name(name).status("published").enabled(true).refreshInterval(5).build();
+    }
+
+    private static Chart chart(String id, String name) {
+        return Chart.builder().id(id).name(name).type("bar")
+                .indicatorId("indicator-1").dimension("department").enabled(true).build();
+    }
+
+    private static Map<String, Object> chartData(String chartId) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("chartId", chartId);
+        return data;
+    }
+
+    private static List<String> reportIds(List<ReportDataOutput> reports) {
+        return reports.stream().map(ReportDataOutput::getReportId).collect(Collectors.toList());
+    }
+
+    private static List<Object> chartIds(ReportDataOutput report) {
+        return report.getChartData().stream().map(data -> data.get("chartId")).collect(Collectors.toList());
+    }
+}
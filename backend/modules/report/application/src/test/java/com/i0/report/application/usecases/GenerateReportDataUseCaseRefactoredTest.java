@@ -7,6 +7,7 @@ import com.i0.report.domain.entities.Dataset;
 import com.i0.report.domain.entities.Indicator;
 import com.i0.report.domain.entities.Report;
 import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.ReportConfigGraphRepository;
 import com.i0.report.domain.repositories.IndicatorRepository;
 import com.i0.report.domain.repositories.ReportRepository;
 import com.i0.report.domain.services.ChartDataFormattingService;
@@ -47,6 +48,9 @@ class GenerateReportDataUseCaseRefactoredTest {
     @Mock
     private FilterMergingService filterMergingService;
 
+    @Mock
+    private ReportConfigGraphRepository configGraphRepository;
+
     @InjectMocks
     private GenerateReportDataUseCase generateReportDataUseCase;
 
@@ -233,6 +237,52 @@ class GenerateReportDataUseCaseRefactoredTest {
         verify(reportDataCalculationService).generateChartData(errorChart, additionalFilters);
     }
 
+    @Test
+    @DisplayName("Should use fused chart data and only fall back for charts outside the fused plan")
+    void shouldUseFusedChartData_When_ChartsShareDataset() {
+        // Given
+        Chart locationChart = Chart.builder()
+                .id("chart-location")
+                .name("Location Count")
+                .type("pie")
+                .dimension("work_location_id")
+                .indicatorId("indicator-789")
+                .enabled(true)
+                .build();
+        Chart metricChart = Chart.builder()
+                .id("chart-metric")
+                .name("Total")
+                .type("metric")
+                .indicatorId("indicator-789")
+                .enabled(true)
+                .build();
+
+        Map<String, Object> departmentData = Map.of("chartId", "chart-456");
+        Map<String, Object> locationData = Map.of("chartId", "chart-location");
+        Map<String, Object> metricData = Map.of("chartId", "chart-metric");
+
+        Map<String, Map<String, Object>> fusedData = new HashMap<>();
+        fusedData.put("chart-456", departmentData);
+        fusedData.put("chart-location", locationData);
+
+        List<Chart> charts = Arrays.asList(mockChart, locationChart, metricChart);
+        when(reportRepository.findById("report-123")).thenReturn(Optional.of(mockReport));
+        when(chartRepository.findByReportId("report-123")).thenReturn(charts);
+        when(reportDataCalculationService.generateFusedChartData(eq(charts), eq(additionalFilters)))
+                .thenReturn(fusedData);
+        when(reportDataCalculationService.generateChartData(eq(metricChart), eq(additionalFilters)))
+                .thenReturn(metricData);
+
+        // When
+        ReportDataOutput result = generateReportDataUseCase.execute(input);
+
+        // Then - chart order is preserved and fused charts are not re-queried
+        assertEquals(Arrays.asList(departmentData, locationData, metricData), result.getChartData());
+        verify(reportDataCalculationService, never()).generateChartData(eq(mockChart), any());
+        verify(reportDataCalculationService, never()).generateChartData(eq(locationChart), any());
+        verify(reportDataCalculationService).generateChartData(metricChart, additionalFilters);
+    }
+
     @Test
     @DisplayName("Should handle empty chart list gracefully")
     void shouldHandleEmptyCharts_When_NoChartsExist() {
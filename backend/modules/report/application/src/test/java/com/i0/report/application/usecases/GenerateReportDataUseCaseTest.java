@@ -6,6 +6,7 @@ import com.i0.report.application.dto.output.ReportDataOutput;
 import com.i0.report.domain.entities.Chart;
 import com.i0.report.domain.entities.Report;
 import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.ReportConfigGraphRepository;
 import com.i0.report.domain.repositories.ReportRepository;
 import com.i0.report.domain.services.FilterMergingService;
 import com.i0.report.domain.services.ReportDataCalculationService;
@@ -24,7 +25,11 @@ import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -46,6 +51,9 @@ class GenerateReportDataUseCaseTest {
     @Mock
     private FilterMergingService filterMergingService;
 
+    @Mock
+    private ReportConfigGraphRepository configGraphRepository;
+
     private GenerateReportDataUseCase generateReportDataUseCase;
     private ObjectMapper objectMapper;
 
@@ -53,7 +61,8 @@ class GenerateReportDataUseCaseTest {
     void setUp() {
         objectMapper = new ObjectMapper();
         generateReportDataUseCase = new GenerateReportDataUseCase(
-            reportRepository, chartRepository, reportDataCalculationService, filterMergingService
+            reportRepository, chartRepository, reportDataCalculationService, filterMergingService,
+            configGraphRepository
         );
     }
 
@@ -164,6 +173,41 @@ class GenerateReportDataUseCaseTest {
         assertTrue(result.getChartData().isEmpty());
     }
 
+    @Test
+    void testExecute_ShouldReadReportConfigFromConfigGraph() {
+        // Given - 配置图中已有报表及其图表
+        String reportId = "graph-report-123";
+
+        Report mockReport = Report.builder()
+                .id(reportId)
+                .name("配置图报表")
+                .enabled(true)
+                .build();
+        Chart mockChart = Chart.builder()
+                .id("chart-graph")
+                .enabled(true)
+                .build();
+
+        when(configGraphRepository.findReport(reportId)).thenReturn(java.util.Optional.of(mockReport));
+        when(configGraphRepository.findReportCharts(reportId)).thenReturn(java.util.Optional.of(List.of(mockChart)));
+        when(reportDataCalculationService.generateChartData(any(Chart.class), any()))
+                .thenReturn(Map.of("chartId", "chart-graph"));
+
+        ReportDataGenerationInput input = ReportDataGenerationInput.builder()
+                .reportId(reportId)
+                .additionalFilters(Collections.emptyList())
+                .build();
+
+        // When
+        ReportDataOutput result = generateReportDataUseCase.execute(input);
+
+        // Then - 不再逐个查询报表和图表
+        assertEquals("配置图报表", result.getReportName());
+        assertEquals(1, result.getChartData().size());
+        verify(reportRepository, never()).findById(anyString());
+        verify(chartRepository, never()).findByReportId(anyString());
+    }
+
     @Test
     void testExecute_ShouldIncludeAdditionalFilters() {
         // Given
@@ -210,4 +254,67 @@ class GenerateReportDataUseCaseTest {
         // 验证服务被调用时传入了正确的过滤条件
         // 这里可以验证FilterMergingService是否被正确调用
     }
-}
\ No newline at end of file
+
+    @Test
+    void testExecute_ShouldServeStoredResultForDefaultView() {
+        // Given - 预热已存储默认视图结果
+        Report mockReport = Report.builder().id("warm-report").name("预热报表").enabled(true).build();
+        ReportDataOutput stored = ReportDataOutput.builder().reportId("warm-report").timestamp(1L).build();
+        when(reportRepository.findById("warm-report")).thenReturn(java.util.Optional.of(mockReport));
+        when(reportRepository.getCachedReportData(mockReport, Collections.emptyList()))
+                .thenReturn(java.util.Optional.of(stored));
+
+        // When
+        ReportDataOutput result = generateReportDataUseCase.execute(ReportDataGenerationInput.builder()
+                .reportId("warm-report")
+                .build());
+
+        // Then - 直接返回存储结果，不再执行图表查询
+        assertSame(stored, result);
+        verify(chartRepository, never()).findByReportId(anyString());
+    }
+
+    @Test
+    void testExecute_ShouldRecomputeAndStoreResult_WhenForceRefresh() {
+        // Given
+        Report mockReport = Report.builder().id("warm-report").name("预热报表").enabled(true).refreshInterval(30).build();
+        when(reportRepository.findById("warm-report")).thenReturn(java.util.Optional.of(mockReport));
+        when(chartRepository.findByReportId("warm-report")).thenReturn(new ArrayList<>());
+
+        // When - 预热调用强制刷新且不计入访问统计
+        ReportDataOutput result = generateReportDataUseCase.execute(ReportDataGenerationInput.builder()
+                .reportId("warm-report")
+                .forceRefresh(true)
+                .trackAccess(false)
+                .build());
+
+        // Then - 结果按报表刷新间隔存储
+        verify(reportRepository, never()).getCachedReportData(any(), any());
+        verify(reportRepository, never()).recordAccess(any(), any(), any());
+        verify(reportRepository).cacheReportData(eq(mockReport), eq(Collections.emptyList()), eq(result), eq(1800L));
+    }
+
+    @Test
+    void testExecute_ShouldNotStoreResult_WhenAnyChartFails() {
+        // Given - 一个图表查询抛出异常，一个图表返回错误信息
+        Report mockReport = Report.builder().id("partial-report").name("部分失败报表").enabled(true).build();
+        Chart failingChart = Chart.builder().id("chart-1").name("失败图表").enabled(true).build();
+        Chart errorChart = Chart.builder().id("chart-2").name("错误图表").enabled(true).build();
+        when(reportRepository.findById("partial-report")).thenReturn(java.util.Optional.of(mockReport));
+        when(chartRepository.findByReportId("partial-report")).thenReturn(List.of(failingChart, errorChart));
+        when(reportDataCalculationService.generateChartData(eq(failingChart), any()))
+                .thenThrow(new IllegalStateException("dataset offline"));
+        when(reportDataCalculationService.generateChartData(eq(errorChart), any()))
+                .thenReturn(Map.of("chartId", "chart-2", "error", "指标不存在"));
+
+        // When
+        ReportDataOutput result = generateReportDataUseCase.execute(ReportDataGenerationInput.builder()
+                .reportId("partial-report")
+                .forceRefresh(true)
+                .build());
+
+        // Then - 返回可用的图表，但部分结果不写入结果存储
+        assertEquals(1, result.getChartData().size());
+        verify(reportRepository, never()).cacheReportData(any(), any(), any(), anyLong());
+    }
+}
@@ -0,0 +1,76 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.domain.exceptions.ReportDomainException;
+import com.i0.report.domain.exceptions.ReportNotFoundException;
+import com.i0.report.domain.repositories.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * GetReportAccessStatsUseCase 测试类
+ * 验证时间范围校验和报表存在性校验
+ */
+@ExtendWith(MockitoExtension.class)
+class GetReportAccessStatsUseCaseTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    private GetReportAccessStatsUseCase getReportAccessStatsUseCase;
+
+    @BeforeEach
+    void setUp() {
+        getReportAccessStatsUseCase = new GetReportAccessStatsUseCase(reportRepository);
+    }
+
+    @Test
+    @DisplayName("Should return rollup stats when report exists")
+    void shouldReturnStats_When_ReportExists() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 7, 23, 0);
+        when(reportRepository.existsById("report-1")).thenReturn(true);
+        when(reportRepository.getAccessStats("report-1", start, end))
+                .thenReturn(Map.of("reportId", "report-1", "totalAccesses", 42L));
+
+        // When
+        Map<String, Object> stats = getReportAccessStatsUseCase.execute("report-1", start, end);
+
+        // Then
+        assertEquals(42L, stats.get("totalAccesses"));
+        verify(reportRepository, never()).recordAccess(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a start date after the end date")
+    void shouldThrow_When_StartAfterEnd() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 8, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        ReportDomainException exception = assertThrows(ReportDomainException.class,
+                () -> getReportAccessStatsUseCase.execute("report-1", start, end));
+        assertEquals("INVALID_TIME_RANGE", exception.getErrorCode());
+        verifyNoInteractions(reportRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw when report does not exist")
+    void shouldThrow_When_ReportNotFound() {
+        when(reportRepository.existsById("missing")).thenReturn(false);
+
+        assertThrows(ReportNotFoundException.class,
+                () -> getReportAccessStatsUseCase.execute("missing", null, null));
+        verify(reportRepository, never()).getAccessStats(any(), any(), any());
+    }
+}
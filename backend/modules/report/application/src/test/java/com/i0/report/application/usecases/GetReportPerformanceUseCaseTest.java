@@ -0,0 +1,94 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.application.dto.output.ReportPerformanceOutput;
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.exceptions.ReportNotFoundException;
+import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.repositories.IndicatorRepository;
+import com.i0.report.domain.repositories.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * GetReportPerformanceUseCase 测试类
+ * 验证图表按耗时排序和数据集统计汇总
+ */
+@ExtendWith(MockitoExtension.class)
+class GetReportPerformanceUseCaseTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private ChartRepository chartRepository;
+
+    @Mock
+    private IndicatorRepository indicatorRepository;
+
+    @Mock
+    private DatasetRepository datasetRepository;
+
+    private GetReportPerformanceUseCase getReportPerformanceUseCase;
+
+    @BeforeEach
+    void setUp() {
+        getReportPerformanceUseCase = new GetReportPerformanceUseCase(
+                reportRepository, chartRepository, indicatorRepository, datasetRepository);
+    }
+
+    @Test
+    @DisplayName("Should order charts by total p95 and collect dataset stats once")
+    void shouldOrderChartsBySlowestTotal_When_StatsRecorded() {
+        // Given
+        Report report = Report.builder().id("report-1").name("Overview").enabled(true).build();
+        Chart fastChart = Chart.builder().id("chart-fast").name("Fast").indicatorId("indicator-1").build();
+        Chart slowChart = Chart.builder().id("chart-slow").name("Slow").indicatorId("indicator-1").build();
+        Indicator indicator = Indicator.builder().id("indicator-1").datasetId("dataset-1").build();
+
+        when(reportRepository.findById("report-1")).thenReturn(Optional.of(report));
+        when(reportRepository.getPerformanceStats("report-1")).thenReturn(Map.of("id", "report-1"));
+        when(chartRepository.findByReportId("report-1")).thenReturn(Arrays.asList(fastChart, slowChart));
+        when(chartRepository.getPerformanceStats("chart-fast")).thenReturn(stageStats(12.5));
+        when(chartRepository.getPerformanceStats("chart-slow")).thenReturn(stageStats(870.0));
+        when(indicatorRepository.findById("indicator-1")).thenReturn(Optional.of(indicator));
+        when(datasetRepository.getPerformanceStats("dataset-1")).thenReturn(Map.of("id", "dataset-1"));
+
+        // When
+        ReportPerformanceOutput output = getReportPerformanceUseCase.execute("report-1");
+
+        // Then
+        assertEquals("report-1", output.getReportId());
+        assertEquals("chart-slow", output.getCharts().get(0).get("chartId"));
+        assertEquals("chart-fast", output.getCharts().get(1).get("chartId"));
+        assertEquals("dataset-1", output.getCharts().get(0).get("datasetId"));
+        assertEquals(1, output.getDatasets().size());
+        verify(datasetRepository, times(1)).getPerformanceStats("dataset-1");
+    }
+
+    @Test
+    @DisplayName("Should throw when report does not exist")
+    void shouldThrow_When_ReportNotFound() {
+        when(reportRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(ReportNotFoundException.class, () -> getReportPerformanceUseCase.execute("missing"));
+        verifyNoInteractions(chartRepository, indicatorRepository, datasetRepository);
+    }
+
+    private static Map<String, Object> stageStats(double totalP95Ms) {
+        return Map.of("stages", Map.of("total", Map.of("count", 10L, "p95Ms", totalP95Ms)));
+    }
+}
@@ -0,0 +1,99 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.exceptions.DatasetNotFoundException;
+import com.i0.report.domain.exceptions.InvalidDatasetQueryException;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.services.FilterMergingService;
+import com.i0.report.domain.valueobjects.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * StreamDatasetRowsUseCase 测试类
+ * 验证在开始输出前完成数据集解析与参数校验
+ */
+@ExtendWith(MockitoExtension.class)
+class StreamDatasetRowsUseCaseTest {
+
+    @Mock
+    private DatasetRepository datasetRepository;
+
+    private StreamDatasetRowsUseCase streamDatasetRowsUseCase;
+
+    private Dataset dataset;
+
+    @BeforeEach
+    void setUp() {
+        streamDatasetRowsUseCase = new StreamDatasetRowsUseCase(datasetRepository, new FilterMergingService());
+        dataset = Dataset.builder()
+                .id("dataset-1")
+                .name("Employees")
+                .sql("SELECT id, name FROM employees")
+                .dataSourceType("mysql")
+                .filters(Collections.singletonList(
+                        Filter.builder().field("status").operator("=").value("active").build()))
+                .enabled(true)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should resolve the dataset up front and stream rows only when emitting")
+    @SuppressWarnings("unchecked")
+    void shouldStreamRows_When_Emitting() {
+        // Given
+        when(datasetRepository.findById("dataset-1")).thenReturn(Optional.of(dataset));
+        when(datasetRepository.streamQuery(eq(dataset), anyList(), eq(100), any())).thenAnswer(invocation -> {
+            Consumer<Map<String, Object>> handler = invocation.getArgument(3);
+            handler.accept(Map.of("id", 1L));
+            handler.accept(Map.of("id", 2L));
+            return 2L;
+        });
+
+        // When
+        StreamDatasetRowsUseCase.DatasetRowStream stream = streamDatasetRowsUseCase.execute("dataset-1", null, 100);
+        verify(datasetRepository, never()).streamQuery(any(), any(), anyInt(), any());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        long count = stream.emitTo(rows::add);
+
+        // Then
+        assertEquals(2L, count);
+        assertEquals(2, rows.size());
+        assertEquals(100, stream.getFetchSize());
+    }
+
+    @Test
+    @DisplayName("Should throw before streaming when the dataset does not exist")
+    void shouldThrow_When_DatasetNotFound() {
+        when(datasetRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(DatasetNotFoundException.class, () -> streamDatasetRowsUseCase.execute("missing", null, null));
+        verify(datasetRepository, never()).streamQuery(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject fetch size above the limit without touching the repository")
+    void shouldRejectFetchSize_When_AboveLimit() {
+        assertThrows(InvalidDatasetQueryException.class, () -> streamDatasetRowsUseCase.execute(
+                "dataset-1", null, StreamDatasetRowsUseCase.MAX_FETCH_SIZE + 1));
+        verifyNoInteractions(datasetRepository);
+    }
+}
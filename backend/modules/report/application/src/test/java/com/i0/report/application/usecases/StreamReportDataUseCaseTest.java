@@ -0,0 +1,248 @@
+package com.i0.report.application.usecases;
+
+import com.i0.report.application.dto.input.ReportDataGenerationInput;
+import com.i0.report.application.dto.output.ReportDataOutput;
+import com.i0.report.application.dto.output.ReportDataStreamEvent;
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.exceptions.ReportNotFoundException;
+import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.ReportConfigGraphRepository;
+import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.domain.services.ReportDataCalculationService;
+import com.i0.report.domain.services.ReportQueryCancellationService.CancellationScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * StreamReportDataUseCase 测试类
+ * 验证事件顺序、图表失败事件、结果存储和输出失败时取消正在执行的图表
+ */
+@ExtendWith(MockitoExtension.class)
+class StreamReportDataUseCaseTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private ChartRepository chartRepository;
+
+    @Mock
+    private ReportDataCalculationService reportDataCalculationService;
+
+    @Mock
+    private ReportConfigGraphRepository configGraphRepository;
+
+    private ExecutorService chartExecutor;
+
+    private RecordingCancellationScope cancellationScope;
+
+    private StreamReportDataUseCase streamReportDataUseCase;
+
+    private Report report;
+    private Chart firstChart;
+    private Chart secondChart;
+
+    @BeforeEach
+    void setUp() {
+        chartExecutor = Executors.newFixedThreadPool(2);
+        cancellationScope = new RecordingCancellationScope();
+        streamReportDataUseCase = new StreamReportDataUseCase(reportRepository, chartRepository,
+                reportDataCalculationService, configGraphRepository, () -> cancellationScope, chartExecutor);
+        report = Report.builder().id("report-1").name("概览").status("published")
+                .enabled(true).refreshInterval(5).build();
+        firstChart = Chart.builder().id("chart-1").name("部门人数").type("bar").enabled(true).build();
+        secondChart = Chart.builder().id("chart-2").name("职级分布").type("pie").enabled(true).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        chartExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("应先输出报表元数据，再输出各图表，最后输出完成事件并存储结果")
+    void shouldEmitReportChartsAndComplete_When_AllChartsSucceed() {
+        // Given
+        when(reportRepository.findById("report-1")).thenReturn(Optional.of(report));
+        when(chartRepository.findByReportId("report-1")).thenReturn(Arrays.asList(firstChart, secondChart));
+        when(reportRepository.getCachedReportData(eq(report), anyList())).thenReturn(Optional.empty());
+        when(reportDataCalculationService.generateChartData(eq(firstChart), anyList())).thenReturn(chartData("chart-1"));
+        when(reportDataCalculationService.generateChartData(eq(secondChart), anyList())).thenReturn(chartData("chart-2"));
+
+        // When
+        List<ReportDataStreamEvent> events = new ArrayList<>();
+        streamReportDataUseCase.execute(input()).emitTo(events::add);
+
+        // Then
+        assertEquals(4, events.size());
+        assertEquals(ReportDataStreamEvent.REPORT, events.get(0).getEvent());
+        assertEquals(2, events.get(0).getCharts().size());
+        assertEquals(ReportDataStreamEvent.CHART, events.get(1).getEvent());
+        assertEquals(ReportDataStreamEvent.CHART, events.get(2).getEvent());
+        ReportDataStreamEvent complete = events.get(3);
+        assertEquals(ReportDataStreamEvent.COMPLETE, complete.getEvent());
+        assertEquals(2, complete.getCompletedCount());
+        assertEquals(0, complete.getFailedCount());
+        assertFalse(complete.getCached());
+        assertTrue(complete.getChartTimings().keySet().containsAll(Arrays.asList("chart-1", "chart-2")));
+
+        // 存储的结果按报表中的图表顺序排列
+        ArgumentCaptor<Object> stored = ArgumentCaptor.forClass(Object.class);
+        verify(reportRepository).cacheReportData(eq(report), anyList(), stored.capture(), eq(300L));
+        ReportDataOutput output = (ReportDataOutput) stored.getValue();
+        assertEquals("chart-1", output.getChartData().get(0).get("chartId"));
+        assertEquals("chart-2", output.getChartData().get(1).get("chartId"));
+    }
+
+    @Test
+    @DisplayName("图表失败时应输出错误事件，且不存储结果")
+    void shouldEmitChartError_When_ChartFails() {
+        // Given
+        when(reportRepository.findById("report-1")).thenReturn(Optional.of(report));
+        when(chartRepository.findByReportId("report-1")).thenReturn(Arrays.asList(firstChart, secondChart));
+        when(reportRepository.getCachedReportData(eq(report), anyList())).thenReturn(Optional.empty());
+        when(reportDataCalculationService.generateChartData(eq(firstChart), anyList())).thenReturn(chartData("chart-1"));
+        when(reportDataCalculationService.generateChartData(eq(secondChart), anyList()))
+                .thenThrow(new IllegalStateException("查询超时"));
+
+        // When
+        List<ReportDataStreamEvent> events = new ArrayList<>();
+        streamReportDataUseCase.execute(input()).emitTo(events::add);
+
+        // Then
+        ReportDataStreamEvent error = events.stream()
+                .filter(event -> ReportDataStreamEvent.CHART_ERROR.equals(event.getEvent()))
+                .findFirst().orElseThrow();
+        assertEquals("chart-2", error.getChartId());
+        assertEquals("查询超时", error.getError());
+        ReportDataStreamEvent complete = events.get(events.size() - 1);
+        assertEquals(ReportDataStreamEvent.COMPLETE, complete.getEvent());
+        assertEquals(1, complete.getCompletedCount());
+        assertEquals(1, complete.getFailedCount());
+        verify(reportRepository, never()).cacheReportData(any(), anyList(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("输出失败时应关闭取消范围，取消仍在执行的图表查询")
+    void shouldCancelRunningCharts_When_EmitFails() throws Exception {
+        // Given
+        when(reportRepository.findById("report-1")).thenReturn(Optional.of(report));
+        when(chartRepository.findByReportId("report-1")).thenReturn(Arrays.asList(firstChart, secondChart));
+        when(reportRepository.getCachedReportData(eq(report), anyList())).thenReturn(Optional.empty());
+        when(reportDataCalculationService.generateChartData(eq(firstChart), anyList())).thenReturn(chartData("chart-1"));
+        when(reportDataCalculationService.generateChartData(eq(secondChart), anyList())).thenAnswer(invocation -> {
+            // 模拟执行中的查询：直到取消范围关闭才返回
+            cancellationScope.closed.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("查询已取消");
+        });
+
+        // When
+        StreamReportDataUseCase.ReportDataStream stream = streamReportDataUseCase.execute(input());
+        RuntimeException disconnected = assertThrows(RuntimeException.class, () -> stream.emitTo(event -> {
+            if (ReportDataStreamEvent.CHART.equals(event.getEvent())) {
+                throw new IllegalStateException("客户端断开");
+            }
+        }));
+
+        // Then
+        assertEquals("客户端断开", disconnected.getMessage());
+        assertEquals(0, cancellationScope.closed.getCount());
+        assertEquals(2, cancellationScope.wrapped);
+        verify(reportRepository, never()).cacheReportData(any(), anyList(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("默认视图已有存储结果时应直接输出，不计算图表")
+    void shouldEmitStoredCharts_When_ResultStored() {
+        // Given
+        ReportDataOutput storedOutput = ReportDataOutput.builder()
+                .reportId("report-1")
+                .chartData(Arrays.asList(chartData("chart-1"), chartData("chart-2")))
+                .build();
+        when(reportRepository.findById("report-1")).thenReturn(Optional.of(report));
+        when(chartRepository.findByReportId("report-1")).thenReturn(Arrays.asList(firstChart, secondChart));
+        when(reportRepository.getCachedReportData(eq(report), anyList())).thenReturn(Optional.of(storedOutput));
+
+        // When
+        List<ReportDataStreamEvent> events = new ArrayList<>();
+        streamReportDataUseCase.execute(input()).emitTo(events::add);
+
+        // Then
+        assertEquals(4, events.size());
+        assertEquals("chart-1", events.get(1).getChartId());
+        assertTrue(events.get(3).getCached());
+        verify(reportDataCalculationService, never()).generateChartData(any(), anyList());
+    }
+
+    @Test
+    @DisplayName("报表不存在时应在开始输出前抛出异常")
+    void shouldThrowBeforeStreaming_When_ReportNotFound() {
+        when(reportRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(ReportNotFoundException.class, () -> streamReportDataUseCase.execute(
+                ReportDataGenerationInput.builder().reportId("missing").build()));
+        verify(reportRepository, never()).recordAccess(anyString(), any(), anyString());
+    }
+
+    private ReportDataGenerationInput input() {
+        return ReportDataGenerationInput.builder()
+                .reportId("report-1")
+                .userId("user-1")
+                .additionalFilters(Collections.emptyList())
+                .build();
+    }
+
+    /**
+     * 记录包装的任务数和是否已关闭的取消范围
+     */
+    private static final class RecordingCancellationScope implements CancellationScope {
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private volatile int wrapped;
+
+        @Override
+        public <T> Callable<T> wrap(Callable<T> task) {
+            wrapped++;
+            return task;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    private static Map<String, Object> chartData(String chartId) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("chartId", chartId);
+        data.put("data", Collections.emptyList());
+        return data;
+    }
+}
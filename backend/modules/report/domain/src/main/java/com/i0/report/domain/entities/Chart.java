@@ -15,7 +15,7 @@ import java.util.Objects;
  * 每个图表绑定一个指标，定义展示类型、维度与样式
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Chart {
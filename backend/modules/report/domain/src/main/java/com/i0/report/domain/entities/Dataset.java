@@ -10,17 +10,28 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 /**
  * 数据集实体
  * 定义 SQL 查询、过滤条件与更新策略
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Dataset {
 
+    /**
+     * 排序键、水位列只允许普通列名，避免拼接到SQL时引入注入
+     */
+    private static final Pattern SORT_KEY_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{0,63}");
+
+    /**
+     * 键集分页的行标识列：排序键不唯一时，以 (排序键, 行标识) 作为游标，避免同值行在翻页时被跳过
+     */
+    public static final String ROW_ID_COLUMN = "id";
+
     /**
      * 数据集唯一标识
      */
@@ -61,6 +72,21 @@ public class Dataset {
      */
     private Integer updateInterval;
 
+    /**
+     * 浏览排序键（单列，用于键集分页，可为空）
+     */
+    private String sortKey;
+
+    /**
+     * 增量水位列（单列，记录行的最后修改时间，如 updated_at，可为空）
+     */
+    private String watermarkColumn;
+
+    /**
+     * 是否可加载为内存立方体（明细数据集，图表聚合由进程内立方体回答）
+     */
+    private Boolean cubeEligible;
+
     /**
      * 是否启用
      */
@@ -74,7 +100,9 @@ public class Dataset {
             && hasValidName()
             && hasValidSql()
             && hasValidDataSourceType()
-            && hasValidUpdateStrategy();
+            && hasValidUpdateStrategy()
+            && hasValidSortKey()
+            && hasValidWatermarkColumn();
     }
 
     /**
@@ -112,6 +140,52 @@ public class Dataset {
         return updateStrategy == null || UpdateStrategy.isValid(updateStrategy);
     }
 
+    /**
+     * 业务方法：检查排序键是否有效（未设置视为有效，设置时必须是合法的列名）
+     */
+    public boolean hasValidSortKey() {
+        return sortKey == null || SORT_KEY_PATTERN.matcher(sortKey).matches();
+    }
+
+    /**
+     * 业务方法：检查是否声明了排序键，可使用键集分页
+     */
+    public boolean hasSortKey() {
+        return sortKey != null && !sortKey.trim().isEmpty() && hasValidSortKey();
+    }
+
+    /**
+     * 业务方法：检查排序键本身是否为行标识列，此时键集游标只需排序键一列
+     */
+    public boolean isSortKeyRowId() {
+        return hasSortKey() && ROW_ID_COLUMN.equalsIgnoreCase(sortKey.trim());
+    }
+
+    /**
+     * 业务方法：检查水位列是否有效（未设置视为有效，设置时必须是合法的列名）
+     */
+    public boolean hasValidWatermarkColumn() {
+        return watermarkColumn == null || SORT_KEY_PATTERN.matcher(watermarkColumn).matches();
+    }
+
+    /**
+     * 业务方法：检查是否支持增量维护指标
+     * 需要实时更新策略、唯一的排序键（作为行标识）和水位列
+     */
+    public boolean supportsIncrementalRefresh() {
+        boolean realTime = updateStrategy == null || isRealTimeUpdate();
+        boolean hasWatermark = watermarkColumn != null && !watermarkColumn.trim().isEmpty() && hasValidWatermarkColumn();
+        return realTime && hasSortKey() && hasWatermark;
+    }
+
+    /**
+     * 业务方法：检查是否可由内存立方体执行聚合
+     * 立方体需要数据集返回明细行，自身已分组的数据集不适用
+     */
+    public boolean isCubeEligible() {
+        return Boolean.TRUE.equals(cubeEligible) && sql != null && !sql.toUpperCase().contains("GROUP BY");
+    }
+
     /**
      * 业务方法：添加过滤条件
      */
@@ -274,6 +348,7 @@ public class Dataset {
                 ", description='" + description + '\'' +
                 ", dataSourceType='" + dataSourceType + '\'' +
                 ", updateStrategy='" + updateStrategy + '\'' +
+                ", sortKey='" + sortKey + '\'' +
                 ", enabled=" + enabled +
                 '}';
     }
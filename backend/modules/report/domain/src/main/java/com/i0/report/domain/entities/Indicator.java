@@ -15,7 +15,7 @@ import java.util.Objects;
  * 定义业务指标计算逻辑，引用 Dataset 并指定聚合方式
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Indicator {
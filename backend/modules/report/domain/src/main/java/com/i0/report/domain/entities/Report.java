@@ -15,7 +15,7 @@ import java.util.Objects;
  * 聚合多个 Chart，并管理布局、过滤、刷新周期
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Report {
@@ -278,6 +278,13 @@ public class Report {
         return enabled && refreshInterval != null && refreshInterval > 0;
     }
 
+    /**
+     * 业务方法：计算结果保留时间（秒），按刷新间隔，未配置时返回0，由仓储使用默认值
+     */
+    public long resultTtlSeconds() {
+        return refreshInterval != null && refreshInterval > 0 ? refreshInterval * 60L : 0L;
+    }
+
     /**
      * 业务方法：启用报表
      */
@@ -0,0 +1,11 @@
+package com.i0.report.domain.exceptions;
+
+/**
+ * 数据集查询参数无效异常
+ */
+public class InvalidDatasetQueryException extends ReportDomainException {
+
+    public InvalidDatasetQueryException(String message) {
+        super("INVALID_DATASET_QUERY", message);
+    }
+}
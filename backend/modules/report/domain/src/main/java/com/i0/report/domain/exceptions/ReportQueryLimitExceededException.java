@@ -0,0 +1,46 @@
+package com.i0.report.domain.exceptions;
+
+/**
+ * 报表查询超出执行限制异常
+ * 查询超时、返回行数超限、物化结果过大或被取消时抛出，错误码区分具体的限制类型
+ */
+public class ReportQueryLimitExceededException extends ReportDomainException {
+
+    public static final String QUERY_TIMEOUT = "QUERY_TIMEOUT";
+    public static final String QUERY_ROW_LIMIT_EXCEEDED = "QUERY_ROW_LIMIT_EXCEEDED";
+    public static final String QUERY_RESULT_TOO_LARGE = "QUERY_RESULT_TOO_LARGE";
+    public static final String QUERY_CANCELLED = "QUERY_CANCELLED";
+
+    /**
+     * 被突破的限制值（秒、行数或字节数），取消时为空
+     */
+    private final Long limit;
+
+    private ReportQueryLimitExceededException(String errorCode, String message, Long limit, Throwable cause) {
+        super(errorCode, message, cause);
+        this.limit = limit;
+    }
+
+    public static ReportQueryLimitExceededException timeout(long timeoutSeconds, Throwable cause) {
+        return new ReportQueryLimitExceededException(QUERY_TIMEOUT,
+                "查询执行超时，超过 " + timeoutSeconds + " 秒限制", timeoutSeconds, cause);
+    }
+
+    public static ReportQueryLimitExceededException rowLimitExceeded(long maxRows) {
+        return new ReportQueryLimitExceededException(QUERY_ROW_LIMIT_EXCEEDED,
+                "查询返回行数超过 " + maxRows + " 行限制，请增加过滤条件", maxRows, null);
+    }
+
+    public static ReportQueryLimitExceededException resultTooLarge(long maxResultBytes) {
+        return new ReportQueryLimitExceededException(QUERY_RESULT_TOO_LARGE,
+                "查询结果大小超过 " + maxResultBytes + " 字节限制，请增加过滤条件", maxResultBytes, null);
+    }
+
+    public static ReportQueryLimitExceededException cancelled(Throwable cause) {
+        return new ReportQueryLimitExceededException(QUERY_CANCELLED, "查询已取消", null, cause);
+    }
+
+    public Long getLimit() {
+        return limit;
+    }
+}
@@ -1,10 +1,16 @@
 package com.i0.report.domain.repositories;
 
 import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.DatasetField;
+import com.i0.report.domain.valueobjects.DatasetKeysetPage;
 import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.domain.valueobjects.FusedChartQuery;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 数据集仓储接口
@@ -12,6 +18,11 @@ import java.util.Optional;
  */
 public interface DatasetRepository {
 
+    /**
+     * 标记行是否满足过滤条件的列名，见 {@link #executeFilterFlaggedQuery}
+     */
+    String FILTER_MATCHED_COLUMN = "filter_matched";
+
     /**
      * 保存数据集
      *
@@ -99,6 +110,42 @@ public interface DatasetRepository {
      */
     List<Object> executeQueryWithSql(String sql, List<Filter> filters);
 
+    /**
+     * 使用指定SQL执行查询并返回列式结果（图表数据计算使用）
+     * 按数据集的执行限制（超时、最大行数、最大结果大小）执行，超出限制时抛出
+     * {@link com.i0.report.domain.exceptions.ReportQueryLimitExceededException}
+     *
+     * @param dataset 查询所属的数据集，用于确定执行限制
+     * @param sql 完整的SQL语句，图表SQL以数据集基础SQL为子查询
+     * @param filters 额外的过滤条件，作用于数据集基础SQL的明细行（聚合之前）
+     * @return 列式查询结果
+     */
+    ColumnarResultSet executeColumnarQuery(Dataset dataset, String sql, List<Filter> filters);
+
+    /**
+     * 使用指定SQL执行查询并返回列式结果，过滤条件不用于筛选行，而是标记在每一行上，最多返回 maxRows 行
+     * 数据集基础SQL增加 {@link #FILTER_MATCHED_COLUMN} 列，行满足全部过滤条件时为1，否则为0；
+     * 调用方SQL须以数据集基础SQL为子查询，可引用该列判断行是否满足过滤条件，或按该列自行筛选。
+     * 调用方可多取一行判断结果是否超出自身上限，而不必读取全部行
+     *
+     * @param dataset 查询所属的数据集，用于确定执行限制和SQL方言
+     * @param sql 完整的SQL语句，以数据集基础SQL为子查询
+     * @param filters 用于标记行的过滤条件
+     * @param maxRows 最多返回的行数
+     * @return 列式查询结果
+     */
+    ColumnarResultSet executeFilterFlaggedQuery(Dataset dataset, String sql, List<Filter> filters, int maxRows);
+
+    /**
+     * 执行合并图表查询（一次扫描数据集，按图表拆分结果）
+     * 按数据集的执行限制执行，超出限制时抛出
+     * {@link com.i0.report.domain.exceptions.ReportQueryLimitExceededException}
+     *
+     * @param query 合并图表查询
+     * @return 图表ID到该图表列式结果的映射，每个结果包含 calculated_value 和 dimension_field 两列
+     */
+    Map<String, ColumnarResultSet> executeFusedQuery(FusedChartQuery query);
+
     /**
      * 执行数据集SQL查询（带分页）
      *
@@ -115,6 +162,32 @@ public interface DatasetRepository {
         int size
     );
 
+    /**
+     * 执行数据集SQL查询（键集分页）
+     * 要求数据集声明排序键，按 (排序键, 行标识) 升序返回游标之后的一页数据；
+     * 排序键不唯一时同值行按行标识继续排序，翻页不会跳过或重复
+     *
+     * @param dataset 数据集实体
+     * @param filters 额外的过滤条件
+     * @param afterKey 上一页最后一行的排序键值，为空时从第一行开始
+     * @param afterId 上一页最后一行的行标识值，排序键即行标识时为空
+     * @param size 页面大小
+     * @return 键集分页结果
+     */
+    DatasetKeysetPage executeQueryWithKeyset(Dataset dataset, List<Filter> filters, Object afterKey, Object afterId, int size);
+
+    /**
+     * 流式执行数据集SQL查询
+     * 结果按批次从数据库读取并逐行交给处理器，不在内存中保留完整结果
+     *
+     * @param dataset 数据集实体
+     * @param filters 额外的过滤条件
+     * @param fetchSize 每批从数据库读取的行数
+     * @param rowHandler 行处理器，每行数据只在回调期间有效
+     * @return 读取的总行数
+     */
+    long streamQuery(Dataset dataset, List<Filter> filters, int fetchSize, Consumer<Map<String, Object>> rowHandler);
+
     /**
      * 删除数据集
      *
@@ -184,6 +257,22 @@ public interface DatasetRepository {
      */
     List<String> getDatasetFields(Dataset dataset);
 
+    /**
+     * 获取数据集的字段元数据（按数据集SQL版本缓存）
+     *
+     * @param dataset 数据集实体
+     * @return 字段元数据列表，顺序与SQL结果列一致
+     */
+    List<DatasetField> getDatasetFieldMetadata(Dataset dataset);
+
+    /**
+     * 获取数据集查询的性能统计信息（SQL执行耗时分位数和返回行数分布）
+     *
+     * @param datasetId 数据集ID
+     * @return 性能统计
+     */
+    Map<String, Object> getPerformanceStats(String datasetId);
+
     /**
      * 批量保存数据集
      *
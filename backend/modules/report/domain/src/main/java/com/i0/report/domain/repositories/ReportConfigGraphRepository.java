@@ -0,0 +1,81 @@
+package com.i0.report.domain.repositories;
+
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.valueobjects.ReportConfigGraph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 报表配置图仓储接口
+ * 从内存中的配置图快照读取报表配置，快照在任意报表、图表、指标或数据集保存、删除后失效并在下次读取时批量重新加载；
+ * 查找不到时返回空，由调用方回退到对应仓储
+ */
+public interface ReportConfigGraphRepository {
+
+    /**
+     * 获取当前配置图，失效时重新加载
+     *
+     * @return 配置图快照
+     */
+    ReportConfigGraph current();
+
+    /**
+     * 使配置图失效
+     */
+    void invalidate();
+
+    /**
+     * 根据ID查找报表
+     *
+     * @param reportId 报表ID
+     * @return 报表实体
+     */
+    default Optional<Report> findReport(String reportId) {
+        return current().findReport(reportId);
+    }
+
+    /**
+     * 查找报表中启用的图表
+     *
+     * @param reportId 报表ID
+     * @return 图表列表，报表不在配置图中时返回空
+     */
+    default Optional<List<Chart>> findReportCharts(String reportId) {
+        return current().findReportCharts(reportId);
+    }
+
+    /**
+     * 获取解析后的图表配置
+     *
+     * @param chartId 图表ID
+     * @return 图表配置
+     */
+    default Optional<Map<String, Object>> findChartConfig(String chartId) {
+        return current().findChartConfig(chartId);
+    }
+
+    /**
+     * 根据ID查找指标
+     *
+     * @param indicatorId 指标ID
+     * @return 指标实体
+     */
+    default Optional<Indicator> findIndicator(String indicatorId) {
+        return current().findIndicator(indicatorId);
+    }
+
+    /**
+     * 根据ID查找数据集
+     *
+     * @param datasetId 数据集ID
+     * @return 数据集实体
+     */
+    default Optional<Dataset> findDataset(String datasetId) {
+        return current().findDataset(datasetId);
+    }
+}
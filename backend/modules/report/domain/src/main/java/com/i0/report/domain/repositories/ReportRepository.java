@@ -248,7 +248,7 @@ public interface ReportRepository {
      * @param report 报表实体
      * @param filters 过滤条件
      * @param data 报表数据
-     * @param ttl 缓存时间（秒）
+     * @param ttl 缓存时间（秒），不大于0时使用默认缓存时间
      */
     void cacheReportData(
         Report report,
@@ -3,9 +3,11 @@ package com.i0.report.domain.services;
 import com.i0.report.domain.entities.Chart;
 import com.i0.report.domain.entities.Indicator;
 import com.i0.report.domain.valueobjects.ChartType;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
 import com.i0.report.domain.valueobjects.IndicatorType;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 图表数据格式化服务
@@ -13,6 +15,11 @@ import java.util.*;
  */
 public class ChartDataFormattingService {
 
+    /**
+     * 预编译格式化器缓存，按图表ID保存最近一次结果结构的格式化器
+     */
+    private final Map<String, CompiledChartFormatter> compiledFormatters = new ConcurrentHashMap<>();
+
     /**
      * 根据图表类型格式化数据
      *
@@ -66,6 +73,62 @@ public class ChartDataFormattingService {
         return formattedData;
     }
 
+    /**
+     * 根据图表类型格式化列式查询结果
+     * 按（图表ID，结果结构）缓存预编译的格式化器，列位置和值类型只解析一次；非直接SQL结果按行视图交由通用格式化处理
+     *
+     * @param chart 图表配置
+     * @param indicator 指标配置
+     * @param resultSet 列式查询结果
+     * @return 格式化后的数据
+     */
+    public Map<String, Object> formatDataByChartType(Chart chart, Indicator indicator, ColumnarResultSet resultSet) {
+        if (!chart.isValid()) {
+            throw new IllegalArgumentException("图表配置无效");
+        }
+        if (!indicator.isValid()) {
+            throw new IllegalArgumentException("指标配置无效");
+        }
+
+        if (!isDirectSqlResult(resultSet)) {
+            return formatDataByChartType(chart, indicator, (Object) resultSet.asRowMaps());
+        }
+
+        return compiledFormatterFor(chart, indicator, resultSet).format(resultSet);
+    }
+
+    /**
+     * 获取图表当前结果结构的格式化器，结构或图表配置变化时重新编译
+     */
+    private CompiledChartFormatter compiledFormatterFor(Chart chart, Indicator indicator, ColumnarResultSet resultSet) {
+        String signature = CompiledChartFormatter.signatureOf(chart, indicator, resultSet);
+        CompiledChartFormatter formatter = compiledFormatters.get(chart.getId());
+        if (formatter == null || !formatter.matches(signature)) {
+            formatter = CompiledChartFormatter.compile(chart, indicator, resultSet);
+            compiledFormatters.put(chart.getId(), formatter);
+        }
+        return formatter;
+    }
+
+    /**
+     * 判断列式结果是否是直接SQL查询结果（与行结果的判断规则一致）
+     */
+    private boolean isDirectSqlResult(ColumnarResultSet resultSet) {
+        if (resultSet == null || resultSet.isEmpty()) {
+            return false;
+        }
+        if (resultSet.indexOf("dimension_field") >= 0 || resultSet.indexOf("calculated_value") >= 0) {
+            return true;
+        }
+        for (int column = 0; column < resultSet.getColumnCount(); column++) {
+            if (!resultSet.isNull(column, 0)
+                    && (resultSet.isNumeric(column) || resultSet.getValue(column, 0) instanceof Number)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 判断是否是直接SQL查询结果
      */
@@ -207,16 +270,23 @@ public class ChartDataFormattingService {
         return 0;
     }
 
+    /**
+     * 维度是否有显示值转换（其余维度只做空值处理）
+     */
+    static boolean hasDimensionBeautifier(String dimensionField) {
+        return "nationality_id".equals(dimensionField);
+    }
+
     /**
      * 美化维度值显示
      */
-    private String beautifyDimensionValue(String dimensionValue, String dimensionField) {
+    static String beautifyDimensionValue(String dimensionValue, String dimensionField) {
         if (dimensionValue == null || dimensionValue.trim().isEmpty() || "未知".equals(dimensionValue)) {
             return "未知";
         }
 
         // 根据字段类型进行美化
-        if ("nationality_id".equals(dimensionField) && dimensionValue.startsWith("country-")) {
+        if (hasDimensionBeautifier(dimensionField) && dimensionValue.startsWith("country-")) {
             // 国家代码转换
             return convertCountryCode(dimensionValue);
         }
@@ -228,7 +298,7 @@ public class ChartDataFormattingService {
     /**
      * 国家代码转换
      */
-    private String convertCountryCode(String countryCode) {
+    private static String convertCountryCode(String countryCode) {
         switch (countryCode) {
             case "country-cn": return "中国";
             case "country-us": return "美国";
@@ -416,6 +486,13 @@ public class ChartDataFormattingService {
      * 格式化指标值
      */
     private Object formatMetricValue(Object value, String calculation) {
+        return roundMetricValue(value, IndicatorType.isValid(calculation) ? IndicatorType.fromCode(calculation) : null);
+    }
+
+    /**
+     * 按指标类型取整：计数取整，平均值保留两位小数，无法识别的类型原样返回
+     */
+    static Object roundMetricValue(Object value, IndicatorType indicatorType) {
         if (value == null) {
             return 0;
         }
@@ -423,13 +500,10 @@ public class ChartDataFormattingService {
         if (value instanceof Number) {
             double numValue = ((Number) value).doubleValue();
 
-            // 使用值对象进行类型判断和格式化
-            if (!IndicatorType.isValid(calculation)) {
+            if (indicatorType == null) {
                 return numValue;
             }
 
-            IndicatorType indicatorType = IndicatorType.fromCode(calculation);
-
             if (indicatorType.isCountIndicator()) {
                 return Math.round(numValue);
             } else if (indicatorType.getCode().equals("avg")) {
@@ -441,4 +515,4 @@ public class ChartDataFormattingService {
 
         return value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.i0.report.domain.services;
+
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.domain.valueobjects.FusedChartQuery;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 图表查询规划服务
+ * 将使用同一数据集、同一过滤条件的图表分组，合并为一次数据集扫描
+ */
+public class ChartQueryPlanner {
+
+    /**
+     * 每个合并查询最少包含的图表数量，单个图表无需合并
+     */
+    private static final int MIN_BRANCHES_TO_FUSE = 2;
+
+    /**
+     * 规划合并查询
+     *
+     * @param candidates 可合并的图表候选列表（已通过兼容性校验）
+     * @return 合并查询列表，只包含两个及以上图表的分组
+     */
+    public List<FusedChartQuery> plan(List<Candidate> candidates) {
+        List<FusedChartQuery> queries = new ArrayList<>();
+        if (candidates == null || candidates.isEmpty()) {
+            return queries;
+        }
+
+        // 按数据集ID分组，再按过滤条件集合分组，保持图表原有顺序
+        // 过滤条件以AND连接，与顺序无关，顺序不同的相同条件归入同一组
+        Map<String, Map<Set<Filter>, List<Candidate>>> groups = new LinkedHashMap<>();
+        for (Candidate candidate : candidates) {
+            groups.computeIfAbsent(candidate.getDataset().getId(), key -> new LinkedHashMap<>())
+                    .computeIfAbsent(new HashSet<>(candidate.getFilters()), key -> new ArrayList<>())
+                    .add(candidate);
+        }
+
+        for (Map<Set<Filter>, List<Candidate>> datasetGroups : groups.values()) {
+            for (List<Candidate> group : datasetGroups.values()) {
+                if (group.size() < MIN_BRANCHES_TO_FUSE) {
+                    continue;
+                }
+                queries.add(toFusedQuery(group.get(0).getFilters(), group));
+            }
+        }
+
+        return queries;
+    }
+
+    /**
+     * 将一组候选图表转换为合并查询
+     */
+    private FusedChartQuery toFusedQuery(List<Filter> filters, List<Candidate> candidates) {
+        Dataset dataset = candidates.get(0).getDataset();
+        List<FusedChartQuery.Branch> branches = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            branches.add(new FusedChartQuery.Branch(
+                    candidate.getChart().getId(),
+                    candidate.getIndicator().getCalculation(),
+                    candidate.getChart().getDimension()
+            ));
+        }
+        return new FusedChartQuery(dataset.getId(), dataset.getSql(), filters, branches);
+    }
+
+    /**
+     * 合并规划候选：已解析出指标、数据集和合并后过滤条件的图表
+     */
+    public static final class Candidate {
+
+        private final Chart chart;
+        private final Indicator indicator;
+        private final Dataset dataset;
+        private final List<Filter> filters;
+
+        public Candidate(Chart chart, Indicator indicator, Dataset dataset, List<Filter> filters) {
+            this.chart = chart;
+            this.indicator = indicator;
+            this.dataset = dataset;
+            this.filters = filters != null ? new ArrayList<>(filters) : new ArrayList<>();
+        }
+
+        public Chart getChart() {
+            return chart;
+        }
+
+        public Indicator getIndicator() {
+            return indicator;
+        }
+
+        public Dataset getDataset() {
+            return dataset;
+        }
+
+        public List<Filter> getFilters() {
+            return filters;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.i0.report.domain.services;
+
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.valueobjects.ChartType;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.IndicatorType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的图表结果格式化器
+ * 针对一个图表配置和一种结果结构，编译时一次性确定图表类型、维度列、统计值候选列和指标值取整方式，
+ * 格式化时逐行按列位置读取，不再查找列名或判断类型；结果结构或图表配置变化时需重新编译
+ */
+abstract class CompiledChartFormatter {
+
+    private static final String UNKNOWN_DIMENSION = "未知";
+
+    private final String signature;
+
+    private CompiledChartFormatter(String signature) {
+        this.signature = signature;
+    }
+
+    /**
+     * 为图表和结果结构编译格式化器
+     *
+     * @param chart 图表配置
+     * @param indicator 指标配置
+     * @param resultSet 列式查询结果，只使用其列结构
+     * @return 格式化器
+     */
+    static CompiledChartFormatter compile(Chart chart, Indicator indicator, ColumnarResultSet resultSet) {
+        String signature = signatureOf(chart, indicator, resultSet);
+        String chartType = chart.getType();
+        if (!ChartType.isValid(chartType)) {
+            return new PassThroughFormatter(signature, "unknown");
+        }
+        ChartType chartTypeEnum = ChartType.fromCode(chartType);
+        if (chartTypeEnum.isPieChart()) {
+            return new PieFormatter(signature, DimensionReader.resolve(resultSet, chart.getDimension()),
+                    resolveStatisticalColumns(resultSet, indicator.getCalculation()));
+        }
+        if (chartTypeEnum.isBarChart() || chartTypeEnum.isLineChart() || chartTypeEnum.isAreaChart()) {
+            return new XYFormatter(signature, chart.getDimension(), DimensionReader.resolve(resultSet, chart.getDimension()),
+                    resolveStatisticalColumns(resultSet, indicator.getCalculation()));
+        }
+        if (chartTypeEnum.isMetric()) {
+            return new MetricFormatter(signature, indicator.getCalculation(),
+                    resolveStatisticalColumns(resultSet, indicator.getCalculation()));
+        }
+        return new PassThroughFormatter(signature, chartType);
+    }
+
+    /**
+     * 格式化器签名：图表类型、维度、指标计算和结果列结构
+     */
+    static String signatureOf(Chart chart, Indicator indicator, ColumnarResultSet resultSet) {
+        StringBuilder signature = new StringBuilder()
+                .append(chart.getType()).append('\u0001')
+                .append(chart.getDimension()).append('\u0001')
+                .append(indicator.getCalculation());
+        for (int column = 0; column < resultSet.getColumnCount(); column++) {
+            signature.append('\u0001').append(resultSet.getColumnName(column))
+                    .append(':').append(resultSet.getColumnType(column));
+        }
+        return signature.toString();
+    }
+
+    boolean matches(String signature) {
+        return this.signature.equals(signature);
+    }
+
+    /**
+     * 格式化结果，结果结构必须与编译时一致
+     */
+    abstract Map<String, Object> format(ColumnarResultSet resultSet);
+
+    /**
+     * 解析统计值候选列：指标计算同名列、calculated_value 列、其余数值列
+     */
+    private static int[] resolveStatisticalColumns(ColumnarResultSet resultSet, String indicatorCalculation) {
+        if (indicatorCalculation == null || indicatorCalculation.trim().isEmpty()) {
+            return new int[0];
+        }
+        List<Integer> columns = new ArrayList<>();
+        int calculationColumn = resultSet.indexOf(indicatorCalculation);
+        if (calculationColumn >= 0) {
+            columns.add(calculationColumn);
+        }
+        int calculatedValueColumn = resultSet.indexOf("calculated_value");
+        if (calculatedValueColumn >= 0) {
+            columns.add(calculatedValueColumn);
+        }
+        for (int column = 0; column < resultSet.getColumnCount(); column++) {
+            if (resultSet.isNumeric(column)) {
+                columns.add(column);
+            }
+        }
+        return columns.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 从候选列中提取单行的统计值，取第一个非空值
+     */
+    private static Object statisticalValue(ColumnarResultSet resultSet, int[] candidateColumns, int row) {
+        for (int column : candidateColumns) {
+            if (!resultSet.isNull(column, row)) {
+                return resultSet.getValue(column, row);
+            }
+        }
+        return 0;
+    }
+
+    private static List<Object> statisticalValues(ColumnarResultSet resultSet, int[] candidateColumns) {
+        int rowCount = resultSet.getRowCount();
+        List<Object> values = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            values.add(statisticalValue(resultSet, candidateColumns, row));
+        }
+        return values;
+    }
+
+    /**
+     * 维度值读取：维度列优先，空值时回退到 dimension_field 列；只有需要转换的维度才缓存美化结果
+     */
+    private static final class DimensionReader {
+
+        private final boolean configured;
+        private final String dimensionField;
+        private final int dimensionColumn;
+        private final int fallbackColumn;
+        private final boolean beautified;
+
+        private DimensionReader(String dimensionField, int dimensionColumn, int fallbackColumn) {
+            this.configured = dimensionField != null && !dimensionField.trim().isEmpty();
+            this.dimensionField = dimensionField;
+            this.dimensionColumn = dimensionColumn;
+            this.fallbackColumn = fallbackColumn;
+            this.beautified = ChartDataFormattingService.hasDimensionBeautifier(dimensionField);
+        }
+
+        private static DimensionReader resolve(ColumnarResultSet resultSet, String dimensionField) {
+            return new DimensionReader(dimensionField, resultSet.indexOf(dimensionField), resultSet.indexOf("dimension_field"));
+        }
+
+        private List<String> read(ColumnarResultSet resultSet) {
+            int rowCount = resultSet.getRowCount();
+            List<String> values = new ArrayList<>(rowCount);
+            if (!configured) {
+                for (int row = 0; row < rowCount; row++) {
+                    values.add(UNKNOWN_DIMENSION);
+                }
+                return values;
+            }
+            Map<String, String> beautifiedValues = beautified ? new HashMap<>() : null;
+            for (int row = 0; row < rowCount; row++) {
+                String rawValue = null;
+                if (dimensionColumn >= 0 && !resultSet.isNull(dimensionColumn, row)) {
+                    rawValue = resultSet.getString(dimensionColumn, row);
+                } else if (fallbackColumn >= 0 && !resultSet.isNull(fallbackColumn, row)) {
+                    rawValue = resultSet.getString(fallbackColumn, row);
+                }
+                if (rawValue == null || rawValue.trim().isEmpty()) {
+                    values.add(UNKNOWN_DIMENSION);
+                } else if (beautified) {
+                    values.add(beautifiedValues.computeIfAbsent(rawValue,
+                            value -> ChartDataFormattingService.beautifyDimensionValue(value, dimensionField)));
+                } else {
+                    values.add(rawValue);
+                }
+            }
+            return values;
+        }
+    }
+
+    /**
+     * 饼图：每行一个 {name, value}
+     */
+    private static final class PieFormatter extends CompiledChartFormatter {
+
+        private final DimensionReader dimension;
+        private final int[] statisticalColumns;
+
+        private PieFormatter(String signature, DimensionReader dimension, int[] statisticalColumns) {
+            super(signature);
+            this.dimension = dimension;
+            this.statisticalColumns = statisticalColumns;
+        }
+
+        @Override
+        Map<String, Object> format(ColumnarResultSet resultSet) {
+            List<String> names = dimension.read(resultSet);
+            List<Map<String, Object>> pieData = new ArrayList<>(names.size());
+            for (int row = 0; row < names.size(); row++) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("name", names.get(row));
+                item.put("value", statisticalValue(resultSet, statisticalColumns, row));
+                pieData.add(item);
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("type", "pie");
+            result.put("data", pieData);
+            return result;
+        }
+    }
+
+    /**
+     * 柱状图、折线图、面积图：维度列为X轴，统计值为Y轴
+     */
+    private static final class XYFormatter extends CompiledChartFormatter {
+
+        private final String xAxisName;
+        private final DimensionReader dimension;
+        private final int[] statisticalColumns;
+
+        private XYFormatter(String signature, String dimensionField, DimensionReader dimension, int[] statisticalColumns) {
+            super(signature);
+            this.xAxisName = dimensionField != null ? dimensionField : "维度";
+            this.dimension = dimension;
+            this.statisticalColumns = statisticalColumns;
+        }
+
+        @Override
+        Map<String, Object> format(ColumnarResultSet resultSet) {
+            Map<String, Object> chartData = new HashMap<>();
+            chartData.put("xAxis", dimension.read(resultSet));
+            chartData.put("yAxis", statisticalValues(resultSet, statisticalColumns));
+            Map<String, Object> result = new HashMap<>();
+            result.put("type", "xy");
+            result.put("xAxis", xAxisName);
+            result.put("data", chartData);
+            return result;
+        }
+    }
+
+    /**
+     * 指标卡：取首行统计值，按指标类型取整
+     */
+    private static final class MetricFormatter extends CompiledChartFormatter {
+
+        private final String calculation;
+        private final int[] statisticalColumns;
+        private final IndicatorType indicatorType;
+
+        private MetricFormatter(String signature, String calculation, int[] statisticalColumns) {
+            super(signature);
+            this.calculation = calculation;
+            this.statisticalColumns = statisticalColumns;
+            this.indicatorType = IndicatorType.isValid(calculation) ? IndicatorType.fromCode(calculation) : null;
+        }
+
+        @Override
+        Map<String, Object> format(ColumnarResultSet resultSet) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("type", "metric");
+            result.put("calculation", calculation);
+            result.put("value", resultSet.isEmpty()
+                    ? 0
+                    : ChartDataFormattingService.roundMetricValue(
+                            statisticalValue(resultSet, statisticalColumns, 0), indicatorType));
+            return result;
+        }
+    }
+
+    /**
+     * 表格及无法识别的图表类型：原样输出行数据
+     */
+    private static final class PassThroughFormatter extends CompiledChartFormatter {
+
+        private final String type;
+
+        private PassThroughFormatter(String signature, String type) {
+            super(signature);
+            this.type = type;
+        }
+
+        @Override
+        Map<String, Object> format(ColumnarResultSet resultSet) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("type", type);
+            result.put("data", resultSet.asRowMaps());
+            return result;
+        }
+    }
+}
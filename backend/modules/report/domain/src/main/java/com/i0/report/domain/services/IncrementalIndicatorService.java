@@ -0,0 +1,534 @@
+package com.i0.report.domain.services;
+
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.exceptions.ReportQueryLimitExceededException;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.DecomposableAggregate;
+import com.i0.report.domain.valueobjects.Filter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 指标增量计算服务
+ * 针对实时更新的数据集，按维度保存可分解聚合（COUNT、SUM、AVG、MIN/MAX）的部分结果，
+ * 每次请求只读取水位之后变化的行并替换这些行的贡献，而不是重新聚合全表；
+ * 指标不可分解、数据集未声明行标识和水位列、或状态超出上限时返回空，由调用方执行全量聚合
+ *
+ * 行标识使用数据集排序键，水位列记录行的最后修改时间；
+ * 变化行不按过滤条件筛选，而是标记是否满足过滤条件，修改后不再满足条件的行撤销其贡献；
+ * 被删除的行不会出现在变化行中，只在定期全量重载时生效
+ */
+@Slf4j
+public class IncrementalIndicatorService {
+
+    static final DateTimeFormatter WATERMARK_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String NOT_APPLICABLE_DIMENSION = "'N/A'";
+    private static final Object NULL_DIMENSION = new Object();
+
+    private final DatasetRepository datasetRepository;
+    private final int maxTrackedRows;
+    private final Duration watermarkLookback;
+    private final Duration fullReloadInterval;
+    private final Map<String, AggregateState> states;
+
+    public IncrementalIndicatorService(DatasetRepository datasetRepository) {
+        this(datasetRepository, 100_000, 64, Duration.ofSeconds(60), Duration.ofMinutes(10));
+    }
+
+    /**
+     * @param datasetRepository 数据集仓储
+     * @param maxTrackedRows 单个聚合状态最多跟踪的行数，超出后该指标回退为全量聚合；应不大于查询最大行数
+     * @param maxStates 最多保留的聚合状态数（按图表维度和过滤条件区分），超出后淘汰最久未使用的状态
+     * @param watermarkLookback 读取变化行时水位向前回看的时间，覆盖提交晚于修改时间的事务和时钟偏差
+     * @param fullReloadInterval 全量重载间隔，用于校正删除的行和浮点累计误差
+     */
+    public IncrementalIndicatorService(DatasetRepository datasetRepository,
+                                       int maxTrackedRows,
+                                       int maxStates,
+                                       Duration watermarkLookback,
+                                       Duration fullReloadInterval) {
+        this.datasetRepository = datasetRepository;
+        this.maxTrackedRows = maxTrackedRows;
+        this.watermarkLookback = watermarkLookback;
+        this.fullReloadInterval = fullReloadInterval;
+        this.states = Collections.synchronizedMap(new LinkedHashMap<String, AggregateState>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AggregateState> eldest) {
+                return size() > maxStates;
+            }
+        });
+    }
+
+    /**
+     * 判断指标能否在数据集上增量计算
+     */
+    public boolean supports(Dataset dataset, Indicator indicator) {
+        return dataset.supportsIncrementalRefresh() && DecomposableAggregate.parse(indicator.getCalculation()).isPresent();
+    }
+
+    /**
+     * 增量计算按维度分组的指标值
+     *
+     * @param dataset 数据集
+     * @param indicator 指标
+     * @param dimension 维度字段，为空时整体聚合为一行
+     * @param filters 合并后的过滤条件
+     * @return 列为 calculated_value、dimension_field 的结果，与全量聚合SQL一致；无法增量计算时返回空
+     */
+    public Optional<ColumnarResultSet> compute(Dataset dataset, Indicator indicator, String dimension, List<Filter> filters) {
+        if (!dataset.supportsIncrementalRefresh()) {
+            return Optional.empty();
+        }
+        Optional<DecomposableAggregate> aggregate = DecomposableAggregate.parse(indicator.getCalculation());
+        if (aggregate.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String key = stateKey(dataset, indicator, dimension, filters);
+        boolean singleGroup = dimension == null || dimension.trim().isEmpty();
+        AggregateState state = states.computeIfAbsent(key, k -> new AggregateState(aggregate.get(), singleGroup));
+        synchronized (state) {
+            LocalDateTime now = LocalDateTime.now();
+            if (state.disabledUntil != null && now.isBefore(state.disabledUntil)) {
+                return Optional.empty();
+            }
+            try {
+                if (state.lastFullLoadAt == null || !now.isBefore(state.lastFullLoadAt.plus(fullReloadInterval))) {
+                    fullLoad(state, dataset, dimension, filters, now);
+                } else {
+                    applyChanges(state, dataset, dimension, filters, now);
+                }
+                if (state.rows.size() > maxTrackedRows) {
+                    log.info("增量状态超出跟踪行数上限，指标回退为全量聚合: indicatorId={}, rows={}",
+                            indicator.getId(), state.rows.size());
+                    state.disable(now.plus(fullReloadInterval));
+                    return Optional.empty();
+                }
+                return Optional.of(state.toResultSet());
+            } catch (ReportQueryLimitExceededException e) {
+                if (ReportQueryLimitExceededException.QUERY_CANCELLED.equals(e.getErrorCode())) {
+                    state.reset();
+                    throw e;
+                }
+                log.info("增量读取超出执行限制，指标回退为全量聚合: indicatorId={}, code={}", indicator.getId(), e.getErrorCode());
+                state.disable(now.plus(fullReloadInterval));
+                return Optional.empty();
+            } catch (RuntimeException e) {
+                log.warn("增量计算失败，指标回退为全量聚合: indicatorId={}, error={}", indicator.getId(), e.getMessage());
+                state.disable(now.plus(fullReloadInterval));
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * 读取全部行，重建聚合状态
+     */
+    private void fullLoad(AggregateState state, Dataset dataset, String dimension, List<Filter> filters, LocalDateTime now) {
+        ColumnarResultSet rows = queryRows(dataset, buildRowSql(dataset, state.aggregate, dimension, null), filters);
+        state.reset();
+        state.dimensionType = rows.getColumnType(rows.indexOf("dimension_field"));
+        applyRows(state, rows);
+        state.lastFullLoadAt = now;
+        if (state.watermark == null) {
+            state.watermark = now;
+        }
+        log.debug("增量状态全量加载: datasetId={}, aggregate={}, rows={}, groups={}",
+                dataset.getId(), state.aggregate, state.rows.size(), state.groups.size());
+    }
+
+    /**
+     * 读取水位之后变化的行并替换其贡献
+     * MIN/MAX 遇到已跟踪的行被修改时无法撤销贡献，改为全量重载
+     */
+    private void applyChanges(AggregateState state, Dataset dataset, String dimension, List<Filter> filters, LocalDateTime now) {
+        LocalDateTime since = state.watermark.minus(watermarkLookback);
+        ColumnarResultSet changed = queryRows(dataset, buildRowSql(dataset, state.aggregate, dimension, since), filters);
+        if (changed.isEmpty()) {
+            return;
+        }
+        // 变化行超出读取上限时结果被截断，无法保证应用了全部变化
+        if (changed.getRowCount() > maxTrackedRows) {
+            log.debug("变化行超出读取上限，执行全量重载: datasetId={}", dataset.getId());
+            fullLoad(state, dataset, dimension, filters, now);
+            return;
+        }
+        if (state.aggregate.requiresInsertOnly() && hasModifiedRows(state, changed)) {
+            log.debug("MIN/MAX指标的已有行被修改，执行全量重载: datasetId={}", dataset.getId());
+            fullLoad(state, dataset, dimension, filters, now);
+            return;
+        }
+        applyRows(state, changed);
+        log.debug("增量状态应用变化行: datasetId={}, aggregate={}, changedRows={}",
+                dataset.getId(), state.aggregate, changed.getRowCount());
+    }
+
+    /**
+     * 最多读取跟踪上限加一行，多出的一行说明超出上限，不必读取全部行
+     */
+    private ColumnarResultSet queryRows(Dataset dataset, String sql, List<Filter> filters) {
+        return datasetRepository.executeFilterFlaggedQuery(dataset, sql, filters, maxTrackedRows + 1);
+    }
+
+    private boolean hasModifiedRows(AggregateState state, ColumnarResultSet changed) {
+        int keyColumn = changed.indexOf("row_key");
+        int matchedColumn = changed.indexOf("row_matched");
+        for (int row = 0; row < changed.getRowCount(); row++) {
+            RowContribution previous = state.rows.get(changed.getValue(keyColumn, row));
+            if (previous != null && (!isMatched(changed, matchedColumn, row)
+                    || !previous.equals(contributionOf(state, changed, row)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 应用读取的行：满足过滤条件的行替换其原有贡献，不再满足条件的已跟踪行撤销贡献
+     */
+    private void applyRows(AggregateState state, ColumnarResultSet rows) {
+        int keyColumn = rows.indexOf("row_key");
+        int matchedColumn = rows.indexOf("row_matched");
+        int watermarkColumn = rows.indexOf("row_watermark");
+        for (int row = 0; row < rows.getRowCount(); row++) {
+            Object rowKey = rows.getValue(keyColumn, row);
+            if (rowKey == null) {
+                throw new IllegalStateException("行标识列存在空值");
+            }
+            RowContribution contribution = isMatched(rows, matchedColumn, row) ? contributionOf(state, rows, row) : null;
+            RowContribution previous = contribution != null ? state.rows.put(rowKey, contribution) : state.rows.remove(rowKey);
+            if (previous != null) {
+                state.remove(previous);
+            }
+            if (contribution != null) {
+                state.add(contribution);
+            }
+
+            LocalDateTime rowWatermark = toLocalDateTime(rows.getValue(watermarkColumn, row));
+            if (rowWatermark != null && (state.watermark == null || rowWatermark.isAfter(state.watermark))) {
+                state.watermark = rowWatermark;
+            }
+        }
+    }
+
+    private static boolean isMatched(ColumnarResultSet rows, int matchedColumn, int row) {
+        Object matched = rows.getValue(matchedColumn, row);
+        if (matched instanceof Boolean) {
+            return (Boolean) matched;
+        }
+        if (matched instanceof Number) {
+            return ((Number) matched).intValue() != 0;
+        }
+        throw new IllegalStateException("过滤条件标记列不是数值类型: " + matched);
+    }
+
+    private RowContribution contributionOf(AggregateState state, ColumnarResultSet rows, int row) {
+        int dimensionColumn = rows.indexOf("dimension_field");
+        int measureColumn = rows.indexOf("measure_value");
+        Object dimensionValue = rows.getValue(dimensionColumn, row);
+        Object dimensionKey = dimensionValue != null ? dimensionValue : NULL_DIMENSION;
+
+        if (rows.isNull(measureColumn, row)) {
+            return new RowContribution(dimensionKey, false, 0L, 0d, true);
+        }
+        if (!rows.isNumeric(measureColumn)) {
+            if (state.aggregate.requiresNumericMeasure()) {
+                throw new IllegalStateException("度量列不是数值类型: " + state.aggregate);
+            }
+            return new RowContribution(dimensionKey, true, 0L, 0d, true);
+        }
+        boolean integral = rows.getColumnType(measureColumn) == ColumnarResultSet.ColumnType.LONG;
+        long longValue = integral ? rows.getLong(measureColumn, row) : 0L;
+        double doubleValue = integral ? longValue : rows.getDouble(measureColumn, row);
+        return new RowContribution(dimensionKey, true, longValue, doubleValue, integral);
+    }
+
+    /**
+     * 构建逐行读取行标识、是否满足过滤条件、维度、度量和水位的SQL
+     * 全量加载只读取满足过滤条件的行；读取变化行时不按过滤条件筛选，以便撤销不再满足条件的行
+     */
+    private String buildRowSql(Dataset dataset, DecomposableAggregate aggregate, String dimension, LocalDateTime since) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(dataset.getSortKey()).append(" AS row_key, ")
+                .append(DatasetRepository.FILTER_MATCHED_COLUMN).append(" AS row_matched, ")
+                .append(dimension != null && !dimension.trim().isEmpty() ? dimension : NOT_APPLICABLE_DIMENSION)
+                .append(" AS dimension_field, ")
+                .append(aggregate.measureExpression()).append(" AS measure_value, ")
+                .append(dataset.getWatermarkColumn()).append(" AS row_watermark FROM (")
+                .append(dataset.getSql()).append(") base_data WHERE ");
+        if (since == null) {
+            sql.append(DatasetRepository.FILTER_MATCHED_COLUMN).append(" = 1");
+        } else {
+            sql.append(dataset.getWatermarkColumn()).append(" >= '")
+                    .append(since.truncatedTo(ChronoUnit.SECONDS).format(WATERMARK_FORMAT)).append('\'');
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 状态键：数据集SQL、指标表达式、维度或过滤条件任一变化都使用新的状态
+     */
+    private static String stateKey(Dataset dataset, Indicator indicator, String dimension, List<Filter> filters) {
+        return String.join("\u0001",
+                dataset.getId(),
+                dataset.getSql(),
+                dataset.getSortKey(),
+                dataset.getWatermarkColumn(),
+                indicator.getCalculation(),
+                String.valueOf(dimension),
+                String.valueOf(filters));
+    }
+
+    static LocalDateTime toLocalDateTime(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toLocalDateTime();
+        }
+        if (value instanceof java.util.Date) {
+            return LocalDateTime.ofInstant(((java.util.Date) value).toInstant(), ZoneId.systemDefault());
+        }
+        if (value instanceof java.time.OffsetDateTime) {
+            return ((java.time.OffsetDateTime) value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+        if (value instanceof java.time.LocalDate) {
+            return ((java.time.LocalDate) value).atStartOfDay();
+        }
+        throw new IllegalStateException("水位列不是日期时间类型: " + value.getClass().getSimpleName());
+    }
+
+    /**
+     * 单行对聚合的贡献
+     */
+    private static final class RowContribution {
+        private final Object dimensionKey;
+        private final boolean hasMeasure;
+        private final long longValue;
+        private final double doubleValue;
+        private final boolean integral;
+
+        private RowContribution(Object dimensionKey, boolean hasMeasure, long longValue, double doubleValue, boolean integral) {
+            this.dimensionKey = dimensionKey;
+            this.hasMeasure = hasMeasure;
+            this.longValue = longValue;
+            this.doubleValue = doubleValue;
+            this.integral = integral;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RowContribution)) {
+                return false;
+            }
+            RowContribution that = (RowContribution) o;
+            return hasMeasure == that.hasMeasure
+                    && longValue == that.longValue
+                    && Double.compare(doubleValue, that.doubleValue) == 0
+                    && dimensionKey.equals(that.dimensionKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dimensionKey, hasMeasure, longValue, doubleValue);
+        }
+    }
+
+    /**
+     * 单个维度值的部分聚合
+     */
+    private static final class GroupPartial {
+        private long rowCount;
+        private long measureCount;
+        private long longSum;
+        private double doubleSum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * 一个图表维度、过滤条件组合下的增量聚合状态
+     */
+    private static final class AggregateState {
+        private final DecomposableAggregate aggregate;
+        private final boolean singleGroup;
+        private final Map<Object, RowContribution> rows = new HashMap<>();
+        private final Map<Object, GroupPartial> groups = new HashMap<>();
+        /**
+         * 度量为非整数的已跟踪行数，为0时SUM/MIN/MAX按整数输出
+         */
+        private long fractionalMeasures;
+        private ColumnarResultSet.ColumnType dimensionType = ColumnarResultSet.ColumnType.STRING;
+        private LocalDateTime watermark;
+        private LocalDateTime lastFullLoadAt;
+        private LocalDateTime disabledUntil;
+
+        private AggregateState(DecomposableAggregate aggregate, boolean singleGroup) {
+            this.aggregate = aggregate;
+            this.singleGroup = singleGroup;
+        }
+
+        private void reset() {
+            rows.clear();
+            groups.clear();
+            fractionalMeasures = 0;
+            watermark = null;
+            lastFullLoadAt = null;
+            disabledUntil = null;
+        }
+
+        private void disable(LocalDateTime until) {
+            reset();
+            disabledUntil = until;
+        }
+
+        private void add(RowContribution contribution) {
+            GroupPartial group = groups.computeIfAbsent(contribution.dimensionKey, k -> new GroupPartial());
+            group.rowCount++;
+            if (contribution.hasMeasure) {
+                group.measureCount++;
+                group.longSum += contribution.longValue;
+                group.doubleSum += contribution.doubleValue;
+                group.min = Math.min(group.min, contribution.doubleValue);
+                group.max = Math.max(group.max, contribution.doubleValue);
+                if (!contribution.integral) {
+                    fractionalMeasures++;
+                }
+            }
+        }
+
+        /**
+         * 撤销一行的贡献（MIN/MAX 不会走到这里）
+         */
+        private void remove(RowContribution contribution) {
+            GroupPartial group = groups.get(contribution.dimensionKey);
+            if (group == null) {
+                return;
+            }
+            group.rowCount--;
+            if (contribution.hasMeasure) {
+                group.measureCount--;
+                group.longSum -= contribution.longValue;
+                group.doubleSum -= contribution.doubleValue;
+                if (!contribution.integral) {
+                    fractionalMeasures--;
+                }
+            }
+            if (group.rowCount <= 0) {
+                groups.remove(contribution.dimensionKey);
+            }
+        }
+
+        private ColumnarResultSet toResultSet() {
+            ColumnarResultSet.ColumnType valueType = valueType();
+            ColumnarResultSet.Builder builder = ColumnarResultSet.builder(
+                    Arrays.asList("calculated_value", "dimension_field"),
+                    Arrays.asList(valueType, dimensionType));
+
+            // 无维度时与全量聚合一致，即使没有数据也输出一行
+            if (singleGroup && groups.isEmpty()) {
+                appendValue(builder, new GroupPartial(), valueType);
+                builder.append(1, "N/A");
+                return builder.build();
+            }
+            for (Object dimensionKey : sortedDimensionKeys()) {
+                GroupPartial group = groups.get(dimensionKey);
+                appendValue(builder, group, valueType);
+                builder.append(1, dimensionKey == NULL_DIMENSION ? null : dimensionKey);
+            }
+            return builder.build();
+        }
+
+        private ColumnarResultSet.ColumnType valueType() {
+            switch (aggregate.getFunction()) {
+                case COUNT:
+                    return ColumnarResultSet.ColumnType.LONG;
+                case AVG:
+                    return ColumnarResultSet.ColumnType.DOUBLE;
+                default:
+                    return fractionalMeasures == 0 ? ColumnarResultSet.ColumnType.LONG : ColumnarResultSet.ColumnType.DOUBLE;
+            }
+        }
+
+        private void appendValue(ColumnarResultSet.Builder builder, GroupPartial group, ColumnarResultSet.ColumnType valueType) {
+            if (aggregate.getFunction() == DecomposableAggregate.Function.COUNT) {
+                builder.appendLong(0, aggregate.countsAllRows() ? group.rowCount : group.measureCount);
+                return;
+            }
+            if (group.measureCount == 0) {
+                builder.appendNull(0);
+                return;
+            }
+            double value;
+            switch (aggregate.getFunction()) {
+                case AVG:
+                    builder.appendDouble(0, group.doubleSum / group.measureCount);
+                    return;
+                case SUM:
+                    if (valueType == ColumnarResultSet.ColumnType.LONG) {
+                        builder.appendLong(0, group.longSum);
+                        return;
+                    }
+                    value = group.doubleSum;
+                    break;
+                case MIN:
+                    value = group.min;
+                    break;
+                default:
+                    value = group.max;
+                    break;
+            }
+            if (valueType == ColumnarResultSet.ColumnType.LONG) {
+                builder.appendLong(0, (long) value);
+            } else {
+                builder.appendDouble(0, value);
+            }
+        }
+
+        /**
+         * 维度值按自然顺序输出，空值排在最后
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private List<Object> sortedDimensionKeys() {
+            List<Object> keys = new ArrayList<>(groups.keySet());
+            keys.sort((left, right) -> {
+                if (left == right) {
+                    return 0;
+                }
+                if (left == NULL_DIMENSION) {
+                    return 1;
+                }
+                if (right == NULL_DIMENSION) {
+                    return -1;
+                }
+                if (left instanceof Comparable && left.getClass() == right.getClass()) {
+                    return ((Comparable) left).compareTo(right);
+                }
+                return String.valueOf(left).compareTo(String.valueOf(right));
+            });
+            return keys;
+        }
+    }
+}
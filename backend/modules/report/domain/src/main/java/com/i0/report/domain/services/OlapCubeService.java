@@ -0,0 +1,292 @@
+package com.i0.report.domain.services;
+
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.exceptions.ReportQueryLimitExceededException;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.DecomposableAggregate;
+import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.domain.valueobjects.OlapCube;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 内存立方体执行服务
+ * 为标记为可立方体化的数据集在进程内维护 {@link OlapCube}，图表的分组、过滤聚合直接由立方体回答，不访问数据库；
+ * 立方体按刷新间隔更新：声明了排序键和水位列的实时数据集只读取变化行，其余数据集整体重新加载。
+ * 加载和刷新在刷新线程池中执行，不占用请求线程：刷新期间请求继续使用当前立方体，
+ * 首次加载完成前、立方体无法回答或加载失败时返回空，由调用方执行SQL
+ */
+@Slf4j
+public class OlapCubeService {
+
+    private final DatasetRepository datasetRepository;
+    private final int maxDimensionCardinality;
+    private final Duration refreshInterval;
+    private final Duration fullRebuildInterval;
+    private final Duration watermarkLookback;
+    private final Executor refreshExecutor;
+    private final Map<String, CubeHolder> holders = new ConcurrentHashMap<>();
+
+    /**
+     * 使用默认配置，在调用线程中加载和刷新立方体
+     */
+    public OlapCubeService(DatasetRepository datasetRepository) {
+        this(datasetRepository, 1024, Duration.ofSeconds(60), Duration.ofMinutes(30), Duration.ofSeconds(60), Runnable::run);
+    }
+
+    /**
+     * @param datasetRepository 数据集仓储
+     * @param maxDimensionCardinality 维度最大基数，超出的列不能用于分组和过滤
+     * @param refreshInterval 刷新间隔，到期后的首个请求在后台触发增量更新或重新加载
+     * @param fullRebuildInterval 增量更新的数据集整体重建间隔，用于移除已删除的行
+     * @param watermarkLookback 读取变化行时水位向前回看的时间
+     * @param refreshExecutor 执行加载和刷新的线程池
+     */
+    public OlapCubeService(DatasetRepository datasetRepository,
+                           int maxDimensionCardinality,
+                           Duration refreshInterval,
+                           Duration fullRebuildInterval,
+                           Duration watermarkLookback,
+                           Executor refreshExecutor) {
+        this.datasetRepository = datasetRepository;
+        this.maxDimensionCardinality = maxDimensionCardinality;
+        this.refreshInterval = refreshInterval;
+        this.fullRebuildInterval = fullRebuildInterval;
+        this.watermarkLookback = watermarkLookback;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * 判断图表指标在语法上能否由立方体回答
+     */
+    public boolean supports(Dataset dataset, Indicator indicator, String dimension) {
+        if (!dataset.isCubeEligible()) {
+            return false;
+        }
+        Optional<DecomposableAggregate> aggregate = DecomposableAggregate.parse(indicator.getCalculation());
+        return aggregate.isPresent() && OlapCube.canAnswer(aggregate.get(), dimension);
+    }
+
+    /**
+     * 由立方体计算按维度分组的指标值
+     *
+     * @param dataset 数据集
+     * @param indicator 指标
+     * @param dimension 维度字段，为空时整体聚合为一行
+     * @param filters 合并后的过滤条件
+     * @return 列为 calculated_value、dimension_field 的结果；立方体不可用或无法回答时返回空
+     */
+    public Optional<ColumnarResultSet> query(Dataset dataset, Indicator indicator, String dimension, List<Filter> filters) {
+        if (!supports(dataset, indicator, dimension)) {
+            return Optional.empty();
+        }
+        OlapCube cube = currentCube(dataset);
+        if (cube == null) {
+            return Optional.empty();
+        }
+        Optional<ColumnarResultSet> result = cube.query(
+                DecomposableAggregate.parse(indicator.getCalculation()).get(), dimension, filters);
+        if (result.isEmpty()) {
+            log.debug("立方体无法回答图表查询，回退到SQL: datasetId={}, indicatorId={}, dimension={}",
+                    dataset.getId(), indicator.getId(), dimension);
+        }
+        return result;
+    }
+
+    /**
+     * 丢弃数据集的立方体，下次查询时重新加载
+     */
+    public void invalidate(String datasetId) {
+        holders.remove(datasetId);
+    }
+
+    /**
+     * 立方体状态：行数、维度基数、内存估算和刷新时间
+     */
+    public List<Map<String, Object>> getCubeStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        holders.forEach((datasetId, holder) -> {
+            OlapCube cube = holder.cube;
+            Map<String, Object> stat = new LinkedHashMap<>();
+            stat.put("datasetId", datasetId);
+            stat.put("loaded", cube != null);
+            stat.put("rows", cube != null ? cube.getRowCount() : 0);
+            stat.put("dimensions", cube != null ? cube.getDimensionCardinalities() : Collections.emptyMap());
+            stat.put("measures", cube != null ? cube.getMeasureNames() : Collections.emptyList());
+            stat.put("estimatedBytes", cube != null ? cube.estimatedSizeInBytes() : 0L);
+            stat.put("builtAt", holder.builtAt);
+            stat.put("refreshedAt", holder.refreshedAt);
+            stat.put("disabledUntil", holder.disabledUntil);
+            stats.add(stat);
+        });
+        return stats;
+    }
+
+    /**
+     * 获取当前立方体，缺失或到期时提交后台刷新
+     * 每个数据集同时只有一个刷新任务，请求线程不等待刷新完成
+     *
+     * @return 当前立方体，首次加载尚未完成或加载失败时返回 null
+     */
+    private OlapCube currentCube(Dataset dataset) {
+        String definition = definitionOf(dataset);
+        CubeHolder holder = holders.compute(dataset.getId(),
+                (id, existing) -> existing != null && existing.definition.equals(definition) ? existing : new CubeHolder(definition));
+        LocalDateTime now = LocalDateTime.now();
+        OlapCube cube = holder.cube;
+        if (cube != null && now.isBefore(holder.refreshedAt.plus(refreshInterval))) {
+            return cube;
+        }
+        if (holder.disabledUntil != null && now.isBefore(holder.disabledUntil)) {
+            return null;
+        }
+        scheduleRefresh(holder, dataset);
+        return holder.cube;
+    }
+
+    private void scheduleRefresh(CubeHolder holder, Dataset dataset) {
+        if (!holder.refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshSafely(holder, dataset);
+                } finally {
+                    holder.refreshPending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            holder.refreshPending.set(false);
+            log.debug("立方体刷新线程池已满，稍后重试: datasetId={}", dataset.getId());
+        }
+    }
+
+    private void refreshSafely(CubeHolder holder, Dataset dataset) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            refresh(holder, dataset, now);
+        } catch (ReportQueryLimitExceededException e) {
+            log.info("立方体加载超出执行限制，数据集回退到SQL执行: datasetId={}, code={}", dataset.getId(), e.getErrorCode());
+            holder.disable(now.plus(fullRebuildInterval));
+        } catch (RuntimeException e) {
+            log.warn("立方体加载失败，数据集回退到SQL执行: datasetId={}, error={}", dataset.getId(), e.getMessage());
+            holder.disable(now.plus(refreshInterval));
+        }
+    }
+
+    private void refresh(CubeHolder holder, Dataset dataset, LocalDateTime now) {
+        // 排队期间可能已被其他任务刷新
+        if (holder.cube != null && now.isBefore(holder.refreshedAt.plus(refreshInterval))) {
+            return;
+        }
+        boolean incremental = holder.cube != null
+                && holder.watermark != null
+                && dataset.supportsIncrementalRefresh()
+                && now.isBefore(holder.builtAt.plus(fullRebuildInterval));
+        if (incremental && applyChanges(holder, dataset, now)) {
+            return;
+        }
+        rebuild(holder, dataset, now);
+    }
+
+    private void rebuild(CubeHolder holder, Dataset dataset, LocalDateTime now) {
+        long startedAt = System.nanoTime();
+        ColumnarResultSet rows = datasetRepository.executeColumnarQuery(dataset, dataset.getSql(), Collections.emptyList());
+        String rowKey = dataset.supportsIncrementalRefresh() ? dataset.getSortKey() : null;
+        OlapCube cube = OlapCube.load(rows, rowKey, maxDimensionCardinality);
+        holder.watermark = rowKey != null ? maxWatermark(rows, dataset.getWatermarkColumn(), now) : null;
+        holder.builtAt = now;
+        holder.refreshedAt = now;
+        holder.disabledUntil = null;
+        holder.cube = cube;
+        log.info("立方体加载完成: datasetId={}, rows={}, dimensions={}, durationMs={}",
+                dataset.getId(), cube.getRowCount(), cube.getDimensionCardinalities().keySet(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * 读取水位之后变化的行写入立方体
+     *
+     * @return 是否更新成功，失败时由调用方重新加载
+     */
+    private boolean applyChanges(CubeHolder holder, Dataset dataset, LocalDateTime now) {
+        String since = holder.watermark.minus(watermarkLookback)
+                .truncatedTo(ChronoUnit.SECONDS).format(IncrementalIndicatorService.WATERMARK_FORMAT);
+        String sql = "SELECT * FROM (" + dataset.getSql() + ") base_data WHERE "
+                + dataset.getWatermarkColumn() + " >= '" + since + "'";
+        ColumnarResultSet changed = datasetRepository.executeColumnarQuery(dataset, sql, Collections.emptyList());
+        if (!changed.isEmpty() && !holder.cube.upsert(changed)) {
+            log.info("立方体无法应用变化行，重新加载: datasetId={}", dataset.getId());
+            return false;
+        }
+        LocalDateTime changedWatermark = maxWatermark(changed, dataset.getWatermarkColumn(), null);
+        if (changedWatermark != null && changedWatermark.isAfter(holder.watermark)) {
+            holder.watermark = changedWatermark;
+        }
+        holder.refreshedAt = now;
+        log.debug("立方体增量更新: datasetId={}, changedRows={}", dataset.getId(), changed.getRowCount());
+        return true;
+    }
+
+    private static LocalDateTime maxWatermark(ColumnarResultSet rows, String watermarkColumn, LocalDateTime defaultValue) {
+        int column = rows.indexOf(watermarkColumn);
+        if (column < 0) {
+            throw new IllegalStateException("数据集结果中不存在水位列: " + watermarkColumn);
+        }
+        LocalDateTime max = null;
+        for (int row = 0; row < rows.getRowCount(); row++) {
+            LocalDateTime value = IncrementalIndicatorService.toLocalDateTime(rows.getValue(column, row));
+            if (value != null && (max == null || value.isAfter(max))) {
+                max = value;
+            }
+        }
+        return max != null ? max : defaultValue;
+    }
+
+    /**
+     * 立方体定义：数据集SQL或增量配置变化时丢弃旧立方体
+     */
+    private static String definitionOf(Dataset dataset) {
+        return String.join("\u0001", dataset.getSql(),
+                String.valueOf(dataset.getSortKey()), String.valueOf(dataset.getWatermarkColumn()));
+    }
+
+    /**
+     * 单个数据集的立方体及刷新状态
+     */
+    private static final class CubeHolder {
+        private final String definition;
+        private final AtomicBoolean refreshPending = new AtomicBoolean();
+        private volatile OlapCube cube;
+        private volatile LocalDateTime builtAt;
+        private volatile LocalDateTime refreshedAt;
+        private volatile LocalDateTime watermark;
+        private volatile LocalDateTime disabledUntil;
+
+        private CubeHolder(String definition) {
+            this.definition = definition;
+        }
+
+        private void disable(LocalDateTime until) {
+            cube = null;
+            watermark = null;
+            disabledUntil = until;
+        }
+    }
+}
@@ -5,11 +5,16 @@ import com.i0.report.domain.entities.Dataset;
 import com.i0.report.domain.entities.Indicator;
 import com.i0.report.domain.exceptions.DatasetNotFoundException;
 import com.i0.report.domain.exceptions.IndicatorNotFoundException;
+import com.i0.report.domain.exceptions.ReportQueryLimitExceededException;
 import com.i0.report.domain.repositories.DatasetRepository;
 import com.i0.report.domain.repositories.IndicatorRepository;
+import com.i0.report.domain.repositories.ReportConfigGraphRepository;
 import com.i0.report.domain.valueobjects.Filter;
 import com.i0.report.domain.valueobjects.ChartType;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.FusedChartQuery;
 import com.i0.report.domain.valueobjects.IndicatorType;
+import com.i0.report.domain.valueobjects.ReportPipelineStage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -31,6 +36,11 @@ public class ReportDataCalculationService {
     private final DatasetRepository datasetRepository;
     private final ChartDataFormattingService chartDataFormattingService;
     private final FilterMergingService filterMergingService;
+    private final ChartQueryPlanner chartQueryPlanner;
+    private final ReportPipelineMetrics pipelineMetrics;
+    private final IncrementalIndicatorService incrementalIndicatorService;
+    private final OlapCubeService olapCubeService;
+    private final ReportConfigGraphRepository configGraphRepository;
 
     /**
      * 生成单个图表数据
@@ -46,6 +56,7 @@ public class ReportDataCalculationService {
         }
 
         log.info("生成图表数据: chartId={}, chartType={}", chart.getId(), chart.getType());
+        long startedAt = System.nanoTime();
 
         // 1. 获取并验证图表绑定的指标
         Indicator indicator = getAndValidateIndicator(chart.getIndicatorId());
@@ -55,6 +66,9 @@ public class ReportDataCalculationService {
 
         // 3. 验证图表和指标的兼容性
         validateChartIndicatorCompatibility(chart, indicator);
+        long configLoadedAt = System.nanoTime();
+        pipelineMetrics.recordChartStage(ReportPipelineStage.CONFIG_LOAD, chart.getId(), indicator.getId(),
+                configLoadedAt - startedAt);
 
         // 4. 构建包含指标计算的完整SQL
         String enhancedSql = buildEnhancedSql(dataset, indicator, chart);
@@ -66,17 +80,237 @@ public class ReportDataCalculationService {
                 chart.getFilters(),
                 globalFilters
         );
+        long sqlBuiltAt = System.nanoTime();
+        pipelineMetrics.recordChartStage(ReportPipelineStage.SQL_BUILD, chart.getId(), indicator.getId(),
+                sqlBuiltAt - configLoadedAt);
 
-        // 6. 执行增强的数据查询（已包含指标计算）
-        List<Object> calculatedData = datasetRepository.executeQueryWithSql(enhancedSql, allFilters);
+        // 6. 执行增强的数据查询（已包含指标计算），超出执行限制时返回带错误信息的图表响应
+        ColumnarResultSet calculatedData;
+        try {
+            calculatedData = executeIndicatorQuery(dataset, indicator, chart, enhancedSql, allFilters);
+        } catch (ReportQueryLimitExceededException e) {
+            long failedAt = System.nanoTime();
+            pipelineMetrics.recordChartStage(ReportPipelineStage.SQL_EXECUTION, chart.getId(), indicator.getId(),
+                    failedAt - sqlBuiltAt);
+            pipelineMetrics.recordDatasetQuery(dataset.getId(), failedAt - sqlBuiltAt, -1);
+            pipelineMetrics.recordChartStage(ReportPipelineStage.TOTAL, chart.getId(), indicator.getId(),
+                    failedAt - startedAt);
+            log.warn("图表查询超出执行限制: chartId={}, code={}, message={}", chart.getId(), e.getErrorCode(), e.getMessage());
+            return buildChartErrorResponse(chart, indicator, e);
+        }
+        long executedAt = System.nanoTime();
+        pipelineMetrics.recordChartStage(ReportPipelineStage.SQL_EXECUTION, chart.getId(), indicator.getId(),
+                executedAt - sqlBuiltAt);
+        pipelineMetrics.recordDatasetQuery(dataset.getId(), executedAt - sqlBuiltAt, calculatedData.getRowCount());
+        pipelineMetrics.recordChartRows(chart.getId(), calculatedData.getRowCount());
 
         // 7. 根据图表类型格式化数据
         Map<String, Object> formattedData = chartDataFormattingService.formatDataByChartType(chart, indicator, calculatedData);
+        long formattedAt = System.nanoTime();
+        pipelineMetrics.recordChartStage(ReportPipelineStage.FORMATTING, chart.getId(), indicator.getId(),
+                formattedAt - executedAt);
+        pipelineMetrics.recordChartStage(ReportPipelineStage.TOTAL, chart.getId(), indicator.getId(),
+                formattedAt - startedAt);
 
         // 8. 构建完整的图表数据响应
         return buildChartResponse(chart, indicator, formattedData);
     }
 
+    /**
+     * 合并生成多个图表数据
+     * 同一数据集、同一过滤条件下的分组图表合并为一次扫描执行，未能合并的图表不出现在结果中，
+     * 由调用方回退到 {@link #generateChartData(Chart, List)} 逐个生成；
+     * 合并查询超出执行限制时不再回退，该组图表均返回带错误信息的响应
+     *
+     * @param charts 图表配置列表
+     * @param globalFilters 全局过滤条件
+     * @return 图表ID到图表数据响应的映射
+     */
+    public Map<String, Map<String, Object>> generateFusedChartData(List<Chart> charts, List<Filter> globalFilters) {
+        // 图表总耗时从请求开始计算，包含配置解析与合并查询的排队时间
+        long requestStartedAt = System.nanoTime();
+        Map<String, Map<String, Object>> responses = new HashMap<>();
+        if (charts == null || charts.size() < 2) {
+            return responses;
+        }
+
+        // 1. 解析每个图表的指标、数据集和过滤条件，筛选可合并的图表
+        Map<String, ChartQueryPlanner.Candidate> candidatesByChartId = new HashMap<>();
+        List<ChartQueryPlanner.Candidate> candidates = new ArrayList<>();
+        for (Chart chart : charts) {
+            long configStartedAt = System.nanoTime();
+            try {
+                if (!chart.isValid()) {
+                    continue;
+                }
+                Indicator indicator = getAndValidateIndicator(chart.getIndicatorId());
+                Dataset dataset = getAndValidateDataset(indicator.getDatasetId());
+                validateChartIndicatorCompatibility(chart, indicator);
+                if (!isFusable(dataset, indicator, chart)) {
+                    continue;
+                }
+                List<Filter> allFilters = filterMergingService.mergeAllFilters(
+                        dataset.getFilters(),
+                        indicator.getFilters(),
+                        chart.getFilters(),
+                        globalFilters
+                );
+                ChartQueryPlanner.Candidate candidate = new ChartQueryPlanner.Candidate(chart, indicator, dataset, allFilters);
+                candidates.add(candidate);
+                candidatesByChartId.put(chart.getId(), candidate);
+                pipelineMetrics.recordChartStage(ReportPipelineStage.CONFIG_LOAD, chart.getId(), indicator.getId(),
+                        System.nanoTime() - configStartedAt);
+            } catch (Exception e) {
+                // 解析失败的图表交由逐个生成流程处理并记录错误
+                log.debug("图表不参与合并查询: chartId={}, reason={}", chart.getId(), e.getMessage());
+            }
+        }
+
+        // 2. 规划并执行合并查询，按图表拆分结果后格式化
+        for (FusedChartQuery query : chartQueryPlanner.plan(candidates)) {
+            long executionStartedAt = System.nanoTime();
+            try {
+                log.info("执行合并图表查询: datasetId={}, charts={}", query.getDatasetId(), query.getBranchCount());
+                Map<String, ColumnarResultSet> resultsByChart = datasetRepository.executeFusedQuery(query);
+                long executionNanos = System.nanoTime() - executionStartedAt;
+                pipelineMetrics.recordDatasetQuery(query.getDatasetId(), executionNanos,
+                        resultsByChart.values().stream().mapToLong(ColumnarResultSet::getRowCount).sum());
+
+                for (FusedChartQuery.Branch branch : query.getBranches()) {
+                    ChartQueryPlanner.Candidate candidate = candidatesByChartId.get(branch.getChartId());
+                    ColumnarResultSet rows = resultsByChart.getOrDefault(branch.getChartId(), ColumnarResultSet.empty());
+                    String indicatorId = candidate.getIndicator().getId();
+                    // 合并查询的耗时由组内每个图表共同承担
+                    pipelineMetrics.recordChartStage(ReportPipelineStage.SQL_EXECUTION, branch.getChartId(), indicatorId,
+                            executionNanos);
+                    pipelineMetrics.recordChartRows(branch.getChartId(), rows.getRowCount());
+
+                    long formattingStartedAt = System.nanoTime();
+                    Map<String, Object> formattedData = chartDataFormattingService.formatDataByChartType(
+                            candidate.getChart(), candidate.getIndicator(), rows);
+                    long formattedAt = System.nanoTime();
+                    pipelineMetrics.recordChartStage(ReportPipelineStage.FORMATTING, branch.getChartId(), indicatorId,
+                            formattedAt - formattingStartedAt);
+                    pipelineMetrics.recordChartStage(ReportPipelineStage.TOTAL, branch.getChartId(), indicatorId,
+                            formattedAt - requestStartedAt);
+                    responses.put(branch.getChartId(),
+                            buildChartResponse(candidate.getChart(), candidate.getIndicator(), formattedData));
+                }
+            } catch (ReportQueryLimitExceededException e) {
+                pipelineMetrics.recordDatasetQuery(query.getDatasetId(), System.nanoTime() - executionStartedAt, -1);
+                // 逐个查询同样会突破限制，直接为该组图表返回错误
+                log.warn("合并图表查询超出执行限制: datasetId={}, code={}, message={}",
+                        query.getDatasetId(), e.getErrorCode(), e.getMessage());
+                for (FusedChartQuery.Branch branch : query.getBranches()) {
+                    ChartQueryPlanner.Candidate candidate = candidatesByChartId.get(branch.getChartId());
+                    responses.put(branch.getChartId(),
+                            buildChartErrorResponse(candidate.getChart(), candidate.getIndicator(), e));
+                }
+            } catch (Exception e) {
+                log.warn("合并图表查询失败，回退到逐个图表查询: datasetId={}, error={}", query.getDatasetId(), e.getMessage());
+            }
+        }
+
+        return responses;
+    }
+
+    /**
+     * 将已生成的图表数据响应复用到另一个图表
+     * 两个图表的类型、指标、维度和图表过滤条件相同时查询和格式化结果一致，只替换图表自身的元数据
+     *
+     * @param chart 目标图表
+     * @param response 相同查询的图表生成的数据响应
+     * @return 目标图表的数据响应
+     */
+    public Map<String, Object> rebindChartResponse(Chart chart, Map<String, Object> response) {
+        Map<String, Object> rebound = new HashMap<>(response);
+        rebound.put("chartId", chart.getId());
+        rebound.put("chartName", chart.getName());
+        rebound.put("chartTitle", chart.getTitle());
+        rebound.put("config", configGraphRepository.findChartConfig(chart.getId())
+                .orElseGet(() -> parseConfig(chart.getConfig())));
+        return rebound;
+    }
+
+    /**
+     * 执行指标查询
+     * 执行后端依次为：可立方体化数据集的内存立方体、实时数据集上可分解指标的增量状态、完整的聚合SQL
+     */
+    private ColumnarResultSet executeIndicatorQuery(Dataset dataset, Indicator indicator, Chart chart,
+                                                    String enhancedSql, List<Filter> allFilters) {
+        if (isCubeCandidate(dataset, indicator, chart)) {
+            Optional<ColumnarResultSet> cubeResult = olapCubeService.query(
+                    dataset, indicator, chart.getDimension(), allFilters);
+            if (cubeResult.isPresent()) {
+                log.debug("图表指标由内存立方体计算: chartId={}, indicatorId={}", chart.getId(), indicator.getId());
+                return cubeResult.get();
+            }
+        }
+        if (isIncrementalCandidate(dataset, indicator, chart)) {
+            Optional<ColumnarResultSet> incremental = incrementalIndicatorService.compute(
+                    dataset, indicator, chart.getDimension(), allFilters);
+            if (incremental.isPresent()) {
+                log.debug("图表指标增量计算: chartId={}, indicatorId={}", chart.getId(), indicator.getId());
+                return incremental.get();
+            }
+        }
+        return datasetRepository.executeColumnarQuery(dataset, enhancedSql, allFilters);
+    }
+
+    /**
+     * 判断图表指标是否可以由内存立方体计算
+     * 立方体由基础SQL的明细行加载，基础SQL本身已聚合时再次聚合的结果与SQL执行不一致
+     */
+    private boolean isCubeCandidate(Dataset dataset, Indicator indicator, Chart chart) {
+        String calculation = indicator.getCalculation();
+        if (IndicatorType.isValid(calculation) || !isComplexSqlExpression(calculation)) {
+            return false;
+        }
+        String baseSql = dataset.getSql();
+        return !datasetSqlContainsDimension(baseSql, chart.getDimension())
+                && !baseSql.toUpperCase().contains("GROUP BY")
+                && olapCubeService.supports(dataset, indicator, chart.getDimension());
+    }
+
+    /**
+     * 判断图表指标是否可以增量计算
+     * 只有会被包装为维度分组子查询、且基础SQL本身不聚合的图表，结果才与逐行累计一致
+     */
+    private boolean isIncrementalCandidate(Dataset dataset, Indicator indicator, Chart chart) {
+        String calculation = indicator.getCalculation();
+        if (IndicatorType.isValid(calculation) || !isComplexSqlExpression(calculation)) {
+            return false;
+        }
+        String baseSql = dataset.getSql();
+        return !datasetSqlContainsDimension(baseSql, chart.getDimension())
+                && !baseSql.toUpperCase().contains("GROUP BY")
+                && incrementalIndicatorService.supports(dataset, indicator);
+    }
+
+    /**
+     * 判断图表是否可以参与合并查询
+     * 只有会被包装为 GROUP BY 维度子查询、且不由立方体或增量状态计算的图表才能合并
+     */
+    private boolean isFusable(Dataset dataset, Indicator indicator, Chart chart) {
+        String dimension = chart.getDimension();
+        String calculation = indicator.getCalculation();
+        if (dimension == null || dimension.trim().isEmpty()) {
+            return false;
+        }
+        // 由立方体或增量状态计算的图表不参与整表扫描的合并查询
+        if (isCubeCandidate(dataset, indicator, chart) || isIncrementalCandidate(dataset, indicator, chart)) {
+            return false;
+        }
+        // 纯指标类型代码（如sum、avg）不是可执行的SQL表达式
+        if (IndicatorType.isValid(calculation)) {
+            return false;
+        }
+        String baseSql = dataset.getSql();
+        return isComplexSqlExpression(calculation)
+                && !datasetSqlContainsDimension(baseSql, dimension)
+                && !baseSql.toUpperCase().contains("GROUP BY");
+    }
+
     /**
      * 获取并验证指标
      */
@@ -85,7 +319,9 @@ public class ReportDataCalculationService {
             throw new IllegalArgumentException("图表指标ID不能为空");
         }
 
-        Indicator indicator = indicatorRepository.findById(indicatorId)
+        // 优先从配置图读取，配置图中不存在（如刚创建）时回退到仓储
+        Indicator indicator = configGraphRepository.findIndicator(indicatorId)
+                .or(() -> indicatorRepository.findById(indicatorId))
                 .orElseThrow(() -> new IndicatorNotFoundException(indicatorId));
 
         if (!indicator.isValid()) {
@@ -103,7 +339,8 @@ public class ReportDataCalculationService {
             throw new IllegalArgumentException("指标数据集ID不能为空");
         }
 
-        Dataset dataset = datasetRepository.findById(datasetId)
+        Dataset dataset = configGraphRepository.findDataset(datasetId)
+                .or(() -> datasetRepository.findById(datasetId))
                 .orElseThrow(() -> new DatasetNotFoundException(datasetId));
 
         if (!dataset.isValid()) {
@@ -143,7 +380,8 @@ public class ReportDataCalculationService {
         response.put("dimension", chart.getDimension());
         response.put("indicatorName", indicator.getName());
         response.put("indicatorCalculation", indicator.getCalculation());
-        response.put("config", parseConfig(chart.getConfig()));
+        response.put("config", configGraphRepository.findChartConfig(chart.getId())
+                .orElseGet(() -> parseConfig(chart.getConfig())));
         response.put("data", formattedData);
 
         // 添加图表类型特定的元数据
@@ -155,6 +393,23 @@ public class ReportDataCalculationService {
         return response;
     }
 
+    /**
+     * 构建超出执行限制的图表响应
+     * 保留图表元数据，data 为空，error 描述被突破的限制
+     */
+    private Map<String, Object> buildChartErrorResponse(Chart chart, Indicator indicator,
+                                                        ReportQueryLimitExceededException exception) {
+        Map<String, Object> response = buildChartResponse(chart, indicator, null);
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("code", exception.getErrorCode());
+        error.put("message", exception.getMessage());
+        error.put("limit", exception.getLimit());
+        response.put("error", error);
+
+        return response;
+    }
+
     /**
      * 构建包含指标计算的增强SQL
      */
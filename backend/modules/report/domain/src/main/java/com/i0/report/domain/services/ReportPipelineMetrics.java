@@ -0,0 +1,122 @@
+package com.i0.report.domain.services;
+
+import com.i0.report.domain.valueobjects.ReportPipelineStage;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 报表流水线指标记录接口
+ * 由基础设施层实现，记录报表、图表、指标在各阶段的耗时，以及数据集查询的耗时和行数，并提供各对象的统计快照
+ */
+public interface ReportPipelineMetrics {
+
+    /**
+     * 不记录任何指标的实现
+     */
+    ReportPipelineMetrics NOOP = new ReportPipelineMetrics() {
+        @Override
+        public void recordChartStage(ReportPipelineStage stage, String chartId, String indicatorId, long elapsedNanos) {
+        }
+
+        @Override
+        public void recordChartRows(String chartId, long rows) {
+        }
+
+        @Override
+        public void recordDatasetQuery(String datasetId, long elapsedNanos, long rows) {
+        }
+
+        @Override
+        public void recordReportStage(ReportPipelineStage stage, String reportId, long elapsedNanos) {
+        }
+
+        @Override
+        public Map<String, Object> reportStats(String reportId) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<String, Object> chartStats(String chartId) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<String, Object> indicatorStats(String indicatorId) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<String, Object> datasetStats(String datasetId) {
+            return Collections.emptyMap();
+        }
+    };
+
+    /**
+     * 记录图表在某一阶段的耗时，同时计入图表所绑定指标的统计
+     *
+     * @param stage 流水线阶段
+     * @param chartId 图表ID
+     * @param indicatorId 指标ID，未知时为空
+     * @param elapsedNanos 耗时（纳秒）
+     */
+    void recordChartStage(ReportPipelineStage stage, String chartId, String indicatorId, long elapsedNanos);
+
+    /**
+     * 记录图表查询返回的行数
+     *
+     * @param chartId 图表ID
+     * @param rows 行数
+     */
+    void recordChartRows(String chartId, long rows);
+
+    /**
+     * 记录一次数据集查询（合并查询只记录一次）
+     *
+     * @param datasetId 数据集ID
+     * @param elapsedNanos SQL执行耗时（纳秒）
+     * @param rows 返回行数，查询失败时为负数
+     */
+    void recordDatasetQuery(String datasetId, long elapsedNanos, long rows);
+
+    /**
+     * 记录报表在某一阶段的耗时
+     *
+     * @param stage 流水线阶段
+     * @param reportId 报表ID
+     * @param elapsedNanos 耗时（纳秒）
+     */
+    void recordReportStage(ReportPipelineStage stage, String reportId, long elapsedNanos);
+
+    /**
+     * 获取报表各阶段的延迟统计
+     *
+     * @param reportId 报表ID
+     * @return 统计快照，包含各阶段的 p50/p95/p99/max
+     */
+    Map<String, Object> reportStats(String reportId);
+
+    /**
+     * 获取图表各阶段的延迟统计和返回行数分布
+     *
+     * @param chartId 图表ID
+     * @return 统计快照
+     */
+    Map<String, Object> chartStats(String chartId);
+
+    /**
+     * 获取指标各阶段的延迟统计
+     *
+     * @param indicatorId 指标ID
+     * @return 统计快照
+     */
+    Map<String, Object> indicatorStats(String indicatorId);
+
+    /**
+     * 获取数据集查询的延迟统计和返回行数分布
+     *
+     * @param datasetId 数据集ID
+     * @return 统计快照
+     */
+    Map<String, Object> datasetStats(String datasetId);
+}
@@ -0,0 +1,33 @@
+package com.i0.report.domain.services;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 报表查询取消接口
+ * 由基础设施层实现：图表在线程池中并行计算时，为这组任务开启取消范围，任务在工作线程上执行的SQL语句登记到该范围，
+ * 关闭范围时取消其中仍在执行的语句；调用线程所在请求的取消范围被取消时（客户端断开、异步超时）一同取消
+ */
+public interface ReportQueryCancellationService {
+
+    /**
+     * 在当前线程的取消范围下开启新的取消范围
+     */
+    CancellationScope openScope();
+
+    /**
+     * 取消范围
+     */
+    interface CancellationScope extends AutoCloseable {
+
+        /**
+         * 包装在其他线程执行的任务，任务执行期间该线程上的查询登记到本范围
+         */
+        <T> Callable<T> wrap(Callable<T> task);
+
+        /**
+         * 关闭范围：取消范围内仍在执行的查询，之后登记的查询也不再执行
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,21 @@
+package com.i0.report.domain.services;
+
+import java.util.Map;
+
+/**
+ * 报表预热接口
+ * 由基础设施层实现，预先计算热门报表的默认结果写入结果存储，并提供最近一轮预热的状态
+ */
+public interface ReportWarmUpService {
+
+    /**
+     * 触发一轮预热，异步执行，不论结果是否仍有效都重新计算全部预热报表
+     * 上一轮未结束时本次触发被跳过
+     */
+    void triggerWarmUp();
+
+    /**
+     * 预热状态：最近一轮预热情况，以及每个预热报表的结果是否仍在有效期内
+     */
+    Map<String, Object> status();
+}
@@ -0,0 +1,773 @@
+package com.i0.report.domain.valueobjects;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 列式查询结果集值对象
+ * 列名只解析一次，数值列使用 long[]/double[] 原始数组存储，定点小数列保留 BigDecimal 精度，字符串列使用字典编码，
+ * 作为数据集仓储与图表格式化服务之间的内部数据载体；只在JSON输出边界通过 {@link #asRowMaps()} 提供Map视图
+ */
+public final class ColumnarResultSet {
+
+    private static final ColumnarResultSet EMPTY = new ColumnarResultSet(new String[0], new Column[0], 0);
+
+    private final String[] columnNames;
+    private final Column[] columns;
+    private final Map<String, Integer> columnIndex;
+    private final int rowCount;
+
+    private ColumnarResultSet(String[] columnNames, Column[] columns, int rowCount) {
+        this.columnNames = columnNames;
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.columnIndex = new HashMap<>();
+        for (int i = 0; i < columnNames.length; i++) {
+            // 与JDBC列名查找保持一致：大小写不敏感，重名时取第一列
+            columnIndex.putIfAbsent(normalize(columnNames[i]), i);
+        }
+    }
+
+    /**
+     * 空结果集
+     */
+    public static ColumnarResultSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 创建结果集构建器
+     *
+     * @param columnNames 列名列表
+     * @param columnTypes 列类型列表，与列名一一对应
+     * @return 构建器
+     */
+    public static Builder builder(List<String> columnNames, List<ColumnType> columnTypes) {
+        return new Builder(columnNames, columnTypes);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    public boolean isEmpty() {
+        return rowCount == 0;
+    }
+
+    /**
+     * 结果集的估算内存占用（字节）
+     */
+    public long estimatedSizeInBytes() {
+        long bytes = 0;
+        for (Column column : columns) {
+            bytes += column.estimatedBytes;
+        }
+        return bytes;
+    }
+
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(Arrays.asList(columnNames));
+    }
+
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    public ColumnType getColumnType(int column) {
+        return columns[column].type();
+    }
+
+    /**
+     * 按列名查找列位置（大小写不敏感）
+     *
+     * @param columnName 列名
+     * @return 列位置，不存在时返回 -1
+     */
+    public int indexOf(String columnName) {
+        if (columnName == null) {
+            return -1;
+        }
+        Integer index = columnIndex.get(normalize(columnName));
+        return index != null ? index : -1;
+    }
+
+    /**
+     * 判断是否为数值列
+     */
+    public boolean isNumeric(int column) {
+        ColumnType type = columns[column].type();
+        return type == ColumnType.LONG || type == ColumnType.DOUBLE || type == ColumnType.DECIMAL;
+    }
+
+    public boolean isNull(int column, int row) {
+        return columns[column].isNull(row);
+    }
+
+    /**
+     * 读取整数值，仅适用于数值列
+     */
+    public long getLong(int column, int row) {
+        Column col = columns[column];
+        if (col instanceof LongColumn) {
+            return ((LongColumn) col).values[row];
+        }
+        if (col instanceof DoubleColumn) {
+            return (long) ((DoubleColumn) col).values[row];
+        }
+        if (col instanceof DecimalColumn) {
+            return ((DecimalColumn) col).values[row].longValue();
+        }
+        throw new IllegalStateException("列不是数值类型: " + columnNames[column]);
+    }
+
+    /**
+     * 读取浮点值，仅适用于数值列
+     */
+    public double getDouble(int column, int row) {
+        Column col = columns[column];
+        if (col instanceof DoubleColumn) {
+            return ((DoubleColumn) col).values[row];
+        }
+        if (col instanceof LongColumn) {
+            return ((LongColumn) col).values[row];
+        }
+        if (col instanceof DecimalColumn) {
+            return ((DecimalColumn) col).values[row].doubleValue();
+        }
+        throw new IllegalStateException("列不是数值类型: " + columnNames[column]);
+    }
+
+    /**
+     * 读取定点小数值，仅适用于数值列；整数和浮点列按值转换
+     */
+    public BigDecimal getDecimal(int column, int row) {
+        Column col = columns[column];
+        if (col instanceof DecimalColumn) {
+            return ((DecimalColumn) col).values[row];
+        }
+        if (col instanceof LongColumn) {
+            return BigDecimal.valueOf(((LongColumn) col).values[row]);
+        }
+        if (col instanceof DoubleColumn) {
+            return BigDecimal.valueOf(((DoubleColumn) col).values[row]);
+        }
+        throw new IllegalStateException("列不是数值类型: " + columnNames[column]);
+    }
+
+    /**
+     * 读取字符串值，非字符串列返回值的字符串形式，空值返回 null
+     */
+    public String getString(int column, int row) {
+        Column col = columns[column];
+        if (col instanceof DictionaryColumn) {
+            return ((DictionaryColumn) col).getString(row);
+        }
+        Object value = col.get(row);
+        return value != null ? String.valueOf(value) : null;
+    }
+
+    /**
+     * 读取装箱后的值，用于JSON输出边界
+     */
+    public Object getValue(int column, int row) {
+        return columns[column].get(row);
+    }
+
+    /**
+     * 行Map视图
+     * 视图按需从列数组读取，不复制数据；列名查找大小写不敏感
+     */
+    public List<Map<String, Object>> asRowMaps() {
+        return new RowListView();
+    }
+
+    private static String normalize(String columnName) {
+        return columnName.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarResultSet{" +
+                "columns=" + Arrays.toString(columnNames) +
+                ", rowCount=" + rowCount +
+                '}';
+    }
+
+    /**
+     * 列存储类型
+     */
+    public enum ColumnType {
+        /**
+         * 整数列，long[] 存储
+         */
+        LONG,
+        /**
+         * 浮点列，double[] 存储
+         */
+        DOUBLE,
+        /**
+         * 定点小数列（DECIMAL/NUMERIC），BigDecimal 存储，不损失精度
+         */
+        DECIMAL,
+        /**
+         * 字符串列，字典编码存储
+         */
+        STRING,
+        /**
+         * 其他类型（日期、布尔等），按对象存储
+         */
+        OBJECT
+    }
+
+    /**
+     * 结果集构建器
+     * 按行依次追加每一列的值，数组按需扩容
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final String[] columnNames;
+        private final Column[] columns;
+
+        private Builder(List<String> columnNames, List<ColumnType> columnTypes) {
+            if (columnNames == null || columnTypes == null || columnNames.size() != columnTypes.size()) {
+                throw new IllegalArgumentException("列名与列类型数量不一致");
+            }
+            this.columnNames = columnNames.toArray(new String[0]);
+            this.columns = new Column[this.columnNames.length];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = newColumn(columnTypes.get(i));
+            }
+        }
+
+        private static Column newColumn(ColumnType type) {
+            switch (type) {
+                case LONG:
+                    return new LongColumn(INITIAL_CAPACITY);
+                case DOUBLE:
+                    return new DoubleColumn(INITIAL_CAPACITY);
+                case DECIMAL:
+                    return new DecimalColumn(INITIAL_CAPACITY);
+                case STRING:
+                    return new DictionaryColumn(INITIAL_CAPACITY);
+                default:
+                    return new ObjectColumn(INITIAL_CAPACITY);
+            }
+        }
+
+        public Builder appendLong(int column, long value) {
+            columnAs(column, LongColumn.class).append(value);
+            return this;
+        }
+
+        public Builder appendDouble(int column, double value) {
+            columnAs(column, DoubleColumn.class).append(value);
+            return this;
+        }
+
+        public Builder appendDecimal(int column, BigDecimal value) {
+            if (value == null) {
+                return appendNull(column);
+            }
+            columnAs(column, DecimalColumn.class).append(value);
+            return this;
+        }
+
+        public Builder appendString(int column, String value) {
+            columnAs(column, DictionaryColumn.class).append(value);
+            return this;
+        }
+
+        public Builder appendNull(int column) {
+            columns[column].appendNull();
+            return this;
+        }
+
+        /**
+         * 追加任意值，按列类型转换
+         */
+        public Builder append(int column, Object value) {
+            if (value == null) {
+                return appendNull(column);
+            }
+            Column col = columns[column];
+            switch (col.type()) {
+                case LONG:
+                    return appendLong(column, toNumber(column, value).longValue());
+                case DOUBLE:
+                    return appendDouble(column, toNumber(column, value).doubleValue());
+                case DECIMAL:
+                    return appendDecimal(column, toDecimal(column, value));
+                case STRING:
+                    return appendString(column, String.valueOf(value));
+                default:
+                    ((ObjectColumn) col).append(value);
+                    return this;
+            }
+        }
+
+        /**
+         * 从另一个结果集复制单元格，列类型相同时不产生装箱
+         */
+        public Builder appendFrom(int column, ColumnarResultSet source, int sourceColumn, int sourceRow) {
+            if (source.isNull(sourceColumn, sourceRow)) {
+                return appendNull(column);
+            }
+            ColumnType type = columns[column].type();
+            if (type == ColumnType.LONG && source.isNumeric(sourceColumn)) {
+                return appendLong(column, source.getLong(sourceColumn, sourceRow));
+            }
+            if (type == ColumnType.DOUBLE && source.isNumeric(sourceColumn)) {
+                return appendDouble(column, source.getDouble(sourceColumn, sourceRow));
+            }
+            if (type == ColumnType.DECIMAL && source.isNumeric(sourceColumn)) {
+                return appendDecimal(column, source.getDecimal(sourceColumn, sourceRow));
+            }
+            if (type == ColumnType.STRING) {
+                return appendString(column, source.getString(sourceColumn, sourceRow));
+            }
+            return append(column, source.getValue(sourceColumn, sourceRow));
+        }
+
+        /**
+         * 当前已追加行数
+         */
+        public int getRowCount() {
+            return columns.length > 0 ? columns[0].size : 0;
+        }
+
+        /**
+         * 已追加数据的估算内存占用（字节），用于限制单次查询物化的结果大小
+         */
+        public long estimatedSizeInBytes() {
+            long bytes = 0;
+            for (Column column : columns) {
+                bytes += column.estimatedBytes;
+            }
+            return bytes;
+        }
+
+        /**
+         * 构建结果集，要求每列行数一致；构建后不应再继续追加数据
+         */
+        public ColumnarResultSet build() {
+            int rowCount = columns.length > 0 ? columns[0].size : 0;
+            for (int i = 1; i < columns.length; i++) {
+                if (columns[i].size != rowCount) {
+                    throw new IllegalStateException("列行数不一致: " + columnNames[i]);
+                }
+            }
+            return new ColumnarResultSet(columnNames, columns, rowCount);
+        }
+
+        private <T extends Column> T columnAs(int column, Class<T> columnClass) {
+            Column col = columns[column];
+            if (!columnClass.isInstance(col)) {
+                throw new IllegalStateException("列类型不匹配: " + columnNames[column] + " 为 " + col.type());
+            }
+            return columnClass.cast(col);
+        }
+
+        private Number toNumber(int column, Object value) {
+            if (value instanceof Number) {
+                return (Number) value;
+            }
+            try {
+                return Double.valueOf(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("列 " + columnNames[column] + " 的值不是数值: " + value, e);
+            }
+        }
+
+        private BigDecimal toDecimal(int column, Object value) {
+            if (value instanceof BigDecimal) {
+                return (BigDecimal) value;
+            }
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return BigDecimal.valueOf(((Number) value).longValue());
+            }
+            try {
+                return new BigDecimal(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("列 " + columnNames[column] + " 的值不是数值: " + value, e);
+            }
+        }
+    }
+
+    /**
+     * 列存储基类
+     */
+    private abstract static class Column {
+
+        /**
+         * 对象引用与对象头的估算大小，用于近似计算结果集内存占用
+         */
+        static final long REFERENCE_BYTES = 8;
+        static final long OBJECT_BYTES = 40;
+
+        int size;
+
+        abstract ColumnType type();
+
+        abstract boolean isNull(int row);
+
+        abstract Object get(int row);
+
+        abstract void appendNull();
+
+        /**
+         * 已追加数据的估算内存占用（字节）
+         */
+        long estimatedBytes;
+
+        static int grow(int capacity) {
+            return Math.max(capacity + (capacity >> 1), capacity + 1);
+        }
+
+        static long estimateStringBytes(String value) {
+            return OBJECT_BYTES + 2L * value.length();
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        long[] values;
+        final BitSet nulls = new BitSet();
+
+        LongColumn(int capacity) {
+            values = new long[capacity];
+        }
+
+        @Override
+        ColumnType type() {
+            return ColumnType.LONG;
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        void append(long value) {
+            ensureCapacity();
+            values[size++] = value;
+            estimatedBytes += Long.BYTES;
+        }
+
+        @Override
+        void appendNull() {
+            ensureCapacity();
+            nulls.set(size++);
+            estimatedBytes += Long.BYTES;
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        double[] values;
+        final BitSet nulls = new BitSet();
+
+        DoubleColumn(int capacity) {
+            values = new double[capacity];
+        }
+
+        @Override
+        ColumnType type() {
+            return ColumnType.DOUBLE;
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        void append(double value) {
+            ensureCapacity();
+            values[size++] = value;
+            estimatedBytes += Double.BYTES;
+        }
+
+        @Override
+        void appendNull() {
+            ensureCapacity();
+            nulls.set(size++);
+            estimatedBytes += Double.BYTES;
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+        }
+    }
+
+    /**
+     * 字典编码字符串列：每行只存储字典下标，相同字符串只保存一份
+     */
+    private static final class DictionaryColumn extends Column {
+
+        private static final int NULL_CODE = -1;
+
+        int[] codes;
+        final List<String> dictionary = new ArrayList<>();
+        final Map<String, Integer> codeByValue = new HashMap<>();
+
+        DictionaryColumn(int capacity) {
+            codes = new int[capacity];
+        }
+
+        @Override
+        ColumnType type() {
+            return ColumnType.STRING;
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return codes[row] == NULL_CODE;
+        }
+
+        @Override
+        Object get(int row) {
+            return getString(row);
+        }
+
+        String getString(int row) {
+            int code = codes[row];
+            return code == NULL_CODE ? null : dictionary.get(code);
+        }
+
+        void append(String value) {
+            if (value == null) {
+                appendNull();
+                return;
+            }
+            Integer code = codeByValue.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                codeByValue.put(value, code);
+                estimatedBytes += estimateStringBytes(value);
+            }
+            ensureCapacity();
+            codes[size++] = code;
+            estimatedBytes += Integer.BYTES;
+        }
+
+        @Override
+        void appendNull() {
+            ensureCapacity();
+            codes[size++] = NULL_CODE;
+            estimatedBytes += Integer.BYTES;
+        }
+
+        private void ensureCapacity() {
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, grow(codes.length));
+            }
+        }
+    }
+
+    /**
+     * 定点小数列：保留数据库返回的 BigDecimal，避免转换为 double 后丢失精度
+     */
+    private static final class DecimalColumn extends Column {
+
+        BigDecimal[] values;
+
+        DecimalColumn(int capacity) {
+            values = new BigDecimal[capacity];
+        }
+
+        @Override
+        ColumnType type() {
+            return ColumnType.DECIMAL;
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return values[row] == null;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        void append(BigDecimal value) {
+            ensureCapacity();
+            values[size++] = value;
+            estimatedBytes += REFERENCE_BYTES + OBJECT_BYTES;
+        }
+
+        @Override
+        void appendNull() {
+            ensureCapacity();
+            values[size++] = null;
+            estimatedBytes += REFERENCE_BYTES;
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+
+        Object[] values;
+
+        ObjectColumn(int capacity) {
+            values = new Object[capacity];
+        }
+
+        @Override
+        ColumnType type() {
+            return ColumnType.OBJECT;
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return values[row] == null;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        void append(Object value) {
+            ensureCapacity();
+            values[size++] = value;
+            estimatedBytes += REFERENCE_BYTES;
+            if (value instanceof String) {
+                estimatedBytes += estimateStringBytes((String) value);
+            } else if (value != null) {
+                estimatedBytes += OBJECT_BYTES;
+            }
+        }
+
+        @Override
+        void appendNull() {
+            append(null);
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+        }
+    }
+
+    /**
+     * 行列表视图
+     */
+    private final class RowListView extends AbstractList<Map<String, Object>> {
+
+        @Override
+        public Map<String, Object> get(int row) {
+            if (row < 0 || row >= rowCount) {
+                throw new IndexOutOfBoundsException("行号越界: " + row);
+            }
+            return new RowView(row);
+        }
+
+        @Override
+        public int size() {
+            return rowCount;
+        }
+    }
+
+    /**
+     * 单行Map视图
+     */
+    private final class RowView extends AbstractMap<String, Object> {
+
+        private final int row;
+
+        private RowView(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object get(Object key) {
+            int column = key instanceof String ? indexOf((String) key) : -1;
+            return column >= 0 ? getValue(column, row) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && indexOf((String) key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return columnNames.length;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+                        private int column;
+
+                        @Override
+                        public boolean hasNext() {
+                            return column < columnNames.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int current = column++;
+                            return new SimpleImmutableEntry<>(columnNames[current], getValue(current, row));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return columnNames.length;
+                }
+            };
+        }
+    }
+}
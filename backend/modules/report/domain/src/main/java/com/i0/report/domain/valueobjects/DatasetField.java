@@ -0,0 +1,52 @@
+package com.i0.report.domain.valueobjects;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 数据集字段值对象
+ * 描述数据集SQL结果中一列的元数据
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetField {
+
+    /**
+     * 字段名（列标签）
+     */
+    private String name;
+
+    /**
+     * 数据库类型名称，如 VARCHAR、BIGINT
+     */
+    private String typeName;
+
+    /**
+     * JDBC类型代码（java.sql.Types）
+     */
+    private Integer jdbcType;
+
+    /**
+     * 对应的Java类型全名
+     */
+    private String javaType;
+
+    /**
+     * 精度
+     */
+    private Integer precision;
+
+    /**
+     * 小数位数
+     */
+    private Integer scale;
+
+    /**
+     * 是否允许为空，未知时为 null
+     */
+    private Boolean nullable;
+}
@@ -0,0 +1,49 @@
+package com.i0.report.domain.valueobjects;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 数据集键集分页结果值对象
+ * 按 (排序键, 行标识) 顺序返回一页数据，下一页从 (nextKey, nextId) 之后继续读取，无需 OFFSET 扫描
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetKeysetPage {
+
+    /**
+     * 排序键字段名
+     */
+    private String sortKey;
+
+    /**
+     * 当前页数据
+     */
+    private List<Object> content;
+
+    /**
+     * 每页大小
+     */
+    private int size;
+
+    /**
+     * 下一页起始键（当前页最后一行的排序键值），没有更多数据时为 null
+     */
+    private Object nextKey;
+
+    /**
+     * 下一页起始行标识（当前页最后一行的行标识值），排序键即行标识或没有更多数据时为 null
+     */
+    private Object nextId;
+
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,125 @@
+package com.i0.report.domain.valueobjects;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 可分解聚合值对象
+ * 指标计算表达式恰好是单个 COUNT/SUM/AVG/MIN/MAX 调用时，结果可由各行的贡献增量维护；
+ * AVG 按 SUM/COUNT 维护，MIN/MAX 只能在新增数据上维护，行被修改时需要重新计算
+ */
+public final class DecomposableAggregate {
+
+    private static final Pattern AGGREGATE_CALL = Pattern.compile("(?is)^\\s*(COUNT|SUM|AVG|MIN|MAX)\\s*\\((.*)\\)\\s*$");
+    private static final Pattern DISTINCT_PREFIX = Pattern.compile("(?is)^\\s*DISTINCT\\b.*");
+
+    /**
+     * 聚合函数
+     */
+    public enum Function {
+        COUNT,
+        SUM,
+        AVG,
+        MIN,
+        MAX
+    }
+
+    private final Function function;
+    private final String argument;
+
+    private DecomposableAggregate(Function function, String argument) {
+        this.function = function;
+        this.argument = argument;
+    }
+
+    /**
+     * 解析指标计算表达式
+     *
+     * @param calculation 指标计算表达式，如 COUNT(*)、SUM(amount)
+     * @return 可分解时返回聚合描述，包含 DISTINCT、多个聚合或聚合外运算时返回空
+     */
+    public static Optional<DecomposableAggregate> parse(String calculation) {
+        if (calculation == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = AGGREGATE_CALL.matcher(calculation);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        String argument = matcher.group(2).trim();
+        // 参数本身括号必须配对，排除 SUM(a) / COUNT(b) 这类被整体匹配的表达式
+        if (argument.isEmpty() || !isBalanced(argument) || DISTINCT_PREFIX.matcher(argument).matches()) {
+            return Optional.empty();
+        }
+        Function function = Function.valueOf(matcher.group(1).toUpperCase(Locale.ROOT));
+        if (function != Function.COUNT && "*".equals(argument)) {
+            return Optional.empty();
+        }
+        return Optional.of(new DecomposableAggregate(function, argument));
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    /**
+     * 聚合参数表达式，COUNT(*) 为 "*"
+     */
+    public String getArgument() {
+        return argument;
+    }
+
+    /**
+     * 逐行取值的度量表达式
+     */
+    public String measureExpression() {
+        return "*".equals(argument) ? "1" : argument;
+    }
+
+    /**
+     * 是否统计所有行（COUNT(*)），否则只统计度量非空的行
+     */
+    public boolean countsAllRows() {
+        return function == Function.COUNT && "*".equals(argument);
+    }
+
+    /**
+     * 是否只能在新增数据上增量维护
+     */
+    public boolean requiresInsertOnly() {
+        return function == Function.MIN || function == Function.MAX;
+    }
+
+    /**
+     * 是否需要数值型度量
+     */
+    public boolean requiresNumericMeasure() {
+        return function != Function.COUNT;
+    }
+
+    private static boolean isBalanced(String expression) {
+        int depth = 0;
+        boolean inQuote = false;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '\'') {
+                inQuote = !inQuote;
+            } else if (!inQuote && c == '(') {
+                depth++;
+            } else if (!inQuote && c == ')') {
+                depth--;
+                if (depth < 0) {
+                    return false;
+                }
+            }
+        }
+        return depth == 0 && !inQuote;
+    }
+
+    @Override
+    public String toString() {
+        return function + "(" + argument + ")";
+    }
+}
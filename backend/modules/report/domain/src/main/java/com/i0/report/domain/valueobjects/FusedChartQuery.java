@@ -0,0 +1,170 @@
+package com.i0.report.domain.valueobjects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 合并图表查询值对象
+ * 描述同一数据集、同一过滤条件下多个图表的一次性扫描查询，每个分支对应一个图表的维度和指标计算
+ */
+public final class FusedChartQuery {
+
+    private final String datasetId;
+    private final String baseSql;
+    private final List<Filter> filters;
+    private final List<Branch> branches;
+    private final List<String> distinctDimensions;
+    private final Map<String, Integer> dimensionIndex;
+
+    public FusedChartQuery(String datasetId, String baseSql, List<Filter> filters, List<Branch> branches) {
+        if (baseSql == null || baseSql.trim().isEmpty()) {
+            throw new IllegalArgumentException("合并查询的基础SQL不能为空");
+        }
+        if (branches == null || branches.isEmpty()) {
+            throw new IllegalArgumentException("合并查询至少需要一个图表分支");
+        }
+        this.datasetId = datasetId;
+        this.baseSql = baseSql;
+        this.filters = filters != null ? Collections.unmodifiableList(new ArrayList<>(filters)) : Collections.emptyList();
+        this.branches = Collections.unmodifiableList(new ArrayList<>(branches));
+        // 分支不可变，去重维度及其位置只计算一次，结果拆分时按行查找不再重复构建列表
+        LinkedHashSet<String> dimensions = new LinkedHashSet<>();
+        for (Branch branch : this.branches) {
+            dimensions.add(branch.getDimension());
+        }
+        this.distinctDimensions = Collections.unmodifiableList(new ArrayList<>(dimensions));
+        this.dimensionIndex = new HashMap<>();
+        for (int i = 0; i < distinctDimensions.size(); i++) {
+            dimensionIndex.put(distinctDimensions.get(i), i);
+        }
+    }
+
+    public String getDatasetId() {
+        return datasetId;
+    }
+
+    public String getBaseSql() {
+        return baseSql;
+    }
+
+    public List<Filter> getFilters() {
+        return filters;
+    }
+
+    public List<Branch> getBranches() {
+        return branches;
+    }
+
+    /**
+     * 获取去重后的维度字段列表（保持分支顺序）
+     */
+    public List<String> getDistinctDimensions() {
+        return distinctDimensions;
+    }
+
+    /**
+     * 获取分支维度在去重维度列表中的位置
+     */
+    public int dimensionIndexOf(Branch branch) {
+        Integer index = dimensionIndex.get(branch.getDimension());
+        return index != null ? index : -1;
+    }
+
+    /**
+     * 获取分支数量
+     */
+    public int getBranchCount() {
+        return branches.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FusedChartQuery that = (FusedChartQuery) o;
+        return Objects.equals(datasetId, that.datasetId) &&
+               Objects.equals(baseSql, that.baseSql) &&
+               Objects.equals(filters, that.filters) &&
+               Objects.equals(branches, that.branches);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(datasetId, baseSql, filters, branches);
+    }
+
+    @Override
+    public String toString() {
+        return "FusedChartQuery{" +
+                "datasetId='" + datasetId + '\'' +
+                ", filterCount=" + filters.size() +
+                ", branches=" + branches +
+                '}';
+    }
+
+    /**
+     * 合并查询分支：一个图表的维度与指标计算表达式
+     */
+    public static final class Branch {
+
+        private final String chartId;
+        private final String calculation;
+        private final String dimension;
+
+        public Branch(String chartId, String calculation, String dimension) {
+            if (chartId == null || chartId.trim().isEmpty()) {
+                throw new IllegalArgumentException("图表ID不能为空");
+            }
+            if (calculation == null || calculation.trim().isEmpty()) {
+                throw new IllegalArgumentException("指标计算表达式不能为空");
+            }
+            if (dimension == null || dimension.trim().isEmpty()) {
+                throw new IllegalArgumentException("维度字段不能为空");
+            }
+            this.chartId = chartId;
+            this.calculation = calculation;
+            this.dimension = dimension.trim();
+        }
+
+        public String getChartId() {
+            return chartId;
+        }
+
+        public String getCalculation() {
+            return calculation;
+        }
+
+        public String getDimension() {
+            return dimension;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Branch branch = (Branch) o;
+            return Objects.equals(chartId, branch.chartId) &&
+                   Objects.equals(calculation, branch.calculation) &&
+                   Objects.equals(dimension, branch.dimension);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(chartId, calculation, dimension);
+        }
+
+        @Override
+        public String toString() {
+            return "Branch{" +
+                    "chartId='" + chartId + '\'' +
+                    ", calculation='" + calculation + '\'' +
+                    ", dimension='" + dimension + '\'' +
+                    '}';
+        }
+    }
+}
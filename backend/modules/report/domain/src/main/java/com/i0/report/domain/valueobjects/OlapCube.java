@@ -0,0 +1,799 @@
+package com.i0.report.domain.valueobjects;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 内存OLAP立方体
+ * 由数据集明细行加载：低基数的非数值列按字典编码为维度列，并为每个字典值建立位图索引；
+ * 数值列以 long[]/double[] 原始数组保存为度量；日期列额外派生按月维度（列名_month），对应 DATE_FORMAT(列, '%Y-%m')。
+ * 分组、过滤只使用字典和位图完成，结果列与聚合SQL一致（calculated_value、dimension_field）
+ *
+ * 字符串不区分大小写，与MySQL默认排序规则一致：字典按折叠大小写后的值编码（保留首次出现的原值用于输出），
+ * 过滤条件两侧同样折叠大小写后比较，大小比较按维度值的类型进行；
+ * 声明行标识列时支持按行增量更新，整批校验通过后才写入，读写由读写锁保护
+ */
+public final class OlapCube {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("^[A-Za-z_][A-Za-z0-9_]*$");
+    private static final Pattern MONTH_EXPRESSION = Pattern.compile(
+            "(?i)^\\s*DATE_FORMAT\\s*\\(\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*,\\s*'%Y-%m'\\s*\\)\\s*$");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String MONTH_SUFFIX = "_month";
+    private static final String NOT_APPLICABLE = "N/A";
+
+    private final String rowKeyColumn;
+    private final int maxDimensionCardinality;
+    private final Map<String, Dimension> dimensions = new LinkedHashMap<>();
+    private final Map<String, Measure> measures = new LinkedHashMap<>();
+    private final Map<String, BitSet> presence = new LinkedHashMap<>();
+    private final Map<Object, Integer> rowIndex = new HashMap<>();
+    private final BitSet liveRows = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int rowCount;
+    private int capacity;
+
+    private OlapCube(String rowKeyColumn, int maxDimensionCardinality, int capacity) {
+        this.rowKeyColumn = rowKeyColumn != null ? normalize(rowKeyColumn) : null;
+        this.maxDimensionCardinality = maxDimensionCardinality;
+        this.capacity = Math.max(16, capacity);
+    }
+
+    /**
+     * 从明细行加载立方体
+     *
+     * @param rows 数据集明细行
+     * @param rowKeyColumn 行标识列，为空时不支持增量更新
+     * @param maxDimensionCardinality 维度最大基数，超出的非数值列只记录是否为空，不能用于分组和过滤
+     * @return 立方体
+     */
+    public static OlapCube load(ColumnarResultSet rows, String rowKeyColumn, int maxDimensionCardinality) {
+        OlapCube cube = new OlapCube(rowKeyColumn, maxDimensionCardinality, rows.getRowCount());
+        for (int column = 0; column < rows.getColumnCount(); column++) {
+            String name = normalize(rows.getColumnName(column));
+            if (cube.presence.containsKey(name)) {
+                continue;
+            }
+            cube.presence.put(name, new BitSet());
+            if (rows.isNumeric(column)) {
+                cube.measures.put(name, new Measure(rows.getColumnType(column) == ColumnarResultSet.ColumnType.LONG, cube.capacity));
+                continue;
+            }
+            if (distinctCount(rows, column, OlapCube::dictionaryKey, maxDimensionCardinality) <= maxDimensionCardinality) {
+                cube.dimensions.put(name, new Dimension(name, name, false, rows.getColumnType(column), cube.capacity));
+            }
+            if (isTemporalColumn(rows, column)
+                    && distinctCount(rows, column, OlapCube::toMonth, maxDimensionCardinality) <= maxDimensionCardinality) {
+                String monthName = name + MONTH_SUFFIX;
+                cube.dimensions.putIfAbsent(monthName,
+                        new Dimension(monthName, name, true, ColumnarResultSet.ColumnType.STRING, cube.capacity));
+            }
+        }
+        if (cube.rowKeyColumn != null && !cube.presence.containsKey(cube.rowKeyColumn)) {
+            throw new IllegalArgumentException("行标识列不存在: " + rowKeyColumn);
+        }
+        cube.writeRows(rows);
+        return cube;
+    }
+
+    /**
+     * 判断计算表达式和维度表达式在语法上能否由立方体回答（不检查列是否存在）
+     */
+    public static boolean canAnswer(DecomposableAggregate aggregate, String dimensionExpression) {
+        boolean argumentSupported = aggregate.countsAllRows()
+                || "1".equals(aggregate.getArgument())
+                || IDENTIFIER.matcher(aggregate.getArgument()).matches();
+        return argumentSupported && (isBlank(dimensionExpression) || dimensionName(dimensionExpression) != null);
+    }
+
+    /**
+     * 按维度分组聚合
+     *
+     * @param aggregate 可分解聚合
+     * @param dimensionExpression 维度字段或 DATE_FORMAT(日期列, '%Y-%m')，为空时整体聚合为一行
+     * @param filters 过滤条件，字段须为立方体维度
+     * @return 聚合结果；引用的列不在立方体中或过滤条件无法识别时返回空
+     */
+    public Optional<ColumnarResultSet> query(DecomposableAggregate aggregate, String dimensionExpression, List<Filter> filters) {
+        lock.readLock().lock();
+        try {
+            Dimension dimension = null;
+            if (!isBlank(dimensionExpression)) {
+                String name = dimensionName(dimensionExpression);
+                dimension = name != null ? dimensions.get(name) : null;
+                if (dimension == null) {
+                    return Optional.empty();
+                }
+            }
+
+            String argument = aggregate.countsAllRows() || "1".equals(aggregate.getArgument())
+                    ? null : normalize(aggregate.getArgument());
+            BitSet argumentPresence = argument != null ? presence.get(argument) : null;
+            Measure measure = argument != null ? measures.get(argument) : null;
+            if (argument != null && argumentPresence == null
+                    || aggregate.requiresNumericMeasure() && measure == null) {
+                return Optional.empty();
+            }
+
+            Optional<BitSet> mask = filterMask(filters);
+            if (mask.isEmpty()) {
+                return Optional.empty();
+            }
+
+            int groupCount = dimension != null ? dimension.values.size() + 1 : 1;
+            Accumulator accumulator = new Accumulator(groupCount);
+            BitSet selected = mask.get();
+            for (int row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+                int group = dimension == null ? 0 : dimension.rowCodes[row] >= 0 ? dimension.rowCodes[row] : groupCount - 1;
+                accumulator.rows[group]++;
+                if (argumentPresence != null && argumentPresence.get(row)) {
+                    accumulator.add(group, measure, row);
+                }
+            }
+            return Optional.of(accumulator.toResultSet(aggregate, measure, dimension));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按行标识写入变化行，已存在的行被覆盖，新行追加
+     *
+     * @param rows 变化行，列与加载时一致
+     * @return 是否写入成功；未声明行标识、缺少列或维度基数超出上限时返回 false，调用方应重新加载
+     */
+    public boolean upsert(ColumnarResultSet rows) {
+        if (rowKeyColumn == null) {
+            return false;
+        }
+        for (String column : presence.keySet()) {
+            if (rows.indexOf(column) < 0) {
+                return false;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            return writeRows(rows);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getRowCount() {
+        lock.readLock().lock();
+        try {
+            return liveRows.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 维度名称到基数的映射
+     */
+    public Map<String, Integer> getDimensionCardinalities() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> cardinalities = new LinkedHashMap<>();
+            dimensions.forEach((name, dimension) -> cardinalities.put(name, dimension.values.size()));
+            return cardinalities;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> getMeasureNames() {
+        return new ArrayList<>(measures.keySet());
+    }
+
+    /**
+     * 估算内存占用（字节），只计算数组和位图
+     */
+    public long estimatedSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Dimension dimension : dimensions.values()) {
+                bytes += 4L * dimension.rowCodes.length;
+                for (BitSet bitmap : dimension.bitmaps) {
+                    bytes += bitmap.size() / 8;
+                }
+            }
+            bytes += 8L * capacity * measures.size();
+            for (BitSet bitmap : presence.values()) {
+                bytes += bitmap.size() / 8;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入一批行，先校验整批再修改立方体，校验不通过时立方体保持原状
+     */
+    private boolean writeRows(ColumnarResultSet rows) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (String column : presence.keySet()) {
+            columns.put(column, rows.indexOf(column));
+        }
+        int keyColumn = rowKeyColumn != null ? columns.get(rowKeyColumn) : -1;
+        if (!canWrite(rows, columns, keyColumn)) {
+            return false;
+        }
+        for (int sourceRow = 0; sourceRow < rows.getRowCount(); sourceRow++) {
+            int row;
+            if (keyColumn >= 0) {
+                Object key = rows.getValue(keyColumn, sourceRow);
+                Integer existing = rowIndex.get(key);
+                row = existing != null ? existing : appendRow();
+                rowIndex.putIfAbsent(key, row);
+            } else {
+                row = appendRow();
+            }
+            writeRow(row, rows, sourceRow, columns);
+        }
+        return true;
+    }
+
+    /**
+     * 校验一批行能否完整写入：行标识不为空，各维度新增的字典值不超出基数上限
+     */
+    private boolean canWrite(ColumnarResultSet rows, Map<String, Integer> columns, int keyColumn) {
+        if (keyColumn >= 0) {
+            for (int sourceRow = 0; sourceRow < rows.getRowCount(); sourceRow++) {
+                if (rows.getValue(keyColumn, sourceRow) == null) {
+                    return false;
+                }
+            }
+        }
+        for (Dimension dimension : dimensions.values()) {
+            int column = columns.get(dimension.sourceColumn);
+            Set<Object> added = new HashSet<>();
+            for (int sourceRow = 0; sourceRow < rows.getRowCount(); sourceRow++) {
+                Object value = dimension.valueOf(rows.getValue(column, sourceRow));
+                if (value == null) {
+                    continue;
+                }
+                Object key = dictionaryKey(value);
+                if (!dimension.codes.containsKey(key) && added.add(key)
+                        && dimension.values.size() + added.size() > maxDimensionCardinality) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int appendRow() {
+        if (rowCount == capacity) {
+            capacity = capacity * 2;
+            dimensions.values().forEach(dimension -> dimension.grow(capacity));
+            measures.values().forEach(measure -> measure.grow(capacity));
+        }
+        liveRows.set(rowCount);
+        return rowCount++;
+    }
+
+    private void writeRow(int row, ColumnarResultSet rows, int sourceRow, Map<String, Integer> columns) {
+        for (Map.Entry<String, BitSet> entry : presence.entrySet()) {
+            entry.getValue().set(row, !rows.isNull(columns.get(entry.getKey()), sourceRow));
+        }
+        for (Map.Entry<String, Measure> entry : measures.entrySet()) {
+            int column = columns.get(entry.getKey());
+            if (!rows.isNull(column, sourceRow)) {
+                entry.getValue().set(row, rows, column, sourceRow);
+            }
+        }
+        for (Dimension dimension : dimensions.values()) {
+            dimension.set(row, dimension.valueOf(rows.getValue(columns.get(dimension.sourceColumn), sourceRow)));
+        }
+    }
+
+    /**
+     * 将过滤条件转换为行位图
+     * 操作符与SQL执行路径一致；字段不是立方体维度时返回空
+     */
+    private Optional<BitSet> filterMask(List<Filter> filters) {
+        BitSet mask = (BitSet) liveRows.clone();
+        if (filters == null) {
+            return Optional.of(mask);
+        }
+        for (Filter filter : filters) {
+            if (isBlank(filter.getField()) || isBlank(String.valueOf(filter.getValue()))) {
+                continue;
+            }
+            String name = dimensionName(filter.getField());
+            Dimension dimension = name != null ? dimensions.get(name) : null;
+            if (dimension == null) {
+                return Optional.empty();
+            }
+            Optional<Predicate<Object>> predicate = predicateFor(filter, dimension);
+            if (predicate.isEmpty()) {
+                return Optional.empty();
+            }
+            BitSet matched = new BitSet();
+            for (int code = 0; code < dimension.values.size(); code++) {
+                if (predicate.get().test(dimension.values.get(code))) {
+                    matched.or(dimension.bitmaps.get(code));
+                }
+            }
+            mask.and(matched);
+        }
+        return Optional.of(mask);
+    }
+
+    /**
+     * 过滤条件对维度值的匹配函数
+     * 相等、模糊和集合匹配比较折叠大小写后的文本；大小比较按维度值的类型进行，
+     * 目标值无法转换为该类型时返回空，由调用方回退到SQL执行
+     */
+    private static Optional<Predicate<Object>> predicateFor(Filter filter, Dimension dimension) {
+        String operator = filter.getOperator() != null ? filter.getOperator().toLowerCase(Locale.ROOT) : "";
+        switch (operator) {
+            case "greater_than":
+            case "gt":
+                return comparisonFor(filter.getValue(), dimension, result -> result > 0);
+            case "less_than":
+            case "lt":
+                return comparisonFor(filter.getValue(), dimension, result -> result < 0);
+            case "greater_than_or_equal":
+            case "gte":
+                return comparisonFor(filter.getValue(), dimension, result -> result >= 0);
+            case "less_than_or_equal":
+            case "lte":
+                return comparisonFor(filter.getValue(), dimension, result -> result <= 0);
+            default:
+                Predicate<String> textPredicate = textPredicateFor(operator, filter.getValue());
+                return Optional.of(value -> textPredicate.test(foldCase(displayValue(value))));
+        }
+    }
+
+    /**
+     * 文本匹配函数，参数为折叠大小写后的维度值，目标值以相同方式折叠
+     */
+    private static Predicate<String> textPredicateFor(String operator, Object filterValue) {
+        String target = foldCase(String.valueOf(filterValue));
+        switch (operator) {
+            case "not_equals":
+            case "ne":
+                return value -> !value.equals(target);
+            case "like":
+                Pattern pattern = likePattern(target);
+                return value -> pattern.matcher(value).matches();
+            case "in":
+                Set<String> included = valueSet(filterValue);
+                return included::contains;
+            case "not_in":
+                Set<String> excluded = valueSet(filterValue);
+                return value -> !excluded.contains(value);
+            default:
+                return value -> value.equals(target);
+        }
+    }
+
+    /**
+     * 大小比较的匹配函数，与SQL一致：数值按数值比较，日期时间按时间先后比较，字符串折叠大小写后按字典序比较
+     *
+     * @param accepts 维度值与目标值的比较结果是否满足条件
+     */
+    private static Optional<Predicate<Object>> comparisonFor(Object filterValue, Dimension dimension,
+                                                             IntPredicate accepts) {
+        Object sample = dimension.values.isEmpty() ? null : dimension.values.get(0);
+        String target = String.valueOf(filterValue).trim();
+        if (sample instanceof Number) {
+            BigDecimal number = parseNumber(target);
+            return number == null ? Optional.empty()
+                    : Optional.of(value -> accepts.test(new BigDecimal(value.toString()).compareTo(number)));
+        }
+        if (toDateTime(sample) != null) {
+            LocalDateTime dateTime = parseDateTime(target);
+            return dateTime == null ? Optional.empty()
+                    : Optional.of(value -> accepts.test(toDateTime(value).compareTo(dateTime)));
+        }
+        if (sample != null && !(sample instanceof String)) {
+            return Optional.empty();
+        }
+        String folded = foldCase(target);
+        return Optional.of(value -> accepts.test(foldCase(displayValue(value)).compareTo(folded)));
+    }
+
+    private static BigDecimal parseNumber(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析日期时间字面量，只有日期时视为当天零点，与SQL将日期字面量转换为日期时间一致
+     */
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value, DATE_TIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDate.parse(value).atStartOfDay();
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private static LocalDateTime toDateTime(Object value) {
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toLocalDateTime();
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().atStartOfDay();
+        }
+        if (value instanceof java.util.Date) {
+            return LocalDateTime.ofInstant(((java.util.Date) value).toInstant(), ZoneId.systemDefault());
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        }
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        return null;
+    }
+
+    private static Set<String> valueSet(Object value) {
+        Set<String> values = new HashSet<>();
+        Collection<?> items = value instanceof Collection
+                ? (Collection<?>) value
+                : Arrays.asList(String.valueOf(value).split(","));
+        for (Object item : items) {
+            values.add(foldCase(String.valueOf(item).trim()));
+        }
+        return values;
+    }
+
+    private static Pattern likePattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : like.toCharArray()) {
+            if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * 维度表达式对应的维度名称：普通列名，或按月格式化的日期列
+     */
+    private static String dimensionName(String expression) {
+        String trimmed = expression.trim();
+        if (IDENTIFIER.matcher(trimmed).matches()) {
+            return normalize(trimmed);
+        }
+        Matcher matcher = MONTH_EXPRESSION.matcher(trimmed);
+        return matcher.matches() ? normalize(matcher.group(1)) + MONTH_SUFFIX : null;
+    }
+
+    private static int distinctCount(ColumnarResultSet rows, int column,
+                                     java.util.function.Function<Object, Object> key, int limit) {
+        Set<Object> values = new HashSet<>();
+        for (int row = 0; row < rows.getRowCount(); row++) {
+            Object value = key.apply(rows.getValue(column, row));
+            if (value != null && values.add(value) && values.size() > limit) {
+                break;
+            }
+        }
+        return values.size();
+    }
+
+    private static boolean isTemporalColumn(ColumnarResultSet rows, int column) {
+        for (int row = 0; row < rows.getRowCount(); row++) {
+            Object value = rows.getValue(column, row);
+            if (value != null) {
+                return value instanceof java.util.Date || value instanceof LocalDate || value instanceof LocalDateTime;
+            }
+        }
+        return false;
+    }
+
+    private static String toMonth(Object value) {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().format(MONTH_FORMAT);
+        }
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toLocalDateTime().format(MONTH_FORMAT);
+        }
+        if (value instanceof java.util.Date) {
+            return LocalDateTime.ofInstant(((java.util.Date) value).toInstant(), ZoneId.systemDefault()).format(MONTH_FORMAT);
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).format(MONTH_FORMAT);
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).format(MONTH_FORMAT);
+        }
+        return null;
+    }
+
+    /**
+     * 维度值的比较文本，日期时间与SQL字面量格式一致
+     */
+    private static String displayValue(Object value) {
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toLocalDateTime().format(DATE_TIME_FORMAT);
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).format(DATE_TIME_FORMAT);
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * 字符串维度值的字典键：折叠大小写，与过滤条件的比较方式一致
+     */
+    private static Object dictionaryKey(Object value) {
+        return value instanceof String ? foldCase((String) value) : value;
+    }
+
+    private static String foldCase(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * 字典编码的维度列
+     */
+    private static final class Dimension {
+        private final String name;
+        private final String sourceColumn;
+        private final boolean monthOf;
+        private final ColumnarResultSet.ColumnType outputType;
+        private final List<Object> values = new ArrayList<>();
+        // 字典键（字符串折叠大小写）到编码
+        private final Map<Object, Integer> codes = new HashMap<>();
+        private final List<BitSet> bitmaps = new ArrayList<>();
+        private int[] rowCodes;
+
+        private Dimension(String name, String sourceColumn, boolean monthOf,
+                          ColumnarResultSet.ColumnType outputType, int capacity) {
+            this.name = name;
+            this.sourceColumn = sourceColumn;
+            this.monthOf = monthOf;
+            this.outputType = outputType;
+            this.rowCodes = new int[capacity];
+            Arrays.fill(rowCodes, -1);
+        }
+
+        private void grow(int capacity) {
+            int previous = rowCodes.length;
+            rowCodes = Arrays.copyOf(rowCodes, capacity);
+            Arrays.fill(rowCodes, previous, capacity, -1);
+        }
+
+        /**
+         * 源列的值对应的维度值
+         */
+        private Object valueOf(Object sourceValue) {
+            return monthOf ? toMonth(sourceValue) : sourceValue;
+        }
+
+        /**
+         * 设置行的维度值，新值的基数上限由写入前的校验保证
+         */
+        private void set(int row, Object value) {
+            int previous = rowCodes[row];
+            if (previous >= 0) {
+                bitmaps.get(previous).clear(row);
+            }
+            if (value == null) {
+                rowCodes[row] = -1;
+                return;
+            }
+            Object key = dictionaryKey(value);
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(key, code);
+                bitmaps.add(new BitSet());
+            }
+            bitmaps.get(code).set(row);
+            rowCodes[row] = code;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * 原始数组存储的度量列，空值由 presence 位图记录
+     */
+    private static final class Measure {
+        private final boolean integral;
+        private long[] longs;
+        private double[] doubles;
+
+        private Measure(boolean integral, int capacity) {
+            this.integral = integral;
+            if (integral) {
+                longs = new long[capacity];
+            } else {
+                doubles = new double[capacity];
+            }
+        }
+
+        private void grow(int capacity) {
+            if (integral) {
+                longs = Arrays.copyOf(longs, capacity);
+            } else {
+                doubles = Arrays.copyOf(doubles, capacity);
+            }
+        }
+
+        private void set(int row, ColumnarResultSet rows, int column, int sourceRow) {
+            if (integral) {
+                longs[row] = rows.getLong(column, sourceRow);
+            } else {
+                doubles[row] = rows.getDouble(column, sourceRow);
+            }
+        }
+
+        private double doubleAt(int row) {
+            return integral ? longs[row] : doubles[row];
+        }
+    }
+
+    /**
+     * 分组累加器，按字典编码下标保存各组的部分聚合，最后一组为维度空值
+     */
+    private static final class Accumulator {
+        private final long[] rows;
+        private final long[] counts;
+        private final long[] longSums;
+        private final double[] doubleSums;
+        private final double[] mins;
+        private final double[] maxs;
+
+        private Accumulator(int groupCount) {
+            rows = new long[groupCount];
+            counts = new long[groupCount];
+            longSums = new long[groupCount];
+            doubleSums = new double[groupCount];
+            mins = new double[groupCount];
+            maxs = new double[groupCount];
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+        }
+
+        private void add(int group, Measure measure, int row) {
+            counts[group]++;
+            if (measure == null) {
+                return;
+            }
+            if (measure.integral) {
+                longSums[group] += measure.longs[row];
+            }
+            double value = measure.doubleAt(row);
+            doubleSums[group] += value;
+            mins[group] = Math.min(mins[group], value);
+            maxs[group] = Math.max(maxs[group], value);
+        }
+
+        private ColumnarResultSet toResultSet(DecomposableAggregate aggregate, Measure measure, Dimension dimension) {
+            ColumnarResultSet.ColumnType valueType = valueType(aggregate, measure);
+            ColumnarResultSet.Builder builder = ColumnarResultSet.builder(
+                    Arrays.asList("calculated_value", "dimension_field"),
+                    Arrays.asList(valueType, dimension != null ? dimension.outputType : ColumnarResultSet.ColumnType.STRING));
+            if (dimension == null) {
+                // 无维度时与全量聚合一致，即使没有数据也输出一行
+                appendValue(builder, aggregate, valueType, 0);
+                builder.append(1, NOT_APPLICABLE);
+                return builder.build();
+            }
+
+            List<Integer> groups = new ArrayList<>();
+            for (int code = 0; code < dimension.values.size(); code++) {
+                if (rows[code] > 0) {
+                    groups.add(code);
+                }
+            }
+            groups.sort((left, right) -> compareValues(dimension.values.get(left), dimension.values.get(right)));
+            for (int code : groups) {
+                appendValue(builder, aggregate, valueType, code);
+                builder.append(1, dimension.values.get(code));
+            }
+            int nullGroup = rows.length - 1;
+            if (rows[nullGroup] > 0) {
+                appendValue(builder, aggregate, valueType, nullGroup);
+                builder.appendNull(1);
+            }
+            return builder.build();
+        }
+
+        private static ColumnarResultSet.ColumnType valueType(DecomposableAggregate aggregate, Measure measure) {
+            switch (aggregate.getFunction()) {
+                case COUNT:
+                    return ColumnarResultSet.ColumnType.LONG;
+                case AVG:
+                    return ColumnarResultSet.ColumnType.DOUBLE;
+                default:
+                    return measure.integral ? ColumnarResultSet.ColumnType.LONG : ColumnarResultSet.ColumnType.DOUBLE;
+            }
+        }
+
+        private void appendValue(ColumnarResultSet.Builder builder, DecomposableAggregate aggregate,
+                                 ColumnarResultSet.ColumnType valueType, int group) {
+            if (aggregate.getFunction() == DecomposableAggregate.Function.COUNT) {
+                builder.appendLong(0, aggregate.countsAllRows() || "1".equals(aggregate.getArgument())
+                        ? rows[group] : counts[group]);
+                return;
+            }
+            if (counts[group] == 0) {
+                builder.appendNull(0);
+                return;
+            }
+            switch (aggregate.getFunction()) {
+                case AVG:
+                    builder.appendDouble(0, doubleSums[group] / counts[group]);
+                    return;
+                case SUM:
+                    if (valueType == ColumnarResultSet.ColumnType.LONG) {
+                        builder.appendLong(0, longSums[group]);
+                    } else {
+                        builder.appendDouble(0, doubleSums[group]);
+                    }
+                    return;
+                default:
+                    double value = aggregate.getFunction() == DecomposableAggregate.Function.MIN ? mins[group] : maxs[group];
+                    if (valueType == ColumnarResultSet.ColumnType.LONG) {
+                        builder.appendLong(0, (long) value);
+                    } else {
+                        builder.appendDouble(0, value);
+                    }
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static int compareValues(Object left, Object right) {
+            if (left instanceof Comparable && left.getClass() == right.getClass()) {
+                return ((Comparable) left).compareTo(right);
+            }
+            return String.valueOf(left).compareTo(String.valueOf(right));
+        }
+    }
+}
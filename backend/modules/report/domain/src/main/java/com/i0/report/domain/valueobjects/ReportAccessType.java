@@ -0,0 +1,26 @@
+package com.i0.report.domain.valueobjects;
+
+/**
+ * 报表访问类型值对象
+ */
+public enum ReportAccessType {
+    VIEW("view", "查看报表数据"),
+    INFO("info", "查看报表配置"),
+    EXPORT("export", "导出报表");
+
+    private final String code;
+    private final String description;
+
+    ReportAccessType(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,175 @@
+package com.i0.report.domain.valueobjects;
+
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.entities.Report;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 报表配置图值对象
+ * 报表 → 图表 → 指标 → 数据集 的一次性批量加载快照，过滤条件和图表配置均已解析；
+ * 快照创建后不再变化，配置变更时整体替换为新版本。实体在创建时复制、读取时返回副本，调用方修改返回的实体不影响快照；
+ * 图中每个报表都记录启用的图表列表，没有启用图表的报表记录为空列表
+ */
+public final class ReportConfigGraph {
+
+    private static final ReportConfigGraph EMPTY = new ReportConfigGraph(0L, null,
+            Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+    private final long version;
+    private final LocalDateTime loadedAt;
+    private final Map<String, Report> reports;
+    private final Map<String, List<Chart>> reportCharts;
+    private final Map<String, Chart> charts;
+    private final Map<String, Map<String, Object>> chartConfigs;
+    private final Map<String, Indicator> indicators;
+    private final Map<String, Dataset> datasets;
+
+    /**
+     * @param version 配置版本，加载时的配置变更计数
+     * @param loadedAt 加载时间
+     * @param reports 报表ID到报表
+     * @param reportCharts 报表ID到报表中启用的图表（按报表展示顺序）
+     * @param charts 图表ID到图表
+     * @param chartConfigs 图表ID到解析后的图表配置
+     * @param indicators 指标ID到指标
+     * @param datasets 数据集ID到数据集
+     */
+    public ReportConfigGraph(long version,
+                             LocalDateTime loadedAt,
+                             Map<String, Report> reports,
+                             Map<String, List<Chart>> reportCharts,
+                             Map<String, Chart> charts,
+                             Map<String, Map<String, Object>> chartConfigs,
+                             Map<String, Indicator> indicators,
+                             Map<String, Dataset> datasets) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.reports = copyValues(reports, ReportConfigGraph::copy);
+        Map<String, List<Chart>> chartLists = new HashMap<>(reports.size());
+        reportCharts.forEach((reportId, list) -> chartLists.put(reportId, copyCharts(list)));
+        reports.keySet().forEach(reportId -> chartLists.putIfAbsent(reportId, Collections.emptyList()));
+        this.reportCharts = Collections.unmodifiableMap(chartLists);
+        this.charts = copyValues(charts, ReportConfigGraph::copy);
+        Map<String, Map<String, Object>> configs = new HashMap<>(chartConfigs.size());
+        chartConfigs.forEach((chartId, config) -> configs.put(chartId, Collections.unmodifiableMap(config)));
+        this.chartConfigs = Collections.unmodifiableMap(configs);
+        this.indicators = copyValues(indicators, ReportConfigGraph::copy);
+        this.datasets = copyValues(datasets, ReportConfigGraph::copy);
+    }
+
+    /**
+     * 空配置图，首次加载前使用
+     */
+    public static ReportConfigGraph empty() {
+        return EMPTY;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    public Optional<Report> findReport(String reportId) {
+        return Optional.ofNullable(reportId != null ? reports.get(reportId) : null).map(ReportConfigGraph::copy);
+    }
+
+    /**
+     * 获取报表中启用的图表
+     *
+     * @return 报表不在配置图中时返回空，报表没有启用的图表时返回空列表
+     */
+    public Optional<List<Chart>> findReportCharts(String reportId) {
+        return Optional.ofNullable(reportId != null ? reportCharts.get(reportId) : null).map(ReportConfigGraph::copyCharts);
+    }
+
+    public Optional<Chart> findChart(String chartId) {
+        return Optional.ofNullable(chartId != null ? charts.get(chartId) : null).map(ReportConfigGraph::copy);
+    }
+
+    /**
+     * 获取解析后的图表配置
+     *
+     * @return 图表不在配置图中时返回空，图表未配置时返回空Map
+     */
+    public Optional<Map<String, Object>> findChartConfig(String chartId) {
+        if (chartId == null || !charts.containsKey(chartId)) {
+            return Optional.empty();
+        }
+        return Optional.of(chartConfigs.getOrDefault(chartId, Collections.emptyMap()));
+    }
+
+    public Optional<Indicator> findIndicator(String indicatorId) {
+        return Optional.ofNullable(indicatorId != null ? indicators.get(indicatorId) : null).map(ReportConfigGraph::copy);
+    }
+
+    public Optional<Dataset> findDataset(String datasetId) {
+        return Optional.ofNullable(datasetId != null ? datasets.get(datasetId) : null).map(ReportConfigGraph::copy);
+    }
+
+    public int getReportCount() {
+        return reports.size();
+    }
+
+    public int getChartCount() {
+        return charts.size();
+    }
+
+    public int getIndicatorCount() {
+        return indicators.size();
+    }
+
+    public int getDatasetCount() {
+        return datasets.size();
+    }
+
+    private static <T> Map<String, T> copyValues(Map<String, T> source, Function<T, T> copier) {
+        Map<String, T> copies = new HashMap<>(source.size());
+        source.forEach((id, value) -> copies.put(id, copier.apply(value)));
+        return Collections.unmodifiableMap(copies);
+    }
+
+    private static List<Chart> copyCharts(List<Chart> charts) {
+        return charts.stream().map(ReportConfigGraph::copy).collect(Collectors.toUnmodifiableList());
+    }
+
+    private static <T> List<T> copyList(List<T> list) {
+        return list != null ? new ArrayList<>(list) : null;
+    }
+
+    private static Report copy(Report report) {
+        return report.toBuilder()
+                .charts(report.getCharts() != null ? new ArrayList<>(copyCharts(report.getCharts())) : null)
+                .filters(copyList(report.getFilters()))
+                .build();
+    }
+
+    private static Chart copy(Chart chart) {
+        return chart.toBuilder().filters(copyList(chart.getFilters())).build();
+    }
+
+    private static Indicator copy(Indicator indicator) {
+        return indicator.toBuilder()
+                .dimensions(copyList(indicator.getDimensions()))
+                .filters(copyList(indicator.getFilters()))
+                .build();
+    }
+
+    private static Dataset copy(Dataset dataset) {
+        return dataset.toBuilder().filters(copyList(dataset.getFilters())).build();
+    }
+}
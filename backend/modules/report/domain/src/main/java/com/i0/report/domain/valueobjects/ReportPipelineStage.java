@@ -0,0 +1,29 @@
+package com.i0.report.domain.valueobjects;
+
+/**
+ * 报表数据生成流水线阶段值对象
+ */
+public enum ReportPipelineStage {
+    CONFIG_LOAD("config_load", "配置加载"),
+    SQL_BUILD("sql_build", "SQL构建"),
+    SQL_EXECUTION("sql_execution", "SQL执行"),
+    FORMATTING("formatting", "数据格式化"),
+    SERIALIZATION("serialization", "响应序列化"),
+    TOTAL("total", "总耗时");
+
+    private final String code;
+    private final String description;
+
+    ReportPipelineStage(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
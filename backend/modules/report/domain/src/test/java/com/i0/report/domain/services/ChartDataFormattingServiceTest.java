@@ -0,0 +1,100 @@
+package com.i0.report.domain.services;
+
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ChartDataFormattingService单元测试
+ */
+@DisplayName("ChartDataFormattingService测试")
+class ChartDataFormattingServiceTest {
+
+    private final ChartDataFormattingService service = new ChartDataFormattingService();
+
+    @Test
+    @DisplayName("饼图按维度列和统计列格式化，维度值按字段美化")
+    @SuppressWarnings("unchecked")
+    void shouldFormatPieFromColumns() {
+        // Given
+        ColumnarResultSet rows = ColumnarResultSet.builder(
+                        Arrays.asList("calculated_value", "dimension_field"),
+                        Arrays.asList(ColumnarResultSet.ColumnType.LONG, ColumnarResultSet.ColumnType.STRING))
+                .appendLong(0, 3).appendString(1, "country-cn")
+                .appendLong(0, 5).appendNull(1)
+                .build();
+
+        // When
+        Map<String, Object> result = service.formatDataByChartType(
+                chart("chart-1", "pie", "nationality_id"), indicator("count"), rows);
+
+        // Then
+        assertThat(result).containsEntry("type", "pie");
+        assertThat((List<Map<String, Object>>) result.get("data"))
+                .extracting(item -> item.get("name"), item -> item.get("value"))
+                .containsExactly(tuple("中国", 3L), tuple("未知", 5L));
+    }
+
+    @Test
+    @DisplayName("同一图表结果结构变化时重新编译格式化器")
+    @SuppressWarnings("unchecked")
+    void shouldRecompileFormatter_When_ResultSchemaChanges() {
+        // Given
+        Chart chart = chart("chart-2", "bar", "department");
+        ColumnarResultSet first = ColumnarResultSet.builder(
+                        Arrays.asList("calculated_value", "dimension_field"),
+                        Arrays.asList(ColumnarResultSet.ColumnType.LONG, ColumnarResultSet.ColumnType.STRING))
+                .appendLong(0, 10).appendString(1, "研发部")
+                .build();
+        ColumnarResultSet reordered = ColumnarResultSet.builder(
+                        Arrays.asList("department", "total"),
+                        Arrays.asList(ColumnarResultSet.ColumnType.STRING, ColumnarResultSet.ColumnType.DOUBLE))
+                .appendString(0, "销售部").appendDouble(1, 2.5)
+                .build();
+
+        // When
+        Map<String, Object> firstResult = service.formatDataByChartType(chart, indicator("sum"), first);
+        Map<String, Object> secondResult = service.formatDataByChartType(chart, indicator("sum"), reordered);
+
+        // Then
+        Map<String, Object> firstData = (Map<String, Object>) firstResult.get("data");
+        assertThat(firstData.get("xAxis")).isEqualTo(List.of("研发部"));
+        assertThat(firstData.get("yAxis")).isEqualTo(List.of(10L));
+        Map<String, Object> secondData = (Map<String, Object>) secondResult.get("data");
+        assertThat(secondData.get("xAxis")).isEqualTo(List.of("销售部"));
+        assertThat(secondData.get("yAxis")).isEqualTo(List.of(2.5));
+    }
+
+    @Test
+    @DisplayName("指标卡取首行统计值并按指标类型取整")
+    void shouldRoundMetricValue() {
+        // Given
+        ColumnarResultSet rows = ColumnarResultSet.builder(
+                        List.of("calculated_value"), List.of(ColumnarResultSet.ColumnType.DOUBLE))
+                .appendDouble(0, 3.14159)
+                .build();
+
+        // When
+        Map<String, Object> result = service.formatDataByChartType(chart("chart-3", "metric", null), indicator("avg"), rows);
+
+        // Then
+        assertThat(result).containsEntry("type", "metric").containsEntry("value", 3.14);
+    }
+
+    private static Chart chart(String id, String type, String dimension) {
+        return Chart.builder().id(id).name(id).type(type).indicatorId("indicator-1").dimension(dimension).build();
+    }
+
+    private static Indicator indicator(String calculation) {
+        return Indicator.builder().id("indicator-1").name("指标").datasetId("dataset-1")
+                .calculation(calculation).type(calculation).build();
+    }
+}
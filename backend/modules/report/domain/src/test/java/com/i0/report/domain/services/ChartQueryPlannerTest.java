@@ -0,0 +1,74 @@
+package com.i0.report.domain.services;
+
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.domain.valueobjects.FusedChartQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ChartQueryPlanner单元测试
+ */
+@DisplayName("ChartQueryPlanner测试")
+class ChartQueryPlannerTest {
+
+    private static final Filter ACTIVE = Filter.builder().field("status").operator("eq").value("ACTIVE").build();
+    private static final Filter RESEARCH = Filter.builder().field("department").operator("eq").value("研发部").build();
+
+    private final ChartQueryPlanner planner = new ChartQueryPlanner();
+
+    @Test
+    @DisplayName("过滤条件相同但顺序不同的图表合并为一次查询")
+    void shouldFuseChartsWithSameFiltersInDifferentOrder() {
+        // Given
+        Dataset dataset = dataset("dataset-1");
+        List<ChartQueryPlanner.Candidate> candidates = Arrays.asList(
+                candidate("chart-1", dataset, Arrays.asList(ACTIVE, RESEARCH)),
+                candidate("chart-2", dataset, Arrays.asList(RESEARCH, ACTIVE)));
+
+        // When
+        List<FusedChartQuery> queries = planner.plan(candidates);
+
+        // Then
+        assertThat(queries).hasSize(1);
+        assertThat(queries.get(0).getBranches()).extracting(FusedChartQuery.Branch::getChartId)
+                .containsExactly("chart-1", "chart-2");
+        assertThat(queries.get(0).getFilters()).containsExactlyInAnyOrder(ACTIVE, RESEARCH);
+    }
+
+    @Test
+    @DisplayName("过滤条件或数据集不同的图表不合并")
+    void shouldNotFuseChartsWithDifferentFiltersOrDatasets() {
+        // Given
+        Dataset first = dataset("dataset-1");
+        Dataset second = dataset("dataset-2");
+        List<ChartQueryPlanner.Candidate> candidates = Arrays.asList(
+                candidate("chart-1", first, Collections.singletonList(ACTIVE)),
+                candidate("chart-2", first, Arrays.asList(ACTIVE, RESEARCH)),
+                candidate("chart-3", second, Collections.singletonList(ACTIVE)));
+
+        // When
+        List<FusedChartQuery> queries = planner.plan(candidates);
+
+        // Then
+        assertThat(queries).isEmpty();
+    }
+
+    private static ChartQueryPlanner.Candidate candidate(String chartId, Dataset dataset, List<Filter> filters) {
+        Chart chart = Chart.builder().id(chartId).dimension("department").build();
+        Indicator indicator = Indicator.builder().id("indicator-" + chartId).calculation("COUNT(*)").build();
+        return new ChartQueryPlanner.Candidate(chart, indicator, dataset, filters);
+    }
+
+    private static Dataset dataset(String id) {
+        return Dataset.builder().id(id).sql("SELECT * FROM employee").build();
+    }
+}
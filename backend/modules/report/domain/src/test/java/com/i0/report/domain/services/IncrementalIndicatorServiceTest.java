@@ -0,0 +1,247 @@
+package com.i0.report.domain.services;
+
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * IncrementalIndicatorService单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IncrementalIndicatorService测试")
+class IncrementalIndicatorServiceTest {
+
+    private static final LocalDateTime LOADED_AT = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Mock
+    private DatasetRepository datasetRepository;
+
+    private IncrementalIndicatorService incrementalIndicatorService;
+    private Dataset dataset;
+
+    @BeforeEach
+    void setUp() {
+        incrementalIndicatorService = new IncrementalIndicatorService(
+                datasetRepository, 1000, 8, Duration.ofSeconds(60), Duration.ofMinutes(10));
+        dataset = Dataset.builder()
+                .id("dataset-1")
+                .name("订单")
+                .sql("SELECT id, dept, amount, updated_at FROM orders")
+                .updateStrategy("real_time")
+                .sortKey("id")
+                .watermarkColumn("updated_at")
+                .enabled(true)
+                .build();
+    }
+
+    @Test
+    @DisplayName("首次计算全量加载，之后只应用水位之后变化的行")
+    void shouldApplyChangedRowsAfterFullLoad() {
+        // Given
+        when(datasetRepository.executeFilterFlaggedQuery(eq(dataset), argThat(sql -> !sql.contains(">=")), anyList(), eq(1001)))
+                .thenReturn(rows(
+                        row(1L, "A", 10L, LOADED_AT),
+                        row(2L, "B", 5L, LOADED_AT),
+                        row(3L, "A", 7L, LOADED_AT)));
+        when(datasetRepository.executeFilterFlaggedQuery(eq(dataset), argThat(sql -> sql.contains("updated_at >= '2024-03-01 08:59:00'")), anyList(), eq(1001)))
+                .thenReturn(rows(
+                        row(3L, "B", 7L, LOADED_AT.plusMinutes(1)),
+                        row(4L, "A", 1L, LOADED_AT.plusMinutes(1))));
+        Indicator indicator = indicator("SUM(amount)");
+
+        // When
+        ColumnarResultSet initial = incrementalIndicatorService.compute(dataset, indicator, "dept", Collections.emptyList()).orElseThrow();
+        ColumnarResultSet updated = incrementalIndicatorService.compute(dataset, indicator, "dept", Collections.emptyList()).orElseThrow();
+
+        // Then
+        assertThat(initial.asRowMaps()).extracting(row -> row.get("dimension_field"), row -> row.get("calculated_value"))
+                .containsExactly(tuple("A", 17L), tuple("B", 5L));
+        assertThat(updated.asRowMaps()).extracting(row -> row.get("dimension_field"), row -> row.get("calculated_value"))
+                .containsExactly(tuple("A", 11L), tuple("B", 12L));
+        verify(datasetRepository, times(2)).executeFilterFlaggedQuery(eq(dataset), anyString(), anyList(), eq(1001));
+    }
+
+    @Test
+    @DisplayName("AVG按SUM/COUNT维护，重复读取的行不会重复累计")
+    void shouldKeepAverageIdempotentForRereadRows() {
+        // Given
+        when(datasetRepository.executeFilterFlaggedQuery(eq(dataset), anyString(), anyList(), eq(1001)))
+                .thenReturn(rows(row(1L, "A", 10L, LOADED_AT), row(2L, "A", 20L, LOADED_AT)))
+                .thenReturn(rows(row(2L, "A", 20L, LOADED_AT)));
+        Indicator indicator = indicator("AVG(amount)");
+
+        // When
+        incrementalIndicatorService.compute(dataset, indicator, "dept", Collections.emptyList());
+        ColumnarResultSet result = incrementalIndicatorService.compute(dataset, indicator, "dept", Collections.emptyList()).orElseThrow();
+
+        // Then
+        assertThat(result.getRowCount()).isEqualTo(1);
+        assertThat(result.getDouble(result.indexOf("calculated_value"), 0)).isEqualTo(15.0);
+    }
+
+    @Test
+    @DisplayName("MIN/MAX的已有行被修改时执行全量重载")
+    void shouldReloadMaxWhenTrackedRowChanges() {
+        // Given
+        when(datasetRepository.executeFilterFlaggedQuery(eq(dataset), anyString(), anyList(), eq(1001)))
+                .thenReturn(rows(row(1L, "A", 10L, LOADED_AT), row(2L, "A", 20L, LOADED_AT)))
+                .thenReturn(rows(row(2L, "A", 5L, LOADED_AT.plusMinutes(1))))
+                .thenReturn(rows(row(1L, "A", 10L, LOADED_AT), row(2L, "A", 5L, LOADED_AT.plusMinutes(1))));
+        Indicator indicator = indicator("MAX(amount)");
+
+        // When
+        incrementalIndicatorService.compute(dataset, indicator, "dept", Collections.emptyList());
+        ColumnarResultSet result = incrementalIndicatorService.compute(dataset, indicator, "dept", Collections.emptyList()).orElseThrow();
+
+        // Then
+        assertThat(result.getLong(result.indexOf("calculated_value"), 0)).isEqualTo(10L);
+        verify(datasetRepository, times(3)).executeFilterFlaggedQuery(eq(dataset), anyString(), anyList(), eq(1001));
+    }
+
+    @Test
+    @DisplayName("读取变化行时不按过滤条件筛选，修改后不再满足条件的行撤销贡献")
+    void shouldSubtractRowsThatNoLongerMatchFilters() {
+        // Given
+        List<Filter> filters = Collections.singletonList(
+                Filter.builder().field("status").operator("eq").value("ACTIVE").build());
+        when(datasetRepository.executeFilterFlaggedQuery(eq(dataset), argThat(sql -> sql.contains("filter_matched = 1")), eq(filters), eq(1001)))
+                .thenReturn(rows(row(1L, "A", 10L, LOADED_AT), row(2L, "A", 5L, LOADED_AT)));
+        when(datasetRepository.executeFilterFlaggedQuery(eq(dataset), argThat(sql -> sql.contains(">=")), eq(filters), eq(1001)))
+                .thenReturn(rows(row(2L, false, "A", 5L, LOADED_AT.plusMinutes(1)),
+                        row(3L, false, "B", 8L, LOADED_AT.plusMinutes(1))));
+        Indicator indicator = indicator("SUM(amount)");
+
+        // When
+        incrementalIndicatorService.compute(dataset, indicator, "dept", filters);
+        ColumnarResultSet updated = incrementalIndicatorService.compute(dataset, indicator, "dept", filters).orElseThrow();
+
+        // Then
+        assertThat(updated.asRowMaps()).extracting(row -> row.get("dimension_field"), row -> row.get("calculated_value"))
+                .containsExactly(tuple("A", 10L));
+    }
+
+    @Test
+    @DisplayName("非整数度量的行被撤销后，SUM恢复按整数输出")
+    void shouldRestoreIntegralSumWhenFractionalRowsRemoved() {
+        // Given
+        when(datasetRepository.executeFilterFlaggedQuery(eq(dataset), anyString(), anyList(), eq(1001)))
+                .thenReturn(rows(ColumnarResultSet.ColumnType.DOUBLE,
+                        row(1L, "A", 10.0, LOADED_AT), row(2L, "A", 2.5, LOADED_AT)))
+                .thenReturn(rows(row(1L, "A", 10L, LOADED_AT.plusMinutes(1)),
+                        row(2L, false, "A", 3L, LOADED_AT.plusMinutes(1))));
+        Indicator indicator = indicator("SUM(amount)");
+
+        // When
+        ColumnarResultSet initial = incrementalIndicatorService.compute(dataset, indicator, "dept", Collections.emptyList()).orElseThrow();
+        ColumnarResultSet updated = incrementalIndicatorService.compute(dataset, indicator, "dept", Collections.emptyList()).orElseThrow();
+
+        // Then
+        assertThat(initial.getColumnType(initial.indexOf("calculated_value"))).isEqualTo(ColumnarResultSet.ColumnType.DOUBLE);
+        assertThat(updated.getColumnType(updated.indexOf("calculated_value"))).isEqualTo(ColumnarResultSet.ColumnType.LONG);
+        assertThat(updated.getLong(updated.indexOf("calculated_value"), 0)).isEqualTo(10L);
+    }
+
+    @Test
+    @DisplayName("全量加载最多读取上限加一行，超出跟踪上限时回退为全量聚合")
+    void shouldFallBackWhenTrackedRowsExceedLimit() {
+        // Given
+        IncrementalIndicatorService limited = new IncrementalIndicatorService(
+                datasetRepository, 2, 8, Duration.ofSeconds(60), Duration.ofMinutes(10));
+        when(datasetRepository.executeFilterFlaggedQuery(eq(dataset), anyString(), anyList(), eq(3)))
+                .thenReturn(rows(row(1L, "A", 1L, LOADED_AT), row(2L, "A", 2L, LOADED_AT), row(3L, "B", 3L, LOADED_AT)));
+
+        // When
+        Optional<ColumnarResultSet> first = limited.compute(dataset, indicator("SUM(amount)"), "dept", Collections.emptyList());
+        Optional<ColumnarResultSet> second = limited.compute(dataset, indicator("SUM(amount)"), "dept", Collections.emptyList());
+
+        // Then - 超出上限后在重载间隔内不再读取
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        verify(datasetRepository, times(1)).executeFilterFlaggedQuery(eq(dataset), anyString(), anyList(), eq(3));
+    }
+
+    @Test
+    @DisplayName("不可分解的指标或未声明水位列的数据集不做增量计算")
+    void shouldSkipUnsupportedIndicatorsAndDatasets() {
+        Dataset withoutWatermark = Dataset.builder()
+                .id("dataset-2")
+                .sql(dataset.getSql())
+                .updateStrategy("real_time")
+                .sortKey("id")
+                .build();
+
+        assertThat(incrementalIndicatorService.compute(dataset, indicator("SUM(amount) / COUNT(id)"), "dept", Collections.emptyList()))
+                .isEmpty();
+        assertThat(incrementalIndicatorService.compute(dataset, indicator("COUNT(DISTINCT dept)"), "dept", Collections.emptyList()))
+                .isEmpty();
+        assertThat(incrementalIndicatorService.compute(withoutWatermark, indicator("SUM(amount)"), "dept", Collections.emptyList()))
+                .isEmpty();
+        verifyNoInteractions(datasetRepository);
+    }
+
+    @Test
+    @DisplayName("读取失败时返回空，由调用方执行全量聚合")
+    void shouldFallBackWhenRowQueryFails() {
+        when(datasetRepository.executeFilterFlaggedQuery(eq(dataset), anyString(), anyList(), eq(1001)))
+                .thenThrow(new IllegalStateException("column not found"));
+
+        Optional<ColumnarResultSet> result = incrementalIndicatorService.compute(
+                dataset, indicator("COUNT(*)"), null, Collections.emptyList());
+
+        assertThat(result).isEmpty();
+    }
+
+    private static Indicator indicator(String calculation) {
+        return Indicator.builder()
+                .id("indicator-1")
+                .name("金额")
+                .datasetId("dataset-1")
+                .calculation(calculation)
+                .build();
+    }
+
+    private static Object[] row(long id, String dept, Object amount, LocalDateTime updatedAt) {
+        return row(id, true, dept, amount, updatedAt);
+    }
+
+    private static Object[] row(long id, boolean matched, String dept, Object amount, LocalDateTime updatedAt) {
+        return new Object[]{id, matched ? 1L : 0L, dept, amount, Timestamp.valueOf(updatedAt)};
+    }
+
+    private static ColumnarResultSet rows(Object[]... rows) {
+        return rows(ColumnarResultSet.ColumnType.LONG, rows);
+    }
+
+    private static ColumnarResultSet rows(ColumnarResultSet.ColumnType measureType, Object[]... rows) {
+        ColumnarResultSet.Builder builder = ColumnarResultSet.builder(
+                Arrays.asList("row_key", "row_matched", "dimension_field", "measure_value", "row_watermark"),
+                Arrays.asList(ColumnarResultSet.ColumnType.LONG, ColumnarResultSet.ColumnType.LONG,
+                        ColumnarResultSet.ColumnType.STRING, measureType, ColumnarResultSet.ColumnType.OBJECT));
+        for (Object[] row : rows) {
+            for (int column = 0; column < row.length; column++) {
+                builder.append(column, row[column]);
+            }
+        }
+        return builder.build();
+    }
+}
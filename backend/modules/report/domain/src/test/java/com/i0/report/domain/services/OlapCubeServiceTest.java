@@ -0,0 +1,207 @@
+package com.i0.report.domain.services;
+
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.Filter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OlapCubeService单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OlapCubeService测试")
+class OlapCubeServiceTest {
+
+    private static final LocalDateTime LOADED_AT = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Mock
+    private DatasetRepository datasetRepository;
+
+    @Test
+    @DisplayName("加载后按维度分组和过滤聚合，不再访问数据库")
+    void shouldAnswerGroupByAndFilterFromCube() {
+        // Given
+        OlapCubeService service = new OlapCubeService(datasetRepository, 16,
+                Duration.ofMinutes(5), Duration.ofMinutes(30), Duration.ofSeconds(60), Runnable::run);
+        Dataset dataset = dataset(null, null);
+        when(datasetRepository.executeColumnarQuery(eq(dataset), eq(dataset.getSql()), anyList())).thenReturn(employees(
+                employee("e1", "研发部", "ACTIVE", LOADED_AT.minusMonths(2), 100L),
+                employee("e2", "研发部", "INACTIVE", LOADED_AT.minusMonths(1), 200L),
+                employee("e3", "销售部", "ACTIVE", LOADED_AT.minusMonths(1), 300L),
+                employee("e4", "销售部", "ACTIVE", LOADED_AT, null)));
+
+        // When
+        ColumnarResultSet activeByDepartment = service.query(dataset, indicator("COUNT(*)"), "department",
+                List.of(Filter.builder().field("status").operator("eq").value("active").build())).orElseThrow();
+        ColumnarResultSet salaryByMonth = service.query(dataset, indicator("SUM(salary)"),
+                "DATE_FORMAT(join_date, '%Y-%m')", Collections.emptyList()).orElseThrow();
+        ColumnarResultSet total = service.query(dataset, indicator("AVG(salary)"), null, Collections.emptyList()).orElseThrow();
+
+        // Then
+        assertThat(activeByDepartment.asRowMaps()).extracting(row -> row.get("dimension_field"), row -> row.get("calculated_value"))
+                .containsExactly(tuple("研发部", 1L), tuple("销售部", 2L));
+        assertThat(salaryByMonth.asRowMaps()).extracting(row -> row.get("dimension_field"), row -> row.get("calculated_value"))
+                .containsExactly(tuple("2024-01", 100L), tuple("2024-02", 500L), tuple("2024-03", null));
+        assertThat(total.getDouble(total.indexOf("calculated_value"), 0)).isEqualTo(200.0);
+        verify(datasetRepository, times(1)).executeColumnarQuery(any(), anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("实时数据集按水位读取变化行更新立方体")
+    void shouldApplyChangedRowsToCube() {
+        // Given
+        OlapCubeService service = new OlapCubeService(datasetRepository, 16,
+                Duration.ZERO, Duration.ofMinutes(30), Duration.ofSeconds(60), Runnable::run);
+        Dataset dataset = dataset("id", "updated_at");
+        when(datasetRepository.executeColumnarQuery(eq(dataset), eq(dataset.getSql()), anyList())).thenReturn(employees(
+                employee("e1", "研发部", "ACTIVE", LOADED_AT, 100L),
+                employee("e2", "研发部", "ACTIVE", LOADED_AT, 200L)));
+        when(datasetRepository.executeColumnarQuery(eq(dataset), contains("updated_at >= '2024-03-01 08:59:00'"), anyList()))
+                .thenReturn(employees(
+                        employee("e2", "销售部", "ACTIVE", LOADED_AT.plusMinutes(1), 200L),
+                        employee("e3", "销售部", "ACTIVE", LOADED_AT.plusMinutes(1), 300L)));
+
+        // When
+        service.query(dataset, indicator("COUNT(*)"), "department", Collections.emptyList());
+        ColumnarResultSet updated = service.query(dataset, indicator("COUNT(*)"), "department", Collections.emptyList()).orElseThrow();
+
+        // Then
+        assertThat(updated.asRowMaps()).extracting(row -> row.get("dimension_field"), row -> row.get("calculated_value"))
+                .containsExactly(tuple("研发部", 1L), tuple("销售部", 2L));
+    }
+
+    @Test
+    @DisplayName("加载在刷新线程池中执行，首次加载完成前返回空由调用方执行SQL")
+    void shouldLoadCubeOffRequestThread() {
+        // Given
+        List<Runnable> pendingRefreshes = new ArrayList<>();
+        OlapCubeService service = new OlapCubeService(datasetRepository, 16,
+                Duration.ofMinutes(5), Duration.ofMinutes(30), Duration.ofSeconds(60), pendingRefreshes::add);
+        Dataset dataset = dataset(null, null);
+
+        // When - 加载完成前的请求只提交一次刷新任务，不访问数据库
+        assertThat(service.query(dataset, indicator("COUNT(*)"), "department", Collections.emptyList())).isEmpty();
+        assertThat(service.query(dataset, indicator("COUNT(*)"), "department", Collections.emptyList())).isEmpty();
+        verifyNoInteractions(datasetRepository);
+        assertThat(pendingRefreshes).hasSize(1);
+
+        when(datasetRepository.executeColumnarQuery(eq(dataset), eq(dataset.getSql()), anyList()))
+                .thenReturn(employees(employee("e1", "研发部", "ACTIVE", LOADED_AT, 100L)));
+        pendingRefreshes.get(0).run();
+
+        // Then
+        ColumnarResultSet result = service.query(dataset, indicator("COUNT(*)"), "department", Collections.emptyList())
+                .orElseThrow();
+        assertThat(result.getRowCount()).isEqualTo(1);
+        assertThat(pendingRefreshes).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("字典编码与过滤条件使用相同的大小写折叠，大小写不同的值归为一组")
+    void shouldFoldCaseConsistentlyForGroupsAndFilters() {
+        // Given
+        OlapCubeService service = new OlapCubeService(datasetRepository);
+        Dataset dataset = dataset(null, null);
+        when(datasetRepository.executeColumnarQuery(eq(dataset), eq(dataset.getSql()), anyList())).thenReturn(employees(
+                employee("e1", "Sales", "ACTIVE", LOADED_AT, 100L),
+                employee("e2", "SALES", "active", LOADED_AT, 200L),
+                employee("e3", "研发部", "Inactive", LOADED_AT, 300L)));
+
+        // When
+        ColumnarResultSet byDepartment = service.query(dataset, indicator("COUNT(*)"), "department",
+                Collections.emptyList()).orElseThrow();
+        ColumnarResultSet active = service.query(dataset, indicator("SUM(salary)"), null,
+                List.of(Filter.builder().field("status").operator("in").value(List.of("Active")).build())).orElseThrow();
+        ColumnarResultSet sales = service.query(dataset, indicator("COUNT(*)"), null,
+                List.of(Filter.builder().field("department").operator("like").value("sal%").build())).orElseThrow();
+
+        // Then - 输出首次出现的原值
+        assertThat(byDepartment.asRowMaps()).extracting(row -> row.get("dimension_field"), row -> row.get("calculated_value"))
+                .containsExactly(tuple("Sales", 2L), tuple("研发部", 1L));
+        assertThat(active.getLong(active.indexOf("calculated_value"), 0)).isEqualTo(300L);
+        assertThat(sales.getLong(sales.indexOf("calculated_value"), 0)).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("立方体无法回答的查询返回空，由调用方执行SQL")
+    void shouldFallBackForUnsupportedQueries() {
+        OlapCubeService service = new OlapCubeService(datasetRepository);
+        Dataset notEligible = Dataset.builder().id("dataset-2").sql("SELECT * FROM employees").build();
+
+        assertThat(service.query(notEligible, indicator("COUNT(*)"), "department", Collections.emptyList())).isEmpty();
+        assertThat(service.query(dataset(null, null), indicator("SUM(salary) / COUNT(*)"), "department", Collections.emptyList()))
+                .isEmpty();
+        assertThat(service.query(dataset(null, null), indicator("COUNT(*)"), "LEFT(department, 2)", Collections.emptyList()))
+                .isEmpty();
+        verifyNoInteractions(datasetRepository);
+    }
+
+    @Test
+    @DisplayName("过滤字段不是立方体维度时返回空")
+    void shouldFallBackWhenFilterFieldIsNotDimension() {
+        OlapCubeService service = new OlapCubeService(datasetRepository);
+        Dataset dataset = dataset(null, null);
+        when(datasetRepository.executeColumnarQuery(eq(dataset), eq(dataset.getSql()), anyList()))
+                .thenReturn(employees(employee("e1", "研发部", "ACTIVE", LOADED_AT, 100L)));
+
+        assertThat(service.query(dataset, indicator("COUNT(*)"), "department",
+                List.of(Filter.builder().field("salary").operator("gt").value("50").build()))).isEmpty();
+    }
+
+    private static Dataset dataset(String sortKey, String watermarkColumn) {
+        return Dataset.builder()
+                .id("dataset-employee-basic")
+                .name("员工基础数据集")
+                .sql("SELECT id, department, status, join_date, salary, updated_at FROM employees WHERE is_deleted = 0")
+                .updateStrategy("real_time")
+                .sortKey(sortKey)
+                .watermarkColumn(watermarkColumn)
+                .cubeEligible(true)
+                .build();
+    }
+
+    private static Indicator indicator(String calculation) {
+        return Indicator.builder()
+                .id("indicator-1")
+                .name("员工指标")
+                .datasetId("dataset-employee-basic")
+                .calculation(calculation)
+                .build();
+    }
+
+    private static Object[] employee(String id, String department, String status, LocalDateTime joinDate, Long salary) {
+        return new Object[]{id, department, status, Timestamp.valueOf(joinDate), salary, Timestamp.valueOf(joinDate)};
+    }
+
+    private static ColumnarResultSet employees(Object[]... rows) {
+        ColumnarResultSet.Builder builder = ColumnarResultSet.builder(
+                Arrays.asList("id", "department", "status", "join_date", "salary", "updated_at"),
+                Arrays.asList(ColumnarResultSet.ColumnType.STRING, ColumnarResultSet.ColumnType.STRING,
+                        ColumnarResultSet.ColumnType.STRING, ColumnarResultSet.ColumnType.OBJECT,
+                        ColumnarResultSet.ColumnType.LONG, ColumnarResultSet.ColumnType.OBJECT));
+        for (Object[] row : rows) {
+            for (int column = 0; column < row.length; column++) {
+                builder.append(column, row[column]);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,196 @@
+package com.i0.report.domain.valueobjects;
+
+import com.i0.report.domain.valueobjects.ColumnarResultSet.ColumnType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ColumnarResultSet单元测试
+ */
+@DisplayName("ColumnarResultSet测试")
+class ColumnarResultSetTest {
+
+    @Test
+    @DisplayName("数值列按原始类型读取，空值单独标记")
+    void shouldReadNumericColumnsAndNulls() {
+        // Given
+        ColumnarResultSet rows = ColumnarResultSet.builder(
+                        Arrays.asList("cnt", "ratio"),
+                        Arrays.asList(ColumnType.LONG, ColumnType.DOUBLE))
+                .appendLong(0, 7).appendDouble(1, 0.25)
+                .appendNull(0).appendNull(1)
+                .build();
+
+        // Then
+        assertThat(rows.getRowCount()).isEqualTo(2);
+        assertThat(rows.isNumeric(0)).isTrue();
+        assertThat(rows.isNumeric(1)).isTrue();
+        assertThat(rows.getLong(0, 0)).isEqualTo(7L);
+        assertThat(rows.getDouble(0, 0)).isEqualTo(7.0);
+        assertThat(rows.getDouble(1, 0)).isEqualTo(0.25);
+        assertThat(rows.getLong(1, 0)).isZero();
+        assertThat(rows.isNull(0, 1)).isTrue();
+        assertThat(rows.isNull(1, 1)).isTrue();
+        assertThat(rows.getValue(0, 1)).isNull();
+        assertThat(rows.getString(1, 1)).isNull();
+    }
+
+    @Test
+    @DisplayName("定点小数列保留BigDecimal精度")
+    void shouldKeepDecimalPrecision() {
+        // Given
+        BigDecimal amount = new BigDecimal("12345678901234567.89");
+        ColumnarResultSet rows = ColumnarResultSet.builder(
+                        Collections.singletonList("amount"), Collections.singletonList(ColumnType.DECIMAL))
+                .appendDecimal(0, amount)
+                .append(0, "0.10")
+                .append(0, 3L)
+                .appendNull(0)
+                .build();
+
+        // Then
+        assertThat(rows.isNumeric(0)).isTrue();
+        assertThat(rows.getValue(0, 0)).isEqualTo(amount);
+        assertThat(rows.getDecimal(0, 0)).isEqualTo(amount);
+        assertThat(rows.getString(0, 0)).isEqualTo("12345678901234567.89");
+        assertThat(rows.getValue(0, 1)).isEqualTo(new BigDecimal("0.10"));
+        assertThat(rows.getDecimal(0, 2)).isEqualTo(BigDecimal.valueOf(3L));
+        assertThat(rows.getLong(0, 0)).isEqualTo(12345678901234567L);
+        assertThat(rows.getDouble(0, 1)).isEqualTo(0.1);
+        assertThat(rows.isNull(0, 3)).isTrue();
+    }
+
+    @Test
+    @DisplayName("字符串列字典编码，相同值只保存一份")
+    void shouldDictionaryEncodeStrings() {
+        // Given
+        ColumnarResultSet.Builder builder = ColumnarResultSet.builder(
+                Collections.singletonList("city"), Collections.singletonList(ColumnType.STRING));
+        builder.appendString(0, "beijing");
+        long afterFirst = builder.estimatedSizeInBytes();
+        builder.appendString(0, "beijing");
+        long afterRepeat = builder.estimatedSizeInBytes();
+        builder.appendString(0, null);
+        ColumnarResultSet rows = builder.build();
+
+        // Then
+        assertThat(afterRepeat - afterFirst).isEqualTo(Integer.BYTES);
+        assertThat(rows.getString(0, 0)).isEqualTo("beijing");
+        assertThat(rows.getString(0, 1)).isEqualTo("beijing");
+        assertThat(rows.isNull(0, 2)).isTrue();
+        assertThat(rows.isNumeric(0)).isFalse();
+        assertThatThrownBy(() -> rows.getLong(0, 0)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("append按列类型转换值，非数值写入数值列时抛出异常")
+    void shouldConvertAppendedValuesByColumnType() {
+        // Given
+        LocalDate day = LocalDate.of(2024, 1, 31);
+        ColumnarResultSet.Builder builder = ColumnarResultSet.builder(
+                Arrays.asList("cnt", "avg", "name", "day"),
+                Arrays.asList(ColumnType.LONG, ColumnType.DOUBLE, ColumnType.STRING, ColumnType.OBJECT));
+        builder.append(0, " 42 ").append(1, 3).append(2, 99).append(3, day);
+        ColumnarResultSet rows = builder.build();
+
+        // Then
+        assertThat(rows.getLong(0, 0)).isEqualTo(42L);
+        assertThat(rows.getDouble(1, 0)).isEqualTo(3.0);
+        assertThat(rows.getString(2, 0)).isEqualTo("99");
+        assertThat(rows.getValue(3, 0)).isEqualTo(day);
+        assertThatThrownBy(() -> builder.append(0, "n/a"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cnt");
+    }
+
+    @Test
+    @DisplayName("appendFrom在数值列之间复制时按目标列类型转换")
+    void shouldCopyCellsBetweenResultSets() {
+        // Given
+        ColumnarResultSet source = ColumnarResultSet.builder(
+                        Arrays.asList("a", "b", "c"),
+                        Arrays.asList(ColumnType.DECIMAL, ColumnType.LONG, ColumnType.STRING))
+                .appendDecimal(0, new BigDecimal("1.50")).appendLong(1, 9).appendString(2, "x")
+                .appendNull(0).appendLong(1, 10).appendNull(2)
+                .build();
+
+        // When
+        ColumnarResultSet copy = ColumnarResultSet.builder(
+                        Arrays.asList("a", "b", "c"),
+                        Arrays.asList(ColumnType.DECIMAL, ColumnType.DOUBLE, ColumnType.STRING))
+                .appendFrom(0, source, 0, 0).appendFrom(1, source, 1, 0).appendFrom(2, source, 2, 0)
+                .appendFrom(0, source, 0, 1).appendFrom(1, source, 1, 1).appendFrom(2, source, 2, 1)
+                .build();
+
+        // Then
+        assertThat(copy.getValue(0, 0)).isEqualTo(new BigDecimal("1.50"));
+        assertThat(copy.getValue(1, 0)).isEqualTo(9.0);
+        assertThat(copy.getString(2, 0)).isEqualTo("x");
+        assertThat(copy.isNull(0, 1)).isTrue();
+        assertThat(copy.getDouble(1, 1)).isEqualTo(10.0);
+        assertThat(copy.isNull(2, 1)).isTrue();
+    }
+
+    @Test
+    @DisplayName("列名查找大小写不敏感，重名时取第一列")
+    void shouldLookUpColumnsCaseInsensitively() {
+        // Given
+        ColumnarResultSet rows = ColumnarResultSet.builder(
+                        Arrays.asList("Dimension_Field", "dimension_field"),
+                        Arrays.asList(ColumnType.STRING, ColumnType.STRING))
+                .build();
+
+        // Then
+        assertThat(rows.indexOf("DIMENSION_FIELD")).isZero();
+        assertThat(rows.indexOf("missing")).isEqualTo(-1);
+        assertThat(rows.indexOf(null)).isEqualTo(-1);
+        assertThat(rows.isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("行Map视图按需读取列值")
+    void shouldExposeRowMapView() {
+        // Given
+        ColumnarResultSet rows = ColumnarResultSet.builder(
+                        Arrays.asList("calculated_value", "dimension_field"),
+                        Arrays.asList(ColumnType.LONG, ColumnType.STRING))
+                .appendLong(0, 3).appendString(1, "cn")
+                .appendLong(0, 5).appendNull(1)
+                .build();
+
+        // When
+        List<Map<String, Object>> maps = rows.asRowMaps();
+
+        // Then
+        assertThat(maps).hasSize(2);
+        assertThat(maps.get(0)).containsEntry("calculated_value", 3L).containsEntry("dimension_field", "cn");
+        assertThat(maps.get(0).get("CALCULATED_VALUE")).isEqualTo(3L);
+        assertThat(maps.get(1).get("dimension_field")).isNull();
+        assertThatThrownBy(() -> maps.get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    @DisplayName("列行数不一致或类型不匹配时构建失败")
+    void shouldRejectInconsistentColumns() {
+        // Given
+        ColumnarResultSet.Builder builder = ColumnarResultSet.builder(
+                Arrays.asList("a", "b"), Arrays.asList(ColumnType.LONG, ColumnType.LONG));
+        builder.appendLong(0, 1);
+
+        // Then
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> builder.appendDouble(1, 1.0)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> ColumnarResultSet.builder(
+                Collections.singletonList("a"), Collections.emptyList()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,118 @@
+package com.i0.report.domain.valueobjects;
+
+import com.i0.report.domain.valueobjects.ColumnarResultSet.ColumnType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * OlapCube单元测试
+ * 覆盖整批校验后再写入、大小比较按维度值的类型进行
+ */
+@DisplayName("OlapCube测试")
+class OlapCubeTest {
+
+    private static final LocalDateTime JOINED = LocalDateTime.of(2024, 3, 1, 9, 0);
+    private static final DecomposableAggregate COUNT = DecomposableAggregate.parse("COUNT(*)").orElseThrow();
+
+    @Test
+    @DisplayName("变化行中有维度值超出基数上限时整批不写入，立方体保持原状")
+    void shouldLeaveCubeUnchanged_WhenBatchExceedsCardinality() {
+        // Given
+        OlapCube cube = OlapCube.load(employees(
+                employee("e1", "研发部", 1, JOINED),
+                employee("e2", "销售部", 2, JOINED)), "id", 2);
+
+        // When
+        boolean applied = cube.upsert(employees(
+                employee("e1", "销售部", 1, JOINED),
+                employee("e2", "市场部", 2, JOINED)));
+
+        // Then
+        assertThat(applied).isFalse();
+        assertThat(cube.getRowCount()).isEqualTo(2);
+        assertThat(countBy(cube, "department", Collections.emptyList()))
+                .containsExactly(tuple("研发部", 1L), tuple("销售部", 1L));
+    }
+
+    @Test
+    @DisplayName("变化行中有行标识为空时整批不写入")
+    void shouldLeaveCubeUnchanged_WhenBatchHasNullKey() {
+        // Given
+        OlapCube cube = OlapCube.load(employees(employee("e1", "研发部", 1, JOINED)), "id", 16);
+
+        // When
+        boolean applied = cube.upsert(employees(
+                employee("e1", "销售部", 1, JOINED),
+                employee(null, "研发部", 2, JOINED)));
+
+        // Then
+        assertThat(applied).isFalse();
+        assertThat(countBy(cube, "department", Collections.emptyList())).containsExactly(tuple("研发部", 1L));
+    }
+
+    @Test
+    @DisplayName("数值维度按数值大小比较，日期维度按时间先后比较")
+    void shouldCompareByDimensionValueType() {
+        // Given
+        OlapCube cube = OlapCube.load(employees(
+                employee("e1", "研发部", 9, JOINED.minusDays(1)),
+                employee("e2", "研发部", 10, JOINED),
+                employee("e3", "销售部", 100, JOINED.plusDays(1))), "id", 16);
+
+        // When
+        long gradeAboveNine = count(cube, Filter.builder().field("grade").operator("gt").value("9").build());
+        long joinedSinceMarch = count(cube, Filter.builder().field("join_date").operator("gte").value("2024-03-01").build());
+
+        // Then
+        assertThat(gradeAboveNine).isEqualTo(2L);
+        assertThat(joinedSinceMarch).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("比较目标无法转换为维度值的类型时返回空，由调用方执行SQL")
+    void shouldFallBack_WhenComparisonTargetIsNotTyped() {
+        // Given
+        OlapCube cube = OlapCube.load(employees(employee("e1", "研发部", 1, JOINED)), "id", 16);
+
+        // When / Then
+        assertThat(cube.query(COUNT, null,
+                List.of(Filter.builder().field("grade").operator("gt").value("high").build()))).isEmpty();
+    }
+
+    private static List<?> countBy(OlapCube cube, String dimension, List<Filter> filters) {
+        ColumnarResultSet result = cube.query(COUNT, dimension, filters).orElseThrow();
+        return result.asRowMaps().stream()
+                .map(row -> tuple(row.get("dimension_field"), row.get("calculated_value")))
+                .collect(Collectors.toList());
+    }
+
+    private static long count(OlapCube cube, Filter filter) {
+        ColumnarResultSet result = cube.query(COUNT, null, List.of(filter)).orElseThrow();
+        return result.getLong(result.indexOf("calculated_value"), 0);
+    }
+
+    private static Object[] employee(String id, String department, Integer grade, LocalDateTime joinDate) {
+        return new Object[]{id, department, grade, Timestamp.valueOf(joinDate)};
+    }
+
+    private static ColumnarResultSet employees(Object[]... rows) {
+        ColumnarResultSet.Builder builder = ColumnarResultSet.builder(
+                Arrays.asList("id", "department", "grade", "join_date"),
+                Arrays.asList(ColumnType.STRING, ColumnType.STRING, ColumnType.OBJECT, ColumnType.OBJECT));
+        for (Object[] row : rows) {
+            for (int column = 0; column < row.length; column++) {
+                builder.append(column, row[column]);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.i0.report.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 报表访问统计配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "report.access")
+public class ReportAccessTrackingProperties {
+
+    /**
+     * 是否记录报表访问
+     */
+    private boolean enabled = true;
+
+    /**
+     * 内存计数刷写到汇总表的间隔（毫秒）
+     */
+    private long flushIntervalMs = 30_000;
+
+    /**
+     * 单批合并写入的最大行数
+     */
+    private int flushBatchSize = 500;
+
+    /**
+     * 内存中待刷写的最大计数键数量，超出后丢弃新键的访问并记录告警，防止刷写持续失败时内存无限增长
+     */
+    private int maxPendingKeys = 100_000;
+
+    /**
+     * 热门报表统计的时间窗口（天）
+     */
+    private int popularWindowDays = 7;
+}
@@ -0,0 +1,24 @@
+package com.i0.report.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 报表配置图配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "report.config-graph")
+public class ReportConfigGraphProperties {
+
+    /**
+     * 是否启用配置图，关闭时每次从数据库读取配置
+     */
+    private boolean enabled = true;
+
+    /**
+     * 配置图最长使用时间（秒），到期后重新加载，用于发现其他实例或直接修改数据库产生的变更
+     */
+    private long maxAgeSeconds = 60;
+}
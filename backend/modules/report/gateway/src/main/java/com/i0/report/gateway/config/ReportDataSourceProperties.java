@@ -0,0 +1,104 @@
+package com.i0.report.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 报表分析查询连接池配置
+ * 数据集和指标SQL在独立的连接池中执行，与业务读写使用的主连接池隔离；
+ * 未配置连接信息时沿用主数据源（spring.datasource）的连接信息
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "report.datasource")
+public class ReportDataSourceProperties {
+
+    /**
+     * 默认分析连接池名称
+     */
+    public static final String DEFAULT_POOL = "analytical";
+
+    /**
+     * 是否启用独立分析连接池，关闭时报表SQL使用主连接池
+     */
+    private boolean enabled = true;
+
+    /**
+     * 默认分析连接池
+     */
+    private Pool analytical = new Pool();
+
+    /**
+     * 额外的命名连接池，可供指定数据集独占使用
+     */
+    private Map<String, Pool> pools = new HashMap<>();
+
+    /**
+     * 数据集路由：数据集ID到命名连接池名称
+     */
+    private Map<String, String> datasetRoutes = new HashMap<>();
+
+    /**
+     * 解析数据集使用的连接池名称，未配置路由或路由到不存在的连接池时使用默认分析连接池
+     *
+     * @param datasetId 数据集ID，可为空
+     * @return 连接池名称
+     */
+    public String resolvePoolName(String datasetId) {
+        String poolName = datasetId != null ? datasetRoutes.get(datasetId) : null;
+        return poolName != null && pools.containsKey(poolName) ? poolName : DEFAULT_POOL;
+    }
+
+    /**
+     * 获取连接池配置
+     */
+    public Pool getPool(String poolName) {
+        return DEFAULT_POOL.equals(poolName) ? analytical : pools.getOrDefault(poolName, analytical);
+    }
+
+    /**
+     * 单个连接池配置
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * JDBC连接地址，为空时沿用主数据源
+         */
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+
+        /**
+         * 最大连接数
+         */
+        private int maximumPoolSize = 10;
+
+        /**
+         * 最小空闲连接数
+         */
+        private int minimumIdle = 2;
+
+        /**
+         * 获取连接的最长等待时间（毫秒），超时后查询快速失败而不是无限排队
+         */
+        private long connectionTimeoutMs = 5000;
+
+        private long idleTimeoutMs = 600000;
+
+        private long maxLifetimeMs = 1800000;
+
+        /**
+         * 是否以只读模式打开连接
+         */
+        private boolean readOnly = true;
+    }
+}
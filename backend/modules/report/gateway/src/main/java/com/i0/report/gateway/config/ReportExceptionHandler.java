@@ -47,7 +47,7 @@ public class ReportExceptionHandler {
     public ResponseEntity<Map<String, Object>> handleDatasetNotFound(DatasetNotFoundException e) {
         log.warn("数据集不存在: {}", e.getMessage());
         Map<String, Object> response = createErrorResponse(e.getErrorCode(), e.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
     @ExceptionHandler(ReportDomainException.class)
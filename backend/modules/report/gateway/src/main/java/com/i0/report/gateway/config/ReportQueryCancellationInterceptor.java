@@ -0,0 +1,66 @@
+package com.i0.report.gateway.config;
+
+import com.i0.report.gateway.persistence.sql.QueryCancellationRegistry;
+import com.i0.report.gateway.persistence.sql.QueryCancellationRegistry.QueryScope;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 报表查询取消拦截器
+ * 异步请求开始时创建取消范围并绑定到处理线程，请求超时或出错（如客户端断开）时取消范围内正在执行的SQL
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReportQueryCancellationInterceptor implements CallableProcessingInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = ReportQueryCancellationInterceptor.class.getName() + ".SCOPE";
+
+    private final QueryCancellationRegistry cancellationRegistry;
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        request.setAttribute(SCOPE_ATTRIBUTE, cancellationRegistry.newScope(), RequestAttributes.SCOPE_REQUEST);
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        QueryScope scope = getScope(request);
+        if (scope != null) {
+            cancellationRegistry.bind(scope);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        cancellationRegistry.unbind();
+    }
+
+    @Override
+    public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+        cancel(request, "请求超时");
+        return RESULT_NONE;
+    }
+
+    @Override
+    public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+        cancel(request, t.getMessage());
+        return RESULT_NONE;
+    }
+
+    private void cancel(NativeWebRequest request, String reason) {
+        QueryScope scope = getScope(request);
+        if (scope != null && !scope.isCancelled()) {
+            log.info("请求中止，取消正在执行的报表查询: reason={}", reason);
+            scope.cancel();
+        }
+    }
+
+    private QueryScope getScope(NativeWebRequest request) {
+        return (QueryScope) request.getAttribute(SCOPE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -0,0 +1,69 @@
+package com.i0.report.gateway.config;
+
+import com.i0.report.gateway.persistence.sql.QueryLimits;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 报表查询执行限制配置
+ * 全局限制适用于所有报表SQL，可按数据集ID单独覆盖
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "report.query.guardrails")
+public class ReportQueryGuardrailProperties {
+
+    /**
+     * 语句超时时间（秒），0 表示不限制
+     */
+    private int statementTimeoutSeconds = 30;
+
+    /**
+     * 单次查询最大返回行数
+     */
+    private int maxRows = 100_000;
+
+    /**
+     * 单次查询物化结果的最大估算大小（字节）
+     */
+    private long maxResultBytes = 64L * 1024 * 1024;
+
+    /**
+     * 按数据集ID覆盖的执行限制，未配置的项沿用全局值
+     */
+    private Map<String, DatasetLimits> datasets = new HashMap<>();
+
+    /**
+     * 解析数据集的执行限制
+     *
+     * @param datasetId 数据集ID，为空时返回全局限制
+     * @return 执行限制
+     */
+    public QueryLimits resolve(String datasetId) {
+        DatasetLimits override = datasetId != null ? datasets.get(datasetId) : null;
+        if (override == null) {
+            return new QueryLimits(statementTimeoutSeconds, maxRows, maxResultBytes);
+        }
+        return new QueryLimits(
+                override.getStatementTimeoutSeconds() != null ? override.getStatementTimeoutSeconds() : statementTimeoutSeconds,
+                override.getMaxRows() != null ? override.getMaxRows() : maxRows,
+                override.getMaxResultBytes() != null ? override.getMaxResultBytes() : maxResultBytes);
+    }
+
+    /**
+     * 单个数据集的执行限制
+     */
+    @Data
+    public static class DatasetLimits {
+
+        private Integer statementTimeoutSeconds;
+
+        private Integer maxRows;
+
+        private Long maxResultBytes;
+    }
+}
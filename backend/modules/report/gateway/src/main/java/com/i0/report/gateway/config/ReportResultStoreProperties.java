@@ -0,0 +1,29 @@
+package com.i0.report.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 报表结果存储配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "report.result-store")
+public class ReportResultStoreProperties {
+
+    /**
+     * 是否启用报表结果存储
+     */
+    private boolean enabled = true;
+
+    /**
+     * 报表未配置刷新间隔时结果的保留时间（秒）
+     */
+    private long defaultTtlSeconds = 300;
+
+    /**
+     * 最多保存的结果数量，超出后优先淘汰已过期和最早过期的结果
+     */
+    private int maxEntries = 1000;
+}
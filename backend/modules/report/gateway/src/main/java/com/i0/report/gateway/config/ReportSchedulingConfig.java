@@ -0,0 +1,12 @@
+package com.i0.report.gateway.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 报表定时任务配置
+ */
+@Configuration
+@EnableScheduling
+public class ReportSchedulingConfig {
+}
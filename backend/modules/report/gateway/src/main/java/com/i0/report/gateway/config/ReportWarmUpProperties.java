@@ -0,0 +1,58 @@
+package com.i0.report.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 报表预热配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "report.warmup")
+public class ReportWarmUpProperties {
+
+    /**
+     * 是否启用报表预热
+     */
+    private boolean enabled = true;
+
+    /**
+     * 应用启动完成后是否立即预热
+     */
+    private boolean onStartup = true;
+
+    /**
+     * 定时检查的cron表达式，默认工作日7点到19点每分钟一次；设为 "-" 关闭定时预热。
+     * 每次检查只重新计算缺失或即将过期的结果，因此检查间隔应明显小于结果保留时间
+     */
+    private String cron = "0 * 7-19 * * MON-FRI";
+
+    /**
+     * 结果距离过期不足该时间（秒）时重新计算，应大于cron检查间隔与单个报表的计算耗时之和
+     */
+    private long refreshAheadSeconds = 120;
+
+    /**
+     * 预热目标（固定列表和热门报表）的重新选取间隔（秒）
+     */
+    private long targetRefreshSeconds = 900;
+
+    /**
+     * 固定预热的报表ID
+     */
+    private List<String> reportIds = new ArrayList<>();
+
+    /**
+     * 额外预热的热门报表数量（按访问统计），0 表示只预热固定列表
+     */
+    private int popularCount = 10;
+
+    /**
+     * 预热并发数，应明显小于分析连接池大小，避免挤占线上请求
+     */
+    private int concurrency = 2;
+}
@@ -0,0 +1,30 @@
+package com.i0.report.gateway.config;
+
+import com.i0.report.gateway.metrics.ReportResponseTimer;
+import com.i0.report.gateway.persistence.sql.QueryCancellationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 报表Web配置
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ReportWebMvcConfig implements WebMvcConfigurer {
+
+    private final QueryCancellationRegistry queryCancellationRegistry;
+    private final ReportResponseTimer reportResponseTimer;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new ReportQueryCancellationInterceptor(queryCancellationRegistry));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(reportResponseTimer).addPathPatterns("/api/reports/*/data");
+    }
+}
@@ -1,24 +1,54 @@
 package com.i0.report.gateway.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.report.application.dto.input.BatchReportDataInput;
 import com.i0.report.application.dto.input.CreateDatasetInput;
+import com.i0.report.application.dto.input.DatasetBrowseInput;
 import com.i0.report.application.dto.input.ReportDataGenerationInput;
+import com.i0.report.application.dto.output.BatchReportDataOutput;
+import com.i0.report.application.dto.output.DatasetFieldOutput;
 import com.i0.report.application.dto.output.DatasetOutput;
+import com.i0.report.application.dto.output.DatasetRowsOutput;
 import com.i0.report.application.dto.output.ReportDataOutput;
+import com.i0.report.application.dto.output.ReportDataStreamEvent;
 import com.i0.report.application.dto.output.ReportOutput;
+import com.i0.report.application.dto.output.ReportPerformanceOutput;
+import com.i0.report.application.usecases.BrowseDatasetRowsUseCase;
 import com.i0.report.application.usecases.CreateDatasetUseCase;
 import com.i0.report.application.usecases.FindAllReportsUseCase;
+import com.i0.report.application.usecases.GenerateBatchReportDataUseCase;
 import com.i0.report.application.usecases.GenerateChartDataUseCase;
 import com.i0.report.application.usecases.GenerateReportDataUseCase;
+import com.i0.report.application.usecases.GetDatasetFieldsUseCase;
+import com.i0.report.application.usecases.GetOlapCubeStatsUseCase;
+import com.i0.report.application.usecases.GetPopularReportsUseCase;
+import com.i0.report.application.usecases.GetReportAccessStatsUseCase;
 import com.i0.report.application.usecases.GetReportByIdUseCase;
+import com.i0.report.application.usecases.GetReportPerformanceUseCase;
+import com.i0.report.application.usecases.GetReportWarmUpStatusUseCase;
+import com.i0.report.application.usecases.StreamDatasetRowsUseCase;
+import com.i0.report.application.usecases.StreamReportDataUseCase;
+import com.i0.report.application.usecases.TriggerReportWarmUpUseCase;
 import com.i0.report.domain.valueobjects.Filter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Collections;
+import java.util.Map;
 
 /**
  * 报表控制器
@@ -34,7 +64,19 @@ public class ReportController {
     private final FindAllReportsUseCase findAllReportsUseCase;
     private final GetReportByIdUseCase getReportByIdUseCase;
     private final GenerateReportDataUseCase generateReportDataUseCase;
+    private final GenerateBatchReportDataUseCase generateBatchReportDataUseCase;
     private final GenerateChartDataUseCase generateChartDataUseCase;
+    private final BrowseDatasetRowsUseCase browseDatasetRowsUseCase;
+    private final StreamDatasetRowsUseCase streamDatasetRowsUseCase;
+    private final StreamReportDataUseCase streamReportDataUseCase;
+    private final GetDatasetFieldsUseCase getDatasetFieldsUseCase;
+    private final GetReportPerformanceUseCase getReportPerformanceUseCase;
+    private final GetReportAccessStatsUseCase getReportAccessStatsUseCase;
+    private final GetPopularReportsUseCase getPopularReportsUseCase;
+    private final GetOlapCubeStatsUseCase getOlapCubeStatsUseCase;
+    private final GetReportWarmUpStatusUseCase getReportWarmUpStatusUseCase;
+    private final TriggerReportWarmUpUseCase triggerReportWarmUpUseCase;
+    private final ObjectMapper objectMapper;
 
     /**
      * 创建数据集
@@ -45,13 +87,88 @@ public class ReportController {
         return createDatasetUseCase.execute(input);
     }
 
+    /**
+     * 分页浏览数据集数据
+     * 默认OFFSET分页；传入 mode=keyset 或 after 时按数据集排序键进行键集分页，
+     * 排序键不唯一时需同时传入上一页返回的 nextId 作为 afterId
+     */
+    @PostMapping("/datasets/{datasetId}/rows")
+    public DatasetRowsOutput browseDatasetRows(@PathVariable String datasetId,
+                                               @RequestParam(defaultValue = "0") Integer page,
+                                               @RequestParam(defaultValue = "50") Integer size,
+                                               @RequestParam(required = false) String mode,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(required = false) String afterId,
+                                               @RequestBody(required = false) List<Filter> filters) {
+        log.info("浏览数据集数据请求: datasetId={}, page={}, size={}, mode={}", datasetId, page, size, mode);
+
+        DatasetBrowseInput input = DatasetBrowseInput.builder()
+                .datasetId(datasetId)
+                .page(page)
+                .size(size)
+                .mode(mode)
+                .afterKey(after)
+                .afterId(afterId)
+                .filters(filters != null ? filters : Collections.emptyList())
+                .build();
+
+        return browseDatasetRowsUseCase.execute(input);
+    }
+
+    /**
+     * 流式浏览数据集数据
+     * 以NDJSON格式输出（每行一条JSON记录），按 fetchSize 批次从数据库读取并刷新到客户端
+     */
+    @PostMapping(value = "/datasets/{datasetId}/rows/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDatasetRows(@PathVariable String datasetId,
+                                                                   @RequestParam(required = false) Integer fetchSize,
+                                                                   @RequestBody(required = false) List<Filter> filters) {
+        log.info("流式浏览数据集数据请求: datasetId={}, fetchSize={}", datasetId, fetchSize);
+
+        // 数据集不存在或参数无效时在开始输出前返回错误
+        StreamDatasetRowsUseCase.DatasetRowStream stream = streamDatasetRowsUseCase.execute(datasetId, filters, fetchSize);
+
+        int flushInterval = stream.getFetchSize();
+        StreamingResponseBody body = outputStream -> {
+            long[] written = {0};
+            long rows = stream.emitTo(row -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(row));
+                    outputStream.write('\n');
+                    if (++written[0] % flushInterval == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    // 客户端断开时中止读取，释放数据库连接
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+            log.info("流式浏览数据集完成: datasetId={}, rows={}", datasetId, rows);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * 获取数据集字段元数据
+     */
+    @GetMapping("/datasets/{datasetId}/fields")
+    public List<DatasetFieldOutput> getDatasetFields(@PathVariable String datasetId) {
+        log.info("获取数据集字段请求: {}", datasetId);
+        return getDatasetFieldsUseCase.execute(datasetId);
+    }
+
     /**
      * 获取报表配置信息
      */
     @GetMapping("/{reportId}/info")
-    public Object getReportInfo(@PathVariable String reportId) {
+    public Object getReportInfo(@PathVariable String reportId,
+                                @RequestHeader(value = "X-User-Id", required = false) String userId) {
         log.info("获取报表配置请求: {}", reportId);
-        return getReportByIdUseCase.execute(reportId);
+        return getReportByIdUseCase.execute(reportId, userId);
     }
 
     /**
@@ -59,17 +176,81 @@ public class ReportController {
      */
     @PostMapping("/{reportId}/data")
     public ReportDataOutput getReportData(@PathVariable String reportId,
-                                        @RequestBody(required = false) List<Filter> filters) {
+                                        @RequestBody(required = false) List<Filter> filters,
+                                        @RequestHeader(value = "X-User-Id", required = false) String userId) {
         log.info("获取报表数据请求: {}", reportId);
 
         ReportDataGenerationInput input = ReportDataGenerationInput.builder()
                 .reportId(reportId)
+                .userId(userId)
                 .additionalFilters(filters != null ? filters : Collections.emptyList())
                 .build();
 
         return generateReportDataUseCase.execute(input);
     }
 
+    /**
+     * 批量获取多个报表数据
+     * 所有报表的图表统一规划和去重后计算，返回按请求顺序排列的报表数据及失败的报表
+     */
+    @PostMapping("/data/batch")
+    public BatchReportDataOutput getBatchReportData(@Valid @RequestBody BatchReportDataInput input,
+                                                    @RequestHeader(value = "X-User-Id", required = false) String userId) {
+        log.info("批量获取报表数据请求: {}", input.getReportIds());
+        input.setUserId(userId);
+        return generateBatchReportDataUseCase.execute(input);
+    }
+
+    /**
+     * 流式获取报表数据
+     * 先输出报表元数据，各图表计算完成后立即输出，最后输出包含各图表耗时的完成事件；
+     * Accept 为 text/event-stream 时以SSE格式输出，否则为NDJSON
+     */
+    @PostMapping(value = "/{reportId}/data/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamReportData(
+            @PathVariable String reportId,
+            @RequestBody(required = false) List<Filter> filters,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.info("流式获取报表数据请求: {}", reportId);
+
+        ReportDataGenerationInput input = ReportDataGenerationInput.builder()
+                .reportId(reportId)
+                .userId(userId)
+                .additionalFilters(filters != null ? filters : Collections.emptyList())
+                .build();
+        // 报表不存在或已禁用时在开始输出前返回错误
+        StreamReportDataUseCase.ReportDataStream stream = streamReportDataUseCase.execute(input);
+
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        StreamingResponseBody body = outputStream -> stream.emitTo(event -> {
+            try {
+                writeStreamEvent(outputStream, event, sse);
+                outputStream.flush();
+            } catch (IOException e) {
+                // 客户端断开时取消尚未完成的图表
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeStreamEvent(OutputStream outputStream, ReportDataStreamEvent event, boolean sse)
+            throws IOException {
+        if (sse) {
+            outputStream.write(("event: " + event.getEvent() + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+            outputStream.write(objectMapper.writeValueAsBytes(event));
+            outputStream.write("\n\n".getBytes(StandardCharsets.UTF_8));
+        } else {
+            outputStream.write(objectMapper.writeValueAsBytes(event));
+            outputStream.write('\n');
+        }
+    }
+
     /**
      * 获取单个图表数据
      */
@@ -80,6 +261,67 @@ public class ReportController {
         return generateChartDataUseCase.execute(chartId, filters);
     }
 
+    /**
+     * 获取报表性能统计（管理端）
+     * 返回报表、图表和数据集各阶段耗时的p50/p95/p99/max，图表按总耗时p95降序
+     */
+    @GetMapping("/admin/{reportId}/performance")
+    public ReportPerformanceOutput getReportPerformance(@PathVariable String reportId) {
+        log.info("获取报表性能统计请求: {}", reportId);
+        return getReportPerformanceUseCase.execute(reportId);
+    }
+
+    /**
+     * 获取报表访问统计（管理端）
+     * 数据来自访问小时汇总，最近一个刷写周期内的访问尚未计入
+     */
+    @GetMapping("/admin/{reportId}/access-stats")
+    public Map<String, Object> getReportAccessStats(
+            @PathVariable String reportId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        log.info("获取报表访问统计请求: {}", reportId);
+        return getReportAccessStatsUseCase.execute(reportId, startDate, endDate);
+    }
+
+    /**
+     * 获取报表预热状态（管理端）
+     * 返回最近一轮预热情况，以及每个预热报表的结果是否仍在有效期内
+     */
+    @GetMapping("/admin/warmup")
+    public Map<String, Object> getWarmUpStatus() {
+        log.info("获取报表预热状态请求");
+        return getReportWarmUpStatusUseCase.execute();
+    }
+
+    /**
+     * 手动触发报表预热（管理端）
+     * 预热在后台执行，立即返回当前预热状态
+     */
+    @PostMapping("/admin/warmup")
+    public Map<String, Object> triggerWarmUp() {
+        log.info("手动触发报表预热请求");
+        return triggerReportWarmUpUseCase.execute();
+    }
+
+    /**
+     * 获取内存立方体状态（管理端）
+     */
+    @GetMapping("/admin/cubes")
+    public List<Map<String, Object>> getCubeStats() {
+        log.info("获取内存立方体状态请求");
+        return getOlapCubeStatsUseCase.execute();
+    }
+
+    /**
+     * 获取热门报表列表
+     */
+    @GetMapping("/popular")
+    public List<ReportOutput> getPopularReports(@RequestParam(defaultValue = "10") int limit) {
+        log.info("获取热门报表请求: limit={}", limit);
+        return getPopularReportsUseCase.execute(limit);
+    }
+
     /**
      * 获取所有报表列表
      */
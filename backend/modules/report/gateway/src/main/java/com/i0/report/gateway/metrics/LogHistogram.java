@@ -0,0 +1,125 @@
+package com.i0.report.gateway.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 低开销对数直方图
+ * 按约5%相对精度的对数桶计数，记录过程无锁、无对象分配；分位数取所在桶的上界（不超过最大值）
+ */
+public final class LogHistogram {
+
+    private static final double BUCKET_RATIO = 1.05;
+    private static final double LOG_RATIO = Math.log(BUCKET_RATIO);
+
+    /**
+     * 桶数量，可覆盖 1 到约 3.6e9 的取值（以微秒计约1小时），更大的值计入最后一个桶
+     */
+    private static final int BUCKET_COUNT = 450;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个取值，小于1的值按1计
+     */
+    public void record(long value) {
+        long normalized = Math.max(1L, value);
+        buckets.incrementAndGet(bucketIndex(normalized));
+        count.increment();
+        total.add(normalized);
+
+        long currentMax = max.get();
+        while (normalized > currentMax && !max.compareAndSet(currentMax, normalized)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * 获取当前统计快照
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long sampleCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            sampleCount += counts[i];
+        }
+        long maxValue = max.get();
+        long totalValue = total.sum();
+        return new Snapshot(sampleCount,
+                sampleCount > 0 ? (double) totalValue / sampleCount : 0,
+                percentile(counts, sampleCount, 0.50, maxValue),
+                percentile(counts, sampleCount, 0.95, maxValue),
+                percentile(counts, sampleCount, 0.99, maxValue),
+                maxValue);
+    }
+
+    private static int bucketIndex(long value) {
+        return Math.min((int) (Math.log(value) / LOG_RATIO), BUCKET_COUNT - 1);
+    }
+
+    private static double percentile(long[] counts, long sampleCount, double quantile, long maxValue) {
+        if (sampleCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * sampleCount);
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return Math.min(Math.pow(BUCKET_RATIO, i + 1), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * 直方图快照
+     */
+    public static final class Snapshot {
+
+        private final long count;
+        private final double mean;
+        private final double p50;
+        private final double p95;
+        private final double p99;
+        private final long max;
+
+        private Snapshot(long count, double mean, double p50, double p95, double p99, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP95() {
+            return p95;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
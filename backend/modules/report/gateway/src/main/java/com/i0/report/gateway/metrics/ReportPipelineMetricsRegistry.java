@@ -0,0 +1,194 @@
+package com.i0.report.gateway.metrics;
+
+import com.i0.report.domain.services.ReportPipelineMetrics;
+import com.i0.report.domain.valueobjects.ReportPipelineStage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报表流水线指标登记表
+ * 按报表、图表、指标、数据集分别维护各阶段的延迟直方图（p50/p95/p99/max）和查询行数分布，
+ * 同时按阶段和数据集向 Micrometer 发布计时器，供 actuator metrics 端点查询
+ */
+@Component
+public class ReportPipelineMetricsRegistry implements ReportPipelineMetrics {
+
+    static final String PIPELINE_LATENCY_METRIC = "report.pipeline.latency";
+    static final String DATASET_QUERY_METRIC = "report.dataset.query.latency";
+
+    private static final double MICROS_PER_MILLI = 1_000d;
+
+    private final Map<String, TargetStats> reports = new ConcurrentHashMap<>();
+    private final Map<String, TargetStats> charts = new ConcurrentHashMap<>();
+    private final Map<String, TargetStats> indicators = new ConcurrentHashMap<>();
+    private final Map<String, TargetStats> datasets = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ReportPipelineMetricsRegistry(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    @Override
+    public void recordChartStage(ReportPipelineStage stage, String chartId, String indicatorId, long elapsedNanos) {
+        if (chartId != null) {
+            charts.computeIfAbsent(chartId, TargetStats::new).recordStage(stage, elapsedNanos);
+        }
+        if (indicatorId != null) {
+            indicators.computeIfAbsent(indicatorId, TargetStats::new).recordStage(stage, elapsedNanos);
+        }
+        recordTimer(PIPELINE_LATENCY_METRIC, "chart", stage.getCode(), elapsedNanos);
+    }
+
+    @Override
+    public void recordChartRows(String chartId, long rows) {
+        if (chartId != null && rows >= 0) {
+            charts.computeIfAbsent(chartId, TargetStats::new).rows.record(rows);
+        }
+    }
+
+    @Override
+    public void recordDatasetQuery(String datasetId, long elapsedNanos, long rows) {
+        if (datasetId == null) {
+            return;
+        }
+        TargetStats stats = datasets.computeIfAbsent(datasetId, TargetStats::new);
+        stats.recordStage(ReportPipelineStage.SQL_EXECUTION, elapsedNanos);
+        if (rows >= 0) {
+            stats.rows.record(rows);
+        }
+        recordTimer(DATASET_QUERY_METRIC, "dataset", datasetId, elapsedNanos);
+    }
+
+    @Override
+    public void recordReportStage(ReportPipelineStage stage, String reportId, long elapsedNanos) {
+        if (reportId != null) {
+            reports.computeIfAbsent(reportId, TargetStats::new).recordStage(stage, elapsedNanos);
+        }
+        recordTimer(PIPELINE_LATENCY_METRIC, "report", stage.getCode(), elapsedNanos);
+    }
+
+    @Override
+    public Map<String, Object> reportStats(String reportId) {
+        return snapshot(reports, reportId);
+    }
+
+    @Override
+    public Map<String, Object> chartStats(String chartId) {
+        return snapshot(charts, chartId);
+    }
+
+    @Override
+    public Map<String, Object> indicatorStats(String indicatorId) {
+        return snapshot(indicators, indicatorId);
+    }
+
+    @Override
+    public Map<String, Object> datasetStats(String datasetId) {
+        return snapshot(datasets, datasetId);
+    }
+
+    private Map<String, Object> snapshot(Map<String, TargetStats> targets, String id) {
+        TargetStats stats = id != null ? targets.get(id) : null;
+        if (stats == null) {
+            Map<String, Object> empty = new LinkedHashMap<>();
+            empty.put("id", id);
+            empty.put("stages", new LinkedHashMap<>());
+            return empty;
+        }
+        return stats.toMap();
+    }
+
+    /**
+     * 发布 Micrometer 计时器，标签取值有限（层级 + 阶段或数据集ID），计时器实例缓存复用
+     */
+    private void recordTimer(String name, String level, String tagValue, long elapsedNanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        String tagKey = DATASET_QUERY_METRIC.equals(name) ? "dataset" : "stage";
+        Timer timer = timers.computeIfAbsent(name + '|' + level + '|' + tagValue, key -> Timer.builder(name)
+                .description("报表流水线各阶段耗时")
+                .tag("level", level)
+                .tag(tagKey, tagValue)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+        timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 单个统计对象（报表、图表、指标或数据集）的各阶段直方图
+     */
+    private static final class TargetStats {
+
+        private final String id;
+        private final Instant since = Instant.now();
+        private final Map<ReportPipelineStage, LogHistogram> stages = new EnumMap<>(ReportPipelineStage.class);
+        private final LogHistogram rows = new LogHistogram();
+
+        private TargetStats(String id) {
+            this.id = id;
+            for (ReportPipelineStage stage : ReportPipelineStage.values()) {
+                stages.put(stage, new LogHistogram());
+            }
+        }
+
+        /**
+         * 延迟按微秒精度记录
+         */
+        private void recordStage(ReportPipelineStage stage, long elapsedNanos) {
+            stages.get(stage).record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> stageStats = new LinkedHashMap<>();
+            stages.forEach((stage, histogram) -> {
+                LogHistogram.Snapshot snapshot = histogram.snapshot();
+                if (snapshot.getCount() > 0) {
+                    stageStats.put(stage.getCode(), latencyToMap(snapshot));
+                }
+            });
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("id", id);
+            result.put("since", since.toString());
+            result.put("stages", stageStats);
+            LogHistogram.Snapshot rowSnapshot = rows.snapshot();
+            if (rowSnapshot.getCount() > 0) {
+                Map<String, Object> rowStats = new LinkedHashMap<>();
+                rowStats.put("count", rowSnapshot.getCount());
+                rowStats.put("mean", round(rowSnapshot.getMean()));
+                rowStats.put("p50", Math.round(rowSnapshot.getP50()));
+                rowStats.put("p95", Math.round(rowSnapshot.getP95()));
+                rowStats.put("p99", Math.round(rowSnapshot.getP99()));
+                rowStats.put("max", rowSnapshot.getMax());
+                result.put("rows", rowStats);
+            }
+            return result;
+        }
+
+        private static Map<String, Object> latencyToMap(LogHistogram.Snapshot snapshot) {
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("count", snapshot.getCount());
+            latency.put("meanMs", round(snapshot.getMean() / MICROS_PER_MILLI));
+            latency.put("p50Ms", round(snapshot.getP50() / MICROS_PER_MILLI));
+            latency.put("p95Ms", round(snapshot.getP95() / MICROS_PER_MILLI));
+            latency.put("p99Ms", round(snapshot.getP99() / MICROS_PER_MILLI));
+            latency.put("maxMs", round(snapshot.getMax() / MICROS_PER_MILLI));
+            return latency;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100d;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.i0.report.gateway.metrics;
+
+import com.i0.report.application.dto.output.ReportDataOutput;
+import com.i0.report.domain.services.ReportPipelineMetrics;
+import com.i0.report.domain.valueobjects.ReportPipelineStage;
+import com.i0.report.gateway.controllers.ReportController;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * 报表响应计时
+ * 记录报表数据请求的总耗时，以及从响应体开始写出到请求完成的序列化耗时
+ */
+@ControllerAdvice(assignableTypes = ReportController.class)
+@RequiredArgsConstructor
+public class ReportResponseTimer implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+
+    private static final String STARTED_AT_ATTRIBUTE = ReportResponseTimer.class.getName() + ".STARTED_AT";
+    private static final String BODY_WRITE_AT_ATTRIBUTE = ReportResponseTimer.class.getName() + ".BODY_WRITE_AT";
+
+    private final ReportPipelineMetrics pipelineMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(STARTED_AT_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return ReportDataOutput.class.equals(returnType.getParameterType());
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest) {
+            ((ServletServerHttpRequest) request).getServletRequest()
+                    .setAttribute(BODY_WRITE_AT_ATTRIBUTE, System.nanoTime());
+        }
+        return body;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT_ATTRIBUTE);
+        Object bodyWriteAt = request.getAttribute(BODY_WRITE_AT_ATTRIBUTE);
+        Map<String, String> uriVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(startedAt instanceof Long) || !(bodyWriteAt instanceof Long) || uriVariables == null) {
+            return;
+        }
+
+        String reportId = uriVariables.get("reportId");
+        long completedAt = System.nanoTime();
+        pipelineMetrics.recordReportStage(ReportPipelineStage.SERIALIZATION, reportId, completedAt - (Long) bodyWriteAt);
+        pipelineMetrics.recordReportStage(ReportPipelineStage.TOTAL, reportId, completedAt - (Long) startedAt);
+    }
+}
@@ -0,0 +1,23 @@
+package com.i0.report.gateway.persistence.access;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一行报表访问小时汇总：某用户在某小时内以某种方式访问某报表的次数
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AccessRollup {
+
+    private final String reportId;
+    private final String userId;
+    private final String accessType;
+    private final LocalDateTime bucketHour;
+    private final long accessCount;
+    private final LocalDateTime lastAccessAt;
+}
@@ -0,0 +1,136 @@
+package com.i0.report.gateway.persistence.access;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.i0.report.gateway.persistence.dataobjects.ReportAccessHourlyDO;
+import com.i0.report.gateway.persistence.mappers.ReportAccessHourlyMapper;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 报表访问小时汇总表读写
+ * 写入走业务主连接池，每批在一个事务内合并写入；读取只查询汇总表，不触碰明细
+ */
+@Component
+public class ReportAccessRollupStore {
+
+    private final ReportAccessHourlyMapper accessHourlyMapper;
+
+    /**
+     * 插入汇总行的嵌套事务，在批次事务内建立保存点
+     */
+    private final TransactionTemplate insertSavepoint;
+
+    public ReportAccessRollupStore(ReportAccessHourlyMapper accessHourlyMapper,
+                                   PlatformTransactionManager transactionManager) {
+        this.accessHourlyMapper = accessHourlyMapper;
+        this.insertSavepoint = new TransactionTemplate(transactionManager);
+        this.insertSavepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    /**
+     * 将一批访问计数累加到汇总表
+     * 先按主键累加计数，行不存在时插入；插入时与其他节点冲突则重新累加。
+     * 插入在保存点中执行，主键冲突只回滚到保存点，PostgreSQL等数据库中批次事务仍可继续使用。
+     * 整批在同一事务中写入，失败时全部回滚，由调用方放回内存重试，不会重复计数
+     *
+     * @param rows 待累加的汇总行
+     */
+    @Transactional
+    public void upsert(List<AccessRollup> rows) {
+        for (AccessRollup row : rows) {
+            ReportAccessHourlyDO hourly = toDataObject(row);
+            if (accessHourlyMapper.incrementAccess(hourly) > 0) {
+                continue;
+            }
+            try {
+                insertSavepoint.executeWithoutResult(status -> accessHourlyMapper.insert(hourly));
+            } catch (DuplicateKeyException e) {
+                // 其他节点已插入同一行，改为累加
+                accessHourlyMapper.incrementAccess(hourly);
+            }
+        }
+    }
+
+    /**
+     * 查询报表在时间范围内按小时、访问类型汇总的访问次数
+     *
+     * @param reportId 报表ID
+     * @param startHour 起始小时（含）
+     * @param endHour 结束小时（含）
+     * @return 按小时升序的汇总行，不区分用户（userId 为空）
+     */
+    public List<AccessRollup> findHourlyTotals(String reportId, LocalDateTime startHour, LocalDateTime endHour) {
+        QueryWrapper<ReportAccessHourlyDO> queryWrapper = new QueryWrapper<ReportAccessHourlyDO>()
+                .select("bucket_hour", "access_type",
+                        "SUM(access_count) AS access_count", "MAX(last_access_at) AS last_access_at")
+                .eq("report_id", reportId)
+                .ge("bucket_hour", startHour)
+                .le("bucket_hour", endHour)
+                .groupBy("bucket_hour", "access_type")
+                .orderByAsc("bucket_hour");
+
+        return accessHourlyMapper.selectList(queryWrapper).stream()
+                .map(hourly -> new AccessRollup(
+                        reportId,
+                        null,
+                        hourly.getAccessType(),
+                        hourly.getBucketHour(),
+                        hourly.getAccessCount() != null ? hourly.getAccessCount() : 0L,
+                        hourly.getLastAccessAt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 统计报表在时间范围内的独立访问用户数
+     */
+    public long countDistinctUsers(String reportId, LocalDateTime startHour, LocalDateTime endHour) {
+        QueryWrapper<ReportAccessHourlyDO> queryWrapper = new QueryWrapper<ReportAccessHourlyDO>()
+                .select("COUNT(DISTINCT user_id)")
+                .eq("report_id", reportId)
+                .ge("bucket_hour", startHour)
+                .le("bucket_hour", endHour);
+
+        List<Object> counts = accessHourlyMapper.selectObjs(queryWrapper);
+        return !counts.isEmpty() && counts.get(0) instanceof Number ? ((Number) counts.get(0)).longValue() : 0L;
+    }
+
+    /**
+     * 查询指定时间之后访问次数最多的报表ID，按访问次数降序
+     *
+     * @param sinceHour 起始小时（含）
+     * @param limit 返回数量
+     */
+    public List<String> findPopularReportIds(LocalDateTime sinceHour, int limit) {
+        QueryWrapper<ReportAccessHourlyDO> queryWrapper = new QueryWrapper<ReportAccessHourlyDO>()
+                .select("report_id", "SUM(access_count) AS access_count")
+                .ge("bucket_hour", sinceHour)
+                .groupBy("report_id")
+                .orderByDesc("SUM(access_count)");
+
+        // 只取第一页，不执行总数查询
+        Page<ReportAccessHourlyDO> pageRequest = new Page<>(1, limit, false);
+        return accessHourlyMapper.selectPage(pageRequest, queryWrapper).getRecords().stream()
+                .map(ReportAccessHourlyDO::getReportId)
+                .collect(Collectors.toList());
+    }
+
+    private static ReportAccessHourlyDO toDataObject(AccessRollup row) {
+        ReportAccessHourlyDO hourly = new ReportAccessHourlyDO();
+        hourly.setReportId(row.getReportId());
+        hourly.setUserId(row.getUserId());
+        hourly.setAccessType(row.getAccessType());
+        hourly.setBucketHour(row.getBucketHour());
+        hourly.setAccessCount(row.getAccessCount());
+        hourly.setLastAccessAt(row.getLastAccessAt());
+        return hourly;
+    }
+}
@@ -0,0 +1,235 @@
+package com.i0.report.gateway.persistence.access;
+
+import com.i0.report.gateway.config.ReportAccessTrackingProperties;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 报表访问计数器
+ * 访问只在内存中按（报表、用户、访问类型、小时）分段累加，不产生数据库写入；
+ * 定时任务取走各计数器的增量，批量合并写入小时汇总表，写入失败的增量放回内存等待下次刷写
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportAccessTracker implements DisposableBean {
+
+    /**
+     * 未登录访问使用的用户ID
+     */
+    public static final String ANONYMOUS_USER = "anonymous";
+
+    private static final int STRIPE_COUNT = 16;
+
+    private final ReportAccessTrackingProperties properties;
+    private final ReportAccessRollupStore rollupStore;
+
+    private final Map<AccessKey, AccessCounter>[] stripes = newStripes();
+    private final AtomicInteger pendingKeys = new AtomicInteger();
+    private final AtomicLong droppedAccesses = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 记录一次报表访问
+     *
+     * @param reportId 报表ID
+     * @param userId 用户ID，为空时记为匿名访问
+     * @param accessType 访问类型编码
+     */
+    public void record(String reportId, String userId, String accessType) {
+        if (!properties.isEnabled() || reportId == null || accessType == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        AccessKey key = new AccessKey(reportId, normalizeUserId(userId), accessType, now.truncatedTo(ChronoUnit.HOURS));
+        if (!add(key, 1, now, false)) {
+            long dropped = droppedAccesses.incrementAndGet();
+            if (dropped == 1 || dropped % 10_000 == 0) {
+                log.warn("报表访问计数键数量已达上限{}，累计丢弃{}次访问", properties.getMaxPendingKeys(), dropped);
+            }
+        }
+    }
+
+    /**
+     * 将内存中的访问增量刷写到小时汇总表
+     */
+    @Scheduled(fixedDelayString = "${report.access.flush-interval-ms:30000}",
+            initialDelayString = "${report.access.flush-interval-ms:30000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<AccessRollup> rows = drain();
+            if (rows.isEmpty()) {
+                return;
+            }
+            int batchSize = Math.max(1, properties.getFlushBatchSize());
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                List<AccessRollup> batch = rows.subList(from, Math.min(from + batchSize, rows.size()));
+                try {
+                    rollupStore.upsert(batch);
+                } catch (RuntimeException e) {
+                    log.warn("刷写报表访问统计失败，{}行增量将在下次刷写时重试: {}", rows.size() - from, e.getMessage());
+                    restore(rows.subList(from, rows.size()));
+                    return;
+                }
+            }
+            log.debug("刷写报表访问统计: {}行", rows.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 停机前刷写剩余增量
+     */
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * 取走所有计数器的增量
+     * 已过去小时或本轮无增量的计数器会被退役并移除，之后到达的访问会创建新的计数器，不会丢失
+     */
+    private List<AccessRollup> drain() {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        List<AccessRollup> rows = new ArrayList<>();
+        for (Map<AccessKey, AccessCounter> stripe : stripes) {
+            for (Map.Entry<AccessKey, AccessCounter> entry : stripe.entrySet()) {
+                AccessKey key = entry.getKey();
+                AccessCounter counter = entry.getValue();
+                long count = counter.drain();
+                if (count > 0) {
+                    LocalDateTime lastAccessAt = counter.lastAccessAt != null ? counter.lastAccessAt : key.bucketHour;
+                    rows.add(new AccessRollup(key.reportId, key.userId, key.accessType, key.bucketHour,
+                            count, lastAccessAt));
+                }
+                if ((count == 0 || key.bucketHour.isBefore(currentHour)) && counter.retire()) {
+                    stripe.remove(key, counter);
+                    pendingKeys.decrementAndGet();
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 将刷写失败的增量放回内存
+     */
+    private void restore(List<AccessRollup> rows) {
+        for (AccessRollup row : rows) {
+            AccessKey key = new AccessKey(row.getReportId(), row.getUserId(), row.getAccessType(), row.getBucketHour());
+            add(key, row.getAccessCount(), row.getLastAccessAt(), true);
+        }
+    }
+
+    private boolean add(AccessKey key, long delta, LocalDateTime accessAt, boolean ignoreLimit) {
+        Map<AccessKey, AccessCounter> stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPE_COUNT];
+        while (true) {
+            AccessCounter counter = stripe.get(key);
+            if (counter == null) {
+                if (!ignoreLimit && pendingKeys.get() >= properties.getMaxPendingKeys()) {
+                    return false;
+                }
+                AccessCounter created = new AccessCounter();
+                counter = stripe.putIfAbsent(key, created);
+                if (counter == null) {
+                    pendingKeys.incrementAndGet();
+                    counter = created;
+                }
+            }
+            if (counter.add(delta, accessAt)) {
+                return true;
+            }
+            // 计数器刚被刷写任务退役，等待移除后重试
+            Thread.onSpinWait();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<AccessKey, AccessCounter>[] newStripes() {
+        Map<AccessKey, AccessCounter>[] stripes = new Map[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        return stripes;
+    }
+
+    private static String normalizeUserId(String userId) {
+        return userId == null || userId.isBlank() ? ANONYMOUS_USER : userId;
+    }
+
+    /**
+     * 计数键：报表、用户、访问类型和所在小时
+     */
+    @EqualsAndHashCode
+    private static final class AccessKey {
+        private final String reportId;
+        private final String userId;
+        private final String accessType;
+        private final LocalDateTime bucketHour;
+
+        private AccessKey(String reportId, String userId, String accessType, LocalDateTime bucketHour) {
+            this.reportId = reportId;
+            this.userId = userId;
+            this.accessType = accessType;
+            this.bucketHour = bucketHour;
+        }
+    }
+
+    /**
+     * 单个计数键的增量计数器，值为 -1 表示已退役
+     */
+    private static final class AccessCounter {
+        private final AtomicLong count = new AtomicLong();
+        private volatile LocalDateTime lastAccessAt;
+
+        private boolean add(long delta, LocalDateTime accessAt) {
+            while (true) {
+                long current = count.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (count.compareAndSet(current, current + delta)) {
+                    LocalDateTime last = lastAccessAt;
+                    if (last == null || accessAt.isAfter(last)) {
+                        lastAccessAt = accessAt;
+                    }
+                    return true;
+                }
+            }
+        }
+
+        private long drain() {
+            while (true) {
+                long current = count.get();
+                if (current <= 0) {
+                    return 0;
+                }
+                if (count.compareAndSet(current, 0)) {
+                    return current;
+                }
+            }
+        }
+
+        private boolean retire() {
+            return count.compareAndSet(0, -1);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.i0.report.gateway.persistence.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 报表配置变更计数
+ * 报表、图表、指标、数据集仓储在保存或删除后递增版本，配置图版本落后时重新加载。
+ * 在事务中变更时，版本在事务结束后才递增：提交前其他线程读取的仍是已提交的旧配置，
+ * 若此时就递增版本，按新版本加载的旧配置会一直使用到最长使用时间
+ */
+@Component
+public class ReportConfigChangeTracker {
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 记录一次配置变更，当前存在事务时在事务结束后生效
+     */
+    public void markChanged() {
+        afterTransaction(version::incrementAndGet);
+    }
+
+    /**
+     * 在当前事务结束后执行操作，没有事务时立即执行
+     * 回滚时同样执行：事务内可能已按未提交的数据加载过缓存，失效一次不影响正确性
+     *
+     * @param action 缓存失效等操作
+     */
+    public void afterTransaction(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 当前配置版本
+     */
+    public long getVersion() {
+        return version.get();
+    }
+}
@@ -0,0 +1,168 @@
+package com.i0.report.gateway.persistence.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.gateway.config.ReportResultStoreProperties;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 报表结果存储
+ * 按（报表ID、过滤条件）保存已计算好的报表数据，由预热任务和报表接口写入，报表接口在有效期内直接返回
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportResultStore {
+
+    private static final String DEFAULT_FILTERS_KEY = "default";
+
+    private final ReportResultStoreProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, StoredResult> results = new ConcurrentHashMap<>();
+
+    /**
+     * 保存报表结果
+     *
+     * @param reportId 报表ID
+     * @param filters 过滤条件
+     * @param data 报表数据
+     * @param ttlSeconds 保留时间（秒），不大于0时使用默认保留时间
+     */
+    public void put(String reportId, List<Filter> filters, Object data, long ttlSeconds) {
+        if (!properties.isEnabled() || data == null) {
+            return;
+        }
+        String filtersKey = filtersKey(filters);
+        if (filtersKey == null) {
+            return;
+        }
+        long effectiveTtl = ttlSeconds > 0 ? ttlSeconds : properties.getDefaultTtlSeconds();
+        Instant now = Instant.now();
+        results.put(key(reportId, filtersKey),
+                new StoredResult(reportId, filtersKey, data, now, now.plusSeconds(effectiveTtl)));
+        if (results.size() > properties.getMaxEntries()) {
+            evictOverflow();
+        }
+    }
+
+    /**
+     * 获取有效期内的报表结果
+     */
+    public Optional<Object> get(String reportId, List<Filter> filters) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        String filtersKey = filtersKey(filters);
+        if (filtersKey == null) {
+            return Optional.empty();
+        }
+        String key = key(reportId, filtersKey);
+        StoredResult result = results.get(key);
+        if (result == null) {
+            return Optional.empty();
+        }
+        if (result.isExpired(Instant.now())) {
+            results.remove(key, result);
+            return Optional.empty();
+        }
+        return Optional.of(result.getData());
+    }
+
+    /**
+     * 移除报表的全部结果
+     */
+    public void evict(String reportId) {
+        results.values().removeIf(result -> result.getReportId().equals(reportId));
+    }
+
+    /**
+     * 清空全部结果
+     */
+    public void clear() {
+        results.clear();
+    }
+
+    /**
+     * 是否启用结果存储
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 查询报表默认视图（无额外过滤条件）的结果
+     *
+     * @return 结果，不存在时返回 null（可能已过期）
+     */
+    public StoredResult findDefault(String reportId) {
+        return results.get(key(reportId, DEFAULT_FILTERS_KEY));
+    }
+
+    private void evictOverflow() {
+        Instant now = Instant.now();
+        results.values().removeIf(result -> result.isExpired(now));
+        int overflow = results.size() - properties.getMaxEntries();
+        if (overflow <= 0) {
+            return;
+        }
+        List<Map.Entry<String, StoredResult>> entries = new ArrayList<>(results.entrySet());
+        entries.sort(Comparator.comparing(entry -> entry.getValue().getExpiresAt()));
+        for (int i = 0; i < overflow && i < entries.size(); i++) {
+            results.remove(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        log.debug("报表结果存储已满，淘汰{}条结果", overflow);
+    }
+
+    private String filtersKey(List<Filter> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return DEFAULT_FILTERS_KEY;
+        }
+        try {
+            return objectMapper.writeValueAsString(filters);
+        } catch (JsonProcessingException e) {
+            log.warn("过滤条件无法序列化，跳过结果存储: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String key(String reportId, String filtersKey) {
+        return reportId + '|' + filtersKey;
+    }
+
+    /**
+     * 已保存的报表结果
+     */
+    @Getter
+    public static final class StoredResult {
+        private final String reportId;
+        private final String filtersKey;
+        private final Object data;
+        private final Instant storedAt;
+        private final Instant expiresAt;
+
+        private StoredResult(String reportId, String filtersKey, Object data, Instant storedAt, Instant expiresAt) {
+            this.reportId = reportId;
+            this.filtersKey = filtersKey;
+            this.data = data;
+            this.storedAt = storedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
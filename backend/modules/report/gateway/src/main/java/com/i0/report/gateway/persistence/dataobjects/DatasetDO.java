@@ -64,6 +64,24 @@ public class DatasetDO {
     @TableField("update_interval")
     private Integer updateInterval;
 
+    /**
+     * 浏览排序键
+     */
+    @TableField("sort_key")
+    private String sortKey;
+
+    /**
+     * 增量水位列
+     */
+    @TableField("watermark_column")
+    private String watermarkColumn;
+
+    /**
+     * 是否可加载为内存立方体
+     */
+    @TableField("cube_eligible")
+    private Boolean cubeEligible;
+
     /**
      * 是否启用
      */
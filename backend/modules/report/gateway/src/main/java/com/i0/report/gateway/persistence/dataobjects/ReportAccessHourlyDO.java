@@ -0,0 +1,52 @@
+package com.i0.report.gateway.persistence.dataobjects;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 报表访问小时汇总数据对象
+ * 主键为（报表ID、统计小时、用户ID、访问类型）联合主键
+ */
+@Data
+@TableName("report_access_hourly")
+public class ReportAccessHourlyDO {
+
+    /**
+     * 报表ID
+     */
+    @TableField("report_id")
+    private String reportId;
+
+    /**
+     * 访问用户ID，未登录访问记为 anonymous
+     */
+    @TableField("user_id")
+    private String userId;
+
+    /**
+     * 访问类型
+     */
+    @TableField("access_type")
+    private String accessType;
+
+    /**
+     * 统计小时（截断到整点）
+     */
+    @TableField("bucket_hour")
+    private LocalDateTime bucketHour;
+
+    /**
+     * 该小时内的访问次数
+     */
+    @TableField("access_count")
+    private Long accessCount;
+
+    /**
+     * 该小时内最后一次访问时间
+     */
+    @TableField("last_access_at")
+    private LocalDateTime lastAccessAt;
+}
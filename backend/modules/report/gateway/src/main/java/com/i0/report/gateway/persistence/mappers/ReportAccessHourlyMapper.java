@@ -0,0 +1,29 @@
+package com.i0.report.gateway.persistence.mappers;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.i0.report.gateway.persistence.dataobjects.ReportAccessHourlyDO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 报表访问小时汇总数据访问接口
+ */
+@Mapper
+public interface ReportAccessHourlyMapper extends BaseMapper<ReportAccessHourlyDO> {
+
+    /**
+     * 按主键累加访问次数，并将最后访问时间推进到较晚的一次
+     * 单条UPDATE语句完成，不依赖特定数据库的upsert语法
+     *
+     * @param row 待累加的汇总行
+     * @return 更新的行数，汇总行不存在时为0
+     */
+    @Update("UPDATE report_access_hourly"
+            + " SET access_count = access_count + #{row.accessCount},"
+            + " last_access_at = CASE WHEN last_access_at < #{row.lastAccessAt}"
+            + " THEN #{row.lastAccessAt} ELSE last_access_at END"
+            + " WHERE report_id = #{row.reportId} AND bucket_hour = #{row.bucketHour}"
+            + " AND user_id = #{row.userId} AND access_type = #{row.accessType}")
+    int incrementAccess(@Param("row") ReportAccessHourlyDO row);
+}
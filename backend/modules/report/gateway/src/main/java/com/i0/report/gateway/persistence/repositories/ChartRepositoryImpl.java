@@ -7,7 +7,9 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.i0.report.domain.entities.Chart;
 import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.services.ReportPipelineMetrics;
 import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.gateway.persistence.cache.ReportConfigChangeTracker;
 import com.i0.report.gateway.persistence.mappers.ChartMapper;
 import com.i0.report.gateway.persistence.mappers.ReportChartMapper;
 import com.i0.report.gateway.persistence.dataobjects.ChartDO;
@@ -34,6 +36,8 @@ public class ChartRepositoryImpl extends ServiceImpl<ChartMapper, ChartDO> imple
     private final ChartMapper chartMapper;
     private final ReportChartMapper reportChartMapper;
     private final ObjectMapper objectMapper;
+    private final ReportPipelineMetrics pipelineMetrics;
+    private final ReportConfigChangeTracker configChangeTracker;
 
     @Override
     public Chart save(Chart chart) {
@@ -50,6 +54,7 @@ public class ChartRepositoryImpl extends ServiceImpl<ChartMapper, ChartDO> imple
             save(chartDO);
         }
 
+        configChangeTracker.markChanged();
         return convertToChart(chartDO);
     }
 
@@ -147,6 +152,7 @@ public class ChartRepositoryImpl extends ServiceImpl<ChartMapper, ChartDO> imple
         LambdaQueryWrapper<ChartDO> queryWrapper = new LambdaQueryWrapper<ChartDO>()
                 .eq(ChartDO::getIndicatorId, indicatorId);
         remove(queryWrapper);
+        configChangeTracker.markChanged();
     }
 
     @Override
@@ -169,8 +175,7 @@ public class ChartRepositoryImpl extends ServiceImpl<ChartMapper, ChartDO> imple
 
     @Override
     public java.util.Map<String, Object> getPerformanceStats(String chartId) {
-        // 简化实现，返回空Map
-        return new java.util.HashMap<>();
+        return pipelineMetrics.chartStats(chartId);
     }
 
     @Override
@@ -215,11 +220,13 @@ public class ChartRepositoryImpl extends ServiceImpl<ChartMapper, ChartDO> imple
     @Override
     public void deleteById(String id) {
         removeById(id);
+        configChangeTracker.markChanged();
     }
 
     @Override
     public void delete(Chart chart) {
         removeById(chart.getId());
+        configChangeTracker.markChanged();
     }
 
     @Override
@@ -309,6 +316,7 @@ public class ChartRepositoryImpl extends ServiceImpl<ChartMapper, ChartDO> imple
 
         saveBatch(chartDOList);
 
+        configChangeTracker.markChanged();
         return chartDOList.stream()
                 .map(this::convertToChart)
                 .collect(Collectors.toList());
@@ -8,23 +8,42 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.i0.domain.core.pagination.Pageable;
 import com.i0.persistence.spring.pagination.SpringPage;
 import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.exceptions.ReportQueryLimitExceededException;
 import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.services.ReportPipelineMetrics;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.DatasetField;
+import com.i0.report.domain.valueobjects.DatasetKeysetPage;
 import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.domain.valueobjects.FusedChartQuery;
+import com.i0.report.gateway.persistence.cache.ReportConfigChangeTracker;
 import com.i0.report.gateway.persistence.mappers.DatasetMapper;
 import com.i0.report.gateway.persistence.dataobjects.DatasetDO;
+import com.i0.report.gateway.persistence.sql.FusedChartQuerySqlBuilder;
+import com.i0.report.gateway.persistence.sql.GuardedQueryExecutor;
+import com.i0.report.gateway.persistence.sql.ReadOnlySqlInspector;
+import com.i0.report.gateway.persistence.sql.SqlDialect;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -36,8 +55,17 @@ import java.util.stream.Collectors;
 public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO> implements DatasetRepository {
 
     private final DatasetMapper datasetMapper;
-    private final JdbcTemplate jdbcTemplate;
     private final ObjectMapper objectMapper;
+    private final FusedChartQuerySqlBuilder fusedChartQuerySqlBuilder;
+    private final GuardedQueryExecutor guardedQueryExecutor;
+    private final ReadOnlySqlInspector readOnlySqlInspector;
+    private final ReportConfigChangeTracker configChangeTracker;
+    private final ReportPipelineMetrics pipelineMetrics;
+
+    /**
+     * 数据集字段元数据缓存，按数据集ID保存最新SQL版本的字段
+     */
+    private final Map<String, CachedDatasetFields> fieldMetadataCache = new ConcurrentHashMap<>();
 
     @Override
     public Dataset save(Dataset dataset) {
@@ -54,6 +82,7 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
             save(datasetDO);
         }
 
+        configChangeTracker.markChanged();
         return convertToDataset(datasetDO);
     }
 
@@ -164,11 +193,13 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
             String finalSql = applyFiltersToSql(sql, filters);
 
             // 执行SQL查询
-            List<Map<String, Object>> queryResults = jdbcTemplate.queryForList(finalSql);
-            List<Object> results = new ArrayList<>(queryResults);
+            List<Object> results = new ArrayList<>(guardedQueryExecutor
+                    .queryColumnar(dataset.getId(), finalSql).asRowMaps());
             log.info("查询结果: {} 条记录", results.size());
 
             return results;
+        } catch (ReportQueryLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("执行数据集查询失败: datasetId={}, error={}", dataset.getId(), e.getMessage(), e);
             throw new RuntimeException("数据集查询失败: " + e.getMessage(), e);
@@ -185,37 +216,203 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
             // 如果有过滤条件，将其应用到SQL中
             String finalSql = applyFiltersToSql(sql, filters);
 
-            // 执行SQL查询
-            List<Map<String, Object>> queryResults = jdbcTemplate.queryForList(finalSql);
-            List<Object> results = new ArrayList<>(queryResults);
+            // 执行SQL查询（未关联数据集，使用默认分析连接池和全局限制）
+            List<Object> results = new ArrayList<>(guardedQueryExecutor
+                    .queryColumnar(null, finalSql).asRowMaps());
             log.info("增强SQL查询结果: {} 条记录", results.size());
 
             return results;
+        } catch (ReportQueryLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("执行增强SQL查询失败: sql={}, error={}", sql, e.getMessage(), e);
             throw new RuntimeException("增强SQL查询失败: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public ColumnarResultSet executeColumnarQuery(Dataset dataset, String sql, List<Filter> filters) {
+        try {
+            log.info("执行列式增强SQL查询: datasetId={}, sql={}", dataset.getId(), sql);
+
+            // 过滤条件作用于数据集基础SQL，先过滤明细行再聚合，与合并查询的结果一致
+            String finalSql = applyFiltersToDatasetSql(dataset, sql, filters);
+
+            // 执行SQL查询，结果直接写入列数组
+            ColumnarResultSet resultSet = guardedQueryExecutor.queryColumnar(dataset.getId(), finalSql);
+            log.info("列式增强SQL查询结果: {} 条记录", resultSet.getRowCount());
+
+            return resultSet;
+        } catch (ReportQueryLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("执行列式增强SQL查询失败: sql={}, error={}", sql, e.getMessage(), e);
+            throw new RuntimeException("增强SQL查询失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public ColumnarResultSet executeFilterFlaggedQuery(Dataset dataset, String sql, List<Filter> filters, int maxRows) {
+        try {
+            SqlDialect dialect = guardedQueryExecutor.dialectFor(dataset.getId());
+            String limitedSql = dialect.paginate(
+                    "SELECT * FROM (" + flagFiltersInDatasetSql(dataset, sql, filters) + ") limited_data",
+                    null, 0, maxRows);
+            log.info("执行标记过滤条件的列式查询: datasetId={}, maxRows={}, sql={}", dataset.getId(), maxRows, limitedSql);
+
+            ColumnarResultSet resultSet = guardedQueryExecutor.queryColumnar(dataset.getId(), limitedSql);
+            log.info("标记过滤条件的列式查询结果: {} 条记录", resultSet.getRowCount());
+
+            return resultSet;
+        } catch (ReportQueryLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("执行标记过滤条件的列式查询失败: sql={}, error={}", sql, e.getMessage(), e);
+            throw new RuntimeException("增强SQL查询失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, ColumnarResultSet> executeFusedQuery(FusedChartQuery query) {
+        try {
+            SqlDialect dialect = guardedQueryExecutor.dialectFor(query.getDatasetId());
+            String filteredBaseSql = applyFiltersToBaseSql(query.getBaseSql(), query.getFilters());
+            String fusedSql = fusedChartQuerySqlBuilder.build(query, filteredBaseSql, dialect);
+            log.info("执行合并图表查询: datasetId={}, dialect={}, sql={}", query.getDatasetId(), dialect, fusedSql);
+
+            ColumnarResultSet resultSet = guardedQueryExecutor.queryColumnar(query.getDatasetId(), fusedSql);
+            log.info("合并图表查询结果: {} 条记录, {} 个图表", resultSet.getRowCount(), query.getBranchCount());
+
+            return fusedChartQuerySqlBuilder.split(query, resultSet, dialect);
+        } catch (ReportQueryLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("执行合并图表查询失败: datasetId={}, error={}", query.getDatasetId(), e.getMessage(), e);
+            throw new RuntimeException("合并图表查询失败: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public Pageable<Object> executeQueryWithPagination(Dataset dataset, List<Filter> filters, int page, int size) {
-        // 这里应该执行实际的分页SQL查询，为了简化示例返回空分页结果
-        log.info("执行数据集分页查询: datasetId={}, page={}, size={}", dataset.getId(), page, size);
-        return SpringPage.of(new PageImpl<>(
-                new ArrayList<>(),
-                PageRequest.of(page, size),
-                0
-        ));
+        try {
+            SqlDialect dialect = guardedQueryExecutor.dialectFor(dataset.getId());
+            String filteredSql = applyFiltersToBaseSql(dataset.getSql(), filters);
+            long offset = (long) page * size;
+            log.info("执行数据集分页查询: datasetId={}, page={}, size={}", dataset.getId(), page, size);
+
+            long total = countRows(dataset.getId(), filteredSql);
+            List<Object> content = new ArrayList<>();
+            if (offset < total) {
+                String pageSql = dialect.paginate("SELECT * FROM (" + filteredSql + ") page_data",
+                        dataset.hasSortKey() ? dataset.getSortKey() : null, offset, size);
+                content.addAll(guardedQueryExecutor.queryColumnar(dataset.getId(), pageSql).asRowMaps());
+            }
+            log.info("数据集分页查询结果: datasetId={}, total={}, 当前页 {} 条记录", dataset.getId(), total, content.size());
+
+            return SpringPage.of(new PageImpl<>(content, PageRequest.of(page, size), total));
+        } catch (ReportQueryLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("执行数据集分页查询失败: datasetId={}, error={}", dataset.getId(), e.getMessage(), e);
+            throw new RuntimeException("数据集分页查询失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public DatasetKeysetPage executeQueryWithKeyset(Dataset dataset, List<Filter> filters, Object afterKey, Object afterId,
+                                                    int size) {
+        if (!dataset.hasSortKey()) {
+            throw new IllegalArgumentException("数据集未声明排序键，无法使用键集分页: " + dataset.getId());
+        }
+
+        try {
+            SqlDialect dialect = guardedQueryExecutor.dialectFor(dataset.getId());
+            String sortKey = dataset.getSortKey();
+            // 排序键不唯一时以 (排序键, 行标识) 作为游标；展开为 OR 条件而非行值比较，兼容不支持 (a, b) > (?, ?) 的方言
+            boolean tupleCursor = !dataset.isSortKeyRowId();
+            String rowId = Dataset.ROW_ID_COLUMN;
+            String filteredSql = applyFiltersToBaseSql(dataset.getSql(), filters);
+            StringBuilder keysetSql = new StringBuilder("SELECT * FROM (").append(filteredSql).append(") page_data");
+            List<Object> args = new ArrayList<>();
+            if (afterKey != null) {
+                if (tupleCursor) {
+                    keysetSql.append(" WHERE (").append(sortKey).append(" > ? OR (")
+                            .append(sortKey).append(" = ? AND ").append(rowId).append(" > ?))");
+                    args.add(afterKey);
+                    args.add(afterKey);
+                    args.add(afterId);
+                } else {
+                    keysetSql.append(" WHERE ").append(sortKey).append(" > ?");
+                    args.add(afterKey);
+                }
+            }
+            // 多取一行用于判断是否还有下一页
+            String orderBy = tupleCursor ? sortKey + ", " + rowId : sortKey;
+            String pageSql = dialect.paginate(keysetSql.toString(), orderBy, 0, size + 1);
+            log.info("执行数据集键集分页查询: datasetId={}, sortKey={}, afterKey={}, afterId={}, size={}",
+                    dataset.getId(), sortKey, afterKey, afterId, size);
+
+            ColumnarResultSet resultSet = guardedQueryExecutor.queryColumnar(dataset.getId(), pageSql, args.toArray());
+
+            boolean hasMore = resultSet.getRowCount() > size;
+            int rowCount = Math.min(size, resultSet.getRowCount());
+            Object nextKey = null;
+            Object nextId = null;
+            if (hasMore) {
+                int sortKeyColumn = resultSet.indexOf(sortKey);
+                nextKey = sortKeyColumn >= 0 ? resultSet.getValue(sortKeyColumn, rowCount - 1) : null;
+                if (tupleCursor) {
+                    int rowIdColumn = resultSet.indexOf(rowId);
+                    nextId = rowIdColumn >= 0 ? resultSet.getValue(rowIdColumn, rowCount - 1) : null;
+                }
+            }
+
+            return DatasetKeysetPage.builder()
+                    .sortKey(sortKey)
+                    .content(new ArrayList<>(resultSet.asRowMaps().subList(0, rowCount)))
+                    .size(size)
+                    .nextKey(nextKey)
+                    .nextId(nextId)
+                    .hasMore(hasMore)
+                    .build();
+        } catch (ReportQueryLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("执行数据集键集分页查询失败: datasetId={}, error={}", dataset.getId(), e.getMessage(), e);
+            throw new RuntimeException("数据集键集分页查询失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long streamQuery(Dataset dataset, List<Filter> filters, int fetchSize, Consumer<Map<String, Object>> rowHandler) {
+        SqlDialect dialect = guardedQueryExecutor.dialectFor(dataset.getId());
+        String filteredSql = applyFiltersToBaseSql(dataset.getSql(), filters);
+        String streamSql = dataset.hasSortKey()
+                ? "SELECT * FROM (" + filteredSql + ") stream_data ORDER BY " + dataset.getSortKey()
+                : filteredSql;
+        log.info("执行数据集流式查询: datasetId={}, fetchSize={}", dataset.getId(), fetchSize);
+
+        StreamingRowCallbackHandler callbackHandler = new StreamingRowCallbackHandler(rowHandler);
+        // MySQL驱动只有在 fetchSize 为 Integer.MIN_VALUE 时才逐行流式读取，其余驱动按批次读取
+        guardedQueryExecutor.stream(dataset.getId(), streamSql,
+                dialect == SqlDialect.MYSQL ? Integer.MIN_VALUE : fetchSize, callbackHandler);
+
+        log.info("数据集流式查询完成: datasetId={}, rows={}", dataset.getId(), callbackHandler.getRowCount());
+        return callbackHandler.getRowCount();
     }
 
     @Override
     public void deleteById(String id) {
         removeById(id);
+        fieldMetadataCache.remove(id);
+        configChangeTracker.markChanged();
     }
 
     @Override
     public void delete(Dataset dataset) {
         removeById(dataset.getId());
+        fieldMetadataCache.remove(dataset.getId());
+        configChangeTracker.markChanged();
     }
 
     @Override
@@ -259,16 +456,64 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
 
     @Override
     public boolean validateSql(String sql, String dataSourceType) {
-        // 这里应该进行SQL语法验证，简化起见返回true
-        log.info("验证SQL语法: sql={}, dataSourceType={}", sql, dataSourceType);
-        return true;
+        Optional<String> violation = readOnlySqlInspector.findViolation(sql, guardedQueryExecutor.dialectFor(null));
+        if (violation.isPresent()) {
+            log.warn("SQL校验未通过: dataSourceType={}, reason={}", dataSourceType, violation.get());
+            return false;
+        }
+        // 数据集保存前尚无ID，在默认分析连接池上预编译
+        try {
+            int columnCount = guardedQueryExecutor.describe(null, sql, ResultSetMetaData::getColumnCount);
+            log.info("SQL校验通过: dataSourceType={}, columns={}", dataSourceType, columnCount);
+            return columnCount > 0;
+        } catch (ReportQueryLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("SQL预编译失败: dataSourceType={}, error={}", dataSourceType, e.getMessage());
+            return false;
+        }
     }
 
     @Override
     public List<String> getDatasetFields(Dataset dataset) {
-        // 这里应该解析SQL并返回字段列表，简化起见返回空列表
-        log.info("获取数据集字段: datasetId={}", dataset.getId());
-        return new ArrayList<>();
+        return getDatasetFieldMetadata(dataset).stream()
+                .map(DatasetField::getName)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<DatasetField> getDatasetFieldMetadata(Dataset dataset) {
+        // 字段结构只取决于数据集SQL，SQL变化即视为新版本
+        String version = dataset.getSql();
+        CachedDatasetFields cached = fieldMetadataCache.get(dataset.getId());
+        if (cached != null && cached.version.equals(version)) {
+            return cached.fields;
+        }
+
+        Optional<String> violation = readOnlySqlInspector.findViolation(
+                dataset.getSql(), guardedQueryExecutor.dialectFor(dataset.getId()));
+        if (violation.isPresent()) {
+            throw new IllegalArgumentException("数据集SQL不是只读查询: " + violation.get());
+        }
+
+        try {
+            log.info("获取数据集字段: datasetId={}", dataset.getId());
+            List<DatasetField> fields = guardedQueryExecutor.describe(dataset.getId(), dataset.getSql(), this::extractFieldMetadata);
+            List<DatasetField> cachedFields = Collections.unmodifiableList(
+                    fields != null ? fields : new ArrayList<>());
+            fieldMetadataCache.put(dataset.getId(), new CachedDatasetFields(version, cachedFields));
+            return cachedFields;
+        } catch (ReportQueryLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("获取数据集字段失败: datasetId={}, error={}", dataset.getId(), e.getMessage(), e);
+            throw new RuntimeException("获取数据集字段失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getPerformanceStats(String datasetId) {
+        return pipelineMetrics.datasetStats(datasetId);
     }
 
     @Override
@@ -279,6 +524,7 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
 
         saveBatch(datasetDOList);
 
+        configChangeTracker.markChanged();
         return datasetDOList.stream()
                 .map(this::convertToDataset)
                 .collect(Collectors.toList());
@@ -297,6 +543,37 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
         return datasetDO != null ? datasetDO.getUpdatedAt() : null;
     }
 
+    /**
+     * 统计过滤后数据集的总行数
+     */
+    private long countRows(String datasetId, String filteredSql) {
+        Long total = guardedQueryExecutor.query(datasetId, "SELECT COUNT(*) FROM (" + filteredSql + ") count_data",
+                rs -> rs.next() ? rs.getLong(1) : 0L);
+        return total != null ? total : 0L;
+    }
+
+    /**
+     * 从预编译语句的结果列元数据提取字段信息
+     */
+    private List<DatasetField> extractFieldMetadata(ResultSetMetaData metaData) throws SQLException {
+        List<DatasetField> fields = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            int nullable = metaData.isNullable(i);
+            fields.add(DatasetField.builder()
+                    .name(JdbcUtils.lookupColumnName(metaData, i))
+                    .typeName(metaData.getColumnTypeName(i))
+                    .jdbcType(metaData.getColumnType(i))
+                    .javaType(metaData.getColumnClassName(i))
+                    .precision(metaData.getPrecision(i))
+                    .scale(metaData.getScale(i))
+                    .nullable(nullable == ResultSetMetaData.columnNullableUnknown
+                            ? null
+                            : nullable == ResultSetMetaData.columnNullable)
+                    .build());
+        }
+        return fields;
+    }
+
     /**
      * 转换Dataset为DatasetDO
      */
@@ -313,6 +590,9 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
         datasetDO.setDataSourceType(dataset.getDataSourceType());
         datasetDO.setUpdateStrategy(dataset.getUpdateStrategy());
         datasetDO.setUpdateInterval(dataset.getUpdateInterval());
+        datasetDO.setSortKey(dataset.getSortKey());
+        datasetDO.setWatermarkColumn(dataset.getWatermarkColumn());
+        datasetDO.setCubeEligible(dataset.getCubeEligible());
         datasetDO.setEnabled(dataset.getEnabled());
 
         // 转换过滤条件为JSON
@@ -329,6 +609,55 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
         return datasetDO;
     }
 
+    /**
+     * 将过滤条件应用到基础SQL上
+     * 基础SQL可能包含 GROUP BY 等子句，先包装为子查询再追加条件
+     */
+    private String applyFiltersToBaseSql(String baseSql, List<Filter> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return baseSql;
+        }
+        String conditions = buildFilterConditions(filters);
+        if (conditions.isEmpty()) {
+            return baseSql;
+        }
+        return "SELECT * FROM (" + baseSql + ") filtered_data WHERE " + conditions;
+    }
+
+    /**
+     * 将过滤条件应用到以数据集基础SQL为子查询的图表SQL中
+     * 图表SQL中的基础SQL替换为过滤后的基础SQL，过滤发生在聚合之前；
+     * 不包含基础SQL的图表SQL视为明细行查询，直接包装为过滤子查询
+     */
+    private String applyFiltersToDatasetSql(Dataset dataset, String sql, List<Filter> filters) {
+        String baseSql = dataset.getSql();
+        String filteredBaseSql = applyFiltersToBaseSql(baseSql, filters);
+        if (filteredBaseSql.equals(baseSql)) {
+            return sql;
+        }
+        int baseSqlStart = StringUtils.hasText(baseSql) ? sql.indexOf(baseSql) : -1;
+        if (baseSqlStart < 0) {
+            return applyFiltersToBaseSql(sql, filters);
+        }
+        return sql.substring(0, baseSqlStart) + filteredBaseSql + sql.substring(baseSqlStart + baseSql.length());
+    }
+
+    /**
+     * 为图表SQL中的数据集基础SQL增加标记列，行满足全部过滤条件时为1，否则为0
+     */
+    private String flagFiltersInDatasetSql(Dataset dataset, String sql, List<Filter> filters) {
+        String baseSql = dataset.getSql();
+        int baseSqlStart = StringUtils.hasText(baseSql) ? sql.indexOf(baseSql) : -1;
+        if (baseSqlStart < 0) {
+            throw new IllegalArgumentException("SQL未以数据集基础SQL为子查询: " + dataset.getId());
+        }
+        String conditions = filters != null ? buildFilterConditions(filters) : "";
+        String matched = conditions.isEmpty() ? "1" : "CASE WHEN " + conditions + " THEN 1 ELSE 0 END";
+        String flaggedBaseSql = "SELECT flagged_data.*, " + matched + " AS " + FILTER_MATCHED_COLUMN
+                + " FROM (" + baseSql + ") flagged_data";
+        return sql.substring(0, baseSqlStart) + flaggedBaseSql + sql.substring(baseSqlStart + baseSql.length());
+    }
+
     /**
      * 将过滤条件应用到SQL语句中
      */
@@ -337,9 +666,26 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
             return sql;
         }
 
-        StringBuilder whereClause = new StringBuilder();
+        String whereClause = buildFilterConditions(filters);
         boolean hasWhere = sql.toLowerCase().contains("where");
 
+        if (!whereClause.isEmpty()) {
+            if (hasWhere) {
+                return sql + " AND " + whereClause;
+            } else {
+                return sql + " WHERE " + whereClause;
+            }
+        }
+
+        return sql;
+    }
+
+    /**
+     * 将过滤条件拼接为 AND 连接的条件表达式
+     */
+    private String buildFilterConditions(List<Filter> filters) {
+        StringBuilder whereClause = new StringBuilder();
+
         for (Filter filter : filters) {
             if (StringUtils.hasText(filter.getField()) && StringUtils.hasText(String.valueOf(filter.getValue()))) {
                 if (whereClause.length() > 0) {
@@ -351,15 +697,7 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
             }
         }
 
-        if (whereClause.length() > 0) {
-            if (hasWhere) {
-                return sql + " AND " + whereClause.toString();
-            } else {
-                return sql + " WHERE " + whereClause.toString();
-            }
-        }
-
-        return sql;
+        return whereClause.toString();
     }
 
     /**
@@ -412,6 +750,9 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
                 .dataSourceType(datasetDO.getDataSourceType())
                 .updateStrategy(datasetDO.getUpdateStrategy())
                 .updateInterval(datasetDO.getUpdateInterval())
+                .sortKey(datasetDO.getSortKey())
+                .watermarkColumn(datasetDO.getWatermarkColumn())
+                .cubeEligible(datasetDO.getCubeEligible())
                 .enabled(datasetDO.getEnabled());
 
         // 转换JSON过滤条件为对象
@@ -430,4 +771,54 @@ public class DatasetRepositoryImpl extends ServiceImpl<DatasetMapper, DatasetDO>
 
         return builder.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * 按数据集SQL版本缓存的字段元数据
+     */
+    private static final class CachedDatasetFields {
+
+        private final String version;
+        private final List<DatasetField> fields;
+
+        private CachedDatasetFields(String version, List<DatasetField> fields) {
+            this.version = version;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * 流式行回调：列名只解析一次，逐行转换为Map交给行处理器
+     */
+    private static final class StreamingRowCallbackHandler implements RowCallbackHandler {
+
+        private final Consumer<Map<String, Object>> rowHandler;
+        private String[] columnNames;
+        private long rowCount;
+
+        private StreamingRowCallbackHandler(Consumer<Map<String, Object>> rowHandler) {
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (columnNames == null) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                columnNames = new String[metaData.getColumnCount()];
+                for (int i = 0; i < columnNames.length; i++) {
+                    columnNames[i] = JdbcUtils.lookupColumnName(metaData, i + 1);
+                }
+            }
+
+            Map<String, Object> row = new LinkedHashMap<>(columnNames.length * 2);
+            for (int i = 0; i < columnNames.length; i++) {
+                row.put(columnNames[i], JdbcUtils.getResultSetValue(rs, i + 1));
+            }
+            rowHandler.accept(row);
+            rowCount++;
+        }
+
+        private long getRowCount() {
+            return rowCount;
+        }
+    }
+}
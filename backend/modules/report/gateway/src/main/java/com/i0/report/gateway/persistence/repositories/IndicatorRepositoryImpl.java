@@ -7,7 +7,9 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.i0.report.domain.entities.Indicator;
 import com.i0.report.domain.repositories.IndicatorRepository;
+import com.i0.report.domain.services.ReportPipelineMetrics;
 import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.gateway.persistence.cache.ReportConfigChangeTracker;
 import com.i0.report.gateway.persistence.mappers.IndicatorMapper;
 import com.i0.report.gateway.persistence.dataobjects.IndicatorDO;
 import lombok.RequiredArgsConstructor;
@@ -31,6 +33,8 @@ public class IndicatorRepositoryImpl extends ServiceImpl<IndicatorMapper, Indica
 
     private final IndicatorMapper indicatorMapper;
     private final ObjectMapper objectMapper;
+    private final ReportPipelineMetrics pipelineMetrics;
+    private final ReportConfigChangeTracker configChangeTracker;
 
     @Override
     public Indicator save(Indicator indicator) {
@@ -47,6 +51,7 @@ public class IndicatorRepositoryImpl extends ServiceImpl<IndicatorMapper, Indica
             save(indicatorDO);
         }
 
+        configChangeTracker.markChanged();
         return convertToIndicator(indicatorDO);
     }
 
@@ -123,11 +128,13 @@ public class IndicatorRepositoryImpl extends ServiceImpl<IndicatorMapper, Indica
     @Override
     public void deleteById(String id) {
         removeById(id);
+        configChangeTracker.markChanged();
     }
 
     @Override
     public void delete(Indicator indicator) {
         removeById(indicator.getId());
+        configChangeTracker.markChanged();
     }
 
     @Override
@@ -177,6 +184,7 @@ public class IndicatorRepositoryImpl extends ServiceImpl<IndicatorMapper, Indica
 
         saveBatch(indicatorDOList);
 
+        configChangeTracker.markChanged();
         return indicatorDOList.stream()
                 .map(this::convertToIndicator)
                 .collect(Collectors.toList());
@@ -211,6 +219,7 @@ public class IndicatorRepositoryImpl extends ServiceImpl<IndicatorMapper, Indica
                 .eq(IndicatorDO::getDatasetId, datasetId)
                 .set(IndicatorDO::getIsDeleted, true)
                 .update();
+        configChangeTracker.markChanged();
     }
 
     @Override
@@ -268,8 +277,7 @@ public class IndicatorRepositoryImpl extends ServiceImpl<IndicatorMapper, Indica
 
     @Override
     public java.util.Map<String, Object> getPerformanceStats(String indicatorId) {
-        // 简化实现，返回空映射
-        return new java.util.HashMap<>();
+        return pipelineMetrics.indicatorStats(indicatorId);
     }
 
     /**
@@ -0,0 +1,157 @@
+package com.i0.report.gateway.persistence.repositories;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Dataset;
+import com.i0.report.domain.entities.Indicator;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.repositories.IndicatorRepository;
+import com.i0.report.domain.repositories.ReportConfigGraphRepository;
+import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.domain.valueobjects.ReportConfigGraph;
+import com.i0.report.gateway.config.ReportConfigGraphProperties;
+import com.i0.report.gateway.persistence.cache.ReportConfigChangeTracker;
+import com.i0.report.gateway.persistence.dataobjects.ReportChartDO;
+import com.i0.report.gateway.persistence.mappers.ReportChartMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 报表配置图仓储实现
+ * 一次批量读取全部报表、报表图表关联、图表、指标和数据集组成配置图；
+ * 配置变更计数变化或超过最长使用时间后，下一次读取时重新加载，加载期间其他请求等待同一次加载结果
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ReportConfigGraphRepositoryImpl implements ReportConfigGraphRepository {
+
+    private static final TypeReference<Map<String, Object>> CONFIG_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final ReportRepository reportRepository;
+    private final ChartRepository chartRepository;
+    private final IndicatorRepository indicatorRepository;
+    private final DatasetRepository datasetRepository;
+    private final ReportChartMapper reportChartMapper;
+    private final ObjectMapper objectMapper;
+    private final ReportConfigChangeTracker changeTracker;
+    private final ReportConfigGraphProperties properties;
+
+    private final Object loadLock = new Object();
+    private volatile ReportConfigGraph graph = ReportConfigGraph.empty();
+
+    @Override
+    public ReportConfigGraph current() {
+        if (!properties.isEnabled()) {
+            return ReportConfigGraph.empty();
+        }
+        ReportConfigGraph snapshot = graph;
+        if (isFresh(snapshot)) {
+            return snapshot;
+        }
+        synchronized (loadLock) {
+            snapshot = graph;
+            if (isFresh(snapshot)) {
+                return snapshot;
+            }
+            try {
+                snapshot = load();
+                graph = snapshot;
+                return snapshot;
+            } catch (RuntimeException e) {
+                // 加载失败时不使用过期的配置，由调用方回退到逐个查询
+                log.warn("报表配置图加载失败，回退到逐个查询: error={}", e.getMessage());
+                return ReportConfigGraph.empty();
+            }
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        changeTracker.markChanged();
+    }
+
+    private boolean isFresh(ReportConfigGraph snapshot) {
+        return snapshot.getLoadedAt() != null
+                && snapshot.getVersion() == changeTracker.getVersion()
+                && LocalDateTime.now().isBefore(snapshot.getLoadedAt().plusSeconds(properties.getMaxAgeSeconds()));
+    }
+
+    private ReportConfigGraph load() {
+        long startedAt = System.nanoTime();
+        // 先读取版本：加载期间发生的变更会使新配置图立即过期
+        long version = changeTracker.getVersion();
+        LocalDateTime loadedAt = LocalDateTime.now();
+
+        Map<String, Report> reports = new HashMap<>();
+        for (Report report : reportRepository.findAll()) {
+            reports.put(report.getId(), report);
+        }
+
+        Map<String, Set<String>> reportIdsByChartId = new HashMap<>();
+        List<ReportChartDO> links = reportChartMapper.selectList(new LambdaQueryWrapper<ReportChartDO>()
+                .eq(ReportChartDO::getIsDeleted, false));
+        for (ReportChartDO link : links) {
+            reportIdsByChartId.computeIfAbsent(link.getChartId(), chartId -> new HashSet<>()).add(link.getReportId());
+        }
+
+        // 图表按创建时间倒序读取，报表中的图表顺序与 ChartRepository.findByReportId 一致
+        Map<String, Chart> charts = new HashMap<>();
+        Map<String, Map<String, Object>> chartConfigs = new HashMap<>();
+        Map<String, List<Chart>> reportCharts = new HashMap<>();
+        for (Chart chart : chartRepository.findAll()) {
+            charts.put(chart.getId(), chart);
+            chartConfigs.put(chart.getId(), parseConfig(chart));
+            if (!Boolean.TRUE.equals(chart.getEnabled())) {
+                continue;
+            }
+            for (String reportId : reportIdsByChartId.getOrDefault(chart.getId(), Set.of())) {
+                reportCharts.computeIfAbsent(reportId, id -> new ArrayList<>()).add(chart);
+            }
+        }
+
+        Map<String, Indicator> indicators = new HashMap<>();
+        for (Indicator indicator : indicatorRepository.findAll()) {
+            indicators.put(indicator.getId(), indicator);
+        }
+
+        Map<String, Dataset> datasets = new HashMap<>();
+        for (Dataset dataset : datasetRepository.findAll()) {
+            datasets.put(dataset.getId(), dataset);
+        }
+
+        ReportConfigGraph loaded = new ReportConfigGraph(version, loadedAt, reports, reportCharts, charts, chartConfigs,
+                indicators, datasets);
+        log.info("报表配置图加载完成: version={}, reports={}, charts={}, indicators={}, datasets={}, durationMs={}",
+                version, loaded.getReportCount(), loaded.getChartCount(), loaded.getIndicatorCount(),
+                loaded.getDatasetCount(), (System.nanoTime() - startedAt) / 1_000_000);
+        return loaded;
+    }
+
+    private Map<String, Object> parseConfig(Chart chart) {
+        if (!StringUtils.hasText(chart.getConfig())) {
+            return new HashMap<>();
+        }
+        try {
+            Map<String, Object> config = objectMapper.readValue(chart.getConfig(), CONFIG_TYPE);
+            return config != null ? config : new HashMap<>();
+        } catch (Exception e) {
+            log.warn("解析图表配置失败: chartId={}, error={}", chart.getId(), e.getMessage());
+            return new HashMap<>();
+        }
+    }
+}
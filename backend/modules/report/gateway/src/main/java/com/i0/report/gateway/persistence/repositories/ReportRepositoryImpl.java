@@ -1,6 +1,7 @@
 package com.i0.report.gateway.persistence.repositories;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -8,7 +9,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.i0.report.domain.entities.Chart;
 import com.i0.report.domain.entities.Report;
 import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.domain.services.ReportPipelineMetrics;
 import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.gateway.config.ReportAccessTrackingProperties;
+import com.i0.report.gateway.persistence.access.AccessRollup;
+import com.i0.report.gateway.persistence.access.ReportAccessRollupStore;
+import com.i0.report.gateway.persistence.access.ReportAccessTracker;
+import com.i0.report.gateway.persistence.cache.ReportConfigChangeTracker;
+import com.i0.report.gateway.persistence.cache.ReportResultStore;
 import com.i0.report.gateway.persistence.mappers.ReportMapper;
 import com.i0.report.gateway.persistence.dataobjects.ReportDO;
 import lombok.RequiredArgsConstructor;
@@ -17,9 +25,14 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +45,12 @@ public class ReportRepositoryImpl extends ServiceImpl<ReportMapper, ReportDO> im
 
     private final ReportMapper reportMapper;
     private final ObjectMapper objectMapper;
+    private final ReportPipelineMetrics pipelineMetrics;
+    private final ReportAccessTracker accessTracker;
+    private final ReportAccessRollupStore accessRollupStore;
+    private final ReportAccessTrackingProperties accessTrackingProperties;
+    private final ReportResultStore resultStore;
+    private final ReportConfigChangeTracker configChangeTracker;
 
     @Override
     public Report save(Report report) {
@@ -48,6 +67,10 @@ public class ReportRepositoryImpl extends ServiceImpl<ReportMapper, ReportDO> im
             save(reportDO);
         }
 
+        // 报表配置变更后已存储的结果不再有效，事务结束后再淘汰，避免提交前按旧配置重新存储
+        String reportId = reportDO.getId();
+        configChangeTracker.afterTransaction(() -> resultStore.evict(reportId));
+        configChangeTracker.markChanged();
         return convertToReport(reportDO);
     }
 
@@ -151,11 +174,15 @@ public class ReportRepositoryImpl extends ServiceImpl<ReportMapper, ReportDO> im
     @Override
     public void deleteById(String id) {
         removeById(id);
+        configChangeTracker.afterTransaction(() -> resultStore.evict(id));
+        configChangeTracker.markChanged();
     }
 
     @Override
     public void delete(Report report) {
         removeById(report.getId());
+        configChangeTracker.afterTransaction(() -> resultStore.evict(report.getId()));
+        configChangeTracker.markChanged();
     }
 
     @Override
@@ -213,6 +240,8 @@ public class ReportRepositoryImpl extends ServiceImpl<ReportMapper, ReportDO> im
 
         saveBatch(reportDOList);
 
+        configChangeTracker.afterTransaction(() -> reportDOList.forEach(reportDO -> resultStore.evict(reportDO.getId())));
+        configChangeTracker.markChanged();
         return reportDOList.stream()
                 .map(this::convertToReport)
                 .collect(Collectors.toList());
@@ -232,21 +261,48 @@ public class ReportRepositoryImpl extends ServiceImpl<ReportMapper, ReportDO> im
 
     @Override
     public List<Report> getRecentlyUpdatedReports(int limit) {
-        // 简化实现，返回空列表
-        return new ArrayList<>();
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        LambdaQueryWrapper<ReportDO> queryWrapper = new LambdaQueryWrapper<ReportDO>()
+                .eq(ReportDO::getIsDeleted, false)
+                .orderByDesc(ReportDO::getUpdatedAt);
+
+        // 只取第一页，不执行总数查询
+        Page<ReportDO> pageRequest = new Page<>(1, limit, false);
+        return page(pageRequest, queryWrapper).getRecords().stream()
+                .map(this::convertToReport)
+                .collect(Collectors.toList());
     }
 
     @Override
     public List<Report> getPopularReports(int limit) {
-        // 简化实现，返回空列表
-        return new ArrayList<>();
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        // 按访问汇总排序，已删除报表会被过滤，因此多取一些候选
+        LocalDateTime since = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS)
+                .minusDays(accessTrackingProperties.getPopularWindowDays());
+        List<String> reportIds = accessRollupStore.findPopularReportIds(since, limit * 2);
+        if (reportIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, ReportDO> reportDOMap = listByIds(reportIds).stream()
+                .filter(reportDO -> !Boolean.TRUE.equals(reportDO.getIsDeleted()))
+                .collect(Collectors.toMap(ReportDO::getId, Function.identity()));
+        return reportIds.stream()
+                .map(reportDOMap::get)
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .map(this::convertToReport)
+                .collect(Collectors.toList());
     }
 
-    // 以下方法为Repository接口要求的方法，暂时提供简化实现
     @Override
     public void recordAccess(String reportId, String userId, String accessType) {
-        // 简化实现，暂时只记录日志
-        log.info("记录报表访问: reportId={}, userId={}, accessType={}", reportId, userId, accessType);
+        // 只累加内存计数，由定时任务批量写入汇总表
+        accessTracker.record(reportId, userId, accessType);
     }
 
     @Override
@@ -316,27 +372,27 @@ public class ReportRepositoryImpl extends ServiceImpl<ReportMapper, ReportDO> im
 
     @Override
     public java.util.Map<String, Object> getPerformanceStats(String reportId) {
-        return new java.util.HashMap<>(); // 简化实现
+        return pipelineMetrics.reportStats(reportId);
     }
 
     @Override
     public void cacheReportData(Report report, List<Filter> filters, Object data, long ttl) {
-        // 简化实现，暂不缓存
+        resultStore.put(report.getId(), filters, data, ttl);
     }
 
     @Override
     public Optional<Object> getCachedReportData(Report report, List<Filter> filters) {
-        return Optional.empty(); // 简化实现
+        return resultStore.get(report.getId(), filters);
     }
 
     @Override
     public void clearCache(String reportId) {
-        // 简化实现，暂无缓存
+        resultStore.evict(reportId);
     }
 
     @Override
     public void clearAllCache() {
-        // 简化实现，暂无缓存
+        resultStore.clear();
     }
 
     @Override
@@ -354,7 +410,44 @@ public class ReportRepositoryImpl extends ServiceImpl<ReportMapper, ReportDO> im
             String reportId,
             java.time.LocalDateTime startDate,
             java.time.LocalDateTime endDate) {
-        return new java.util.HashMap<>(); // 简化实现
+        LocalDateTime endHour = (endDate != null ? endDate : LocalDateTime.now()).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime startHour = startDate != null
+                ? startDate.truncatedTo(ChronoUnit.HOURS)
+                : endHour.minusDays(accessTrackingProperties.getPopularWindowDays());
+
+        List<AccessRollup> hourlyTotals = accessRollupStore.findHourlyTotals(reportId, startHour, endHour);
+
+        long totalAccesses = 0;
+        LocalDateTime lastAccessAt = null;
+        Map<String, Long> byAccessType = new LinkedHashMap<>();
+        Map<LocalDateTime, Long> byHour = new LinkedHashMap<>();
+        for (AccessRollup rollup : hourlyTotals) {
+            totalAccesses += rollup.getAccessCount();
+            byAccessType.merge(rollup.getAccessType(), rollup.getAccessCount(), Long::sum);
+            byHour.merge(rollup.getBucketHour(), rollup.getAccessCount(), Long::sum);
+            if (lastAccessAt == null || rollup.getLastAccessAt().isAfter(lastAccessAt)) {
+                lastAccessAt = rollup.getLastAccessAt();
+            }
+        }
+
+        List<Map<String, Object>> hourly = new ArrayList<>(byHour.size());
+        byHour.forEach((hour, count) -> {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("hour", hour);
+            point.put("accessCount", count);
+            hourly.add(point);
+        });
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("reportId", reportId);
+        stats.put("startDate", startHour);
+        stats.put("endDate", endHour);
+        stats.put("totalAccesses", totalAccesses);
+        stats.put("uniqueUsers", totalAccesses > 0 ? accessRollupStore.countDistinctUsers(reportId, startHour, endHour) : 0L);
+        stats.put("lastAccessAt", lastAccessAt);
+        stats.put("byAccessType", byAccessType);
+        stats.put("hourly", hourly);
+        return stats;
     }
 
     /**
@@ -0,0 +1,127 @@
+package com.i0.report.gateway.persistence.sql;
+
+import com.i0.report.domain.exceptions.ReportQueryLimitExceededException;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.ColumnarResultSet.ColumnType;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 列式结果集提取器
+ * 根据 ResultSetMetaData 一次性确定列名和列存储类型，逐行读取原始值写入列数组，避免每行创建Map和装箱；
+ * 读取过程中检查行数和估算结果大小，超出限制时立即中止，避免超大结果集耗尽内存
+ */
+public class ColumnarResultSetExtractor implements ResultSetExtractor<ColumnarResultSet> {
+
+    /**
+     * long 可无损表示的最大十进制位数
+     */
+    private static final int MAX_LONG_PRECISION = 18;
+
+    private final QueryLimits limits;
+
+    public ColumnarResultSetExtractor() {
+        this(QueryLimits.UNLIMITED);
+    }
+
+    public ColumnarResultSetExtractor(QueryLimits limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    public ColumnarResultSet extractData(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+
+        List<String> columnNames = new ArrayList<>(columnCount);
+        List<ColumnType> columnTypes = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            columnNames.add(JdbcUtils.lookupColumnName(metaData, i));
+            columnTypes.add(toColumnType(metaData, i));
+        }
+
+        ColumnarResultSet.Builder builder = ColumnarResultSet.builder(columnNames, columnTypes);
+        while (rs.next()) {
+            if (builder.getRowCount() >= limits.getMaxRows()) {
+                throw ReportQueryLimitExceededException.rowLimitExceeded(limits.getMaxRows());
+            }
+            for (int i = 0; i < columnCount; i++) {
+                int jdbcIndex = i + 1;
+                switch (columnTypes.get(i)) {
+                    case LONG: {
+                        long value = rs.getLong(jdbcIndex);
+                        if (rs.wasNull()) {
+                            builder.appendNull(i);
+                        } else {
+                            builder.appendLong(i, value);
+                        }
+                        break;
+                    }
+                    case DOUBLE: {
+                        double value = rs.getDouble(jdbcIndex);
+                        if (rs.wasNull()) {
+                            builder.appendNull(i);
+                        } else {
+                            builder.appendDouble(i, value);
+                        }
+                        break;
+                    }
+                    case DECIMAL:
+                        builder.appendDecimal(i, rs.getBigDecimal(jdbcIndex));
+                        break;
+                    case STRING:
+                        builder.appendString(i, rs.getString(jdbcIndex));
+                        break;
+                    default:
+                        builder.append(i, JdbcUtils.getResultSetValue(rs, jdbcIndex));
+                        break;
+                }
+            }
+            if (builder.estimatedSizeInBytes() > limits.getMaxResultBytes()) {
+                throw ReportQueryLimitExceededException.resultTooLarge(limits.getMaxResultBytes());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 将JDBC列类型映射为列存储类型
+     */
+    private ColumnType toColumnType(ResultSetMetaData metaData, int column) throws SQLException {
+        switch (metaData.getColumnType(column)) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return ColumnType.LONG;
+            case Types.DECIMAL:
+            case Types.NUMERIC: {
+                // 明确无小数位且位数可由long表示的定点数按整数存储，其余（含驱动未报告精度的计算列）保留 BigDecimal 精度
+                int precision = metaData.getPrecision(column);
+                return metaData.getScale(column) == 0 && precision > 0 && precision <= MAX_LONG_PRECISION
+                        ? ColumnType.LONG
+                        : ColumnType.DECIMAL;
+            }
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return ColumnType.DOUBLE;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return ColumnType.STRING;
+            default:
+                return ColumnType.OBJECT;
+        }
+    }
+}
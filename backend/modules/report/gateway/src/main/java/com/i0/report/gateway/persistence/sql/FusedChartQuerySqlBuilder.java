@@ -0,0 +1,193 @@
+package com.i0.report.gateway.persistence.sql;
+
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.FusedChartQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 合并图表查询SQL构建器
+ * 支持 GROUPING SETS 的数据库使用一次分组集合查询；其余数据库使用公用表表达式 + UNION ALL，
+ * 每个去重维度一个分支，同维度的多个图表共享同一分支
+ */
+@Component
+public class FusedChartQuerySqlBuilder {
+
+    private static final String BASE_ALIAS = "base_data";
+    private static final String GROUPING_INDEX_COLUMN = "grouping_index";
+    private static final String CALCULATED_VALUE_COLUMN = "calculated_value";
+    private static final String DIMENSION_FIELD_COLUMN = "dimension_field";
+
+    /**
+     * 构建合并查询SQL
+     *
+     * @param query 合并图表查询
+     * @param filteredBaseSql 已应用过滤条件的基础SQL
+     * @param dialect 数据库方言
+     * @return 可执行的合并SQL
+     */
+    public String build(FusedChartQuery query, String filteredBaseSql, SqlDialect dialect) {
+        if (dialect.supportsGroupingSets()) {
+            return buildGroupingSetsSql(query, filteredBaseSql);
+        }
+        return buildUnionAllSql(query, filteredBaseSql, dialect);
+    }
+
+    /**
+     * 将合并查询结果按图表拆分
+     *
+     * @param query 合并图表查询
+     * @param resultSet 合并查询的列式结果
+     * @param dialect 数据库方言
+     * @return 图表ID到结果的映射，每个结果包含 calculated_value 和 dimension_field 两列，与单图表增强SQL一致
+     */
+    public Map<String, ColumnarResultSet> split(FusedChartQuery query, ColumnarResultSet resultSet, SqlDialect dialect) {
+        List<String> dimensions = query.getDistinctDimensions();
+        List<FusedChartQuery.Branch> branches = query.getBranches();
+
+        // 列位置只解析一次
+        int groupingIndexColumn = resultSet.indexOf(GROUPING_INDEX_COLUMN);
+        int[] groupingColumns = new int[dimensions.size()];
+        int[] dimensionColumns = new int[dimensions.size()];
+        for (int j = 0; j < dimensions.size(); j++) {
+            groupingColumns[j] = resultSet.indexOf(groupingColumn(j));
+            dimensionColumns[j] = resultSet.indexOf(dimensionColumn(j));
+        }
+
+        List<ColumnarResultSet.Builder> builders = new ArrayList<>(branches.size());
+        int[] valueColumns = new int[branches.size()];
+        int[] branchDimensions = new int[branches.size()];
+        for (int i = 0; i < branches.size(); i++) {
+            valueColumns[i] = resultSet.indexOf(valueColumn(i));
+            branchDimensions[i] = query.dimensionIndexOf(branches.get(i));
+            builders.add(ColumnarResultSet.builder(
+                    Arrays.asList(CALCULATED_VALUE_COLUMN, DIMENSION_FIELD_COLUMN),
+                    Arrays.asList(resultSet.getColumnType(valueColumns[i]),
+                            resultSet.getColumnType(dimensionColumns[branchDimensions[i]]))));
+        }
+
+        boolean groupingSets = dialect.supportsGroupingSets();
+        for (int row = 0; row < resultSet.getRowCount(); row++) {
+            int dimensionIndex = groupingSets
+                    ? resolveGroupingSetIndex(resultSet, groupingColumns, row)
+                    : toInt(resultSet, groupingIndexColumn, row);
+            if (dimensionIndex < 0 || dimensionIndex >= dimensions.size()) {
+                continue;
+            }
+
+            for (int i = 0; i < branches.size(); i++) {
+                if (branchDimensions[i] != dimensionIndex) {
+                    continue;
+                }
+                builders.get(i)
+                        .appendFrom(0, resultSet, valueColumns[i], row)
+                        .appendFrom(1, resultSet, dimensionColumns[dimensionIndex], row);
+            }
+        }
+
+        Map<String, ColumnarResultSet> resultsByChart = new LinkedHashMap<>();
+        for (int i = 0; i < branches.size(); i++) {
+            resultsByChart.put(branches.get(i).getChartId(), builders.get(i).build());
+        }
+        return resultsByChart;
+    }
+
+    /**
+     * GROUPING SETS 形式：一次分组集合扫描
+     */
+    private String buildGroupingSetsSql(FusedChartQuery query, String filteredBaseSql) {
+        List<String> dimensions = query.getDistinctDimensions();
+        List<FusedChartQuery.Branch> branches = query.getBranches();
+
+        List<String> columns = new ArrayList<>();
+        List<String> groupingSets = new ArrayList<>();
+        for (int j = 0; j < dimensions.size(); j++) {
+            columns.add("GROUPING(" + dimensions.get(j) + ") AS " + groupingColumn(j));
+            columns.add(dimensions.get(j) + " AS " + dimensionColumn(j));
+            groupingSets.add("(" + dimensions.get(j) + ")");
+        }
+        for (int i = 0; i < branches.size(); i++) {
+            columns.add(branches.get(i).getCalculation() + " AS " + valueColumn(i));
+        }
+
+        return "SELECT " + String.join(", ", columns)
+                + " FROM (" + filteredBaseSql + ") " + BASE_ALIAS
+                + " GROUP BY GROUPING SETS (" + String.join(", ", groupingSets) + ")";
+    }
+
+    /**
+     * UNION ALL 形式：每个去重维度一个分支，基础数据通过公用表表达式只定义一次
+     */
+    private String buildUnionAllSql(FusedChartQuery query, String filteredBaseSql, SqlDialect dialect) {
+        List<String> dimensions = query.getDistinctDimensions();
+        List<FusedChartQuery.Branch> branches = query.getBranches();
+        boolean useCte = dialect.supportsCommonTableExpressions();
+
+        List<String> selects = new ArrayList<>();
+        for (int k = 0; k < dimensions.size(); k++) {
+            List<String> columns = new ArrayList<>();
+            columns.add(k + " AS " + GROUPING_INDEX_COLUMN);
+            for (int j = 0; j < dimensions.size(); j++) {
+                columns.add((j == k ? dimensions.get(j) : "NULL") + " AS " + dimensionColumn(j));
+            }
+            for (int i = 0; i < branches.size(); i++) {
+                boolean belongsToDimension = query.dimensionIndexOf(branches.get(i)) == k;
+                columns.add((belongsToDimension ? branches.get(i).getCalculation() : "NULL") + " AS " + valueColumn(i));
+            }
+
+            String source = useCte ? BASE_ALIAS : "(" + filteredBaseSql + ") " + BASE_ALIAS + "_" + k;
+            selects.add("SELECT " + String.join(", ", columns)
+                    + " FROM " + source
+                    + " GROUP BY " + dimensions.get(k));
+        }
+
+        String unionSql = String.join(" UNION ALL ", selects);
+        if (useCte) {
+            return "WITH " + BASE_ALIAS + " AS (" + filteredBaseSql + ") " + unionSql;
+        }
+        return unionSql;
+    }
+
+    /**
+     * 根据 GROUPING() 标记定位当前行所属的维度分组
+     */
+    private int resolveGroupingSetIndex(ColumnarResultSet resultSet, int[] groupingColumns, int row) {
+        for (int j = 0; j < groupingColumns.length; j++) {
+            if (toInt(resultSet, groupingColumns[j], row) == 0) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    private int toInt(ColumnarResultSet resultSet, int column, int row) {
+        if (column < 0 || resultSet.isNull(column, row)) {
+            return -1;
+        }
+        if (resultSet.isNumeric(column)) {
+            return (int) resultSet.getLong(column, row);
+        }
+        try {
+            return Integer.parseInt(resultSet.getString(column, row).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String groupingColumn(int index) {
+        return "grp_" + index;
+    }
+
+    private String dimensionColumn(int index) {
+        return "dim_" + index;
+    }
+
+    private String valueColumn(int index) {
+        return "val_" + index;
+    }
+}
@@ -0,0 +1,191 @@
+package com.i0.report.gateway.persistence.sql;
+
+import com.i0.report.domain.exceptions.ReportQueryLimitExceededException;
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.gateway.config.ReportQueryGuardrailProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+/**
+ * 受限报表查询执行器
+ * 在数据集路由到的分析连接池上执行报表SQL，为每条语句设置语句超时和最大行数，登记到当前请求的取消范围，
+ * 并将超时、取消等驱动异常转换为 {@link ReportQueryLimitExceededException}
+ */
+@Component
+@RequiredArgsConstructor
+public class GuardedQueryExecutor {
+
+    private final ReportDataSourceRouter dataSourceRouter;
+    private final ReportQueryGuardrailProperties guardrailProperties;
+    private final QueryCancellationRegistry cancellationRegistry;
+
+    /**
+     * 执行查询并返回列式结果，超出行数或结果大小限制时中止
+     *
+     * @param datasetId 数据集ID，用于选择连接池和执行限制，为空时使用默认连接池和全局限制
+     * @param sql SQL语句
+     * @param args 绑定参数
+     * @return 列式查询结果
+     */
+    public ColumnarResultSet queryColumnar(String datasetId, String sql, Object... args) {
+        QueryLimits limits = guardrailProperties.resolve(datasetId);
+        return execute(datasetId, sql, limits, 0, new ColumnarResultSetExtractor(limits), args);
+    }
+
+    /**
+     * 执行查询并使用指定提取器处理结果
+     *
+     * @param datasetId 数据集ID，用于选择连接池和执行限制，为空时使用默认连接池和全局限制
+     * @param sql SQL语句
+     * @param extractor 结果提取器
+     * @param args 绑定参数
+     * @return 提取结果
+     */
+    public <T> T query(String datasetId, String sql, ResultSetExtractor<T> extractor, Object... args) {
+        return execute(datasetId, sql, guardrailProperties.resolve(datasetId), 0, extractor, args);
+    }
+
+    /**
+     * 按批次流式读取查询结果，逐行回调
+     * 流式读取不物化结果，不受超时、行数和大小限制，由请求中止时的取消机制兜底
+     *
+     * @param datasetId 数据集ID，用于选择连接池
+     * @param sql SQL语句
+     * @param fetchSize 驱动读取批次大小
+     * @param rowCallbackHandler 行回调
+     */
+    public void stream(String datasetId, String sql, int fetchSize, RowCallbackHandler rowCallbackHandler) {
+        execute(datasetId, sql, QueryLimits.UNLIMITED, fetchSize, rs -> {
+            while (rs.next()) {
+                rowCallbackHandler.processRow(rs);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 只预编译查询并读取结果列元数据，不执行查询
+     * 查询包装为 {@code SELECT * FROM (sql) t WHERE 1 = 0}：驱动在预编译阶段无法提供元数据时（如MySQL客户端预编译）
+     * 退化为执行该包装语句，也不会读取任何数据行
+     *
+     * @param datasetId 数据集ID，用于选择连接池和超时限制，为空时使用默认连接池和全局限制
+     * @param sql 查询SQL
+     * @param extractor 元数据提取器
+     * @return 提取结果
+     */
+    public <T> T describe(String datasetId, String sql, MetaDataExtractor<T> extractor) {
+        String probeSql = "SELECT * FROM (" + sql + ") metadata_probe WHERE 1 = 0";
+        QueryLimits limits = guardrailProperties.resolve(datasetId);
+        return dataSourceRouter.jdbcTemplateFor(datasetId).execute((ConnectionCallback<T>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(probeSql)) {
+                if (limits.getStatementTimeoutSeconds() > 0) {
+                    statement.setQueryTimeout(limits.getStatementTimeoutSeconds());
+                }
+                ResultSetMetaData metaData = statement.getMetaData();
+                if (metaData != null) {
+                    return extractor.extract(metaData);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return extractor.extract(resultSet.getMetaData());
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取数据集所在数据库的SQL方言
+     */
+    public SqlDialect dialectFor(String datasetId) {
+        return dataSourceRouter.dialectFor(datasetId);
+    }
+
+    private <T> T execute(String datasetId, String sql, QueryLimits limits, int fetchSize,
+                          ResultSetExtractor<T> extractor, Object... args) {
+        QueryCancellationRegistry.QueryScope scope = cancellationRegistry.current();
+        if (scope != null && scope.isCancelled()) {
+            throw ReportQueryLimitExceededException.cancelled(null);
+        }
+
+        PreparedStatement[] executing = new PreparedStatement[1];
+        try {
+            return dataSourceRouter.jdbcTemplateFor(datasetId).query(connection -> {
+                if (fetchSize != 0 && connection.getAutoCommit()) {
+                    // 部分驱动（如PostgreSQL）仅在非自动提交模式下按批次读取；连接归还连接池时会复位
+                    connection.setAutoCommit(false);
+                }
+                PreparedStatement statement = connection.prepareStatement(sql);
+                applyLimits(statement, limits, fetchSize);
+                if (scope != null && !scope.register(statement)) {
+                    statement.close();
+                    throw ReportQueryLimitExceededException.cancelled(null);
+                }
+                executing[0] = statement;
+                return statement;
+            }, new ArgumentPreparedStatementSetter(args), extractor);
+        } catch (DataAccessException e) {
+            if (scope != null && scope.isCancelled()) {
+                throw ReportQueryLimitExceededException.cancelled(e);
+            }
+            if (isTimeout(e)) {
+                throw ReportQueryLimitExceededException.timeout(limits.getStatementTimeoutSeconds(), e);
+            }
+            throw e;
+        } finally {
+            if (scope != null && executing[0] != null) {
+                scope.unregister(executing[0]);
+            }
+        }
+    }
+
+    private void applyLimits(PreparedStatement statement, QueryLimits limits, int fetchSize) throws SQLException {
+        if (limits.getStatementTimeoutSeconds() > 0) {
+            statement.setQueryTimeout(limits.getStatementTimeoutSeconds());
+        }
+        if (limits.hasRowLimit()) {
+            // 多取一行，由提取器判断是否超出限制，而不是被驱动静默截断
+            statement.setMaxRows(limits.getMaxRows() + 1);
+        }
+        if (fetchSize != 0) {
+            statement.setFetchSize(fetchSize);
+        }
+    }
+
+    /**
+     * 判断是否为语句超时（不同驱动的超时异常类型和SQLState不同）
+     */
+    private boolean isTimeout(DataAccessException e) {
+        if (e instanceof QueryTimeoutException) {
+            return true;
+        }
+        Throwable cause = e.getMostSpecificCause();
+        if (cause instanceof SQLTimeoutException) {
+            return true;
+        }
+        if (cause instanceof SQLException) {
+            String sqlState = ((SQLException) cause).getSQLState();
+            // HYT00/HYT01: 通用超时；57014: 语句因超时被取消（H2、PostgreSQL、DB2）
+            return "HYT00".equals(sqlState) || "HYT01".equals(sqlState) || "57014".equals(sqlState);
+        }
+        return false;
+    }
+
+    /**
+     * 结果列元数据提取器
+     */
+    @FunctionalInterface
+    public interface MetaDataExtractor<T> {
+        T extract(ResultSetMetaData metaData) throws SQLException;
+    }
+}
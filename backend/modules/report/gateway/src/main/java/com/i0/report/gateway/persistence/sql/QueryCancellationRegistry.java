@@ -0,0 +1,162 @@
+package com.i0.report.gateway.persistence.sql;
+
+import com.i0.report.domain.services.ReportQueryCancellationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 报表查询取消登记表
+ * 异步请求在处理线程上绑定一个取消范围，范围内执行的JDBC语句都会登记在案；
+ * 请求中止（客户端断开、异步超时）时由容器线程取消范围内所有正在执行的语句，及时释放数据库资源；
+ * 图表线程池中的任务通过子范围绑定到工作线程，请求范围取消时子范围一同取消
+ */
+@Component
+@Slf4j
+public class QueryCancellationRegistry implements ReportQueryCancellationService {
+
+    private final ThreadLocal<QueryScope> currentScope = new ThreadLocal<>();
+
+    /**
+     * 创建新的取消范围
+     */
+    public QueryScope newScope() {
+        return new QueryScope(this, null);
+    }
+
+    /**
+     * 在当前线程绑定的取消范围下开启子范围，未绑定时开启独立的范围
+     */
+    @Override
+    public QueryScope openScope() {
+        QueryScope parent = current();
+        QueryScope scope = new QueryScope(this, parent);
+        if (parent != null) {
+            parent.addChild(scope);
+        }
+        return scope;
+    }
+
+    /**
+     * 将取消范围绑定到当前线程
+     */
+    public void bind(QueryScope scope) {
+        currentScope.set(scope);
+    }
+
+    /**
+     * 解除当前线程绑定的取消范围
+     */
+    public void unbind() {
+        currentScope.remove();
+    }
+
+    /**
+     * 获取当前线程绑定的取消范围
+     *
+     * @return 取消范围，未绑定时返回 null
+     */
+    public QueryScope current() {
+        return currentScope.get();
+    }
+
+    /**
+     * 取消范围：记录范围内正在执行的语句，取消时连同子范围一起取消
+     */
+    public static final class QueryScope implements CancellationScope {
+
+        private final QueryCancellationRegistry registry;
+        private final QueryScope parent;
+        private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+        private final Set<QueryScope> children = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled;
+
+        private QueryScope(QueryCancellationRegistry registry, QueryScope parent) {
+            this.registry = registry;
+            this.parent = parent;
+        }
+
+        /**
+         * 包装任务：执行期间将本范围绑定到执行线程，结束后恢复该线程原来的范围
+         */
+        @Override
+        public <T> Callable<T> wrap(Callable<T> task) {
+            return () -> {
+                QueryScope previous = registry.current();
+                registry.bind(this);
+                try {
+                    return task.call();
+                } finally {
+                    if (previous != null) {
+                        registry.bind(previous);
+                    } else {
+                        registry.unbind();
+                    }
+                }
+            };
+        }
+
+        /**
+         * 取消范围内仍在执行的语句，并从上级范围中移除
+         */
+        @Override
+        public void close() {
+            cancel();
+            if (parent != null) {
+                parent.children.remove(this);
+            }
+        }
+
+        /**
+         * 登记正在执行的语句
+         *
+         * @return 范围已被取消时返回 false，调用方不应再执行该语句
+         */
+        public boolean register(Statement statement) {
+            statements.add(statement);
+            if (cancelled) {
+                statements.remove(statement);
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 语句执行结束后移除登记
+         */
+        public void unregister(Statement statement) {
+            statements.remove(statement);
+        }
+
+        /**
+         * 取消范围及子范围内所有正在执行的语句，之后登记的语句也不会再执行
+         */
+        public void cancel() {
+            cancelled = true;
+            for (Statement statement : statements) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    log.warn("取消报表查询语句失败: {}", e.getMessage());
+                }
+            }
+            children.forEach(QueryScope::cancel);
+        }
+
+        private void addChild(QueryScope child) {
+            children.add(child);
+            if (cancelled) {
+                child.cancel();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.i0.report.gateway.persistence.sql;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 单次报表查询的执行限制
+ */
+@Getter
+@ToString
+public final class QueryLimits {
+
+    /**
+     * 不做任何限制
+     */
+    public static final QueryLimits UNLIMITED = new QueryLimits(0, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * 语句超时时间（秒），0 表示不限制
+     */
+    private final int statementTimeoutSeconds;
+
+    /**
+     * 最大返回行数
+     */
+    private final int maxRows;
+
+    /**
+     * 物化结果的最大估算大小（字节）
+     */
+    private final long maxResultBytes;
+
+    public QueryLimits(int statementTimeoutSeconds, int maxRows, long maxResultBytes) {
+        if (statementTimeoutSeconds < 0 || maxRows <= 0 || maxResultBytes <= 0) {
+            throw new IllegalArgumentException("查询执行限制配置无效");
+        }
+        this.statementTimeoutSeconds = statementTimeoutSeconds;
+        this.maxRows = maxRows;
+        this.maxResultBytes = maxResultBytes;
+    }
+
+    public boolean hasRowLimit() {
+        return maxRows < Integer.MAX_VALUE;
+    }
+}
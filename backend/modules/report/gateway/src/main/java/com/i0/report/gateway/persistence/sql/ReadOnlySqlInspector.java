@@ -0,0 +1,138 @@
+package com.i0.report.gateway.persistence.sql;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 只读SQL检查器
+ * 数据集SQL必须是单条 SELECT / WITH 查询；去除注释、字符串和引号标识符后检查语句分隔符和修改类关键字，
+ * 不做完整语法解析，语法错误由预编译发现。
+ * 反斜杠是否转义字符串中的引号因数据库而异：MySQL 按转义处理，H2/Oracle/SQL Server 按普通字符处理；
+ * PostgreSQL（E'' 字符串转义）和未知数据库按两种方式分别确定字符串边界，两种结果都必须通过检查
+ */
+@Component
+public class ReadOnlySqlInspector {
+
+    private static final Pattern LEADING_KEYWORD = Pattern.compile("^[\\s(]*(\\w+)");
+    // INSERT、REPLACE 同时是字符串函数名，后跟括号时不视为语句关键字
+    private static final Pattern MUTATING_KEYWORD = Pattern.compile(
+            "\\b(?:(INSERT|REPLACE)\\b(?!\\s*\\()|(UPDATE|DELETE|MERGE|UPSERT|DROP|CREATE|ALTER|TRUNCATE|RENAME|GRANT"
+                    + "|REVOKE|CALL|EXEC|EXECUTE|LOCK|UNLOCK|INTO|COPY|LOAD|HANDLER|SLEEP|BENCHMARK)\\b)",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 查找SQL中不允许的内容，数据库未知时反斜杠按转义和不转义分别检查
+     *
+     * @param sql 数据集SQL
+     * @return 违规原因，只读的单条查询返回空
+     */
+    public Optional<String> findViolation(String sql) {
+        return findViolation(sql, SqlDialect.GENERIC);
+    }
+
+    /**
+     * 按数据库方言查找SQL中不允许的内容
+     *
+     * @param sql 数据集SQL
+     * @param dialect 执行SQL的数据库方言
+     * @return 违规原因，只读的单条查询返回空
+     */
+    public Optional<String> findViolation(String sql, SqlDialect dialect) {
+        if (sql == null || sql.trim().isEmpty()) {
+            return Optional.of("SQL为空");
+        }
+        switch (dialect) {
+            case MYSQL:
+                return inspect(stripLiteralsAndComments(sql, true));
+            case H2:
+            case ORACLE:
+            case SQLSERVER:
+                return inspect(stripLiteralsAndComments(sql, false));
+            default:
+                Optional<String> violation = inspect(stripLiteralsAndComments(sql, true));
+                return violation.isPresent() ? violation : inspect(stripLiteralsAndComments(sql, false));
+        }
+    }
+
+    private static Optional<String> inspect(String code) {
+        if (code == null) {
+            return Optional.of("字符串、引号或注释无法确定边界");
+        }
+        if (code.indexOf(';') >= 0) {
+            return Optional.of("不允许包含多条语句或语句分隔符");
+        }
+        Matcher leading = LEADING_KEYWORD.matcher(code);
+        String keyword = leading.find() ? leading.group(1).toUpperCase(Locale.ROOT) : "";
+        if (!"SELECT".equals(keyword) && !"WITH".equals(keyword)) {
+            return Optional.of("只允许 SELECT 或 WITH 查询");
+        }
+        Matcher mutating = MUTATING_KEYWORD.matcher(code);
+        if (mutating.find()) {
+            String found = mutating.group(1) != null ? mutating.group(1) : mutating.group(2);
+            return Optional.of("包含不允许的关键字: " + found.toUpperCase(Locale.ROOT));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 将字符串、引号标识符和注释替换为空格
+     *
+     * @param backslashEscapes 单引号、双引号字符串中的反斜杠是否转义下一个字符（反引号标识符不转义）
+     * @return 处理后的SQL，引号或注释的边界因数据库而异或未闭合时返回 null
+     */
+    private static String stripLiteralsAndComments(String sql, boolean backslashEscapes) {
+        StringBuilder code = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = i + 1;
+                while (true) {
+                    if (end >= sql.length()) {
+                        return null;
+                    }
+                    char current = sql.charAt(end);
+                    if (current == '\\' && backslashEscapes && c != '`') {
+                        end += 2;
+                    } else if (current == c && end + 1 < sql.length() && sql.charAt(end + 1) == c) {
+                        // 连续两个引号表示转义
+                        end += 2;
+                    } else if (current == c) {
+                        break;
+                    } else {
+                        end++;
+                    }
+                }
+                i = end + 1;
+                code.append(' ');
+            } else if (c == '-' && sql.startsWith("--", i)) {
+                // MySQL 仅在 "-- " 后为注释，否则为两个减号，无法确定时直接拒绝
+                if (i + 2 < sql.length() && !Character.isWhitespace(sql.charAt(i + 2))) {
+                    return null;
+                }
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+                code.append(' ');
+            } else if (c == '/' && sql.startsWith("/*", i)) {
+                // MySQL 会执行 /*! ... */ 中的内容
+                if (sql.startsWith("/*!", i)) {
+                    return null;
+                }
+                int end = sql.indexOf("*/", i + 2);
+                if (end < 0) {
+                    return null;
+                }
+                i = end + 2;
+                code.append(' ');
+            } else {
+                code.append(c);
+                i++;
+            }
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,140 @@
+package com.i0.report.gateway.persistence.sql;
+
+import com.i0.report.gateway.config.ReportDataSourceProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 报表数据源路由
+ * 按数据集把报表SQL路由到独立的分析连接池（默认池或命名池），连接池在首次使用时创建；
+ * 连接池指标注册到 Micrometer（hikaricp.connections.* ，以 pool 标签区分），与主连接池指标并列
+ */
+@Component
+@Slf4j
+public class ReportDataSourceRouter implements DisposableBean {
+
+    private final ReportDataSourceProperties properties;
+    private final DataSourceProperties primaryDataSourceProperties;
+    private final MeterRegistry meterRegistry;
+    private final PoolHandle primaryPool;
+    private final Map<String, PoolHandle> pools = new ConcurrentHashMap<>();
+
+    public ReportDataSourceRouter(JdbcTemplate jdbcTemplate,
+                                  ReportDataSourceProperties properties,
+                                  ObjectProvider<DataSourceProperties> primaryDataSourceProperties,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.primaryDataSourceProperties = primaryDataSourceProperties.getIfAvailable();
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        this.primaryPool = new PoolHandle(jdbcTemplate, null);
+    }
+
+    /**
+     * 获取数据集使用的 JdbcTemplate
+     *
+     * @param datasetId 数据集ID，为空时使用默认分析连接池
+     */
+    public JdbcTemplate jdbcTemplateFor(String datasetId) {
+        return poolFor(datasetId).jdbcTemplate;
+    }
+
+    /**
+     * 获取数据集所在数据库的SQL方言
+     *
+     * @param datasetId 数据集ID，为空时使用默认分析连接池
+     */
+    public SqlDialect dialectFor(String datasetId) {
+        return poolFor(datasetId).dialect();
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(pool -> {
+            if (pool.dataSource != null) {
+                log.info("关闭报表分析连接池: {}", pool.dataSource.getPoolName());
+                pool.dataSource.close();
+            }
+        });
+        pools.clear();
+    }
+
+    private PoolHandle poolFor(String datasetId) {
+        if (!properties.isEnabled()) {
+            return primaryPool;
+        }
+        return pools.computeIfAbsent(properties.resolvePoolName(datasetId), this::createPool);
+    }
+
+    private PoolHandle createPool(String poolName) {
+        ReportDataSourceProperties.Pool pool = properties.getPool(poolName);
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("Report-" + poolName + "-HikariCP");
+        dataSource.setJdbcUrl(firstNonEmpty(pool.getUrl(),
+                primaryDataSourceProperties != null ? primaryDataSourceProperties.determineUrl() : null));
+        dataSource.setUsername(firstNonEmpty(pool.getUsername(),
+                primaryDataSourceProperties != null ? primaryDataSourceProperties.determineUsername() : null));
+        dataSource.setPassword(firstNonEmpty(pool.getPassword(),
+                primaryDataSourceProperties != null ? primaryDataSourceProperties.determinePassword() : null));
+        String driverClassName = firstNonEmpty(pool.getDriverClassName(),
+                primaryDataSourceProperties != null ? primaryDataSourceProperties.determineDriverClassName() : null);
+        if (StringUtils.hasText(driverClassName)) {
+            dataSource.setDriverClassName(driverClassName);
+        }
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setMinimumIdle(pool.getMinimumIdle());
+        dataSource.setConnectionTimeout(pool.getConnectionTimeoutMs());
+        dataSource.setIdleTimeout(pool.getIdleTimeoutMs());
+        dataSource.setMaxLifetime(pool.getMaxLifetimeMs());
+        dataSource.setReadOnly(pool.isReadOnly());
+        if (meterRegistry != null) {
+            dataSource.setMetricRegistry(meterRegistry);
+        }
+
+        log.info("创建报表分析连接池: pool={}, maximumPoolSize={}, connectionTimeoutMs={}, readOnly={}",
+                dataSource.getPoolName(), pool.getMaximumPoolSize(), pool.getConnectionTimeoutMs(), pool.isReadOnly());
+        return new PoolHandle(new JdbcTemplate(dataSource), dataSource);
+    }
+
+    private static String firstNonEmpty(String value, String fallback) {
+        return StringUtils.hasText(value) ? value : fallback;
+    }
+
+    /**
+     * 连接池及其方言（首次使用时解析）
+     */
+    private static final class PoolHandle {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final HikariDataSource dataSource;
+        private volatile SqlDialect dialect;
+
+        private PoolHandle(JdbcTemplate jdbcTemplate, HikariDataSource dataSource) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.dataSource = dataSource;
+        }
+
+        private SqlDialect dialect() {
+            SqlDialect resolved = dialect;
+            if (resolved == null) {
+                String productName = jdbcTemplate.execute(
+                        (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+                resolved = SqlDialect.fromProductName(productName);
+                dialect = resolved;
+                log.info("识别报表数据源方言: product={}, dialect={}", productName, resolved);
+            }
+            return resolved;
+        }
+    }
+}
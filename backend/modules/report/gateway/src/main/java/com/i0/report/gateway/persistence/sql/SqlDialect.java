@@ -0,0 +1,86 @@
+package com.i0.report.gateway.persistence.sql;
+
+/**
+ * 报表SQL方言
+ * 根据实际连接的数据库产品决定可用的SQL语法
+ */
+public enum SqlDialect {
+    MYSQL,
+    H2,
+    POSTGRESQL,
+    ORACLE,
+    SQLSERVER,
+    GENERIC;
+
+    /**
+     * 根据JDBC DatabaseMetaData的产品名称识别方言
+     */
+    public static SqlDialect fromProductName(String productName) {
+        if (productName == null) {
+            return GENERIC;
+        }
+        String name = productName.toLowerCase();
+        if (name.contains("mysql") || name.contains("mariadb")) {
+            return MYSQL;
+        }
+        if (name.contains("h2")) {
+            return H2;
+        }
+        if (name.contains("postgresql")) {
+            return POSTGRESQL;
+        }
+        if (name.contains("oracle")) {
+            return ORACLE;
+        }
+        if (name.contains("microsoft sql server")) {
+            return SQLSERVER;
+        }
+        return GENERIC;
+    }
+
+    /**
+     * 是否支持 GROUP BY GROUPING SETS
+     */
+    public boolean supportsGroupingSets() {
+        return this == POSTGRESQL || this == ORACLE || this == SQLSERVER;
+    }
+
+    /**
+     * 是否支持 WITH 公用表表达式
+     */
+    public boolean supportsCommonTableExpressions() {
+        return this != GENERIC;
+    }
+
+    /**
+     * 为查询追加分页子句
+     * MySQL/H2/PostgreSQL 使用 LIMIT/OFFSET，Oracle/SQL Server 使用 OFFSET ... FETCH NEXT
+     *
+     * @param sql 查询SQL（不含分页子句）
+     * @param orderBy 排序表达式，为空时不追加排序
+     * @param offset 跳过的行数
+     * @param limit 返回的最大行数
+     * @return 带分页子句的SQL
+     */
+    public String paginate(String sql, String orderBy, long offset, int limit) {
+        StringBuilder paged = new StringBuilder(sql);
+        boolean hasOrderBy = orderBy != null && !orderBy.trim().isEmpty();
+        if (hasOrderBy) {
+            paged.append(" ORDER BY ").append(orderBy);
+        }
+
+        if (this == ORACLE || this == SQLSERVER) {
+            if (!hasOrderBy && this == SQLSERVER) {
+                // SQL Server 的 OFFSET 必须跟在 ORDER BY 之后
+                paged.append(" ORDER BY (SELECT NULL)");
+            }
+            paged.append(" OFFSET ").append(offset).append(" ROWS FETCH NEXT ").append(limit).append(" ROWS ONLY");
+        } else {
+            paged.append(" LIMIT ").append(limit);
+            if (offset > 0) {
+                paged.append(" OFFSET ").append(offset);
+            }
+        }
+        return paged.toString();
+    }
+}
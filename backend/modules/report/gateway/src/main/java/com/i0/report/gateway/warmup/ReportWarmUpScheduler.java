@@ -0,0 +1,306 @@
+package com.i0.report.gateway.warmup;
+
+import com.i0.report.application.dto.input.ReportDataGenerationInput;
+import com.i0.report.application.usecases.GenerateReportDataUseCase;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.domain.services.ReportWarmUpService;
+import com.i0.report.gateway.config.ReportWarmUpProperties;
+import com.i0.report.gateway.persistence.cache.ReportResultStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 报表预热调度器
+ * 应用启动后和按cron定时，选取固定列表和访问最多的报表，以默认过滤条件预先计算报表数据写入结果存储；
+ * 启动时预热全部目标，定时检查只重新计算缺失或即将过期的结果，使结果在保留时间内始终有效。
+ * 预热在独立的有界线程池中执行，并发数远小于分析连接池，不会挤占线上请求
+ */
+@Component
+@Slf4j
+public class ReportWarmUpScheduler implements ReportWarmUpService, DisposableBean {
+
+    private final ReportWarmUpProperties properties;
+    private final ReportRepository reportRepository;
+    private final GenerateReportDataUseCase generateReportDataUseCase;
+    private final ReportResultStore resultStore;
+    private final ExecutorService executor;
+    private final ExecutorService coordinator;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<String, WarmUpState> states = new ConcurrentHashMap<>();
+    private volatile Map<String, Object> lastRun = Collections.emptyMap();
+    private volatile Map<String, String> selectedTargets = Collections.emptyMap();
+    private volatile Instant targetsSelectedAt;
+
+    public ReportWarmUpScheduler(ReportWarmUpProperties properties,
+                                 ReportRepository reportRepository,
+                                 GenerateReportDataUseCase generateReportDataUseCase,
+                                 ReportResultStore resultStore) {
+        this.properties = properties;
+        this.reportRepository = reportRepository;
+        this.generateReportDataUseCase = generateReportDataUseCase;
+        this.resultStore = resultStore;
+        int concurrency = Math.max(1, properties.getConcurrency());
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> newThread(runnable, "report-warmup-" + threadIndex.incrementAndGet()));
+        // 预热轮次在独立线程中编排，避免占用启动线程和共享的定时任务线程
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> newThread(runnable, "report-warmup-coordinator"));
+    }
+
+    /**
+     * 应用启动完成后预热，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (properties.isEnabled() && properties.isOnStartup()) {
+            coordinator.execute(() -> warmUp("startup"));
+        }
+    }
+
+    /**
+     * 按cron定时预热
+     */
+    @Scheduled(cron = "${report.warmup.cron:0 * 7-19 * * MON-FRI}")
+    public void warmUpOnSchedule() {
+        // 上一轮未结束时不再排队，避免轮次在编排线程中堆积
+        if (properties.isEnabled() && !running.get()) {
+            coordinator.execute(() -> warmUp("schedule"));
+        }
+    }
+
+    /**
+     * 手动触发预热，在编排线程中重新计算全部目标
+     */
+    @Override
+    public void triggerWarmUp() {
+        if (!running.get()) {
+            coordinator.execute(() -> warmUp("manual"));
+        }
+    }
+
+    /**
+     * 执行一轮预热，上一轮未结束时跳过
+     * 启动和手动触发时预热全部目标，定时触发只处理结果缺失或即将过期的报表
+     *
+     * @param trigger 触发来源
+     */
+    public void warmUp(String trigger) {
+        if (!resultStore.isEnabled()) {
+            log.debug("报表结果存储未启用，跳过预热: {}", trigger);
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.info("上一轮报表预热尚未结束，跳过本次触发: {}", trigger);
+            return;
+        }
+        Instant startedAt = Instant.now();
+        try {
+            boolean all = "startup".equals(trigger) || "manual".equals(trigger);
+            Map<String, String> targets = dueTargets(currentTargets(startedAt), all, startedAt);
+            if (targets.isEmpty()) {
+                log.debug("没有需要重新计算的预热报表: {}", trigger);
+                return;
+            }
+            log.info("开始报表预热: trigger={}, reports={}", trigger, targets.keySet());
+
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(targets.size());
+            targets.forEach((reportId, source) -> {
+                WarmUpState state = states.computeIfAbsent(reportId, WarmUpState::new);
+                state.source = source;
+                state.status = "PENDING";
+                tasks.add(CompletableFuture.runAsync(() -> warmUpReport(state), executor));
+            });
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+
+            long warmed = targets.keySet().stream().filter(id -> "WARM".equals(states.get(id).status)).count();
+            log.info("报表预热完成: trigger={}, warmed={}/{}", trigger, warmed, targets.size());
+            recordRun(trigger, startedAt, targets.size(), warmed);
+        } catch (RuntimeException e) {
+            log.warn("报表预热失败: trigger={}, error={}", trigger, e.getMessage(), e);
+            recordRun(trigger, startedAt, 0, 0);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 预热状态：每个报表的最近一次预热结果和结果存储中的有效期
+     */
+    @Override
+    public Map<String, Object> status() {
+        Instant now = Instant.now();
+        List<Map<String, Object>> reports = new ArrayList<>();
+        for (WarmUpState state : states.values()) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("reportId", state.reportId);
+            report.put("source", state.source);
+            report.put("status", state.status);
+            report.put("lastStartedAt", state.lastStartedAt);
+            report.put("lastCompletedAt", state.lastCompletedAt);
+            report.put("durationMs", state.durationMs);
+            report.put("error", state.error);
+
+            ReportResultStore.StoredResult stored = resultStore.findDefault(state.reportId);
+            boolean warm = stored != null && !stored.isExpired(now);
+            report.put("warm", warm);
+            report.put("storedAt", stored != null ? stored.getStoredAt() : null);
+            report.put("expiresAt", stored != null ? stored.getExpiresAt() : null);
+            reports.add(report);
+        }
+        reports.sort((left, right) -> String.valueOf(left.get("reportId")).compareTo(String.valueOf(right.get("reportId"))));
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", properties.isEnabled());
+        status.put("running", running.get());
+        status.put("cron", properties.getCron());
+        status.put("concurrency", Math.max(1, properties.getConcurrency()));
+        status.put("lastRun", lastRun);
+        status.put("reports", reports);
+        return status;
+    }
+
+    @Override
+    public void destroy() {
+        coordinator.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * 当前预热目标，超过重新选取间隔后重新选取
+     */
+    private Map<String, String> currentTargets(Instant now) {
+        Instant selectedAt = targetsSelectedAt;
+        if (selectedAt == null || !now.isBefore(selectedAt.plusSeconds(properties.getTargetRefreshSeconds()))) {
+            selectedTargets = selectTargets();
+            targetsSelectedAt = now;
+        }
+        return selectedTargets;
+    }
+
+    /**
+     * 需要重新计算的目标：结果缺失、已过期或距离过期不足提前刷新时间
+     *
+     * @param all 是否不论结果是否有效都重新计算
+     */
+    private Map<String, String> dueTargets(Map<String, String> candidates, boolean all, Instant now) {
+        if (all) {
+            return candidates;
+        }
+        Instant refreshBefore = now.plusSeconds(properties.getRefreshAheadSeconds());
+        Map<String, String> due = new LinkedHashMap<>();
+        candidates.forEach((reportId, source) -> {
+            ReportResultStore.StoredResult stored = resultStore.findDefault(reportId);
+            if (stored == null || stored.isExpired(refreshBefore)) {
+                due.put(reportId, source);
+            }
+        });
+        return due;
+    }
+
+    /**
+     * 选取预热报表：固定列表优先，其后是按访问统计的热门报表
+     *
+     * @return 报表ID到来源（configured/popular）的映射
+     */
+    private Map<String, String> selectTargets() {
+        Map<String, String> targets = new LinkedHashMap<>();
+        for (String reportId : properties.getReportIds()) {
+            targets.putIfAbsent(reportId, "configured");
+        }
+        if (properties.getPopularCount() > 0) {
+            for (Report report : reportRepository.getPopularReports(properties.getPopularCount())) {
+                if (Boolean.TRUE.equals(report.getEnabled())) {
+                    targets.putIfAbsent(report.getId(), "popular");
+                }
+            }
+        }
+        return targets;
+    }
+
+    private void warmUpReport(WarmUpState state) {
+        long start = System.nanoTime();
+        state.status = "WARMING";
+        state.lastStartedAt = Instant.now();
+        try {
+            generateReportDataUseCase.execute(ReportDataGenerationInput.builder()
+                    .reportId(state.reportId)
+                    .additionalFilters(Collections.emptyList())
+                    .forceRefresh(true)
+                    .trackAccess(false)
+                    .build());
+            // 存在失败图表的部分结果不会写入结果存储，此时不能视为已预热
+            ReportResultStore.StoredResult stored = resultStore.findDefault(state.reportId);
+            if (stored != null && !stored.getStoredAt().isBefore(state.lastStartedAt)) {
+                state.status = "WARM";
+                state.error = null;
+            } else {
+                log.warn("预热报表结果未存储（存在失败的图表）: reportId={}", state.reportId);
+                state.status = "PARTIAL";
+                state.error = "报表存在失败的图表，结果未存储";
+            }
+        } catch (RuntimeException e) {
+            log.warn("预热报表失败: reportId={}, error={}", state.reportId, e.getMessage());
+            state.status = "FAILED";
+            state.error = e.getMessage();
+        } finally {
+            state.durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            state.lastCompletedAt = Instant.now();
+        }
+    }
+
+    private static Thread newThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    }
+
+    private void recordRun(String trigger, Instant startedAt, int total, long warmed) {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("trigger", trigger);
+        run.put("startedAt", startedAt);
+        run.put("completedAt", Instant.now());
+        run.put("reports", total);
+        run.put("warmed", warmed);
+        lastRun = run;
+    }
+
+    /**
+     * 单个报表的预热状态
+     */
+    private static final class WarmUpState {
+        private final String reportId;
+        private volatile String source;
+        private volatile String status = "PENDING";
+        private volatile Instant lastStartedAt;
+        private volatile Instant lastCompletedAt;
+        private volatile Long durationMs;
+        private volatile String error;
+
+        private WarmUpState(String reportId) {
+            this.reportId = reportId;
+        }
+    }
+}
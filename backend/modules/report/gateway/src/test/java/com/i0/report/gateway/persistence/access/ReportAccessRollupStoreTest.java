@@ -0,0 +1,109 @@
+package com.i0.report.gateway.persistence.access;
+
+import com.i0.report.gateway.persistence.dataobjects.ReportAccessHourlyDO;
+import com.i0.report.gateway.persistence.mappers.ReportAccessHourlyMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReportAccessRollupStore单元测试
+ * 覆盖单条语句累加、行不存在时在保存点中插入、插入冲突时回滚到保存点后改为累加
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReportAccessRollupStore测试")
+class ReportAccessRollupStoreTest {
+
+    private static final LocalDateTime BUCKET_HOUR = LocalDateTime.of(2026, 3, 1, 9, 0);
+
+    @Mock
+    private ReportAccessHourlyMapper accessHourlyMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus savepoint;
+
+    private ReportAccessRollupStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ReportAccessRollupStore(accessHourlyMapper, transactionManager);
+    }
+
+    @Test
+    @DisplayName("汇总行已存在时只执行一次累加，不插入")
+    void shouldIncrementExistingRowWithSingleUpdate() {
+        // Given
+        when(accessHourlyMapper.incrementAccess(any())).thenReturn(1);
+
+        // When
+        store.upsert(Collections.singletonList(rollup("alice", 3L)));
+
+        // Then
+        ArgumentCaptor<ReportAccessHourlyDO> incremented = ArgumentCaptor.forClass(ReportAccessHourlyDO.class);
+        verify(accessHourlyMapper, times(1)).incrementAccess(incremented.capture());
+        assertThat(incremented.getValue().getAccessCount()).isEqualTo(3L);
+        assertThat(incremented.getValue().getLastAccessAt()).isEqualTo(BUCKET_HOUR.plusMinutes(30));
+        verify(accessHourlyMapper, never()).insert(any(ReportAccessHourlyDO.class));
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @DisplayName("汇总行不存在时在保存点中插入")
+    void shouldInsertMissingRowInSavepoint() {
+        // Given
+        when(accessHourlyMapper.incrementAccess(any())).thenReturn(0);
+        when(transactionManager.getTransaction(any())).thenReturn(savepoint);
+
+        // When
+        store.upsert(Collections.singletonList(rollup("alice", 1L)));
+
+        // Then
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().getPropagationBehavior()).isEqualTo(TransactionDefinition.PROPAGATION_NESTED);
+        verify(accessHourlyMapper).insert(any(ReportAccessHourlyDO.class));
+        verify(transactionManager).commit(savepoint);
+    }
+
+    @Test
+    @DisplayName("插入与其他节点冲突时回滚到保存点，改为累加并继续写入后续行")
+    void shouldRollBackToSavepointAndIncrementOnDuplicateKey() {
+        // Given
+        when(accessHourlyMapper.incrementAccess(any())).thenReturn(0, 1, 1);
+        when(transactionManager.getTransaction(any())).thenReturn(savepoint);
+        when(accessHourlyMapper.insert(any(ReportAccessHourlyDO.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+
+        // When
+        store.upsert(Arrays.asList(rollup("alice", 1L), rollup("bob", 2L)));
+
+        // Then
+        verify(transactionManager).rollback(savepoint);
+        verify(transactionManager, never()).commit(any());
+        verify(accessHourlyMapper, times(3)).incrementAccess(any());
+        verify(accessHourlyMapper, times(1)).insert(any(ReportAccessHourlyDO.class));
+    }
+
+    private static AccessRollup rollup(String userId, long count) {
+        return new AccessRollup("report-1", userId, "view", BUCKET_HOUR, count, BUCKET_HOUR.plusMinutes(30));
+    }
+}
@@ -0,0 +1,200 @@
+package com.i0.report.gateway.persistence.access;
+
+import com.i0.report.gateway.config.ReportAccessTrackingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReportAccessTracker单元测试
+ * 覆盖内存累加、批量刷写、失败回填和计数键上限
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReportAccessTracker测试")
+class ReportAccessTrackerTest {
+
+    @Mock
+    private ReportAccessRollupStore rollupStore;
+
+    private ReportAccessTrackingProperties properties;
+    private ReportAccessTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReportAccessTrackingProperties();
+        tracker = new ReportAccessTracker(properties, rollupStore);
+    }
+
+    @Test
+    @DisplayName("同一报表、用户、访问类型的访问在内存中累加，刷写时合并为一行")
+    void shouldAggregateAccessesPerKey() {
+        // Given
+        tracker.record("report-1", "alice", "view");
+        tracker.record("report-1", "alice", "view");
+        tracker.record("report-1", "bob", "view");
+        tracker.record("report-1", null, "info");
+
+        // When
+        tracker.flush();
+
+        // Then
+        List<AccessRollup> rows = captureUpserts(1).get(0);
+        assertThat(rows).hasSize(3);
+        assertThat(rows).filteredOn(row -> "alice".equals(row.getUserId()))
+                .singleElement()
+                .satisfies(row -> {
+                    assertThat(row.getAccessCount()).isEqualTo(2L);
+                    assertThat(row.getAccessType()).isEqualTo("view");
+                    assertThat(row.getBucketHour().getMinute()).isZero();
+                });
+        assertThat(rows).extracting(AccessRollup::getUserId)
+                .containsExactlyInAnyOrder("alice", "bob", ReportAccessTracker.ANONYMOUS_USER);
+    }
+
+    @Test
+    @DisplayName("刷写后没有新增访问时不再写入")
+    void shouldNotWriteWhenNothingPending() {
+        // Given
+        tracker.record("report-1", "alice", "view");
+        tracker.flush();
+
+        // When
+        tracker.flush();
+
+        // Then
+        verify(rollupStore, times(1)).upsert(anyList());
+    }
+
+    @Test
+    @DisplayName("超过单批行数时分批写入")
+    void shouldSplitIntoBatches() {
+        // Given
+        properties.setFlushBatchSize(2);
+        for (int i = 0; i < 5; i++) {
+            tracker.record("report-" + i, "alice", "view");
+        }
+
+        // When
+        tracker.flush();
+
+        // Then
+        List<List<AccessRollup>> batches = captureUpserts(3);
+        assertThat(batches).extracting(List::size).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    @DisplayName("写入失败的增量放回内存，下次刷写时与新增访问合并重试")
+    void shouldRestoreFailedBatch() {
+        // Given
+        tracker.record("report-1", "alice", "view");
+        doThrow(new RuntimeException("db down")).doNothing().when(rollupStore).upsert(anyList());
+        tracker.flush();
+
+        // When
+        tracker.record("report-1", "alice", "view");
+        tracker.flush();
+
+        // Then
+        List<List<AccessRollup>> batches = captureUpserts(2);
+        assertThat(batches.get(1)).singleElement()
+                .satisfies(row -> assertThat(row.getAccessCount()).isEqualTo(2L));
+    }
+
+    @Test
+    @DisplayName("计数键达到上限时丢弃新键的访问，已有键继续累加")
+    void shouldDropNewKeysBeyondLimit() {
+        // Given
+        properties.setMaxPendingKeys(1);
+        tracker.record("report-1", "alice", "view");
+        tracker.record("report-2", "alice", "view");
+        tracker.record("report-1", "alice", "view");
+
+        // When
+        tracker.flush();
+
+        // Then
+        assertThat(captureUpserts(1).get(0)).singleElement()
+                .satisfies(row -> {
+                    assertThat(row.getReportId()).isEqualTo("report-1");
+                    assertThat(row.getAccessCount()).isEqualTo(2L);
+                });
+    }
+
+    @Test
+    @DisplayName("关闭统计时不记录访问")
+    void shouldIgnoreAccessWhenDisabled() {
+        // Given
+        properties.setEnabled(false);
+        tracker.record("report-1", "alice", "view");
+
+        // When
+        tracker.destroy();
+
+        // Then
+        verifyNoInteractions(rollupStore);
+    }
+
+    @Test
+    @DisplayName("并发记录与刷写不丢失访问次数")
+    void shouldNotLoseAccessesUnderConcurrentFlush() throws Exception {
+        // Given
+        List<AccessRollup> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            synchronized (written) {
+                written.addAll(invocation.getArgument(0));
+            }
+            return null;
+        }).when(rollupStore).upsert(anyList());
+        int threads = 4;
+        int perThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    tracker.record("report-1", "user-" + (i % 3), "view");
+                }
+                done.countDown();
+            });
+        }
+        while (done.getCount() > 0) {
+            tracker.flush();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        tracker.flush();
+
+        // Then
+        long total = written.stream().mapToLong(AccessRollup::getAccessCount).sum();
+        assertThat(total).isEqualTo((long) threads * perThread);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<AccessRollup>> captureUpserts(int times) {
+        ArgumentCaptor<List<AccessRollup>> captor = ArgumentCaptor.forClass(List.class);
+        verify(rollupStore, times(times)).upsert(captor.capture());
+        // 每批是刷写列表的子视图，复制一份再断言
+        List<List<AccessRollup>> batches = new ArrayList<>();
+        for (List<AccessRollup> batch : captor.getAllValues()) {
+            batches.add(new ArrayList<>(batch));
+        }
+        return batches;
+    }
+}
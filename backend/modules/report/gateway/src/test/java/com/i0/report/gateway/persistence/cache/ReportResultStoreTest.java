@@ -0,0 +1,116 @@
+package com.i0.report.gateway.persistence.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.report.domain.valueobjects.Filter;
+import com.i0.report.gateway.config.ReportResultStoreProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ReportResultStore单元测试
+ * 覆盖按过滤条件存取、保留时间、按报表淘汰、容量淘汰和关闭存储
+ */
+@DisplayName("ReportResultStore测试")
+class ReportResultStoreTest {
+
+    private ReportResultStoreProperties properties;
+    private ReportResultStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReportResultStoreProperties();
+        store = new ReportResultStore(properties, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("默认视图与带过滤条件的结果分别保存")
+    void shouldStoreResultsPerFilters() {
+        // Given
+        List<Filter> filters = Collections.singletonList(
+                Filter.builder().field("region").operator("=").value("east").build());
+
+        // When
+        store.put("report-1", Collections.emptyList(), "default-data", 60);
+        store.put("report-1", filters, "east-data", 60);
+
+        // Then
+        assertThat(store.get("report-1", null)).contains("default-data");
+        assertThat(store.get("report-1", filters)).contains("east-data");
+        assertThat(store.get("report-2", null)).isEmpty();
+        assertThat(store.findDefault("report-1").getData()).isEqualTo("default-data");
+    }
+
+    @Test
+    @DisplayName("未指定保留时间时使用默认保留时间，过期结果不再返回")
+    void shouldApplyDefaultTtlAndExpire() {
+        // When
+        Instant before = Instant.now();
+        store.put("report-1", null, "data", 0);
+
+        // Then
+        ReportResultStore.StoredResult stored = store.findDefault("report-1");
+        assertThat(Duration.between(stored.getStoredAt(), stored.getExpiresAt()).getSeconds())
+                .isEqualTo(properties.getDefaultTtlSeconds());
+        assertThat(stored.isExpired(before)).isFalse();
+        assertThat(stored.isExpired(stored.getExpiresAt())).isTrue();
+    }
+
+    @Test
+    @DisplayName("按报表淘汰时移除该报表全部过滤条件的结果")
+    void shouldEvictAllResultsOfReport() {
+        // Given
+        List<Filter> filters = Collections.singletonList(
+                Filter.builder().field("region").operator("=").value("east").build());
+        store.put("report-1", null, "default-data", 60);
+        store.put("report-1", filters, "east-data", 60);
+        store.put("report-2", null, "other", 60);
+
+        // When
+        store.evict("report-1");
+
+        // Then
+        assertThat(store.get("report-1", null)).isEmpty();
+        assertThat(store.get("report-1", filters)).isEmpty();
+        assertThat(store.get("report-2", null)).contains("other");
+    }
+
+    @Test
+    @DisplayName("超过最大数量时优先淘汰最早过期的结果")
+    void shouldEvictEarliestExpiringOnOverflow() {
+        // Given
+        properties.setMaxEntries(2);
+        store.put("report-1", null, "short", 10);
+        store.put("report-2", null, "long", 600);
+
+        // When
+        store.put("report-3", null, "medium", 300);
+
+        // Then
+        assertThat(store.get("report-1", null)).isEmpty();
+        assertThat(store.get("report-2", null)).contains("long");
+        assertThat(store.get("report-3", null)).contains("medium");
+    }
+
+    @Test
+    @DisplayName("关闭存储时不保存也不返回结果")
+    void shouldIgnoreWhenDisabled() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        store.put("report-1", null, "data", 60);
+
+        // Then
+        assertThat(store.isEnabled()).isFalse();
+        assertThat(store.get("report-1", null)).isEmpty();
+        assertThat(store.findDefault("report-1")).isNull();
+    }
+}
@@ -0,0 +1,213 @@
+package com.i0.report.gateway.persistence.repositories;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.report.domain.entities.Chart;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.repositories.ChartRepository;
+import com.i0.report.domain.repositories.DatasetRepository;
+import com.i0.report.domain.repositories.IndicatorRepository;
+import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.domain.valueobjects.ReportConfigGraph;
+import com.i0.report.gateway.config.ReportConfigGraphProperties;
+import com.i0.report.gateway.persistence.cache.ReportConfigChangeTracker;
+import com.i0.report.gateway.persistence.dataobjects.ReportChartDO;
+import com.i0.report.gateway.persistence.mappers.ReportChartMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReportConfigGraphRepositoryImpl单元测试
+ * 覆盖配置图的复用、返回实体副本、没有启用图表的报表、变更后重新加载以及事务内变更在事务结束后生效
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReportConfigGraphRepositoryImpl测试")
+class ReportConfigGraphRepositoryImplTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private ChartRepository chartRepository;
+
+    @Mock
+    private IndicatorRepository indicatorRepository;
+
+    @Mock
+    private DatasetRepository datasetRepository;
+
+    @Mock
+    private ReportChartMapper reportChartMapper;
+
+    private ReportConfigChangeTracker changeTracker;
+    private ReportConfigGraphProperties properties;
+    private ReportConfigGraphRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        changeTracker = new ReportConfigChangeTracker();
+        properties = new ReportConfigGraphProperties();
+        repository = new ReportConfigGraphRepositoryImpl(reportRepository, chartRepository, indicatorRepository,
+                datasetRepository, reportChartMapper, new ObjectMapper(), changeTracker, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("一次加载报表、图表关联和图表，版本未变化时复用配置图")
+    void shouldLoadOnceAndReuseGraph() {
+        // Given
+        stubConfig();
+
+        // When
+        ReportConfigGraph first = repository.current();
+        ReportConfigGraph second = repository.current();
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(first.findReport("report-1")).isPresent();
+        assertThat(first.findReportCharts("report-1").orElseThrow()).extracting(Chart::getId).containsExactly("chart-1");
+        assertThat(first.findChartConfig("chart-1").orElseThrow()).containsEntry("color", "blue");
+        verify(reportRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("读取返回实体副本，修改返回的报表和图表不影响配置图")
+    void shouldReturnCopiesOfCachedEntities() {
+        // Given
+        stubConfig();
+
+        // When
+        repository.findReport("report-1").orElseThrow().setName("已修改");
+        repository.findReportCharts("report-1").orElseThrow().get(0).setTitle("已修改");
+
+        // Then
+        assertThat(repository.findReport("report-1").orElseThrow().getName()).isEqualTo("报表");
+        assertThat(repository.findReportCharts("report-1").orElseThrow().get(0).getTitle()).isNull();
+        verify(reportRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("没有启用图表的报表缓存空列表，不回退到逐个查询")
+    void shouldCacheEmptyChartListForReportWithoutEnabledCharts() {
+        // Given
+        stubConfig(List.of(
+                Report.builder().id("report-1").name("报表").enabled(true).build(),
+                Report.builder().id("report-2").name("空报表").enabled(true).build()));
+
+        // When
+        List<Chart> first = repository.findReportCharts("report-2").orElseThrow();
+        List<Chart> second = repository.findReportCharts("report-2").orElseThrow();
+
+        // Then
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        assertThat(repository.findReportCharts("missing")).isEmpty();
+        verify(reportRepository, times(1)).findAll();
+        verify(chartRepository, never()).findByReportId(any());
+    }
+
+    @Test
+    @DisplayName("没有事务时变更立即生效，下一次读取重新加载")
+    void shouldReloadAfterChangeOutsideTransaction() {
+        // Given
+        stubConfig();
+        ReportConfigGraph first = repository.current();
+
+        // When
+        changeTracker.markChanged();
+        ReportConfigGraph reloaded = repository.current();
+
+        // Then
+        assertThat(reloaded).isNotSameAs(first);
+        assertThat(reloaded.getVersion()).isEqualTo(changeTracker.getVersion());
+        verify(reportRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("事务内的变更在事务结束后生效，提交前不会按新版本缓存旧配置")
+    void shouldApplyChangeAfterTransactionCompletes() {
+        // Given
+        stubConfig();
+        ReportConfigGraph first = repository.current();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When - 事务进行中
+        repository.invalidate();
+        ReportConfigGraph duringTransaction = repository.current();
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        ReportConfigGraph afterCommit = repository.current();
+
+        // Then
+        assertThat(duringTransaction).isSameAs(first);
+        assertThat(afterCommit).isNotSameAs(first);
+        verify(reportRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("加载失败时返回空配置图，由调用方回退到逐个查询")
+    void shouldReturnEmptyGraphWhenLoadFails() {
+        // Given
+        when(reportRepository.findAll()).thenThrow(new IllegalStateException("db down"));
+
+        // When
+        ReportConfigGraph graph = repository.current();
+
+        // Then
+        assertThat(graph.getLoadedAt()).isNull();
+        assertThat(graph.findReport("report-1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("关闭配置图时不读取数据库")
+    void shouldSkipLoadingWhenDisabled() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        ReportConfigGraph graph = repository.current();
+
+        // Then
+        assertThat(graph.getReportCount()).isZero();
+        verifyNoInteractions(reportRepository, chartRepository, reportChartMapper);
+    }
+
+    private void stubConfig() {
+        stubConfig(Collections.singletonList(Report.builder().id("report-1").name("报表").enabled(true).build()));
+    }
+
+    private void stubConfig(List<Report> reports) {
+        when(reportRepository.findAll()).thenReturn(reports);
+        ReportChartDO link = new ReportChartDO();
+        link.setReportId("report-1");
+        link.setChartId("chart-1");
+        when(reportChartMapper.selectList(any())).thenReturn(Collections.singletonList(link));
+        when(chartRepository.findAll()).thenReturn(List.of(
+                Chart.builder().id("chart-1").name("图表").enabled(true).config("{\"color\":\"blue\"}").build(),
+                Chart.builder().id("chart-2").name("停用图表").enabled(false).build()));
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
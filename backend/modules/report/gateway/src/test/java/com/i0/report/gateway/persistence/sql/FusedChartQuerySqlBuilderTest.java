@@ -0,0 +1,165 @@
+package com.i0.report.gateway.persistence.sql;
+
+import com.i0.report.domain.valueobjects.ColumnarResultSet;
+import com.i0.report.domain.valueobjects.ColumnarResultSet.ColumnType;
+import com.i0.report.domain.valueobjects.FusedChartQuery;
+import com.i0.report.domain.valueobjects.FusedChartQuery.Branch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * FusedChartQuerySqlBuilder单元测试
+ * 覆盖单维度/多维度、同维度共享分支、带过滤条件的基础SQL在各方言下的SQL形态，以及结果按图表拆分
+ */
+@DisplayName("FusedChartQuerySqlBuilder测试")
+class FusedChartQuerySqlBuilderTest {
+
+    private static final String BASE_SQL = "SELECT * FROM employees";
+    private static final String FILTERED_SQL = "SELECT * FROM (SELECT * FROM employees) filtered_data"
+            + " WHERE status = 'ACTIVE' AND salary >= 1000";
+
+    private final FusedChartQuerySqlBuilder builder = new FusedChartQuerySqlBuilder();
+
+    @Test
+    @DisplayName("单维度多图表：UNION ALL 只生成一个分支，各图表指标在同一分支计算")
+    void shouldShareBranchForChartsWithSameDimension() {
+        FusedChartQuery query = query(
+                new Branch("c1", "COUNT(*)", "department"),
+                new Branch("c2", "SUM(salary)", "department"));
+
+        String sql = builder.build(query, BASE_SQL, SqlDialect.MYSQL);
+
+        assertThat(sql).isEqualTo("WITH base_data AS (SELECT * FROM employees) "
+                + "SELECT 0 AS grouping_index, department AS dim_0, COUNT(*) AS val_0, SUM(salary) AS val_1"
+                + " FROM base_data GROUP BY department");
+    }
+
+    @Test
+    @DisplayName("多维度：每个去重维度一个分支，其他维度和不属于该维度的指标为NULL")
+    void shouldBuildOneUnionBranchPerDistinctDimension() {
+        FusedChartQuery query = query(
+                new Branch("c1", "COUNT(*)", "department"),
+                new Branch("c2", "AVG(salary)", "city"),
+                new Branch("c3", "MAX(salary)", "department"));
+
+        String sql = builder.build(query, BASE_SQL, SqlDialect.H2);
+
+        assertThat(sql).isEqualTo("WITH base_data AS (SELECT * FROM employees) "
+                + "SELECT 0 AS grouping_index, department AS dim_0, NULL AS dim_1,"
+                + " COUNT(*) AS val_0, NULL AS val_1, MAX(salary) AS val_2 FROM base_data GROUP BY department"
+                + " UNION ALL "
+                + "SELECT 1 AS grouping_index, NULL AS dim_0, city AS dim_1,"
+                + " NULL AS val_0, AVG(salary) AS val_1, NULL AS val_2 FROM base_data GROUP BY city");
+    }
+
+    @Test
+    @DisplayName("带过滤条件：过滤后的基础SQL在公用表表达式中只出现一次")
+    void shouldEmbedFilteredBaseSqlOnceWithCte() {
+        FusedChartQuery query = query(
+                new Branch("c1", "COUNT(*)", "department"),
+                new Branch("c2", "COUNT(*)", "city"));
+
+        String sql = builder.build(query, FILTERED_SQL, SqlDialect.MYSQL);
+
+        assertThat(sql).startsWith("WITH base_data AS (" + FILTERED_SQL + ") ");
+        assertThat(countOccurrences(sql, "status = 'ACTIVE'")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("不支持公用表表达式时每个分支内联过滤后的基础SQL，并使用不同别名")
+    void shouldInlineFilteredBaseSqlWithoutCte() {
+        FusedChartQuery query = query(
+                new Branch("c1", "COUNT(*)", "department"),
+                new Branch("c2", "COUNT(*)", "city"));
+
+        String sql = builder.build(query, FILTERED_SQL, SqlDialect.GENERIC);
+
+        assertThat(sql).doesNotStartWith("WITH")
+                .contains("FROM (" + FILTERED_SQL + ") base_data_0 GROUP BY department")
+                .contains("FROM (" + FILTERED_SQL + ") base_data_1 GROUP BY city");
+        assertThat(countOccurrences(sql, "status = 'ACTIVE'")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("支持 GROUPING SETS 的方言使用一次分组集合扫描")
+    void shouldUseGroupingSetsWhenSupported() {
+        FusedChartQuery query = query(
+                new Branch("c1", "COUNT(*)", "department"),
+                new Branch("c2", "SUM(salary)", "city"));
+
+        String sql = builder.build(query, FILTERED_SQL, SqlDialect.POSTGRESQL);
+
+        assertThat(sql).isEqualTo("SELECT GROUPING(department) AS grp_0, department AS dim_0,"
+                + " GROUPING(city) AS grp_1, city AS dim_1, COUNT(*) AS val_0, SUM(salary) AS val_1"
+                + " FROM (" + FILTERED_SQL + ") base_data GROUP BY GROUPING SETS ((department), (city))");
+    }
+
+    @Test
+    @DisplayName("UNION ALL 结果按 grouping_index 拆分到各图表")
+    void shouldSplitUnionAllResultByGroupingIndex() {
+        FusedChartQuery query = query(
+                new Branch("c1", "COUNT(*)", "department"),
+                new Branch("c2", "AVG(salary)", "city"));
+        ColumnarResultSet resultSet = ColumnarResultSet.builder(
+                        Arrays.asList("grouping_index", "dim_0", "dim_1", "val_0", "val_1"),
+                        Arrays.asList(ColumnType.LONG, ColumnType.STRING, ColumnType.STRING, ColumnType.LONG, ColumnType.DOUBLE))
+                .appendLong(0, 0).appendString(1, "研发部").appendNull(2).appendLong(3, 3).appendNull(4)
+                .appendLong(0, 0).appendString(1, "销售部").appendNull(2).appendLong(3, 2).appendNull(4)
+                .appendLong(0, 1).appendNull(1).appendString(2, "上海").appendNull(3).appendDouble(4, 1500.5)
+                .build();
+
+        Map<String, ColumnarResultSet> results = builder.split(query, resultSet, SqlDialect.MYSQL);
+
+        assertThat(results).containsOnlyKeys("c1", "c2");
+        assertThat(results.get("c1").asRowMaps())
+                .extracting(row -> row.get("dimension_field"), row -> row.get("calculated_value"))
+                .containsExactly(tuple("研发部", 3L), tuple("销售部", 2L));
+        assertThat(results.get("c2").asRowMaps())
+                .extracting(row -> row.get("dimension_field"), row -> row.get("calculated_value"))
+                .containsExactly(tuple("上海", 1500.5));
+    }
+
+    @Test
+    @DisplayName("GROUPING SETS 结果按 GROUPING() 标记拆分，同维度图表各自取值")
+    void shouldSplitGroupingSetsResultByGroupingFlags() {
+        FusedChartQuery query = query(
+                new Branch("c1", "COUNT(*)", "department"),
+                new Branch("c2", "SUM(salary)", "department"),
+                new Branch("c3", "COUNT(*)", "city"));
+        ColumnarResultSet resultSet = ColumnarResultSet.builder(
+                        Arrays.asList("grp_0", "dim_0", "grp_1", "dim_1", "val_0", "val_1", "val_2"),
+                        Arrays.asList(ColumnType.LONG, ColumnType.STRING, ColumnType.LONG, ColumnType.STRING,
+                                ColumnType.LONG, ColumnType.LONG, ColumnType.LONG))
+                .appendLong(0, 0).appendString(1, "研发部").appendLong(2, 1).appendNull(3)
+                .appendLong(4, 3).appendLong(5, 9000).appendLong(6, 3)
+                .appendLong(0, 1).appendNull(1).appendLong(2, 0).appendString(3, "北京")
+                .appendLong(4, 5).appendLong(5, 0).appendLong(6, 5)
+                .build();
+
+        Map<String, ColumnarResultSet> results = builder.split(query, resultSet, SqlDialect.SQLSERVER);
+
+        assertThat(results.get("c1").asRowMaps()).extracting(row -> row.get("calculated_value")).containsExactly(3L);
+        assertThat(results.get("c2").asRowMaps()).extracting(row -> row.get("calculated_value")).containsExactly(9000L);
+        assertThat(results.get("c3").asRowMaps())
+                .extracting(row -> row.get("dimension_field"), row -> row.get("calculated_value"))
+                .containsExactly(tuple("北京", 5L));
+    }
+
+    private static FusedChartQuery query(Branch... branches) {
+        return new FusedChartQuery("dataset-1", BASE_SQL, Collections.emptyList(), Arrays.asList(branches));
+    }
+
+    private static int countOccurrences(String text, String part) {
+        int count = 0;
+        for (int index = text.indexOf(part); index >= 0; index = text.indexOf(part, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
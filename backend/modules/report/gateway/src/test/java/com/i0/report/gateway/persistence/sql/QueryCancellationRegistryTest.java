@@ -0,0 +1,123 @@
+package com.i0.report.gateway.persistence.sql;
+
+import com.i0.report.domain.exceptions.ReportQueryLimitExceededException;
+import com.i0.report.gateway.config.ReportQueryGuardrailProperties;
+import com.i0.report.gateway.persistence.sql.QueryCancellationRegistry.QueryScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * QueryCancellationRegistry单元测试
+ * 使用H2内存库执行长时间运行的查询，验证图表线程上执行的语句登记到调用方的取消范围，关闭或取消范围时语句被取消
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QueryCancellationRegistry测试")
+class QueryCancellationRegistryTest {
+
+    /**
+     * 逐行累加一百亿行，不取消时远超测试等待时间
+     */
+    private static final String LONG_RUNNING_SQL = "SELECT SUM(X) FROM SYSTEM_RANGE(1, 10000000000)";
+
+    @Mock
+    private ReportDataSourceRouter dataSourceRouter;
+
+    private final QueryCancellationRegistry registry = new QueryCancellationRegistry();
+    private ExecutorService chartThreads;
+    private GuardedQueryExecutor queryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        queryExecutor = new GuardedQueryExecutor(dataSourceRouter, new ReportQueryGuardrailProperties(), registry);
+        chartThreads = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.unbind();
+        chartThreads.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("关闭取消范围时取消图表线程上正在执行的语句")
+    void shouldCancelRunningStatementOnWorkerThread_WhenScopeClosed() throws Exception {
+        // Given
+        QueryScope scope = registry.openScope();
+        Future<Long> running = startLongQuery(scope);
+
+        // When
+        scope.close();
+
+        // Then
+        assertCancelled(running);
+    }
+
+    @Test
+    @DisplayName("请求的取消范围被取消时，其下图表任务正在执行的语句一同取消")
+    void shouldCancelChildScope_WhenRequestScopeCancelled() throws Exception {
+        // Given
+        QueryScope requestScope = registry.newScope();
+        registry.bind(requestScope);
+        QueryScope chartScope = registry.openScope();
+        Future<Long> running = startLongQuery(chartScope);
+
+        // When
+        requestScope.cancel();
+
+        // Then
+        assertCancelled(running);
+        assertThat(chartScope.isCancelled()).isTrue();
+    }
+
+    @Test
+    @DisplayName("任务结束后工作线程不再绑定取消范围")
+    void shouldRestoreWorkerThreadScopeAfterTask() throws Exception {
+        // Given
+        QueryScope scope = registry.openScope();
+
+        // When
+        QueryScope duringTask = chartThreads.submit(scope.wrap(registry::current)).get(5, TimeUnit.SECONDS);
+        QueryScope afterTask = chartThreads.submit(registry::current).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(duringTask).isSameAs(scope);
+        assertThat(afterTask).isNull();
+    }
+
+    /**
+     * 在图表线程上执行长时间运行的查询，等待语句开始执行
+     */
+    private Future<Long> startLongQuery(QueryScope scope) throws InterruptedException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:query_cancellation;DB_CLOSE_DELAY=-1");
+        when(dataSourceRouter.jdbcTemplateFor(null)).thenReturn(new JdbcTemplate(dataSource));
+        Future<Long> running = chartThreads.submit(scope.wrap(
+                () -> queryExecutor.query(null, LONG_RUNNING_SQL, rs -> rs.next() ? rs.getLong(1) : null)));
+        Thread.sleep(300);
+        assertThat(running.isDone()).isFalse();
+        return running;
+    }
+
+    private static void assertCancelled(Future<Long> running) {
+        assertThatThrownBy(() -> running.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(ReportQueryLimitExceededException.class)
+                .hasMessage("查询已取消");
+    }
+}
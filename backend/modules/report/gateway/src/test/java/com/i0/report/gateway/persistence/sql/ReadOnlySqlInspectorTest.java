@@ -0,0 +1,83 @@
+package com.i0.report.gateway.persistence.sql;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ReadOnlySqlInspector单元测试
+ */
+@DisplayName("ReadOnlySqlInspector测试")
+class ReadOnlySqlInspectorTest {
+
+    private final ReadOnlySqlInspector inspector = new ReadOnlySqlInspector();
+
+    @Test
+    @DisplayName("单条 SELECT / WITH 查询通过检查")
+    void shouldAcceptSingleReadOnlyQuery() {
+        assertThat(inspector.findViolation("SELECT id, name FROM employees WHERE status = 'active'")).isEmpty();
+        assertThat(inspector.findViolation("WITH t AS (SELECT 1 AS n) SELECT n FROM t")).isEmpty();
+        assertThat(inspector.findViolation("(SELECT 1) UNION ALL (SELECT 2)")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("修改类语句、多条语句和非查询语句被拒绝")
+    void shouldRejectMutatingOrMultipleStatements() {
+        assertThat(inspector.findViolation("DELETE FROM employees")).contains("只允许 SELECT 或 WITH 查询");
+        assertThat(inspector.findViolation("SELECT 1; DROP TABLE employees")).contains("不允许包含多条语句或语句分隔符");
+        assertThat(inspector.findViolation("SELECT * INTO backup FROM employees"))
+                .contains("包含不允许的关键字: INTO");
+        assertThat(inspector.findViolation("SELECT SLEEP(10)")).contains("包含不允许的关键字: SLEEP");
+        assertThat(inspector.findViolation(null)).contains("SQL为空");
+    }
+
+    @Test
+    @DisplayName("REPLACE、INSERT 作为字符串函数时允许，作为语句关键字时拒绝")
+    void shouldDistinguishReplaceFunctionFromStatement() {
+        assertThat(inspector.findViolation("SELECT REPLACE(name, '-', '') AS name FROM employees")).isEmpty();
+        assertThat(inspector.findViolation("SELECT replace (name, 'a', 'b') FROM employees")).isEmpty();
+        assertThat(inspector.findViolation("SELECT INSERT(name, 1, 2, 'x') FROM employees")).isEmpty();
+        assertThat(inspector.findViolation("WITH t AS (SELECT 1) REPLACE INTO employees SELECT * FROM t"))
+                .contains("包含不允许的关键字: REPLACE");
+    }
+
+    @Test
+    @DisplayName("关键字出现在字符串、引号标识符或注释中时不视为违规")
+    void shouldIgnoreKeywordsInLiteralsAndComments() {
+        assertThat(inspector.findViolation("SELECT 'DROP TABLE x; --' AS note, `update` FROM t -- delete\n")).isEmpty();
+        assertThat(inspector.findViolation("SELECT /* INSERT */ 'it''s' FROM t")).isEmpty();
+        assertThat(inspector.findViolation("SELECT 1 /*! ; DROP TABLE t */")).isPresent();
+        assertThat(inspector.findViolation("SELECT 'unterminated FROM t")).isPresent();
+    }
+
+    @Test
+    @DisplayName("MySQL 按反斜杠转义确定字符串边界")
+    void shouldHonourBackslashEscapesForMySql() {
+        String escapedQuote = "SELECT * FROM t WHERE name = 'O\\'Reilly'";
+
+        assertThat(inspector.findViolation(escapedQuote, SqlDialect.MYSQL)).isEmpty();
+        assertThat(inspector.findViolation("SELECT 'a\\\\' AS path, 'b' FROM t", SqlDialect.MYSQL)).isEmpty();
+        assertThat(inspector.findViolation(escapedQuote, SqlDialect.H2)).isPresent();
+    }
+
+    @Test
+    @DisplayName("反斜杠不转义的数据库按普通字符处理")
+    void shouldTreatBackslashAsLiteralWithoutEscapes() {
+        String trailingBackslash = "SELECT * FROM t WHERE path = 'C:\\dir\\'";
+
+        assertThat(inspector.findViolation(trailingBackslash, SqlDialect.H2)).isEmpty();
+        assertThat(inspector.findViolation(trailingBackslash, SqlDialect.SQLSERVER)).isEmpty();
+        assertThat(inspector.findViolation(trailingBackslash, SqlDialect.MYSQL)).isPresent();
+    }
+
+    @Test
+    @DisplayName("数据库未知时两种字符串边界都必须通过检查，不能借反斜杠隐藏语句分隔符")
+    void shouldRequireBothInterpretationsWhenDialectUnknown() {
+        String smuggled = "SELECT '\\' ; DROP TABLE t; -- '";
+
+        assertThat(inspector.findViolation(smuggled, SqlDialect.MYSQL)).isEmpty();
+        assertThat(inspector.findViolation(smuggled, SqlDialect.POSTGRESQL)).isPresent();
+        assertThat(inspector.findViolation(smuggled)).isPresent();
+    }
+}
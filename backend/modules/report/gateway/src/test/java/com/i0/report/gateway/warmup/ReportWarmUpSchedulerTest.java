@@ -0,0 +1,194 @@
+package com.i0.report.gateway.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.i0.report.application.dto.input.ReportDataGenerationInput;
+import com.i0.report.application.usecases.GenerateReportDataUseCase;
+import com.i0.report.domain.entities.Report;
+import com.i0.report.domain.repositories.ReportRepository;
+import com.i0.report.gateway.config.ReportResultStoreProperties;
+import com.i0.report.gateway.config.ReportWarmUpProperties;
+import com.i0.report.gateway.persistence.cache.ReportResultStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReportWarmUpScheduler单元测试
+ * 覆盖目标选取、定时检查只刷新即将过期的结果以及部分结果的状态
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReportWarmUpScheduler测试")
+class ReportWarmUpSchedulerTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private GenerateReportDataUseCase generateReportDataUseCase;
+
+    private ReportWarmUpProperties properties;
+    private ReportResultStore resultStore;
+    private ReportWarmUpScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReportWarmUpProperties();
+        properties.setReportIds(Collections.singletonList("configured-1"));
+        properties.setPopularCount(2);
+        resultStore = new ReportResultStore(new ReportResultStoreProperties(), new ObjectMapper());
+        scheduler = new ReportWarmUpScheduler(properties, reportRepository, generateReportDataUseCase, resultStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.destroy();
+    }
+
+    @Test
+    @DisplayName("固定列表优先，热门报表中已停用和重复的报表不预热")
+    void shouldSelectConfiguredThenEnabledPopularReports() {
+        // Given
+        when(reportRepository.getPopularReports(2)).thenReturn(Arrays.asList(
+                report("configured-1", true), report("popular-1", true), report("disabled-1", false)));
+        storeOnExecute(600);
+
+        // When
+        scheduler.warmUp("startup");
+
+        // Then
+        assertThat(warmedReportIds()).containsExactly("configured-1", "popular-1");
+        assertThat(reportStatus("configured-1")).containsEntry("source", "configured").containsEntry("status", "WARM");
+        assertThat(reportStatus("popular-1")).containsEntry("source", "popular").containsEntry("warm", true);
+    }
+
+    @Test
+    @DisplayName("定时检查跳过仍然有效的结果，只重新计算缺失或即将过期的结果")
+    void shouldRefreshOnlyDueResultsOnSchedule() {
+        // Given
+        properties.setPopularCount(0);
+        properties.setReportIds(Arrays.asList("fresh-1", "expiring-1", "missing-1"));
+        properties.setRefreshAheadSeconds(120);
+        resultStore.put("fresh-1", null, "data", 600);
+        resultStore.put("expiring-1", null, "data", 60);
+        storeOnExecute(600);
+
+        // When
+        scheduler.warmUp("schedule");
+
+        // Then
+        assertThat(warmedReportIds()).containsExactlyInAnyOrder("expiring-1", "missing-1");
+    }
+
+    @Test
+    @DisplayName("手动触发时重新计算全部目标，包括仍然有效的结果")
+    void shouldRefreshAllTargetsOnManualTrigger() {
+        // Given
+        properties.setPopularCount(0);
+        properties.setReportIds(Arrays.asList("fresh-1", "missing-1"));
+        resultStore.put("fresh-1", null, "data", 600);
+        storeOnExecute(600);
+
+        // When
+        scheduler.warmUp("manual");
+
+        // Then
+        assertThat(warmedReportIds()).containsExactlyInAnyOrder("fresh-1", "missing-1");
+    }
+
+    @Test
+    @DisplayName("预热目标在重新选取间隔内复用，不重复查询热门报表")
+    void shouldReuseTargetsWithinRefreshInterval() {
+        // Given
+        when(reportRepository.getPopularReports(2)).thenReturn(Collections.emptyList());
+        storeOnExecute(600);
+
+        // When
+        scheduler.warmUp("startup");
+        scheduler.warmUp("schedule");
+
+        // Then
+        verify(reportRepository, times(1)).getPopularReports(2);
+        verify(generateReportDataUseCase, times(1)).execute(any());
+    }
+
+    @Test
+    @DisplayName("图表失败导致结果未存储时标记为部分结果，不计为已预热")
+    void shouldMarkPartial_WhenResultNotStored() {
+        // Given
+        properties.setPopularCount(0);
+
+        // When
+        scheduler.warmUp("startup");
+
+        // Then
+        verify(generateReportDataUseCase).execute(any());
+        assertThat(reportStatus("configured-1"))
+                .containsEntry("status", "PARTIAL")
+                .containsEntry("warm", false);
+        assertThat(lastRun()).containsEntry("warmed", 0L);
+    }
+
+    @Test
+    @DisplayName("预热抛出异常时标记为失败并记录错误")
+    void shouldMarkFailed_WhenGenerationThrows() {
+        // Given
+        properties.setPopularCount(0);
+        when(generateReportDataUseCase.execute(any())).thenThrow(new IllegalStateException("dataset offline"));
+
+        // When
+        scheduler.warmUp("startup");
+
+        // Then
+        assertThat(reportStatus("configured-1"))
+                .containsEntry("status", "FAILED")
+                .containsEntry("error", "dataset offline");
+    }
+
+    private void storeOnExecute(long ttlSeconds) {
+        when(generateReportDataUseCase.execute(any())).thenAnswer(invocation -> {
+            ReportDataGenerationInput input = invocation.getArgument(0);
+            resultStore.put(input.getReportId(), input.getAdditionalFilters(), "data", ttlSeconds);
+            return null;
+        });
+    }
+
+    private List<String> warmedReportIds() {
+        ArgumentCaptor<ReportDataGenerationInput> captor = ArgumentCaptor.forClass(ReportDataGenerationInput.class);
+        verify(generateReportDataUseCase, atLeast(0)).execute(captor.capture());
+        return captor.getAllValues().stream()
+                .map(ReportDataGenerationInput::getReportId)
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> reportStatus(String reportId) {
+        List<Map<String, Object>> reports = (List<Map<String, Object>>) scheduler.status().get("reports");
+        return reports.stream().filter(report -> reportId.equals(report.get("reportId")))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> lastRun() {
+        return (Map<String, Object>) scheduler.status().get("lastRun");
+    }
+
+    private static Report report(String id, boolean enabled) {
+        return Report.builder().id(id).name(id).enabled(enabled).build();
+    }
+}